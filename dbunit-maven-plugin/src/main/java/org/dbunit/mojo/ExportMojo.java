@@ -49,7 +49,8 @@ public class ExportMojo
     protected File dest;
     
     /**
-     * DataSet file format
+     * DataSet file format. Valid formats are: flat, xml, dtd, csv, xls and
+     * binary
      * @parameter expression="${format}" default-value="xml"
      */
     protected String format;
@@ -240,6 +240,115 @@ public class Assertion
                 columnValueComparers);
     }
 
+    /**
+     * @see DbUnitAssert#assertEqualsByKey(ITable, ITable, String[])
+     * @since 2.7.1
+     */
+    public static void assertEqualsByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames)
+            throws DatabaseUnitException
+    {
+        EQUALS_INSTANCE.assertEqualsByKey(expectedTable, actualTable,
+                keyColumnNames);
+    }
+
+    /**
+     * @see DbUnitValueComparerAssert#assertWithValueComparerByKey(ITable,
+     *      ITable, String[], ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public static void assertWithValueComparerByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        VALUE_COMPARE_INSTANCE.assertWithValueComparerByKey(expectedTable,
+                actualTable, keyColumnNames, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * @see DbUnitAssert#assertEqualsByMerge(ITable, ITable, String[])
+     * @since 2.7.1
+     */
+    public static void assertEqualsByMerge(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames)
+            throws DatabaseUnitException
+    {
+        EQUALS_INSTANCE.assertEqualsByMerge(expectedTable, actualTable,
+                keyColumnNames);
+    }
+
+    /**
+     * @see DbUnitAssert#assertEqualsByMerge(IDataSet, IDataSet)
+     * @since 2.7.1
+     */
+    public static void assertEqualsByMerge(final IDataSet expectedDataSet,
+            final IDataSet actualDataSet) throws DatabaseUnitException
+    {
+        EQUALS_INSTANCE.assertEqualsByMerge(expectedDataSet, actualDataSet);
+    }
+
+    /**
+     * @see DbUnitValueComparerAssert#assertWithValueComparerByMerge(ITable,
+     *      ITable, String[], ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public static void assertWithValueComparerByMerge(
+            final ITable expectedTable, final ITable actualTable,
+            final String[] keyColumnNames,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        VALUE_COMPARE_INSTANCE.assertWithValueComparerByMerge(expectedTable,
+                actualTable, keyColumnNames, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * @see DbUnitAssert#assertEqualsInDatabase(ITable, IDatabaseConnection)
+     * @since 2.7.1
+     */
+    public static void assertEqualsInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection) throws DatabaseUnitException
+    {
+        EQUALS_INSTANCE.assertEqualsInDatabase(expectedTable, connection);
+    }
+
+    /**
+     * @see DbUnitValueComparerAssert#assertWithValueComparerInDatabase(ITable,
+     *      IDatabaseConnection, ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public static void assertWithValueComparerInDatabase(
+            final ITable expectedTable, final IDatabaseConnection connection,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        VALUE_COMPARE_INSTANCE.assertWithValueComparerInDatabase(expectedTable,
+                connection, defaultValueComparer, columnValueComparers);
+    }
+
+    /**
+     * @see DbUnitValueComparerAssert#assertWithValueComparerInDatabase(ITable,
+     *      IDatabaseConnection, Column[], ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public static void assertWithValueComparerInDatabase(
+            final ITable expectedTable, final IDatabaseConnection connection,
+            final Column[] additionalColumnInfo,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        VALUE_COMPARE_INSTANCE.assertWithValueComparerInDatabase(expectedTable,
+                connection, additionalColumnInfo, defaultValueComparer,
+                columnValueComparers);
+    }
+
     public static DbUnitAssert getEqualsInstance()
     {
         return EQUALS_INSTANCE;
@@ -77,6 +77,7 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
     private IDataSet prepDataSet = new DefaultDataSet();
     private IDataSet expectedDataSet = new DefaultDataSet();
     private VerifyTableDefinition[] verifyTableDefs = {};
+    private boolean verifyInDatabase = false;
 
     private ExpectedDataSetAndVerifyTableDefinitionVerifier expectedDataSetAndVerifyTableDefinitionVerifier =
             new DefaultExpectedDataSetAndVerifyTableDefinitionVerifier();
@@ -372,11 +373,20 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
                 verifyTableDefinition.getDefaultValueComparer();
 
         final ITable expectedTable = loadTableDataFromDataSet(tableName);
-        final ITable actualTable =
-                loadTableDataFromDatabase(tableName, connection);
+        if (verifyInDatabase)
+        {
+            verifyDataInDatabase(expectedTable, connection, excludeColumns,
+                    includeColumns, defaultValueComparer,
+                    columnValueComparers);
+        } else
+        {
+            final ITable actualTable = loadTableDataFromDatabase(tableName,
+                    connection, excludeColumns, includeColumns);
 
-        verifyData(expectedTable, actualTable, excludeColumns, includeColumns,
-                defaultValueComparer, columnValueComparers);
+            verifyData(expectedTable, actualTable, excludeColumns,
+                    includeColumns, defaultValueComparer,
+                    columnValueComparers);
+        }
     }
 
     public ITable loadTableDataFromDataSet(final String tableName)
@@ -422,6 +432,72 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
         return table;
     }
 
+    /**
+     * Load the table from the database, only selecting the columns remaining
+     * after the exclude and include filters. Excluded columns are not fetched
+     * from the database. Falls back to
+     * {@link #loadTableDataFromDatabase(String, IDatabaseConnection)} when
+     * there are no filters.
+     *
+     * @param tableName
+     *            The name of the table to load.
+     * @param connection
+     *            The connection to load the table from.
+     * @param excludeColumns
+     *            The exclude filters; use null or empty array to mean exclude
+     *            none.
+     * @param includeColumns
+     *            The include filters; use null to mean include all.
+     * @return The table with the filtered columns.
+     * @throws Exception
+     * @since 2.7.1
+     */
+    public ITable loadTableDataFromDatabase(final String tableName,
+            final IDatabaseConnection connection,
+            final String[] excludeColumns, final String[] includeColumns)
+            throws Exception
+    {
+        final boolean noExcludes =
+                excludeColumns == null || excludeColumns.length == 0;
+        if (noExcludes && includeColumns == null)
+        {
+            return loadTableDataFromDatabase(tableName, connection);
+        }
+
+        ITable table = null;
+
+        final String methodName = "loadTableDataFromDatabase";
+
+        log.debug("{}: Loading table {} from database with column filters",
+                methodName, tableName);
+        final DefaultColumnFilter columnFilter = new DefaultColumnFilter();
+        if (includeColumns != null)
+        {
+            for (int i = 0; i < includeColumns.length; i++)
+            {
+                columnFilter.includeColumn(includeColumns[i]);
+            }
+        }
+        if (!noExcludes)
+        {
+            for (int i = 0; i < excludeColumns.length; i++)
+            {
+                columnFilter.excludeColumn(excludeColumns[i]);
+            }
+        }
+        try
+        {
+            table = connection.createTable(tableName, columnFilter);
+        } catch (final Exception e)
+        {
+            final String msg = methodName + ": Problem obtaining table '"
+                    + tableName + "' from database";
+            log.error(msg, e);
+            throw new DataSetException(msg, e);
+        }
+        return table;
+    }
+
     /**
      * For the specified expected and actual tables (and excluding and including
      * the specified columns), verify the actual data is as expected.
@@ -508,6 +584,60 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
                 columnValueComparers);
     }
 
+    /**
+     * For the specified expected table (and excluding and including the
+     * specified columns), verify the data of the database table of the same
+     * name is as expected, computing the differences on the database server.
+     * Neither table needs to be sorted and only the differing rows are
+     * fetched from the database.
+     *
+     * @param expectedTable
+     *            The expected table to compare the database table to.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @param excludeColumns
+     *            The column names to exclude from comparison.
+     * @param includeColumns
+     *            The column names to only include in comparison.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #setVerifyInDatabase(boolean)
+     * @since 2.7.1
+     */
+    protected void verifyDataInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final String[] excludeColumns, final String[] includeColumns,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final String methodName = "verifyDataInDatabase";
+
+        log.debug(
+                "{}: Applying column exclude and include filters to expected table",
+                methodName);
+        final ITable expectedFilteredTable = applyColumnFilters(expectedTable,
+                excludeColumns, includeColumns);
+
+        final Column[] additionalColumnInfo =
+                makeAdditionalColumnInfo(expectedTable, excludeColumns);
+        log.debug("{}: additionalColumnInfo={}", methodName,
+                additionalColumnInfo);
+
+        log.debug("{}: Comparing expected table to database table",
+                methodName);
+        compareDataInDatabase(expectedFilteredTable, connection,
+                additionalColumnInfo, defaultValueComparer,
+                columnValueComparers);
+    }
+
     /**
      * If expected column definitions exist and are {@link DataType.UNKNOWN},
      * make them from actual table column definitions.
@@ -604,6 +734,24 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
                 columnValueComparers);
     }
 
+    /**
+     * Compare the expected table to the database table on the database
+     * server, enables easy overriding.
+     *
+     * @since 2.7.1
+     */
+    protected void compareDataInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final Column[] additionalColumnInfo,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        Assertion.assertWithValueComparerInDatabase(expectedTable, connection,
+                additionalColumnInfo, defaultValueComparer,
+                columnValueComparers);
+    }
+
     /**
      * Don't add excluded columns to additionalColumnInfo as they are not found
      * and generate a not found message in the fail message.
@@ -862,6 +1010,36 @@ public class DefaultPrepAndExpectedTestCase extends DBTestCase
         this.verifyTableDefs = verifyTableDefs;
     }
 
+    /**
+     * @return <code>true</code> if the tables are verified on the database
+     *         server.
+     * @see #setVerifyInDatabase(boolean)
+     * @since 2.7.1
+     */
+    public boolean isVerifyInDatabase()
+    {
+        return verifyInDatabase;
+    }
+
+    /**
+     * Set whether the tables are verified on the database server. When
+     * enabled, the expected rows of each verified table are loaded into a
+     * scratch table and only the rows differing from the database table are
+     * fetched, instead of fetching and sorting the whole database table. The
+     * database must support the
+     * {@link org.dbunit.database.DatabaseConfig#PROPERTY_SET_DIFFERENCE_DIALECT}
+     * configured on the connection. Defaults to <code>false</code>.
+     *
+     * @param verifyInDatabase
+     *            <code>true</code> to verify the tables on the database
+     *            server.
+     * @since 2.7.1
+     */
+    public void setVerifyInDatabase(final boolean verifyInDatabase)
+    {
+        this.verifyInDatabase = verifyInDatabase;
+    }
+
     public ExpectedDataSetAndVerifyTableDefinitionVerifier getExpectedDataSetAndVerifyTableDefinitionVerifier()
     {
         return expectedDataSetAndVerifyTableDefinitionVerifier;
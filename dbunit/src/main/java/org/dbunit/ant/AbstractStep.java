@@ -38,6 +38,7 @@ import org.dbunit.dataset.CompositeDataSet;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.ForwardOnlyDataSet;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.binary.BinaryProducer;
 import org.dbunit.dataset.csv.CsvProducer;
 import org.dbunit.dataset.excel.XlsDataSet;
 import org.dbunit.dataset.stream.IDataSetProducer;
@@ -69,6 +70,10 @@ public abstract class AbstractStep extends ProjectComponent implements DbUnitTas
     public static final String FORMAT_DTD = "dtd";
     public static final String FORMAT_CSV = "csv";
     public static final String FORMAT_XLS = "xls";
+    /**
+     * @since 2.7.1
+     */
+    public static final String FORMAT_BINARY = "binary";
 
     private boolean ordered = false;
 
@@ -197,9 +202,13 @@ public abstract class AbstractStep extends ProjectComponent implements DbUnitTas
             {
                 return new CachedDataSet(new XlsDataSet(src));
             }
+            else if (format.equalsIgnoreCase(FORMAT_BINARY))
+            {
+                producer = new BinaryProducer(src);
+            }
             else
             {
-                throw new IllegalArgumentException("Type must be either 'flat'(default), 'xml', 'csv', 'xls' or 'dtd' but was: " + format);
+                throw new IllegalArgumentException("Type must be either 'flat'(default), 'xml', 'csv', 'xls', 'binary' or 'dtd' but was: " + format);
             }
 
             if (forwardonly)
@@ -232,6 +241,7 @@ public abstract class AbstractStep extends ProjectComponent implements DbUnitTas
                 || format.equalsIgnoreCase(FORMAT_XML)
                 || format.equalsIgnoreCase(FORMAT_CSV)
                 || format.equalsIgnoreCase(FORMAT_XLS)
+                || format.equalsIgnoreCase(FORMAT_BINARY)
         )
         {
             return true;
@@ -257,7 +267,7 @@ public abstract class AbstractStep extends ProjectComponent implements DbUnitTas
 
         if (!isDataFormat(format))
         {
-            throw new IllegalArgumentException("format must be either 'flat'(default), 'xml', 'csv' or 'xls' but was: " + format);
+            throw new IllegalArgumentException("format must be either 'flat'(default), 'xml', 'csv', 'xls' or 'binary' but was: " + format);
         }
     }
 
@@ -36,6 +36,7 @@ import org.dbunit.database.DatabaseSequenceFilter;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.FilteredDataSet;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.binary.BinaryDataSet;
 import org.dbunit.dataset.csv.CsvDataSetWriter;
 import org.dbunit.dataset.excel.XlsDataSet;
 import org.dbunit.dataset.filter.ITableFilter;
@@ -109,13 +110,14 @@ public class Export extends AbstractStep
                 || format.equalsIgnoreCase(FORMAT_XML)
                 || format.equalsIgnoreCase(FORMAT_DTD)
                 || format.equalsIgnoreCase(FORMAT_CSV)
-                || format.equalsIgnoreCase(FORMAT_XLS))
+                || format.equalsIgnoreCase(FORMAT_XLS)
+                || format.equalsIgnoreCase(FORMAT_BINARY))
         {
             _format = format;
         }
         else
         {
-            throw new IllegalArgumentException("Type must be one of: 'flat'(default), 'xml', 'dtd' or 'xls' but was: " + format);
+            throw new IllegalArgumentException("Type must be one of: 'flat'(default), 'xml', 'dtd', 'xls' or 'binary' but was: " + format);
         }
     }
 
@@ -206,6 +208,10 @@ public class Export extends AbstractStep
                     {
                         XlsDataSet.write(dataset, out);
                     }
+                    else if (_format.equalsIgnoreCase(FORMAT_BINARY))
+                    {
+                        BinaryDataSet.write(dataset, out);
+                    }
                     else
                     {
                         throw new IllegalArgumentException("The given format '"+_format+"' is not supported.");
@@ -0,0 +1,249 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.assertion;
+import java.util.Map;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.assertion.DbUnitAssert.ComparisonColumn;
+import org.dbunit.assertion.comparer.value.IsActualEqualToExpectedValueComparer;
+import org.dbunit.assertion.comparer.value.IsActualEqualToExpectedWithEmptyFailMessageValueComparer;
+import org.dbunit.assertion.comparer.value.ValueComparer;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.NoSuchColumnException;
+import org.dbunit.dataset.datatype.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Everything needed to compare the rows of two tables that does not depend
+ * on the row itself, resolved once per table: the column positions in both
+ * tables and the data type and value comparer of every compared column.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class ComparisonPlan
+{
+    private static final Logger logger =
+            LoggerFactory.getLogger(ComparisonPlan.class);
+
+    private final DbUnitAssertBase assertBase;
+    private final String tableName;
+    private final ComparisonColumn[] comparisonCols;
+    private final ValueComparer defaultValueComparer;
+    private final Map<String, ValueComparer> columnValueComparers;
+    private final boolean isCellComparisonInlined;
+    private final String[] columnNames;
+    private final DataType[] dataTypes;
+    private final ValueComparer[] valueComparers;
+    /**
+     * Columns compared with {@link IsActualEqualToExpectedValueComparer} or
+     * {@link IsActualEqualToExpectedWithEmptyFailMessageValueComparer}. Their
+     * comparison is done inline, the comparer is only asked for the fail
+     * message of a mismatch.
+     */
+    private final boolean[] isEqualityComparer;
+    final int[] expectedColumnIndexes;
+    final int[] actualColumnIndexes;
+    private final boolean isTraceEnabled;
+    private final boolean isDebugEnabled;
+
+    /**
+     * @param assertBase
+     *            Provides the comparison hooks.
+     * @param expectedTable
+     *            The table the expected column positions are resolved in.
+     * @param actualTable
+     *            The table the actual column positions are resolved in.
+     * @param comparisonCols
+     *            The columns to be compared.
+     * @param defaultValueComparer
+     *            Must not be <code>null</code> at this stage.
+     * @param columnValueComparers
+     *            Must not be <code>null</code> at this stage.
+     * @param isCellComparisonInlined
+     *            <code>false</code> to compare every cell through the per
+     *            cell <code>compareData</code> hook of the assert.
+     */
+    ComparisonPlan(final DbUnitAssertBase assertBase,
+            final ITable expectedTable, final ITable actualTable,
+            final ComparisonColumn[] comparisonCols,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers,
+            final boolean isCellComparisonInlined) throws DataSetException
+    {
+        this.assertBase = assertBase;
+        this.tableName = expectedTable.getTableMetaData().getTableName();
+        this.comparisonCols = comparisonCols;
+        this.defaultValueComparer = defaultValueComparer;
+        this.columnValueComparers = columnValueComparers;
+        this.isCellComparisonInlined = isCellComparisonInlined;
+        final int columnCount = comparisonCols.length;
+        this.columnNames = new String[columnCount];
+        this.dataTypes = new DataType[columnCount];
+        this.valueComparers = new ValueComparer[columnCount];
+        this.isEqualityComparer = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++)
+        {
+            columnNames[i] = comparisonCols[i].getColumnName();
+            dataTypes[i] = comparisonCols[i].getDataType();
+            valueComparers[i] = assertBase.determineValueComparer(
+                    columnNames[i], defaultValueComparer,
+                    columnValueComparers);
+            // subclasses may change the comparison, so only the exact classes
+            // qualify
+            final Class<?> comparerClass = valueComparers[i].getClass();
+            isEqualityComparer[i] =
+                    comparerClass == IsActualEqualToExpectedValueComparer.class
+                            || comparerClass == IsActualEqualToExpectedWithEmptyFailMessageValueComparer.class;
+        }
+        this.expectedColumnIndexes =
+                assertBase.getColumnIndexes(expectedTable, comparisonCols);
+        this.actualColumnIndexes =
+                assertBase.getColumnIndexes(actualTable, comparisonCols);
+        this.isTraceEnabled = logger.isTraceEnabled();
+        this.isDebugEnabled = logger.isDebugEnabled();
+    }
+
+    ComparisonColumn[] getComparisonColumns()
+    {
+        return comparisonCols;
+    }
+
+    /**
+     * Compares all columns of a row, inline or through the per cell hook of
+     * the assert.
+     */
+    void compareRow(final ITable expectedTable, final ITable actualTable,
+            final FailureHandler failureHandler, final int rowNum)
+            throws DatabaseUnitException
+    {
+        final int columnCount = columnNames.length;
+        if (!isCellComparisonInlined)
+        {
+            for (int columnNum = 0; columnNum < columnCount; columnNum++)
+            {
+                assertBase.compareData(expectedTable, actualTable,
+                        comparisonCols, failureHandler, defaultValueComparer,
+                        columnValueComparers, rowNum, columnNum);
+            }
+            return;
+        }
+
+        for (int columnNum = 0; columnNum < columnCount; columnNum++)
+        {
+            final String columnName = columnNames[columnNum];
+            final DataType dataType = dataTypes[columnNum];
+
+            final Object expectedValue = expectedTable.getValue(rowNum,
+                    expectedColumnIndexes[columnNum]);
+            final Object actualValue = actualTable.getValue(rowNum,
+                    actualColumnIndexes[columnNum]);
+
+            if (assertBase.skipCompare(columnName, expectedValue, actualValue))
+            {
+                if (isTraceEnabled)
+                {
+                    logger.trace("skipCompare: ignoring comparison"
+                            + " {}={} on column={}", expectedValue,
+                            actualValue, columnName);
+                }
+                continue;
+            }
+
+            // equal values need neither the comparer nor a fail message
+            if (isEqualityComparer[columnNum]
+                    && dataType.compare(actualValue, expectedValue) == 0)
+            {
+                continue;
+            }
+
+            final ValueComparer valueComparer = valueComparers[columnNum];
+            if (isDebugEnabled)
+            {
+                logger.debug("compareData: comparing actualValue={}"
+                        + " to expectedValue={} with valueComparer={}",
+                        actualValue, expectedValue, valueComparer);
+            }
+            final String failMessage =
+                    valueComparer.compare(expectedTable, actualTable, rowNum,
+                            columnName, dataType, expectedValue, actualValue);
+
+            assertBase.failIfNecessary(expectedTable, actualTable,
+                    failureHandler, rowNum, columnName, expectedValue,
+                    actualValue, failMessage);
+        }
+    }
+
+    /**
+     * @return The positions of the key columns within the comparison columns.
+     * @throws NoSuchColumnException
+     *             if a key column is not compared.
+     */
+    int[] getKeyColumns(final String[] keyColumnNames)
+            throws NoSuchColumnException
+    {
+        final int[] keyColumns = new int[keyColumnNames.length];
+        for (int i = 0; i < keyColumnNames.length; i++)
+        {
+            keyColumns[i] = -1;
+            for (int j = 0; j < columnNames.length; j++)
+            {
+                if (columnNames[j].equalsIgnoreCase(keyColumnNames[i]))
+                {
+                    keyColumns[i] = j;
+                    break;
+                }
+            }
+            if (keyColumns[i] < 0)
+            {
+                throw new NoSuchColumnException(tableName, keyColumnNames[i],
+                        "key column is not compared");
+            }
+        }
+        return keyColumns;
+    }
+
+    /**
+     * @return The key column values of a row, e.g. <code>(ID=1)</code>.
+     */
+    String formatKey(final ITable table, final int row, final int[] keyColumns,
+            final int[] columnIndexes) throws DataSetException
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("(");
+        for (int i = 0; i < keyColumns.length; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(", ");
+            }
+            sb.append(columnNames[keyColumns[i]]);
+            sb.append("=");
+            sb.append(table.getValue(row, columnIndexes[keyColumns[i]]));
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+}
@@ -302,6 +302,219 @@ public class DbUnitAssert extends DbUnitAssertBase
                 null);
     }
 
+    /**
+     * Asserts that the two specified tables are equals, matching their rows
+     * by primary key instead of by position. Neither table has to be sorted.
+     * This method ignores the table names, the columns order and the columns
+     * data type.
+     *
+     * @param expectedTable
+     *            Table containing all expected results.
+     * @param actualTable
+     *            Table containing all actual results.
+     * @throws DatabaseUnitException
+     *             if the tables have no primary keys.
+     * @see #assertEqualsByKey(ITable, ITable, String[], FailureHandler)
+     * @since 2.7.1
+     */
+    public void assertEqualsByKey(final ITable expectedTable,
+            final ITable actualTable) throws DatabaseUnitException
+    {
+        assertEqualsByKey(expectedTable, actualTable, null, null);
+    }
+
+    /**
+     * Asserts that the two specified tables are equals, matching their rows
+     * by the given key columns instead of by position. Neither table has to
+     * be sorted.
+     *
+     * @param expectedTable
+     *            Table containing all expected results.
+     * @param actualTable
+     *            Table containing all actual results.
+     * @param keyColumnNames
+     *            The columns identifying a row. Can be <code>null</code> to use
+     *            the primary keys.
+     * @throws DatabaseUnitException
+     * @see #assertEqualsByKey(ITable, ITable, String[], FailureHandler)
+     * @since 2.7.1
+     */
+    public void assertEqualsByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames)
+            throws DatabaseUnitException
+    {
+        assertEqualsByKey(expectedTable, actualTable, keyColumnNames, null);
+    }
+
+    /**
+     * Asserts that the two specified tables are equals, matching their rows
+     * by the given key columns instead of by position. The actual table is
+     * indexed by key in a single pass, so the assertion runs in linear time.
+     * Missing, unexpected and changed rows are reported to the failure
+     * handler as differences of the corresponding {@link Difference.Kind}.
+     *
+     * @param expectedTable
+     *            Table containing all expected results.
+     * @param actualTable
+     *            Table containing all actual results.
+     * @param keyColumnNames
+     *            The columns identifying a row. Can be <code>null</code> to use
+     *            the primary keys.
+     * @param failureHandler
+     *            The failure handler used if the assert fails. Can be
+     *            <code>null</code>.
+     * @throws DatabaseUnitException
+     * @since 2.7.1
+     */
+    public void assertEqualsByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final FailureHandler failureHandler) throws DatabaseUnitException
+    {
+        assertWithValueComparerByKey(expectedTable, actualTable,
+                keyColumnNames, failureHandler,
+                ValueComparers.isActualEqualToExpectedWithEmptyFailMessage,
+                null);
+    }
+
+    /**
+     * Asserts that the two specified tables are equals in a single forward
+     * pass over both tables, which must already be ordered by the given key
+     * columns.
+     *
+     * @param expectedTable
+     *            Table containing all expected results, ordered by the key
+     *            columns.
+     * @param actualTable
+     *            Table containing all actual results, ordered by the key
+     *            columns.
+     * @param keyColumnNames
+     *            The columns both tables are ordered by. Can be
+     *            <code>null</code> to use the primary keys.
+     * @throws DatabaseUnitException
+     * @see #assertEqualsByMerge(ITable, ITable, String[], FailureHandler)
+     * @since 2.7.1
+     */
+    public void assertEqualsByMerge(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames)
+            throws DatabaseUnitException
+    {
+        assertEqualsByMerge(expectedTable, actualTable, keyColumnNames, null);
+    }
+
+    /**
+     * Asserts that the two specified tables are equals in a single forward
+     * pass over both tables, which must already be ordered by the given key
+     * columns. Only the current row of each table is held in memory, so the
+     * tables may be forward-only result set tables or streamed tables.
+     * Missing, unexpected and changed rows are reported to the failure
+     * handler as they are found.
+     *
+     * @param expectedTable
+     *            Table containing all expected results, ordered by the key
+     *            columns.
+     * @param actualTable
+     *            Table containing all actual results, ordered by the key
+     *            columns.
+     * @param keyColumnNames
+     *            The columns both tables are ordered by. Can be
+     *            <code>null</code> to use the primary keys.
+     * @param failureHandler
+     *            The failure handler used if the assert fails. Can be
+     *            <code>null</code>.
+     * @throws DatabaseUnitException
+     *             if a table is not ordered by the key columns.
+     * @see #assertWithValueComparerByMerge(ITable, ITable, String[],
+     *      FailureHandler, org.dbunit.assertion.comparer.value.ValueComparer,
+     *      java.util.Map)
+     * @since 2.7.1
+     */
+    public void assertEqualsByMerge(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final FailureHandler failureHandler) throws DatabaseUnitException
+    {
+        assertWithValueComparerByMerge(expectedTable, actualTable,
+                keyColumnNames, failureHandler,
+                ValueComparers.isActualEqualToExpectedWithEmptyFailMessage,
+                null);
+    }
+
+    /**
+     * Asserts that the tables of the expected dataset equal the tables of the
+     * same name in the actual dataset, merging the rows of each table pair by
+     * primary key in a single forward pass. The expected dataset is iterated
+     * once, so it can be a streamed dataset.
+     *
+     * @param expectedDataSet
+     *            Dataset containing all expected results, each table ordered
+     *            by its primary keys.
+     * @param actualDataSet
+     *            Dataset providing the actual tables by name, each ordered by
+     *            its primary keys.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerByMerge(IDataSet, IDataSet,
+     *      FailureHandler, org.dbunit.assertion.comparer.value.ValueComparer,
+     *      java.util.Map)
+     * @since 2.7.1
+     */
+    public void assertEqualsByMerge(final IDataSet expectedDataSet,
+            final IDataSet actualDataSet) throws DatabaseUnitException
+    {
+        assertWithValueComparerByMerge(expectedDataSet, actualDataSet, null,
+                ValueComparers.isActualEqualToExpectedWithEmptyFailMessage,
+                null);
+    }
+
+    /**
+     * Asserts that the specified table equals the database table of the same
+     * name, computing the differing rows on the database server instead of
+     * fetching the whole actual table. Only the columns of the expected table
+     * are compared.
+     *
+     * @param expectedTable
+     *            Table containing all expected results.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @throws DatabaseUnitException
+     * @see #assertEqualsInDatabase(ITable, IDatabaseConnection, FailureHandler)
+     * @since 2.7.1
+     */
+    public void assertEqualsInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection) throws DatabaseUnitException
+    {
+        assertEqualsInDatabase(expectedTable, connection, null);
+    }
+
+    /**
+     * Asserts that the specified table equals the database table of the same
+     * name. The expected rows are loaded into a scratch table and only the
+     * rows that differ between both tables are fetched, so verifying a large
+     * table does not transfer its unchanged rows. Missing, unexpected and
+     * changed rows are reported to the failure handler as differences of the
+     * corresponding {@link Difference.Kind}.
+     *
+     * @param expectedTable
+     *            Table containing all expected results.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @param failureHandler
+     *            The failure handler used if the assert fails. Can be
+     *            <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerInDatabase(ITable, IDatabaseConnection,
+     *      FailureHandler, org.dbunit.assertion.comparer.value.ValueComparer,
+     *      java.util.Map)
+     * @since 2.7.1
+     */
+    public void assertEqualsInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final FailureHandler failureHandler) throws DatabaseUnitException
+    {
+        assertWithValueComparerInDatabase(expectedTable, connection,
+                failureHandler,
+                ValueComparers.isActualEqualToExpectedWithEmptyFailMessage,
+                null);
+    }
+
     /**
      * Represents a single column to be used for the comparison of table data.
      * It contains the {@link DataType} to be used for comparing the given
@@ -1,18 +1,26 @@
 package org.dbunit.assertion;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Map;
 
 import org.dbunit.DatabaseUnitException;
+import org.dbunit.IDatabaseTester;
 import org.dbunit.assertion.DbUnitAssert.ComparisonColumn;
 import org.dbunit.assertion.comparer.value.DefaultValueComparerDefaults;
 import org.dbunit.assertion.comparer.value.ValueComparer;
 import org.dbunit.assertion.comparer.value.ValueComparerDefaults;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.database.IResultSetTable;
+import org.dbunit.database.SetDifferenceDialect;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.Columns;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.datatype.DataType;
 import org.slf4j.Logger;
@@ -33,6 +41,10 @@ public class DbUnitAssertBase
     protected ValueComparerDefaults valueComparerDefaults =
             new DefaultValueComparerDefaults();
 
+    private int tableComparisonThreadCount = 1;
+
+    private IDatabaseTester tableConnectionSource;
+
     /**
      * @return The default failure handler
      * @since 2.4
@@ -334,6 +346,14 @@ public class DbUnitAssertBase
                 determineValidTableColumnValueComparers(
                         tableColumnValueComparers);
 
+        if (tableComparisonThreadCount > 1 && expectedNames.length > 1)
+        {
+            compareTablesInParallel(expectedDataSet, actualDataSet,
+                    expectedNames, failureHandler, defaultValueComparer,
+                    validTableColumnValueComparers);
+            return;
+        }
+
         for (int i = 0; i < expectedNames.length; i++)
         {
             final String tableName = expectedNames[i];
@@ -348,6 +368,34 @@ public class DbUnitAssertBase
         }
     }
 
+    /**
+     * Compares each table on a thread of a bounded pool. The differences of a
+     * table are recorded by its task and reported to the failure handler by
+     * the calling thread in table name order, so the handler does not need to
+     * be thread-safe and reports the same differences in the same order as a
+     * sequential comparison.
+     * <p>
+     * When the failure handler is a plain {@link DefaultFailureHandler}, which
+     * throws on the first difference, a task stops its table at the first
+     * difference. A task stopped by a difference or by an exception publishes
+     * its table index and cancels the tasks of the later tables right away,
+     * since their differences would never be reported.
+     *
+     * @since 2.7.1
+     */
+    protected void compareTablesInParallel(final IDataSet expectedDataSet,
+            final IDataSet actualDataSet, final String[] expectedNames,
+            final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, Map<String, ValueComparer>> tableColumnValueComparers)
+            throws DatabaseUnitException
+    {
+        new ParallelTableComparison(this, tableComparisonThreadCount,
+                tableConnectionSource).compare(expectedDataSet, actualDataSet,
+                        expectedNames, failureHandler, defaultValueComparer,
+                        tableColumnValueComparers);
+    }
+
     /**
      * Asserts the two specified {@link ITable}s comparing their columns using
      * the specified columnValueComparers or defaultValueComparer and handles
@@ -441,6 +489,505 @@ public class DbUnitAssertBase
                 columnValueComparers);
     }
 
+    /**
+     * Asserts the two specified {@link ITable}s matching their rows by key
+     * instead of by position, so neither table needs to be sorted. The actual
+     * table is indexed by its key values in a single pass, then every
+     * expected row is looked up in that index. Expected rows without a
+     * matching actual row are reported as {@link Difference.Kind#MISSING_ROW},
+     * actual rows left unmatched as {@link Difference.Kind#UNEXPECTED_ROW} and
+     * cell mismatches of matched rows as {@link Difference.Kind#VALUE}. Rows
+     * sharing a key are matched in table order.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param actualTable
+     *            {@link ITable} containing all actual results.
+     * @param keyColumnNames
+     *            The columns identifying a row. Can be <code>null</code> and
+     *            will default to the primary keys of the expected table, or of
+     *            the actual table if the expected table has none.
+     * @param failureHandler
+     *            The failure handler used if the assert fails because of a data
+     *            mismatch. Can be <code>null</code>.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     *             if no key columns are given and the tables have no primary
+     *             keys.
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        log.debug("assertWithValueComparerByKey: expectedTable={},"
+                + " actualTable={}, keyColumnNames={}", expectedTable,
+                actualTable, keyColumnNames);
+
+        // Do not continue if same instance
+        if (expectedTable == actualTable)
+        {
+            log.debug("The given tables reference the same object."
+                    + " Skipping comparisons.");
+            return;
+        }
+
+        final FailureHandler validFailureHandler =
+                determineFailureHandler(failureHandler);
+
+        final ITableMetaData expectedMetaData =
+                expectedTable.getTableMetaData();
+        final ITableMetaData actualMetaData = actualTable.getTableMetaData();
+        final String expectedTableName = expectedMetaData.getTableName();
+
+        if (expectedTable.getRowCount() == 0 && actualTable.getRowCount() == 0)
+        {
+            log.debug("Tables are empty, hence equals.");
+            return;
+        }
+
+        // Put the columns into the same order
+        final Column[] expectedColumns =
+                Columns.getSortedColumns(expectedMetaData);
+        final Column[] actualColumns = Columns.getSortedColumns(actualMetaData);
+
+        // Verify columns
+        compareColumns(expectedColumns, actualColumns, expectedMetaData,
+                actualMetaData, validFailureHandler);
+
+        // Get the datatypes to be used for comparing the sorted columns
+        final ComparisonColumn[] comparisonCols =
+                getComparisonColumns(expectedTableName, expectedColumns,
+                        actualColumns, validFailureHandler);
+
+        final String[] validKeyColumnNames = determineKeyColumnNames(
+                keyColumnNames, expectedMetaData, actualMetaData);
+
+        compareDataByKey(expectedTable, actualTable, comparisonCols,
+                validKeyColumnNames, validFailureHandler, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * @return The given key column names or the primary keys of the expected
+     *         or actual table.
+     * @throws DatabaseUnitException
+     *             if no key columns could be determined.
+     * @since 2.7.1
+     */
+    protected String[] determineKeyColumnNames(final String[] keyColumnNames,
+            final ITableMetaData expectedMetaData,
+            final ITableMetaData actualMetaData) throws DatabaseUnitException
+    {
+        if (keyColumnNames != null && keyColumnNames.length > 0)
+        {
+            return keyColumnNames;
+        }
+
+        Column[] primaryKeys = expectedMetaData.getPrimaryKeys();
+        if (primaryKeys.length == 0)
+        {
+            primaryKeys = actualMetaData.getPrimaryKeys();
+        }
+        if (primaryKeys.length == 0)
+        {
+            throw new DatabaseUnitException("No key columns given and table '"
+                    + expectedMetaData.getTableName()
+                    + "' has no primary keys to match the rows with");
+        }
+        return Columns.getColumnNames(primaryKeys);
+    }
+
+    /**
+     * Matches the rows of both tables through a hash index on the key columns
+     * of the actual table and compares the matched rows column by column.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param actualTable
+     *            {@link ITable} containing all actual results.
+     * @param comparisonCols
+     *            The columns to be compared, also including the correct
+     *            {@link DataType}s for comparison
+     * @param keyColumnNames
+     *            The columns identifying a row, all of them must be part of
+     *            the comparison columns.
+     * @param failureHandler
+     *            Must not be <code>null</code> at this stage.
+     * @param defaultValueComparer
+     *            Can be <code>null</code>.
+     * @param columnValueComparers
+     *            Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @since 2.7.1
+     */
+    protected void compareDataByKey(final ITable expectedTable,
+            final ITable actualTable, final ComparisonColumn[] comparisonCols,
+            final String[] keyColumnNames, final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final ComparisonPlan plan = createComparisonPlan(expectedTable,
+                actualTable, comparisonCols, defaultValueComparer,
+                columnValueComparers);
+        new KeyComparison(plan, keyColumnNames).compare(expectedTable,
+                actualTable, failureHandler);
+    }
+
+    /**
+     * Asserts the two specified {@link ITable}s in a single forward pass over
+     * both tables, which must already be ordered ascending by the key columns.
+     * The rows are read through {@link ITable#cursor()} and merged by key, so
+     * only the current row of each table is held in memory and neither table
+     * has to tell its row count. This makes the assertion suitable for
+     * forward-only tables like the ones created by
+     * {@link org.dbunit.database.ForwardOnlyResultSetTableFactory} or read
+     * from a {@link org.dbunit.dataset.stream.StreamingDataSet}.
+     * <p>
+     * Expected rows without an actual row of the same key are reported as
+     * {@link Difference.Kind#MISSING_ROW}, actual rows without an expected
+     * row as {@link Difference.Kind#UNEXPECTED_ROW} and cell mismatches of
+     * matched rows as {@link Difference.Kind#VALUE}, in the order they are
+     * found. The tables of a reported {@link Difference} only give access to
+     * the current row while the failure handler is called.
+     * </p>
+     * <p>
+     * Keys are ordered as defined by {@link DataType#compare(Object, Object)}
+     * of the key columns, which may differ from the collation used by the
+     * database for an <code>ORDER BY</code> on character columns. Rows out
+     * of that order make the assertion fail with an exception instead of
+     * reporting wrong differences.
+     * </p>
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results, ordered by
+     *            the key columns.
+     * @param actualTable
+     *            {@link ITable} containing all actual results, ordered by the
+     *            key columns.
+     * @param keyColumnNames
+     *            The columns both tables are ordered by. Can be
+     *            <code>null</code> and will default to the primary keys of the
+     *            expected table, or of the actual table if the expected table
+     *            has none.
+     * @param failureHandler
+     *            The failure handler used if the assert fails because of a data
+     *            mismatch. Can be <code>null</code>.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     *             if no key columns are given and the tables have no primary
+     *             keys, or if a table is not ordered by the key columns.
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerByMerge(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        log.debug("assertWithValueComparerByMerge: expectedTable={},"
+                + " actualTable={}, keyColumnNames={}", expectedTable,
+                actualTable, keyColumnNames);
+
+        // Do not continue if same instance
+        if (expectedTable == actualTable)
+        {
+            log.debug("The given tables reference the same object."
+                    + " Skipping comparisons.");
+            return;
+        }
+
+        final FailureHandler validFailureHandler =
+                determineFailureHandler(failureHandler);
+
+        final ITableMetaData expectedMetaData =
+                expectedTable.getTableMetaData();
+        final ITableMetaData actualMetaData = actualTable.getTableMetaData();
+        final String expectedTableName = expectedMetaData.getTableName();
+
+        // Put the columns into the same order
+        final Column[] expectedColumns =
+                Columns.getSortedColumns(expectedMetaData);
+        final Column[] actualColumns = Columns.getSortedColumns(actualMetaData);
+
+        // Verify columns
+        compareColumns(expectedColumns, actualColumns, expectedMetaData,
+                actualMetaData, validFailureHandler);
+
+        // Get the datatypes to be used for comparing the sorted columns
+        final ComparisonColumn[] comparisonCols =
+                getComparisonColumns(expectedTableName, expectedColumns,
+                        actualColumns, validFailureHandler);
+
+        final String[] validKeyColumnNames = determineKeyColumnNames(
+                keyColumnNames, expectedMetaData, actualMetaData);
+
+        compareDataByMerge(expectedTable, actualTable, comparisonCols,
+                validKeyColumnNames, validFailureHandler, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * Asserts the tables of the expected dataset against the tables of the
+     * same name in the actual dataset using
+     * {@link #assertWithValueComparerByMerge(ITable, ITable, String[], FailureHandler, ValueComparer, Map)}
+     * with the primary keys as key columns. The expected tables are read in a
+     * single iteration, so the expected dataset can be a
+     * {@link org.dbunit.dataset.stream.StreamingDataSet}. The actual tables
+     * are requested by name, typically from the dataset of a database
+     * connection, and closed once compared if they hold a result set. Tables
+     * that only exist in the actual dataset are not checked.
+     *
+     * @param expectedDataSet
+     *            {@link IDataSet} containing all expected results, each table
+     *            ordered by its primary keys.
+     * @param actualDataSet
+     *            {@link IDataSet} providing the actual tables by name, each
+     *            ordered by its primary keys.
+     * @param failureHandler
+     *            The failure handler used if the assert fails because of a data
+     *            mismatch. Can be <code>null</code>.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            tableColumnValueComparers {@link Map}. Can be
+     *            <code>null</code> and will default to
+     *            {@link #getDefaultValueComparer()}.
+     * @param tableColumnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            tables and columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerByMerge(final IDataSet expectedDataSet,
+            final IDataSet actualDataSet, final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, Map<String, ValueComparer>> tableColumnValueComparers)
+            throws DatabaseUnitException
+    {
+        log.debug("assertWithValueComparerByMerge: expectedDataSet={},"
+                + " actualDataSet={}", expectedDataSet, actualDataSet);
+
+        // do not continue if same instance
+        if (expectedDataSet == actualDataSet)
+        {
+            log.debug("The given datasets reference the same object."
+                    + " Skipping comparisons.");
+            return;
+        }
+
+        final FailureHandler validFailureHandler =
+                determineFailureHandler(failureHandler);
+        final Map<String, Map<String, ValueComparer>> validTableColumnValueComparers =
+                determineValidTableColumnValueComparers(
+                        tableColumnValueComparers);
+
+        final ITableIterator iterator = expectedDataSet.iterator();
+        while (iterator.next())
+        {
+            final ITable expectedTable = iterator.getTable();
+            final String tableName =
+                    expectedTable.getTableMetaData().getTableName();
+            final ITable actualTable = actualDataSet.getTable(tableName);
+            try
+            {
+                assertWithValueComparerByMerge(expectedTable, actualTable,
+                        null, validFailureHandler, defaultValueComparer,
+                        validTableColumnValueComparers.get(tableName));
+            } finally
+            {
+                if (actualTable instanceof IResultSetTable)
+                {
+                    ((IResultSetTable) actualTable).close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the rows of both tables by key in a single forward pass and
+     * compares the rows of the same key column by column.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param actualTable
+     *            {@link ITable} containing all actual results.
+     * @param comparisonCols
+     *            The columns to be compared, also including the correct
+     *            {@link DataType}s for comparison
+     * @param keyColumnNames
+     *            The columns both tables are ordered by, all of them must be
+     *            part of the comparison columns.
+     * @param failureHandler
+     *            Must not be <code>null</code> at this stage.
+     * @param defaultValueComparer
+     *            Can be <code>null</code>.
+     * @param columnValueComparers
+     *            Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @since 2.7.1
+     */
+    protected void compareDataByMerge(final ITable expectedTable,
+            final ITable actualTable, final ComparisonColumn[] comparisonCols,
+            final String[] keyColumnNames, final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        new MergeComparison(this, comparisonCols, keyColumnNames,
+                defaultValueComparer, columnValueComparers).compare(
+                        expectedTable, actualTable, failureHandler);
+    }
+
+    /**
+     * Asserts the specified expected {@link ITable} against the database
+     * table of the same name without fetching all of its rows. The expected
+     * rows are inserted in batches into a scratch table created through the
+     * {@link SetDifferenceDialect} configured on the connection, a single
+     * query on the database server returns only the rows whose number of
+     * occurrences differs between both tables, and the scratch table is
+     * dropped again.
+     * <p>
+     * Only the columns of the expected table are compared. The differing
+     * rows are matched by the primary keys of the database table if all of
+     * them are compared, reporting cell mismatches of rows with the same key
+     * as {@link Difference.Kind#VALUE}, otherwise by all compared columns.
+     * Rows without a match are reported as
+     * {@link Difference.Kind#MISSING_ROW} or
+     * {@link Difference.Kind#UNEXPECTED_ROW}. The tables and row numbers of a
+     * reported {@link Difference} refer to the differing rows only.
+     * </p>
+     * <p>
+     * The database compares the values for equality, so value comparers
+     * accepting unequal values only take effect on rows matched by primary
+     * key. Columns the database cannot group by, like LOB columns, cannot be
+     * compared this way.
+     * </p>
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @param failureHandler
+     *            The failure handler used if the assert fails because of a data
+     *            mismatch. Can be <code>null</code>.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     *             if the table or one of the expected columns does not exist
+     *             in the database, or if the database rejects the statements.
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        log.debug("assertWithValueComparerInDatabase: expectedTable={},"
+                + " connection={}", expectedTable, connection);
+
+        if (connection == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'connection' must not be null");
+        }
+
+        final FailureHandler validFailureHandler =
+                determineFailureHandler(failureHandler);
+
+        final ITableMetaData expectedMetaData =
+                expectedTable.getTableMetaData();
+        final String tableName = expectedMetaData.getTableName();
+        final ITableMetaData databaseMetaData;
+        try
+        {
+            databaseMetaData =
+                    connection.createDataSet().getTableMetaData(tableName);
+        } catch (final SQLException e)
+        {
+            throw new DatabaseUnitException("Failed to read the metadata"
+                    + " of table '" + tableName + "' from the database", e);
+        }
+
+        // Compare the expected columns only, typed by the database
+        final Column[] expectedColumns =
+                Columns.getSortedColumns(expectedMetaData);
+        if (expectedColumns.length == 0)
+        {
+            log.debug("Expected table has no columns, nothing to compare.");
+            return;
+        }
+        final Column[] actualColumns = new Column[expectedColumns.length];
+        for (int i = 0; i < expectedColumns.length; i++)
+        {
+            actualColumns[i] = Columns.getColumnValidated(
+                    expectedColumns[i].getColumnName(),
+                    databaseMetaData.getColumns(), tableName);
+        }
+
+        // Get the datatypes to be used for comparing the sorted columns
+        final ComparisonColumn[] comparisonCols =
+                getComparisonColumns(tableName, expectedColumns,
+                        actualColumns, validFailureHandler);
+
+        // Pair the differing rows by primary key if possible
+        String[] keyColumnNames = Columns.getColumnNames(
+                databaseMetaData.getPrimaryKeys());
+        if (keyColumnNames.length == 0 || Columns.getColumns(keyColumnNames,
+                actualColumns).length < keyColumnNames.length)
+        {
+            keyColumnNames = Columns.getColumnNames(actualColumns);
+        }
+
+        final ITableMetaData differenceMetaData = new DefaultTableMetaData(
+                tableName, actualColumns, keyColumnNames);
+        final DefaultTable expectedDifferences =
+                new DefaultTable(differenceMetaData);
+        final DefaultTable actualDifferences =
+                new DefaultTable(differenceMetaData);
+        try
+        {
+            new InDatabaseComparison(connection).selectDifferences(
+                    expectedTable, actualColumns, keyColumnNames,
+                    expectedDifferences, actualDifferences);
+        } catch (final SQLException e)
+        {
+            throw new DatabaseUnitException("Failed to compute the differences"
+                    + " of table '" + tableName + "' in the database", e);
+        }
+
+        compareDataByKey(expectedDifferences, actualDifferences,
+                comparisonCols, keyColumnNames, validFailureHandler,
+                defaultValueComparer, columnValueComparers);
+    }
+
     /**
      * @param expectedTable
      *            Table containing all expected results.
@@ -543,6 +1090,30 @@ public class DbUnitAssertBase
                     "The parameter 'failureHandler' is null");
         }
 
+        // resolve everything that does not depend on the row once
+        final ComparisonPlan plan = createComparisonPlan(expectedTable,
+                actualTable, comparisonCols, defaultValueComparer,
+                columnValueComparers);
+
+        // iterate over all rows
+        final int rowCount = expectedTable.getRowCount();
+        for (int rowNum = 0; rowNum < rowCount; rowNum++)
+        {
+            plan.compareRow(expectedTable, actualTable, failureHandler,
+                    rowNum);
+        }
+    }
+
+    /**
+     * Resolves the column positions and value comparers of two tables once,
+     * so that their rows can be compared without looking them up per cell.
+     */
+    ComparisonPlan createComparisonPlan(final ITable expectedTable,
+            final ITable actualTable, final ComparisonColumn[] comparisonCols,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DataSetException
+    {
         final ValueComparer validDefaultValueComparer =
                 determineValidDefaultValueComparer(defaultValueComparer);
         final String expectedTableName =
@@ -550,35 +1121,98 @@ public class DbUnitAssertBase
         final Map<String, ValueComparer> validColumnValueComparers =
                 determineValidColumnValueComparers(columnValueComparers,
                         expectedTableName);
+        return new ComparisonPlan(this, expectedTable, actualTable,
+                comparisonCols, validDefaultValueComparer,
+                validColumnValueComparers, isCellComparisonInlined());
+    }
 
-        // iterate over all rows
-        for (int rowNum = 0; rowNum < expectedTable.getRowCount(); rowNum++)
+    /**
+     * Whether the cells of the positional, key based and merge comparisons
+     * are compared inline, with the column positions and value comparers
+     * resolved once per table. A subclass overriding one of the per cell
+     * <code>compareData</code> methods returns <code>false</code> to have
+     * every cell compared through them.
+     *
+     * @return <code>true</code> by default.
+     * @since 2.7.1
+     */
+    protected boolean isCellComparisonInlined()
+    {
+        return true;
+    }
+
+    /**
+     * @param table
+     *            The table whose metadata is used to resolve the columns.
+     * @param comparisonCols
+     *            The columns to be compared.
+     * @return The position of each comparison column within the given table.
+     * @throws DataSetException
+     *             if a comparison column does not exist in the table.
+     * @since 2.7.1
+     */
+    protected int[] getColumnIndexes(final ITable table,
+            final ComparisonColumn[] comparisonCols) throws DataSetException
+    {
+        final ITableMetaData metaData = table.getTableMetaData();
+        final int[] columnIndexes = new int[comparisonCols.length];
+        for (int i = 0; i < comparisonCols.length; i++)
         {
-            // iterate over all columns of the current row
-            final int columnCount = comparisonCols.length;
-            for (int columnNum = 0; columnNum < columnCount; columnNum++)
-            {
-                compareData(expectedTable, actualTable, comparisonCols,
-                        failureHandler, validDefaultValueComparer,
-                        validColumnValueComparers, rowNum, columnNum);
-            }
+            columnIndexes[i] =
+                    metaData.getColumnIndex(comparisonCols[i].getColumnName());
         }
+        return columnIndexes;
     }
 
+    /**
+     * Compares a single cell. The positional, key based and merge comparisons
+     * only compare the cells through this method if
+     * {@link #isCellComparisonInlined()} returns <code>false</code>.
+     */
     protected void compareData(final ITable expectedTable,
             final ITable actualTable, final ComparisonColumn[] comparisonCols,
             final FailureHandler failureHandler,
             final ValueComparer defaultValueComparer,
             final Map<String, ValueComparer> columnValueComparers,
             final int rowNum, final int columnNum) throws DatabaseUnitException
+    {
+        final String columnName = comparisonCols[columnNum].getColumnName();
+        final int expectedColumnIndex =
+                expectedTable.getTableMetaData().getColumnIndex(columnName);
+        final int actualColumnIndex =
+                actualTable.getTableMetaData().getColumnIndex(columnName);
+
+        compareData(expectedTable, actualTable, comparisonCols, failureHandler,
+                defaultValueComparer, columnValueComparers, rowNum, columnNum,
+                expectedColumnIndex, actualColumnIndex);
+    }
+
+    /**
+     * Compares a single cell whose column positions in the expected and actual
+     * tables have already been resolved. Called by
+     * {@link #compareData(ITable, ITable, ComparisonColumn[], FailureHandler, ValueComparer, Map, int, int)},
+     * see {@link #isCellComparisonInlined()}.
+     *
+     * @since 2.7.1
+     */
+    protected void compareData(final ITable expectedTable,
+            final ITable actualTable, final ComparisonColumn[] comparisonCols,
+            final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers,
+            final int rowNum, final int columnNum,
+            final int expectedColumnIndex, final int actualColumnIndex)
+            throws DatabaseUnitException
     {
         final ComparisonColumn compareColumn = comparisonCols[columnNum];
 
         final String columnName = compareColumn.getColumnName();
         final DataType dataType = compareColumn.getDataType();
 
-        final Object expectedValue = expectedTable.getValue(rowNum, columnName);
-        final Object actualValue = actualTable.getValue(rowNum, columnName);
+        final Object expectedValue =
+                expectedTable.getValue(rowNum, expectedColumnIndex);
+        final Object actualValue =
+                actualTable.getValue(rowNum, actualColumnIndex);
 
         // Compare the values
         if (skipCompare(columnName, expectedValue, actualValue))
@@ -710,4 +1344,36 @@ public class DbUnitAssertBase
     {
         this.valueComparerDefaults = valueComparerDefaults;
     }
+
+    /**
+     * Enables the concurrent comparison of the tables of two datasets. Each
+     * table is compared by a task of a pool with the given number of threads.
+     * Without a connection source the tables are read from the given datasets
+     * by the tasks, so both datasets must allow concurrent random access to
+     * their tables (streamed datasets are not supported). With a connection
+     * source the actual tables are read through the dataset of a pooled
+     * connection (see {@link IDatabaseConnection#createDataSet()}), and the
+     * actual dataset only provides the table names.
+     *
+     * @param threadCount
+     *            The maximum number of tables compared concurrently. 1, the
+     *            default, compares the tables sequentially.
+     * @param connectionSource
+     *            Provides a new connection on each call for reading the actual
+     *            tables, e.g. a <code>DataSourceDatabaseTester</code>. Can be
+     *            <code>null</code>.
+     * @since 2.7.1
+     */
+    public void setParallelTableComparison(final int threadCount,
+            final IDatabaseTester connectionSource)
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'threadCount' must be greater than 0: "
+                            + threadCount);
+        }
+        this.tableComparisonThreadCount = threadCount;
+        this.tableConnectionSource = connectionSource;
+    }
 }
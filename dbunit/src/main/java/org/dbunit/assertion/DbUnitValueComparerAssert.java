@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.dbunit.DatabaseUnitException;
 import org.dbunit.assertion.comparer.value.ValueComparer;
+import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
@@ -241,4 +242,150 @@ public class DbUnitValueComparerAssert extends DbUnitAssertBase
         assertWithValueComparer(expectedTable, actualTable, failureHandler,
                 defaultValueComparer, columnValueComparers);
     }
+
+    /**
+     * Asserts the two specified {@link ITable}s matching their rows by the
+     * given key columns instead of by position, comparing their columns using
+     * the specified columnValueComparers or defaultValueComparer and handles
+     * failures using the default {@link FailureHandler}. Neither table has to
+     * be sorted.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param actualTable
+     *            {@link ITable} containing all actual results.
+     * @param keyColumnNames
+     *            The columns identifying a row. Can be <code>null</code> to use
+     *            the primary keys.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerByKey(ITable, ITable, String[],
+     *      FailureHandler, ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerByKey(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final FailureHandler failureHandler = getDefaultFailureHandler();
+        assertWithValueComparerByKey(expectedTable, actualTable,
+                keyColumnNames, failureHandler, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * Asserts the two specified tables, which must already be ordered by the
+     * key columns, in a single forward pass, using the default
+     * {@link FailureHandler}.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param actualTable
+     *            {@link ITable} containing all actual results.
+     * @param keyColumnNames
+     *            The columns both tables are ordered by. Can be
+     *            <code>null</code> to use the primary keys.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerByMerge(ITable, ITable, String[],
+     *      FailureHandler, ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerByMerge(final ITable expectedTable,
+            final ITable actualTable, final String[] keyColumnNames,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final FailureHandler failureHandler = getDefaultFailureHandler();
+        assertWithValueComparerByMerge(expectedTable, actualTable,
+                keyColumnNames, failureHandler, defaultValueComparer,
+                columnValueComparers);
+    }
+
+    /**
+     * Asserts the specified table against the database table of the same
+     * name on the database server, using the default {@link FailureHandler}.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerInDatabase(ITable, IDatabaseConnection,
+     *      FailureHandler, ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final FailureHandler failureHandler = getDefaultFailureHandler();
+        assertWithValueComparerInDatabase(expectedTable, connection,
+                failureHandler, defaultValueComparer, columnValueComparers);
+    }
+
+    /**
+     * Asserts the specified table against the database table of the same
+     * name on the database server, using the default {@link FailureHandler}
+     * with additionalColumnInfo, if specified.
+     *
+     * @param expectedTable
+     *            {@link ITable} containing all expected results.
+     * @param connection
+     *            The connection to the database holding the actual table.
+     * @param additionalColumnInfo
+     *            The columns to be printed out if the assert fails because of a
+     *            data mismatch. Can be <code>null</code>
+     * @param defaultValueComparer
+     *            {@link ValueComparer} to use with column value comparisons
+     *            when the column name for the table is not in the
+     *            columnValueComparers {@link Map}. Can be <code>null</code> and
+     *            will default to {@link #getDefaultValueComparer()}.
+     * @param columnValueComparers
+     *            {@link Map} of {@link ValueComparer}s to use for specific
+     *            columns. Can be <code>null</code>.
+     * @throws DatabaseUnitException
+     * @see #assertWithValueComparerInDatabase(ITable, IDatabaseConnection,
+     *      FailureHandler, ValueComparer, Map)
+     * @since 2.7.1
+     */
+    public void assertWithValueComparerInDatabase(final ITable expectedTable,
+            final IDatabaseConnection connection,
+            final Column[] additionalColumnInfo,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+            throws DatabaseUnitException
+    {
+        final FailureHandler failureHandler =
+                getDefaultFailureHandler(additionalColumnInfo);
+        assertWithValueComparerInDatabase(expectedTable, connection,
+                failureHandler, defaultValueComparer, columnValueComparers);
+    }
 }
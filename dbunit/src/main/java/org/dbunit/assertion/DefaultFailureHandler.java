@@ -257,6 +257,21 @@ public class DefaultFailureHandler implements FailureHandler
         final String expectedTableName =
                 expectedTable.getTableMetaData().getTableName();
 
+        // example message:
+        // "missing row (table=MYTAB, row=232, key=(ID=7))"
+        if (diff.getKind() != Difference.Kind.VALUE)
+        {
+            final boolean isMissing =
+                    diff.getKind() == Difference.Kind.MISSING_ROW;
+            builder.append(isMissing ? "missing row" : "unexpected row");
+            builder.append(" (table=").append(expectedTableName);
+            builder.append(", row=").append(rowNum);
+            builder.append(", key=").append(isMissing
+                    ? diff.getExpectedValue() : diff.getActualValue());
+            builder.append(")");
+            return builder.toString();
+        }
+
         // example message:
         // "value (table=MYTAB, row=232, column=MYCOL, Additional row info:
         // (column=MyIdCol, expected=444, actual=555)): expected:<123> but
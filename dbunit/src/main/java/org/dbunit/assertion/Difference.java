@@ -34,9 +34,25 @@ import org.dbunit.dataset.ITable;
  * @version $Revision$ $Date$
  * @since 2.4.0
  * @since 2.6.0 added failMessage
+ * @since 2.7.1 added kind
  */
 public class Difference
 {
+    /**
+     * The kinds of differences between two tables.
+     *
+     * @since 2.7.1
+     */
+    public enum Kind
+    {
+        /** A cell value differs between the expected and the actual row. */
+        VALUE,
+        /** An expected row has no matching row in the actual table. */
+        MISSING_ROW,
+        /** An actual row has no matching row in the expected table. */
+        UNEXPECTED_ROW
+    }
+
     private ITable expectedTable;
     private ITable actualTable;
     private int rowIndex;
@@ -44,6 +60,7 @@ public class Difference
     private Object expectedValue;
     private Object actualValue;
     private String failMessage;
+    private Kind kind = Kind.VALUE;
 
     public Difference(final ITable expectedTable, final ITable actualTable,
             final int rowIndex, final String columnName,
@@ -67,6 +84,28 @@ public class Difference
         this.failMessage = failMessage;
     }
 
+    /**
+     * @param kind
+     *            The kind of difference. For {@link Kind#MISSING_ROW} the row
+     *            index refers to the expected table, for
+     *            {@link Kind#UNEXPECTED_ROW} to the actual table.
+     * @since 2.7.1
+     */
+    public Difference(final ITable expectedTable, final ITable actualTable,
+            final Kind kind, final int rowIndex, final String columnName,
+            final Object expectedValue, final Object actualValue,
+            final String failMessage)
+    {
+        this(expectedTable, actualTable, rowIndex, columnName, expectedValue,
+                actualValue, failMessage);
+        if (kind == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'kind' must not be null");
+        }
+        this.kind = kind;
+    }
+
     @Override
     public String toString()
     {
@@ -79,6 +118,7 @@ public class Difference
         sb.append(", expectedValue=").append(expectedValue);
         sb.append(", actualValue=").append(actualValue);
         sb.append(", failMessage=").append(failMessage);
+        sb.append(", kind=").append(kind);
         sb.append("]");
         return sb.toString();
     }
@@ -113,6 +153,14 @@ public class Difference
         return actualValue;
     }
 
+    /**
+     * @since 2.7.1
+     */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
     public String getFailMessage()
     {
         return failMessage;
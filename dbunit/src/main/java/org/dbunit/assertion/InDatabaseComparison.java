@@ -0,0 +1,204 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.assertion;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.database.SetDifferenceDialect;
+import org.dbunit.database.statement.IPreparedBatchStatement;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.Columns;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.util.QualifiedTableName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the rows that differ between an expected table and the database
+ * table of the same name on the database server, through a scratch table
+ * created by the {@link SetDifferenceDialect} configured on the connection.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class InDatabaseComparison
+{
+    private static final Logger logger =
+            LoggerFactory.getLogger(InDatabaseComparison.class);
+
+    private final IDatabaseConnection connection;
+
+    InDatabaseComparison(final IDatabaseConnection connection)
+    {
+        this.connection = connection;
+    }
+
+    /**
+     * Loads the expected rows into a scratch table and adds every row whose
+     * number of occurrences differs between the scratch table and the
+     * database table as often as it is missing to the expected or actual
+     * differences.
+     */
+    void selectDifferences(final ITable expectedTable, final Column[] columns,
+            final String[] orderColumnNames,
+            final DefaultTable expectedDifferences,
+            final DefaultTable actualDifferences)
+            throws DatabaseUnitException, SQLException
+    {
+        final DatabaseConfig config = connection.getConfig();
+        final SetDifferenceDialect dialect = (SetDifferenceDialect) config
+                .getProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT);
+        final String escapePattern = (String) config
+                .getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+
+        final String tableName = new QualifiedTableName(
+                expectedDifferences.getTableMetaData().getTableName(),
+                connection.getSchema(), escapePattern).getQualifiedName();
+        final String scratchTableName = dialect.getScratchTableName();
+        final String[] columnNames =
+                getEscapedNames(Columns.getColumnNames(columns), escapePattern);
+        final String[] orderNames =
+                getEscapedNames(orderColumnNames, escapePattern);
+
+        final Statement statement =
+                connection.getConnection().createStatement();
+        try
+        {
+            statement.execute(dialect.getCreateScratchTableSql(
+                    scratchTableName, tableName, columnNames));
+            try
+            {
+                insertRows(expectedTable,
+                        dialect.getInsertSql(scratchTableName, columnNames),
+                        columns);
+
+                final ResultSet resultSet =
+                        statement.executeQuery(dialect.getDifferenceSql(
+                                scratchTableName, tableName, columnNames,
+                                orderNames));
+                try
+                {
+                    while (resultSet.next())
+                    {
+                        final Object[] values = new Object[columns.length];
+                        for (int i = 0; i < columns.length; i++)
+                        {
+                            values[i] = columns[i].getDataType()
+                                    .getSqlValue(i + 1, resultSet);
+                        }
+                        final long count =
+                                resultSet.getLong(columns.length + 1)
+                                        - resultSet.getLong(columns.length + 2);
+                        final DefaultTable differences =
+                                count > 0 ? expectedDifferences
+                                        : actualDifferences;
+                        for (long i = Math.abs(count); i > 0; i--)
+                        {
+                            differences.addRow(values);
+                        }
+                    }
+                } finally
+                {
+                    resultSet.close();
+                }
+            } finally
+            {
+                try
+                {
+                    statement.execute(dialect
+                            .getDropScratchTableSql(scratchTableName));
+                } catch (final SQLException e)
+                {
+                    logger.warn("selectDifferences: failed to drop the scratch"
+                            + " table " + scratchTableName, e);
+                }
+            }
+        } finally
+        {
+            statement.close();
+        }
+    }
+
+    private void insertRows(final ITable table, final String sql,
+            final Column[] columns) throws DataSetException, SQLException
+    {
+        final int batchSize = ((Integer) connection.getConfig()
+                .getProperty(DatabaseConfig.PROPERTY_BATCH_SIZE)).intValue();
+        final ITableMetaData metaData = table.getTableMetaData();
+        final int[] columnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
+        {
+            columnIndexes[i] =
+                    metaData.getColumnIndex(columns[i].getColumnName());
+        }
+
+        final IPreparedBatchStatement statement = connection
+                .getStatementFactory().createPreparedBatchStatement(sql,
+                        connection);
+        try
+        {
+            final int rowCount = table.getRowCount();
+            for (int row = 0; row < rowCount; row++)
+            {
+                for (int i = 0; i < columns.length; i++)
+                {
+                    final Object value = table.getValue(row, columnIndexes[i]);
+                    statement.addValue(value, columns[i].getDataType());
+                }
+                statement.addBatch();
+                if ((row + 1) % batchSize == 0)
+                {
+                    statement.executeBatch();
+                    statement.clearBatch();
+                }
+            }
+            if (rowCount % batchSize != 0)
+            {
+                statement.executeBatch();
+                statement.clearBatch();
+            }
+        } finally
+        {
+            statement.close();
+        }
+    }
+
+    private String[] getEscapedNames(final String[] names,
+            final String escapePattern)
+    {
+        final String[] escapedNames = new String[names.length];
+        for (int i = 0; i < names.length; i++)
+        {
+            escapedNames[i] = new QualifiedTableName(names[i], null,
+                    escapePattern).getQualifiedName();
+        }
+        return escapedNames;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.assertion;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.assertion.DbUnitAssert.ComparisonColumn;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.RowOutOfBoundsException;
+
+/**
+ * Compares two tables matching their rows by key instead of by position. The
+ * actual table is indexed by its key values in a single pass, then every
+ * expected row is looked up in that index.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class KeyComparison
+{
+    private final ComparisonPlan plan;
+    private final int[] keyColumns;
+
+    /**
+     * @param plan
+     *            The plan resolved for the compared tables.
+     * @param keyColumnNames
+     *            The columns identifying a row, all of them must be part of
+     *            the comparison columns.
+     */
+    KeyComparison(final ComparisonPlan plan, final String[] keyColumnNames)
+            throws DataSetException
+    {
+        this.plan = plan;
+        this.keyColumns = plan.getKeyColumns(keyColumnNames);
+    }
+
+    void compare(final ITable expectedTable, final ITable actualTable,
+            final FailureHandler failureHandler) throws DatabaseUnitException
+    {
+        final ComparisonColumn[] comparisonCols = plan.getComparisonColumns();
+        final int[] expectedColumnIndexes = plan.expectedColumnIndexes;
+        final int[] actualColumnIndexes = plan.actualColumnIndexes;
+
+        // index the actual rows by key, rows sharing a key are chained in
+        // table order
+        final int actualRowCount = actualTable.getRowCount();
+        final Map<RowKey, Integer> index =
+                new HashMap<RowKey, Integer>(actualRowCount * 4 / 3 + 1);
+        final int[] nextRows = new int[actualRowCount];
+        for (int row = actualRowCount - 1; row >= 0; row--)
+        {
+            final RowKey key = new RowKey(actualTable, row, comparisonCols,
+                    keyColumns, actualColumnIndexes);
+            final Integer next = index.put(key, Integer.valueOf(row));
+            nextRows[row] = next == null ? -1 : next.intValue();
+        }
+
+        // probe the index with every expected row
+        final int expectedRowCount = expectedTable.getRowCount();
+        final int[] matchedRows = new int[expectedRowCount];
+        final boolean[] isActualRowMatched = new boolean[actualRowCount];
+        for (int row = 0; row < expectedRowCount; row++)
+        {
+            final RowKey key = new RowKey(expectedTable, row, comparisonCols,
+                    keyColumns, expectedColumnIndexes);
+            final Integer match = index.get(key);
+            if (match == null)
+            {
+                matchedRows[row] = -1;
+                continue;
+            }
+            final int actualRow = match.intValue();
+            if (nextRows[actualRow] < 0)
+            {
+                index.remove(key);
+            } else
+            {
+                index.put(key, Integer.valueOf(nextRows[actualRow]));
+            }
+            matchedRows[row] = actualRow;
+            isActualRowMatched[actualRow] = true;
+        }
+
+        // compare the matched rows through a view of the actual table aligned
+        // with the expected rows
+        final ITable matchedActualTable =
+                new KeyMatchedTable(actualTable, matchedRows);
+        for (int row = 0; row < expectedRowCount; row++)
+        {
+            if (matchedRows[row] < 0)
+            {
+                final Difference diff = new Difference(expectedTable,
+                        actualTable, Difference.Kind.MISSING_ROW, row, null,
+                        plan.formatKey(expectedTable, row, keyColumns,
+                                expectedColumnIndexes),
+                        null, "");
+                failureHandler.handle(diff);
+                continue;
+            }
+            plan.compareRow(expectedTable, matchedActualTable, failureHandler,
+                    row);
+        }
+
+        for (int row = 0; row < actualRowCount; row++)
+        {
+            if (!isActualRowMatched[row])
+            {
+                final Difference diff = new Difference(expectedTable,
+                        actualTable, Difference.Kind.UNEXPECTED_ROW, row, null,
+                        null, plan.formatKey(actualTable, row, keyColumns,
+                                actualColumnIndexes),
+                        "");
+                failureHandler.handle(diff);
+            }
+        }
+    }
+
+    /**
+     * The key values of a row, cast to the comparison {@link DataType}s so
+     * that equal keys read from different sources have the same hash code.
+     */
+    private static final class RowKey
+    {
+        private final Object[] values;
+        private final int hashCode;
+
+        RowKey(final ITable table, final int row,
+                final ComparisonColumn[] comparisonCols, final int[] keyColumns,
+                final int[] columnIndexes) throws DataSetException
+        {
+            values = new Object[keyColumns.length];
+            for (int i = 0; i < keyColumns.length; i++)
+            {
+                final int column = keyColumns[i];
+                final Object value = comparisonCols[column].getDataType()
+                        .typeCast(table.getValue(row, columnIndexes[column]));
+                values[i] = normalize(value);
+            }
+            hashCode = Arrays.deepHashCode(values);
+        }
+
+        private static Object normalize(final Object value)
+        {
+            if (value instanceof BigDecimal)
+            {
+                // 1.0 and 1.00 must be the same key
+                final BigDecimal decimal = (BigDecimal) value;
+                return decimal.signum() == 0 ? BigDecimal.ZERO
+                        : decimal.stripTrailingZeros();
+            }
+            return value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof RowKey))
+            {
+                return false;
+            }
+            final RowKey other = (RowKey) obj;
+            return hashCode == other.hashCode
+                    && Arrays.deepEquals(values, other.values);
+        }
+    }
+
+    /**
+     * View of the actual table whose rows are aligned with the expected rows
+     * they were matched with.
+     */
+    private static final class KeyMatchedTable implements ITable
+    {
+        private final ITable actualTable;
+        private final int[] matchedRows;
+
+        KeyMatchedTable(final ITable actualTable, final int[] matchedRows)
+        {
+            this.actualTable = actualTable;
+            this.matchedRows = matchedRows;
+        }
+
+        public ITableMetaData getTableMetaData()
+        {
+            return actualTable.getTableMetaData();
+        }
+
+        public int getRowCount()
+        {
+            return matchedRows.length;
+        }
+
+        public Object getValue(final int row, final String column)
+                throws DataSetException
+        {
+            return actualTable.getValue(getActualRow(row), column);
+        }
+
+        public Object getValue(final int row, final int column)
+                throws DataSetException
+        {
+            return actualTable.getValue(getActualRow(row), column);
+        }
+
+        private int getActualRow(final int row) throws RowOutOfBoundsException
+        {
+            if (row < 0 || row >= matchedRows.length || matchedRows[row] < 0)
+            {
+                throw new RowOutOfBoundsException(
+                        "No actual row matched the expected row " + row);
+            }
+            return matchedRows[row];
+        }
+
+        @Override
+        public String toString()
+        {
+            return actualTable.toString();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.assertion;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.assertion.DbUnitAssert.ComparisonColumn;
+import org.dbunit.assertion.comparer.value.ValueComparer;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.RowOutOfBoundsException;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.TypeCastException;
+
+/**
+ * Compares two tables ordered ascending by their key columns in a single
+ * forward pass, merging the rows of both table cursors by key. Only the
+ * current row of each table is held in memory.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class MergeComparison
+{
+    private final DbUnitAssertBase assertBase;
+    private final ComparisonColumn[] comparisonCols;
+    private final String[] keyColumnNames;
+    private final ValueComparer defaultValueComparer;
+    private final Map<String, ValueComparer> columnValueComparers;
+
+    /**
+     * @param assertBase
+     *            Provides the comparison plan of the tables.
+     * @param comparisonCols
+     *            The columns to be compared.
+     * @param keyColumnNames
+     *            The columns both tables are ordered by, all of them must be
+     *            part of the comparison columns.
+     * @param defaultValueComparer
+     *            Can be <code>null</code>.
+     * @param columnValueComparers
+     *            Can be <code>null</code>.
+     */
+    MergeComparison(final DbUnitAssertBase assertBase,
+            final ComparisonColumn[] comparisonCols,
+            final String[] keyColumnNames,
+            final ValueComparer defaultValueComparer,
+            final Map<String, ValueComparer> columnValueComparers)
+    {
+        this.assertBase = assertBase;
+        this.comparisonCols = comparisonCols;
+        this.keyColumnNames = keyColumnNames;
+        this.defaultValueComparer = defaultValueComparer;
+        this.columnValueComparers = columnValueComparers;
+    }
+
+    void compare(final ITable expectedTable, final ITable actualTable,
+            final FailureHandler failureHandler) throws DatabaseUnitException
+    {
+        final String expectedTableName =
+                expectedTable.getTableMetaData().getTableName();
+        final CurrentRowTable expectedRow =
+                new CurrentRowTable(expectedTable, expectedTable.cursor());
+        final CurrentRowTable actualRow =
+                new CurrentRowTable(actualTable, actualTable.cursor());
+        final ComparisonPlan plan = assertBase.createComparisonPlan(
+                expectedRow, actualRow, comparisonCols, defaultValueComparer,
+                columnValueComparers);
+        final int[] keyColumns = plan.getKeyColumns(keyColumnNames);
+
+        final KeyOrder keyOrder = new KeyOrder(expectedTableName,
+                comparisonCols, keyColumns, keyColumnNames);
+        boolean hasExpectedRow = keyOrder.next(expectedRow,
+                plan.expectedColumnIndexes, "expected");
+        boolean hasActualRow = keyOrder.next(actualRow,
+                plan.actualColumnIndexes, "actual");
+        while (hasExpectedRow || hasActualRow)
+        {
+            final int order;
+            if (!hasActualRow)
+            {
+                order = -1;
+            } else if (!hasExpectedRow)
+            {
+                order = 1;
+            } else
+            {
+                order = keyOrder.compare(expectedRow.key, actualRow.key);
+            }
+
+            if (order < 0)
+            {
+                final int row = expectedRow.getCursorRow();
+                final Difference diff = new Difference(expectedRow, actualRow,
+                        Difference.Kind.MISSING_ROW, row, null,
+                        plan.formatKey(expectedRow, row, keyColumns,
+                                plan.expectedColumnIndexes),
+                        null, "");
+                failureHandler.handle(diff);
+                hasExpectedRow = keyOrder.next(expectedRow,
+                        plan.expectedColumnIndexes, "expected");
+            } else if (order > 0)
+            {
+                final int row = actualRow.getCursorRow();
+                final Difference diff = new Difference(expectedRow, actualRow,
+                        Difference.Kind.UNEXPECTED_ROW, row, null, null,
+                        plan.formatKey(actualRow, row, keyColumns,
+                                plan.actualColumnIndexes),
+                        "");
+                failureHandler.handle(diff);
+                hasActualRow = keyOrder.next(actualRow,
+                        plan.actualColumnIndexes, "actual");
+            } else
+            {
+                // address the actual row by the expected row number
+                final int row = expectedRow.getCursorRow();
+                actualRow.setRow(row);
+                plan.compareRow(expectedRow, actualRow, failureHandler, row);
+                hasExpectedRow = keyOrder.next(expectedRow,
+                        plan.expectedColumnIndexes, "expected");
+                hasActualRow = keyOrder.next(actualRow,
+                        plan.actualColumnIndexes, "actual");
+            }
+        }
+    }
+
+    /**
+     * The key order of a merge comparison. Reads the next row of a table and
+     * verifies that its key does not sort before the key of the previous row.
+     */
+    private static final class KeyOrder
+    {
+        private final String tableName;
+        private final DataType[] dataTypes;
+        private final int[] keyColumns;
+        private final String[] keyColumnNames;
+
+        KeyOrder(final String tableName,
+                final ComparisonColumn[] comparisonCols, final int[] keyColumns,
+                final String[] keyColumnNames)
+        {
+            this.tableName = tableName;
+            this.keyColumns = keyColumns;
+            this.keyColumnNames = keyColumnNames;
+            this.dataTypes = new DataType[keyColumns.length];
+            for (int i = 0; i < keyColumns.length; i++)
+            {
+                dataTypes[i] = comparisonCols[keyColumns[i]].getDataType();
+            }
+        }
+
+        boolean next(final CurrentRowTable table, final int[] columnIndexes,
+                final String side) throws DatabaseUnitException
+        {
+            final Object[] previousKey = table.key;
+            if (!table.next())
+            {
+                return false;
+            }
+
+            final Object[] key = new Object[keyColumns.length];
+            for (int i = 0; i < keyColumns.length; i++)
+            {
+                key[i] = table.values[columnIndexes[keyColumns[i]]];
+            }
+            table.key = key;
+
+            if (previousKey != null && compare(previousKey, key) > 0)
+            {
+                throw new DatabaseUnitException("The " + side + " table '"
+                        + tableName + "' is not ordered by the key columns "
+                        + Arrays.asList(keyColumnNames) + " at row "
+                        + table.getCursorRow() + ": "
+                        + Arrays.asList(previousKey) + " > "
+                        + Arrays.asList(key));
+            }
+            return true;
+        }
+
+        int compare(final Object[] key1, final Object[] key2)
+                throws TypeCastException
+        {
+            for (int i = 0; i < dataTypes.length; i++)
+            {
+                final int order = dataTypes[i].compare(key1[i], key2[i]);
+                if (order != 0)
+                {
+                    return order;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The current row of a table cursor during a merge comparison, exposed as
+     * an {@link ITable} for value comparers and failure handlers. The values
+     * are read from the cursor once per row. Only the current row is
+     * accessible, by default under its own row number.
+     */
+    private static final class CurrentRowTable implements ITable
+    {
+        private final ITable table;
+        private final ITableCursor cursor;
+        private final Object[] values;
+        private Object[] key;
+        private int row = -1;
+
+        CurrentRowTable(final ITable table, final ITableCursor cursor)
+                throws DataSetException
+        {
+            this.table = table;
+            this.cursor = cursor;
+            this.values = new Object[cursor.getTableMetaData()
+                    .getColumns().length];
+        }
+
+        boolean next() throws DataSetException
+        {
+            if (!cursor.next())
+            {
+                row = -1;
+                return false;
+            }
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = cursor.get(i);
+            }
+            row = cursor.getRow();
+            return true;
+        }
+
+        int getCursorRow()
+        {
+            return cursor.getRow();
+        }
+
+        void setRow(final int row)
+        {
+            this.row = row;
+        }
+
+        public ITableMetaData getTableMetaData()
+        {
+            return cursor.getTableMetaData();
+        }
+
+        public int getRowCount()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public Object getValue(final int row, final String column)
+                throws DataSetException
+        {
+            return getValue(row,
+                    getTableMetaData().getColumnIndex(column));
+        }
+
+        public Object getValue(final int row, final int column)
+                throws DataSetException
+        {
+            if (row != this.row || this.row < 0)
+            {
+                throw new RowOutOfBoundsException("Only the current row "
+                        + this.row + " is accessible: " + row);
+            }
+            return values[column];
+        }
+
+        public String toString()
+        {
+            return table.toString();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.assertion;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.IDatabaseTester;
+import org.dbunit.assertion.comparer.value.ValueComparer;
+import org.dbunit.database.DatabaseConnectionPool;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the tables of two datasets on the threads of a bounded pool. The
+ * differences of a table are recorded by its task and reported to the
+ * failure handler by the calling thread in table name order.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class ParallelTableComparison
+{
+    private static final Logger logger =
+            LoggerFactory.getLogger(ParallelTableComparison.class);
+
+    private final DbUnitAssertBase assertBase;
+    private final int threadCount;
+    private final IDatabaseTester connectionSource;
+
+    /**
+     * @param assertBase
+     *            Compares the single tables.
+     * @param threadCount
+     *            The maximum number of tables compared concurrently.
+     * @param connectionSource
+     *            Provides the connections the actual tables are read through.
+     *            Can be <code>null</code> to read them from the actual
+     *            dataset.
+     */
+    ParallelTableComparison(final DbUnitAssertBase assertBase,
+            final int threadCount, final IDatabaseTester connectionSource)
+    {
+        this.assertBase = assertBase;
+        this.threadCount = threadCount;
+        this.connectionSource = connectionSource;
+    }
+
+    void compare(final IDataSet expectedDataSet, final IDataSet actualDataSet,
+            final String[] expectedNames, final FailureHandler failureHandler,
+            final ValueComparer defaultValueComparer,
+            final Map<String, Map<String, ValueComparer>> tableColumnValueComparers)
+            throws DatabaseUnitException
+    {
+        logger.debug("compare: comparing {} tables on {} threads",
+                expectedNames.length, threadCount);
+
+        final DatabaseConnectionPool pool = connectionSource == null ? null
+                : new DatabaseConnectionPool(connectionSource, null, false);
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threadCount, expectedNames.length));
+        final AtomicInteger firstFailedTable =
+                new AtomicInteger(Integer.MAX_VALUE);
+        final boolean failFast =
+                failureHandler.getClass() == DefaultFailureHandler.class;
+        try
+        {
+            final List<Future<TableComparison>> futures =
+                    Collections.synchronizedList(
+                            new ArrayList<Future<TableComparison>>(
+                                    expectedNames.length));
+            for (int i = 0; i < expectedNames.length; i++)
+            {
+                final String tableName = expectedNames[i];
+                futures.add(executor.submit(new TableComparisonTask(i,
+                        tableName, expectedDataSet, actualDataSet, pool,
+                        failureHandler, failFast, defaultValueComparer,
+                        tableColumnValueComparers.get(tableName),
+                        firstFailedTable, futures)));
+            }
+
+            for (int i = 0; i < expectedNames.length; i++)
+            {
+                final TableComparison comparison;
+                try
+                {
+                    comparison = futures.get(i).get();
+                } catch (final CancellationException e)
+                {
+                    // only tables after a failed one are cancelled, and the
+                    // failed one has already been reported
+                    break;
+                } catch (final ExecutionException e)
+                {
+                    throw new DatabaseUnitException(e.getCause());
+                } catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseUnitException(e);
+                }
+                comparison.report(failureHandler);
+            }
+        } finally
+        {
+            executor.shutdownNow();
+            if (pool != null)
+            {
+                try
+                {
+                    pool.close();
+                } catch (final SQLException e)
+                {
+                    logger.warn("compare: failed to close"
+                            + " the pooled connections", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares a single table of two datasets, recording the differences
+     * instead of reporting them.
+     */
+    private class TableComparisonTask implements Callable<TableComparison>
+    {
+        private final int index;
+        private final String tableName;
+        private final IDataSet expectedDataSet;
+        private final IDataSet actualDataSet;
+        private final DatabaseConnectionPool pool;
+        private final FailureHandler failureHandler;
+        private final boolean failFast;
+        private final ValueComparer defaultValueComparer;
+        private final Map<String, ValueComparer> columnValueComparers;
+        private final AtomicInteger firstFailedTable;
+        private final List<Future<TableComparison>> futures;
+
+        TableComparisonTask(final int index, final String tableName,
+                final IDataSet expectedDataSet, final IDataSet actualDataSet,
+                final DatabaseConnectionPool pool,
+                final FailureHandler failureHandler, final boolean failFast,
+                final ValueComparer defaultValueComparer,
+                final Map<String, ValueComparer> columnValueComparers,
+                final AtomicInteger firstFailedTable,
+                final List<Future<TableComparison>> futures)
+        {
+            this.index = index;
+            this.tableName = tableName;
+            this.expectedDataSet = expectedDataSet;
+            this.actualDataSet = actualDataSet;
+            this.pool = pool;
+            this.failureHandler = failureHandler;
+            this.failFast = failFast;
+            this.defaultValueComparer = defaultValueComparer;
+            this.columnValueComparers = columnValueComparers;
+            this.firstFailedTable = firstFailedTable;
+            this.futures = futures;
+        }
+
+        public TableComparison call() throws Exception
+        {
+            final TableComparison comparison = new TableComparison(
+                    failureHandler, failFast, index, firstFailedTable);
+            // an earlier table already failed, this one is never reported
+            if (index > firstFailedTable.get())
+            {
+                return comparison;
+            }
+
+            logger.debug("call: comparing table={}", tableName);
+            IDatabaseConnection connection = null;
+            try
+            {
+                final ITable expectedTable =
+                        expectedDataSet.getTable(tableName);
+                final ITable actualTable;
+                if (pool == null)
+                {
+                    actualTable = actualDataSet.getTable(tableName);
+                } else
+                {
+                    connection = pool.acquire();
+                    actualTable = connection.createDataSet().getTable(tableName);
+                }
+                assertBase.assertWithValueComparer(expectedTable, actualTable,
+                        comparison, defaultValueComparer,
+                        columnValueComparers);
+            } catch (final ComparisonStoppedException e)
+            {
+                // the recorded difference is reported by the calling thread
+                failed();
+            } catch (final Exception e)
+            {
+                comparison.failure = e;
+            } catch (final Error e)
+            {
+                comparison.failure = e;
+            } finally
+            {
+                if (connection != null)
+                {
+                    pool.release(connection);
+                }
+            }
+
+            if (comparison.failure != null)
+            {
+                failed();
+            }
+            return comparison;
+        }
+
+        /**
+         * Publishes the index of this table as failed, unless an earlier table
+         * already failed, and cancels the tasks of the later tables.
+         */
+        void failed()
+        {
+            int failed = firstFailedTable.get();
+            while (index < failed
+                    && !firstFailedTable.compareAndSet(failed, index))
+            {
+                failed = firstFailedTable.get();
+            }
+            if (index > failed)
+            {
+                return;
+            }
+            synchronized (futures)
+            {
+                for (int i = index + 1; i < futures.size(); i++)
+                {
+                    futures.get(i).cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown by a {@link TableComparison} to stop comparing its table.
+     */
+    private static final class ComparisonStoppedException
+            extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Records the differences of a table compared on another thread, so that
+     * they can be reported in order by the calling thread. The comparison is
+     * stopped at the first difference when the failure handler is fail-fast,
+     * and at any difference once an earlier table failed.
+     */
+    private static final class TableComparison implements FailureHandler
+    {
+        private final FailureHandler failureHandler;
+        private final boolean failFast;
+        private final int index;
+        private final AtomicInteger firstFailedTable;
+        private final List<Difference> differences =
+                new ArrayList<Difference>();
+        private Throwable failure;
+
+        TableComparison(final FailureHandler failureHandler,
+                final boolean failFast, final int index,
+                final AtomicInteger firstFailedTable)
+        {
+            this.failureHandler = failureHandler;
+            this.failFast = failFast;
+            this.index = index;
+            this.firstFailedTable = firstFailedTable;
+        }
+
+        /**
+         * Reports the recorded differences, then rethrows the failure that
+         * stopped the comparison, if any.
+         */
+        void report(final FailureHandler handler) throws DatabaseUnitException
+        {
+            for (final Difference diff : differences)
+            {
+                handler.handle(diff);
+            }
+            if (failure instanceof DatabaseUnitException)
+            {
+                throw (DatabaseUnitException) failure;
+            }
+            if (failure instanceof RuntimeException)
+            {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error)
+            {
+                throw (Error) failure;
+            }
+            if (failure != null)
+            {
+                throw new DatabaseUnitException(failure);
+            }
+        }
+
+        public void handle(final Difference diff)
+        {
+            if (index > firstFailedTable.get())
+            {
+                throw new ComparisonStoppedException();
+            }
+            differences.add(diff);
+            if (failFast)
+            {
+                throw new ComparisonStoppedException();
+            }
+        }
+
+        public String getAdditionalInfo(final ITable expectedTable,
+                final ITable actualTable, final int row,
+                final String columnName)
+        {
+            return failureHandler.getAdditionalInfo(expectedTable, actualTable,
+                    row, columnName);
+        }
+
+        public Error createFailure(final String message, final String expected,
+                final String actual)
+        {
+            return failureHandler.createFailure(message, expected, actual);
+        }
+
+        public Error createFailure(final String message)
+        {
+            return failureHandler.createFailure(message);
+        }
+    }
+
+}
@@ -28,10 +28,16 @@ import java.sql.Statement;
 
 import org.dbunit.DatabaseUnitRuntimeException;
 import org.dbunit.database.statement.IStatementFactory;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.ColumnFilterTable;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.FilteredDataSet;
+import org.dbunit.dataset.FilteredTableMetaData;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoSuchTableException;
+import org.dbunit.dataset.filter.IColumnFilter;
 import org.dbunit.util.QualifiedTableName;
 import org.dbunit.util.SQLHelper;
 import org.slf4j.Logger;
@@ -144,6 +150,50 @@ public abstract class AbstractDatabaseConnection implements IDatabaseConnection
         return this.createQueryTable(tableName, sql);
     }
 
+    public ITable createTable(String tableName, IColumnFilter columnFilter)
+            throws DataSetException, SQLException
+    {
+        logger.debug("createTable(tableName={}, columnFilter={}) - start",
+                tableName, columnFilter);
+
+        if (tableName == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'tableName' must not be null");
+        }
+        if (columnFilter == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'columnFilter' must not be null");
+        }
+
+        // Only the columns of this table are looked up, not the whole schema
+        boolean caseSensitiveMetaData = getConfig().getFeature(
+                DatabaseConfig.FEATURE_CASE_SENSITIVE_TABLE_NAMES);
+        ITableMetaData metaData;
+        try
+        {
+            metaData = new DatabaseTableMetaData(tableName, this, true,
+                    caseSensitiveMetaData);
+        }
+        catch (NoSuchTableException e)
+        {
+            // Objects without metadata cannot be projected, select all
+            // columns and filter them afterwards
+            logger.debug("Table '{}' not found in the metadata, "
+                    + "columns are filtered after the select", tableName);
+            return new ColumnFilterTable(createTable(tableName), columnFilter);
+        }
+
+        String escapePattern = (String) getConfig()
+                .getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+        Column[] columns = FilteredTableMetaData.getFilteredColumns(
+                metaData.getTableName(), metaData.getColumns(), columnFilter);
+        String sql = DatabaseDataSet.getSelectStatement(getSchema(),
+                tableName, columns, new Column[0], escapePattern);
+        return this.createQueryTable(tableName, sql);
+    }
+
     public int getRowCount(String tableName) throws SQLException
     {
         logger.debug("getRowCount(tableName={}) - start", tableName);
@@ -49,8 +49,8 @@ public class CachedResultSetTableFactory implements IResultSetTableFactory
     		logger.trace("createTable(tableName={}, selectStatement={}, connection={}) - start", 
     				new Object[] { tableName, selectStatement, connection });
 
-        return new CachedResultSetTable(new ForwardOnlyResultSetTable(
-                tableName, selectStatement, connection));
+        return createCachedTable(new ForwardOnlyResultSetTable(
+                tableName, selectStatement, connection), connection);
     }
 
     public IResultSetTable createTable(ITableMetaData metaData,
@@ -58,7 +58,7 @@ public class CachedResultSetTableFactory implements IResultSetTableFactory
     {
         logger.trace("createTable(metaData={}, connection={}) - start", metaData, connection);
         ForwardOnlyResultSetTable resultSetTable = new ForwardOnlyResultSetTable(metaData, connection);
-        return new CachedResultSetTable(resultSetTable);
+        return createCachedTable(resultSetTable, connection);
     }
     
     public IResultSetTable createTable(String tableName,
@@ -72,7 +72,21 @@ public class CachedResultSetTableFactory implements IResultSetTableFactory
         // Reuse method from ForwardOnly factory
         ForwardOnlyResultSetTable table = new ForwardOnlyResultSetTableFactory()
                     .createForwardOnlyResultSetTable(tableName, preparedStatement, connection);
-        return new CachedResultSetTable(table);
+        return createCachedTable(table, connection);
     }
 
+    /**
+     * Reads all rows of the given table into memory, column by column if
+     * {@link DatabaseConfig#FEATURE_COLUMNAR_TABLES} is enabled.
+     * @since 2.7.1
+     */
+    private IResultSetTable createCachedTable(IResultSetTable table,
+            IDatabaseConnection connection) throws SQLException, DataSetException
+    {
+        if (connection.getConfig().getFeature(DatabaseConfig.FEATURE_COLUMNAR_TABLES))
+        {
+            return new ColumnarResultSetTable(table);
+        }
+        return new CachedResultSetTable(table);
+    }
 }
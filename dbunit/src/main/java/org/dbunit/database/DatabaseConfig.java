@@ -20,6 +20,7 @@
  */
 package org.dbunit.database;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
@@ -33,6 +34,7 @@ import org.dbunit.database.statement.PreparedStatementFactory;
 import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
 import org.dbunit.dataset.datatype.IDataTypeFactory;
 import org.dbunit.dataset.filter.IColumnFilter;
+import org.dbunit.operation.DatabaseOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,6 +77,66 @@ public class DatabaseConfig
 	        "http://www.dbunit.org/properties/allowVerifytabledefinitionExpectedtableCountMismatch";
     public static final String PROPERTY_IDENTITY_COLUMN_FILTER =
             "http://www.dbunit.org/properties/mssql/identityColumnFilter";
+    /**
+     * Maximum number of prepared batch statements a batch operation keeps open
+     * per table, one for each distinct pattern of ignored columns.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_STATEMENT_CACHE_SIZE =
+            "http://www.dbunit.org/properties/statementCacheSize";
+    /**
+     * Number of rows an insert operation puts into a single multi-row
+     * <code>values</code> statement. 1 disables multi-row inserts.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_INSERT_ROWS_PER_STATEMENT =
+            "http://www.dbunit.org/properties/insertRowsPerStatement";
+    /**
+     * Database specific operation executed by
+     * {@link DatabaseOperation#REFRESH} instead of the generic refresh
+     * algorithm, e.g. a native upsert operation. <code>null</code> selects
+     * the generic algorithm.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_REFRESH_OPERATION =
+            "http://www.dbunit.org/properties/refreshOperation";
+    /**
+     * Cache for the table and foreign key metadata which can be shared by
+     * several connections to the same database. <code>null</code> disables
+     * caching.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_METADATA_CACHE =
+            "http://www.dbunit.org/properties/metadataCache";
+    /**
+     * Number of bytes the {@link SpillingResultSetTableFactory} keeps in heap
+     * per table before it writes further rows to a temporary file.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_SPILL_MEMORY_BUDGET =
+            "http://www.dbunit.org/properties/spillMemoryBudget";
+    /**
+     * Number of rows the {@link SpillingResultSetTableFactory} writes to and
+     * reads from the temporary file at once.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_SPILL_PAGE_SIZE =
+            "http://www.dbunit.org/properties/spillPageSize";
+    /**
+     * Directory of the temporary files written by the
+     * {@link SpillingResultSetTableFactory}. <code>null</code> selects the
+     * default temporary directory.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_SPILL_DIRECTORY =
+            "http://www.dbunit.org/properties/spillDirectory";
+    /**
+     * Generates the SQL of the assertions computing the differences between
+     * an expected table and a database table on the database server.
+     * @since 2.7.1
+     */
+    public static final String PROPERTY_SET_DIFFERENCE_DIALECT =
+            "http://www.dbunit.org/properties/setDifferenceDialect";
 
     public static final String FEATURE_CASE_SENSITIVE_TABLE_NAMES =
         "http://www.dbunit.org/features/caseSensitiveTableNames";
@@ -88,6 +150,31 @@ public class DatabaseConfig
         "http://www.dbunit.org/features/skipOracleRecycleBinTables";
     public static final String FEATURE_ALLOW_EMPTY_FIELDS =
             "http://www.dbunit.org/features/allowEmptyFields";
+    /**
+     * Enables the refresh operation to read the existing primary keys of a
+     * chunk of rows at once and to execute inserts and updates in batches.
+     * @since 2.7.1
+     */
+    public static final String FEATURE_BATCHED_REFRESH =
+            "http://www.dbunit.org/features/batchedRefresh";
+    /**
+     * Enables the database dataset to load the columns and primary keys of
+     * all tables of a schema at once when the metadata of the first table is
+     * requested. The {@link DatabaseSequenceFilter} likewise reads the foreign
+     * keys of a whole schema at once. Requires a database specific metadata
+     * handler implementing {@link IBulkMetadataHandler}.
+     * @since 2.7.1
+     */
+    public static final String FEATURE_BULK_METADATA_LOADING =
+            "http://www.dbunit.org/features/bulkMetadataLoading";
+    /**
+     * Enables the {@link CachedResultSetTableFactory} to cache the rows of a
+     * table column by column in primitive arrays chosen from the column data
+     * types. See {@link org.dbunit.dataset.ColumnarTable}.
+     * @since 2.7.1
+     */
+    public static final String FEATURE_COLUMNAR_TABLES =
+            "http://www.dbunit.org/features/columnarTables";
 
     /**
      * A list of all properties as {@link ConfigProperty} objects. 
@@ -104,12 +191,23 @@ public class DatabaseConfig
         new ConfigProperty(PROPERTY_FETCH_SIZE, Integer.class, false),
         new ConfigProperty(PROPERTY_METADATA_HANDLER, IMetadataHandler.class, false),
         new ConfigProperty(PROPERTY_IDENTITY_COLUMN_FILTER, IColumnFilter.class, true),
+        new ConfigProperty(PROPERTY_STATEMENT_CACHE_SIZE, Integer.class, false),
+        new ConfigProperty(PROPERTY_INSERT_ROWS_PER_STATEMENT, Integer.class, false),
+        new ConfigProperty(PROPERTY_REFRESH_OPERATION, DatabaseOperation.class, true),
+        new ConfigProperty(PROPERTY_METADATA_CACHE, IMetadataCache.class, true),
+        new ConfigProperty(PROPERTY_SPILL_MEMORY_BUDGET, Long.class, false),
+        new ConfigProperty(PROPERTY_SPILL_PAGE_SIZE, Integer.class, false),
+        new ConfigProperty(PROPERTY_SPILL_DIRECTORY, File.class, true),
+        new ConfigProperty(PROPERTY_SET_DIFFERENCE_DIALECT, SetDifferenceDialect.class, false),
         new ConfigProperty(FEATURE_CASE_SENSITIVE_TABLE_NAMES, Boolean.class, false),
         new ConfigProperty(FEATURE_QUALIFIED_TABLE_NAMES, Boolean.class, false),
         new ConfigProperty(FEATURE_BATCHED_STATEMENTS, Boolean.class, false),
         new ConfigProperty(FEATURE_DATATYPE_WARNING, Boolean.class, false),
         new ConfigProperty(FEATURE_SKIP_ORACLE_RECYCLEBIN_TABLES, Boolean.class, false),
         new ConfigProperty(FEATURE_ALLOW_EMPTY_FIELDS, Boolean.class, false),
+        new ConfigProperty(FEATURE_BATCHED_REFRESH, Boolean.class, false),
+        new ConfigProperty(FEATURE_BULK_METADATA_LOADING, Boolean.class, false),
+        new ConfigProperty(FEATURE_COLUMNAR_TABLES, Boolean.class, false),
         new ConfigProperty(PROPERTY_ALLOW_VERIFYTABLEDEFINITION_EXPECTEDTABLE_COUNT_MISMATCH, Boolean.class, false),
     };
 
@@ -123,7 +221,10 @@ public class DatabaseConfig
         FEATURE_BATCHED_STATEMENTS,
         FEATURE_DATATYPE_WARNING,
         FEATURE_SKIP_ORACLE_RECYCLEBIN_TABLES,
-        FEATURE_ALLOW_EMPTY_FIELDS
+        FEATURE_ALLOW_EMPTY_FIELDS,
+        FEATURE_BATCHED_REFRESH,
+        FEATURE_BULK_METADATA_LOADING,
+        FEATURE_COLUMNAR_TABLES
     };
     
     private static final DefaultDataTypeFactory DEFAULT_DATA_TYPE_FACTORY =
@@ -136,6 +237,12 @@ public class DatabaseConfig
     private static final String[] DEFAULT_TABLE_TYPE = {"TABLE"};
     private static final Integer DEFAULT_BATCH_SIZE = new Integer(100);
     private static final Integer DEFAULT_FETCH_SIZE = new Integer(100);
+    private static final Integer DEFAULT_STATEMENT_CACHE_SIZE = new Integer(1);
+    private static final Integer DEFAULT_INSERT_ROWS_PER_STATEMENT = new Integer(1);
+    private static final Long DEFAULT_SPILL_MEMORY_BUDGET = new Long(64L * 1024 * 1024);
+    private static final Integer DEFAULT_SPILL_PAGE_SIZE = new Integer(1024);
+    private static final SetDifferenceDialect DEFAULT_SET_DIFFERENCE_DIALECT =
+            new SetDifferenceDialect();
 
 
 
@@ -150,6 +257,9 @@ public class DatabaseConfig
         setFeature(FEATURE_CASE_SENSITIVE_TABLE_NAMES, false);
         setFeature(FEATURE_DATATYPE_WARNING, true);
         setFeature(FEATURE_ALLOW_EMPTY_FIELDS, false);
+        setFeature(FEATURE_BATCHED_REFRESH, false);
+        setFeature(FEATURE_BULK_METADATA_LOADING, false);
+        setFeature(FEATURE_COLUMNAR_TABLES, false);
 
         setProperty(PROPERTY_STATEMENT_FACTORY, PREPARED_STATEMENT_FACTORY);
         setProperty(PROPERTY_RESULTSET_TABLE_FACTORY, RESULT_SET_TABLE_FACTORY);
@@ -158,6 +268,11 @@ public class DatabaseConfig
         setProperty(PROPERTY_TABLE_TYPE, DEFAULT_TABLE_TYPE);
         setProperty(PROPERTY_BATCH_SIZE, DEFAULT_BATCH_SIZE);
         setProperty(PROPERTY_FETCH_SIZE, DEFAULT_FETCH_SIZE);
+        setProperty(PROPERTY_STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
+        setProperty(PROPERTY_INSERT_ROWS_PER_STATEMENT, DEFAULT_INSERT_ROWS_PER_STATEMENT);
+        setProperty(PROPERTY_SPILL_MEMORY_BUDGET, DEFAULT_SPILL_MEMORY_BUDGET);
+        setProperty(PROPERTY_SPILL_PAGE_SIZE, DEFAULT_SPILL_PAGE_SIZE);
+        setProperty(PROPERTY_SET_DIFFERENCE_DIALECT, DEFAULT_SET_DIFFERENCE_DIALECT);
         setProperty(PROPERTY_METADATA_HANDLER, new DefaultMetadataHandler());
         setProperty(
                 PROPERTY_ALLOW_VERIFYTABLEDEFINITION_EXPECTEDTABLE_COUNT_MISMATCH,
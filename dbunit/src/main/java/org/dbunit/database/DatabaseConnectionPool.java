@@ -0,0 +1,198 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.dbunit.IDatabaseTester;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connections obtained from a connection source, opened on demand, for tasks
+ * running concurrently. A connection is used by a single task at a time.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DatabaseConnectionPool
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(DatabaseConnectionPool.class);
+
+    private final IDatabaseTester _connectionSource;
+    private final DatabaseConfig _config;
+    private final boolean _transactional;
+    private final BlockingQueue<IDatabaseConnection> _idleConnections =
+            new LinkedBlockingQueue<IDatabaseConnection>();
+    private final List<IDatabaseConnection> _connections =
+            new ArrayList<IDatabaseConnection>();
+
+    /**
+     * @param connectionSource Provides the pooled connections, must return a
+     *            new connection on each call
+     * @param config The configuration copied to the pooled connections. Can
+     *            be <code>null</code> to keep the configuration of the
+     *            connection source.
+     * @param transactional <code>true</code> to disable the auto-commit of
+     *            the pooled connections
+     */
+    public DatabaseConnectionPool(IDatabaseTester connectionSource,
+            DatabaseConfig config, boolean transactional)
+    {
+        if (connectionSource == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'connectionSource' must not be null");
+        }
+        _connectionSource = connectionSource;
+        _config = config;
+        _transactional = transactional;
+    }
+
+    /**
+     * Returns an idle connection or opens a new one. The connection must be
+     * given back with {@link #release} once the caller is done with it.
+     */
+    public IDatabaseConnection acquire() throws Exception
+    {
+        IDatabaseConnection connection = _idleConnections.poll();
+        if (connection != null)
+        {
+            return connection;
+        }
+
+        connection = _connectionSource.getConnection();
+        synchronized (_connections)
+        {
+            for (IDatabaseConnection opened : _connections)
+            {
+                if (opened == connection)
+                {
+                    throw new IllegalStateException("The connection source "
+                            + _connectionSource + " must return a new"
+                            + " connection on each call");
+                }
+            }
+            _connections.add(connection);
+        }
+
+        if (_config != null)
+        {
+            copyConfig(connection.getConfig());
+        }
+
+        if (_transactional)
+        {
+            connection.getConnection().setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    /**
+     * Copies the configuration given to this pool to a pooled connection.
+     */
+    private void copyConfig(DatabaseConfig config)
+    {
+        DatabaseConfig.ConfigProperty[] properties =
+                DatabaseConfig.ALL_PROPERTIES;
+        for (int i = 0; i < properties.length; i++)
+        {
+            String name = properties[i].getProperty();
+            Object value = _config.getProperty(name);
+            if (value != null || properties[i].isNullable())
+            {
+                config.setProperty(name, value);
+            }
+        }
+    }
+
+    /**
+     * Makes the given connection available to other callers.
+     */
+    public void release(IDatabaseConnection connection)
+    {
+        _idleConnections.offer(connection);
+    }
+
+    /**
+     * Commits or rolls back the pending transaction of all connections.
+     */
+    public void endTransactions(boolean commit) throws SQLException
+    {
+        synchronized (_connections)
+        {
+            for (IDatabaseConnection connection : _connections)
+            {
+                Connection jdbcConnection = connection.getConnection();
+                if (commit)
+                {
+                    jdbcConnection.commit();
+                }
+                else
+                {
+                    jdbcConnection.rollback();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all connections opened by this pool.
+     */
+    public void close() throws SQLException
+    {
+        SQLException firstException = null;
+        synchronized (_connections)
+        {
+            for (IDatabaseConnection connection : _connections)
+            {
+                try
+                {
+                    connection.close();
+                }
+                catch (SQLException e)
+                {
+                    logger.warn("close: failed to close connection {}", connection, e);
+                    if (firstException == null)
+                    {
+                        firstException = e;
+                    }
+                }
+            }
+            _connections.clear();
+        }
+        if (firstException != null)
+        {
+            throw firstException;
+        }
+    }
+}
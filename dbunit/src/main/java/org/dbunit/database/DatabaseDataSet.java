@@ -25,19 +25,25 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import org.dbunit.DatabaseUnitRuntimeException;
 import org.dbunit.dataset.AbstractDataSet;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.DataSetUtils;
+import org.dbunit.dataset.FilteredTableMetaData;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.NoSuchTableException;
 import org.dbunit.dataset.OrderedTableNameMap;
+import org.dbunit.dataset.filter.IColumnFilter;
 import org.dbunit.dataset.filter.ITableFilterSimple;
 import org.dbunit.util.QualifiedTableName;
 import org.dbunit.util.SQLHelper;
@@ -63,6 +69,10 @@ public class DatabaseDataSet extends AbstractDataSet
     private final IDatabaseConnection _connection;
     private OrderedTableNameMap _tableMap = null;
     private SchemaSet _schemaSet = new SchemaSet(isCaseSensitiveTableNames());
+    /**
+     * Schemas whose table metadata has been loaded in bulk
+     */
+    private SchemaSet _bulkLoadedSchemaSet = new SchemaSet(isCaseSensitiveTableNames());
 
     private final ITableFilterSimple _tableFilter;
     private final ITableFilterSimple _oracleRecycleBinTableFilter;
@@ -122,12 +132,21 @@ public class DatabaseDataSet extends AbstractDataSet
                     new Object[] { schema, metaData, escapePattern });
         }
 
-        Column[] columns = metaData.getColumns();
-        Column[] primaryKeys = metaData.getPrimaryKeys();
+        return getSelectStatement(schema, metaData.getTableName(), metaData.getColumns(),
+                metaData.getPrimaryKeys(), escapePattern);
+    }
 
+    /**
+     * Builds a select statement listing the given columns only, ordered by
+     * the given primary keys.
+     * @since 2.7.1
+     */
+    static String getSelectStatement(String schema, String tableName, Column[] columns,
+            Column[] primaryKeys, String escapePattern)
+    {
         if(columns.length==0){
             throw new DatabaseUnitRuntimeException("At least one column is required to build a valid select statement. "+
-                    "Cannot load data for " + metaData);
+                    "Cannot load data for " + tableName);
         }
 
         // select
@@ -147,7 +166,7 @@ public class DatabaseDataSet extends AbstractDataSet
         // from
         sqlBuffer.append(" from ");
         sqlBuffer.append(new QualifiedTableName(
-                metaData.getTableName(), schema, escapePattern).getQualifiedName());
+                tableName, schema, escapePattern).getQualifiedName());
 
         // order by
         for (int i = 0; i < primaryKeys.length; i++)
@@ -192,63 +211,145 @@ public class DatabaseDataSet extends AbstractDataSet
         {
             logger.debug("Initializing the data set from the database...");
 
-            Connection jdbcConnection = _connection.getConnection();
-            DatabaseMetaData databaseMetaData = jdbcConnection.getMetaData();
+            List tables = getTables(schema);
 
-            if(SQLHelper.isSybaseDb(jdbcConnection.getMetaData()) && !jdbcConnection.getMetaData().getUserName().equals(schema) ){
-                logger.warn("For sybase the schema name should be equal to the user name. " +
-                        "Otherwise the DatabaseMetaData#getTables() method might not return any columns. " +
-                "See dbunit tracker #1628896 and http://issues.apache.org/jira/browse/TORQUE-40?page=all");
+            if (_tableMap == null) {
+              _tableMap = super.createTableNameMap();
             }
+            _schemaSet.add(schema);
+            for (Iterator i = tables.iterator(); i.hasNext();)
+            {
+                String[] table = (String[])i.next();
+                String schemaName = table[0];
+                String tableName = table[1];
 
-            String[] tableType = (String[])config.getProperty(DatabaseConfig.PROPERTY_TABLE_TYPE);
-            IMetadataHandler metadataHandler = (IMetadataHandler) config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+                if(_tableFilter != null && !_tableFilter.accept(tableName))
+                {
+                    logger.debug("Skipping table '{}'", tableName);
+                    continue;
+                }
+                if(!_oracleRecycleBinTableFilter.accept(tableName))
+                {
+                    logger.debug("Skipping oracle recycle bin table '{}'", tableName);
+                    continue;
+                }
+                if (schema == null && !_schemaSet.contains(schemaName)) {
+                  _schemaSet.add(schemaName);
+                }
 
-            ResultSet resultSet = metadataHandler.getTables(databaseMetaData, schema, tableType);
+                QualifiedTableName qualifiedTableName = new QualifiedTableName(tableName, schemaName);
+                tableName = qualifiedTableName.getQualifiedNameIfEnabled(config);
 
-            if(logger.isDebugEnabled())
-            {
-                logger.debug(SQLHelper.getDatabaseInfo(jdbcConnection.getMetaData()));
-                logger.debug("metadata resultset={}", resultSet);
+                // Put the table into the table map
+                _tableMap.add(tableName, null);
             }
+        }
+        catch (SQLException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
 
-            try
-            {
-        if (_tableMap == null) {
-          _tableMap = super.createTableNameMap();
+    /**
+     * Returns the schema and table names of the given schema, from the
+     * metadata cache if possible.
+     * @return A list of string arrays holding the schema and the table name
+     */
+    private List getTables(String schema) throws SQLException
+    {
+        String cacheKey = MetadataCacheHelper.TABLES_PREFIX + schema;
+        List tables = (List)MetadataCacheHelper.get(_connection, cacheKey);
+        if (tables != null)
+        {
+            return tables;
         }
-        _schemaSet.add(schema);
-                while (resultSet.next())
-                {
-                    String schemaName = metadataHandler.getSchema(resultSet);
-                    String tableName = resultSet.getString(3);
-
-                    if(_tableFilter != null && !_tableFilter.accept(tableName))
-                    {
-                        logger.debug("Skipping table '{}'", tableName);
-                        continue;
-                    }
-                    if(!_oracleRecycleBinTableFilter.accept(tableName))
-                    {
-                        logger.debug("Skipping oracle recycle bin table '{}'", tableName);
-                        continue;
-                    }
-                    if (schema == null && !_schemaSet.contains(schemaName)) {
-                      _schemaSet.add(schemaName);
-                    }
-
-                    QualifiedTableName qualifiedTableName = new QualifiedTableName(tableName, schemaName);
-                    tableName = qualifiedTableName.getQualifiedNameIfEnabled(config);
-
-                    // Put the table into the table map
-                    _tableMap.add(tableName, null);
-                }
+
+        DatabaseConfig config = _connection.getConfig();
+        Connection jdbcConnection = _connection.getConnection();
+        DatabaseMetaData databaseMetaData = jdbcConnection.getMetaData();
+
+        if(SQLHelper.isSybaseDb(jdbcConnection.getMetaData()) && !jdbcConnection.getMetaData().getUserName().equals(schema) ){
+            logger.warn("For sybase the schema name should be equal to the user name. " +
+                    "Otherwise the DatabaseMetaData#getTables() method might not return any columns. " +
+            "See dbunit tracker #1628896 and http://issues.apache.org/jira/browse/TORQUE-40?page=all");
+        }
+
+        String[] tableType = (String[])config.getProperty(DatabaseConfig.PROPERTY_TABLE_TYPE);
+        IMetadataHandler metadataHandler = (IMetadataHandler) config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+
+        ResultSet resultSet = metadataHandler.getTables(databaseMetaData, schema, tableType);
+
+        if(logger.isDebugEnabled())
+        {
+            logger.debug(SQLHelper.getDatabaseInfo(jdbcConnection.getMetaData()));
+            logger.debug("metadata resultset={}", resultSet);
+        }
+
+        tables = new ArrayList();
+        try
+        {
+            while (resultSet.next())
+            {
+                tables.add(new String[] {metadataHandler.getSchema(resultSet), resultSet.getString(3)});
             }
-            finally
+        }
+        finally
+        {
+            resultSet.close();
+        }
+        MetadataCacheHelper.put(_connection, cacheKey, tables);
+        return tables;
+    }
+
+    /**
+     * Loads the metadata of all tables in the given schema into the table map
+     * if the bulk metadata loading is enabled and the schema was not loaded yet.
+     * Tables whose metadata was already created keep it.
+     * @return <code>true</code> if the schema has been loaded
+     */
+    private boolean loadSchemaMetaData(String schema) throws DataSetException
+    {
+        DatabaseConfig config = _connection.getConfig();
+        Object metadataHandler = config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+        if (!config.getFeature(DatabaseConfig.FEATURE_BULK_METADATA_LOADING)
+                || !(metadataHandler instanceof IBulkMetadataHandler)
+                || _bulkLoadedSchemaSet.contains(schema))
+        {
+            return false;
+        }
+        logger.debug("loadSchemaMetaData(schema={}) - start", schema);
+
+        Map metaDataMap = DatabaseTableMetaData.loadSchemaMetaData(_connection, schema,
+                (IBulkMetadataHandler)metadataHandler, isCaseSensitiveTableNames());
+        for (Iterator i = metaDataMap.entrySet().iterator(); i.hasNext();)
+        {
+            Map.Entry entry = (Map.Entry)i.next();
+            String tableName = (String)entry.getKey();
+            if (_tableMap.containsTable(tableName) && _tableMap.get(tableName) == null)
             {
-                resultSet.close();
+                DatabaseTableMetaData metaData = (DatabaseTableMetaData)entry.getValue();
+                putCacheEntry(MetadataCacheHelper.TABLE_PREFIX + _tableMap.getTableName(tableName), metaData);
+                _tableMap.update(tableName, metaData);
             }
         }
+        _bulkLoadedSchemaSet.add(schema);
+        return true;
+    }
+
+    /**
+     * Stores the given metadata in the metadata cache if one is configured.
+     */
+    private void putCacheEntry(String cacheKey, DatabaseTableMetaData metaData)
+    throws DataSetException
+    {
+        if (!MetadataCacheHelper.isEnabled(_connection))
+        {
+            return;
+        }
+        try
+        {
+            MetadataCacheHelper.put(_connection, cacheKey, metaData.toCacheEntry());
+        }
         catch (SQLException e)
         {
             throw new DataSetException(e);
@@ -312,12 +413,42 @@ public class DatabaseDataSet extends AbstractDataSet
             return metaData;
         }
 
+        // Try the metadata cache shared with other connections
+        String cacheKey = MetadataCacheHelper.TABLE_PREFIX + _tableMap.getTableName(tableName);
+        try
+        {
+            Object cacheEntry = MetadataCacheHelper.get(_connection, cacheKey);
+            if (cacheEntry != null)
+            {
+                metaData = DatabaseTableMetaData.fromCacheEntry(cacheEntry, _connection,
+                        super.isCaseSensitiveTableNames());
+                _tableMap.update(tableName, metaData);
+                return metaData;
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DataSetException(e);
+        }
+
+        // Load the metadata of the whole schema at once if enabled
+        if (loadSchemaMetaData(qualifiedTableName.getSchema()))
+        {
+            metaData = (ITableMetaData)_tableMap.get(tableName);
+            if (metaData != null)
+            {
+                return metaData;
+            }
+        }
+
         // Create metadata and cache it
-        metaData = new DatabaseTableMetaData(tableName, _connection, true, super.isCaseSensitiveTableNames());
+        DatabaseTableMetaData databaseTableMetaData = new DatabaseTableMetaData(
+                tableName, _connection, true, super.isCaseSensitiveTableNames());
+        putCacheEntry(cacheKey, databaseTableMetaData);
         // Put the metadata object into the cache map
-        _tableMap.update(tableName, metaData);
+        _tableMap.update(tableName, databaseTableMetaData);
 
-        return metaData;
+        return databaseTableMetaData;
     }
 
     public ITable getTable(String tableName) throws DataSetException
@@ -343,6 +474,41 @@ public class DatabaseDataSet extends AbstractDataSet
         }
     }
 
+    /**
+     * Returns the specified table with only the columns accepted by the given
+     * filter. The excluded columns are left out of the generated select
+     * statement, so they are never fetched from the database.
+     * @param tableName The name of the table
+     * @param columnFilter The filter defining which columns are queried
+     * @return The table with the filtered columns
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    public ITable getTable(String tableName, IColumnFilter columnFilter) throws DataSetException
+    {
+        logger.debug("getTable(tableName={}, columnFilter={}) - start", tableName, columnFilter);
+
+        if (columnFilter == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'columnFilter' must not be null");
+        }
+
+        ITableMetaData metaData = new FilteredTableMetaData(
+                getTableMetaData(tableName), columnFilter);
+        try
+        {
+            DatabaseConfig config = _connection.getConfig();
+            IResultSetTableFactory factory = (IResultSetTableFactory)config.getProperty(
+                    DatabaseConfig.PROPERTY_RESULTSET_TABLE_FACTORY);
+            return factory.createTable(metaData, _connection);
+        }
+        catch (SQLException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
     private static class SchemaSet extends HashSet<String>
     {
         private static final long serialVersionUID = 1L;
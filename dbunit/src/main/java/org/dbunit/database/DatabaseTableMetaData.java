@@ -21,6 +21,7 @@
 
 package org.dbunit.database;
 
+import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -28,7 +29,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.dbunit.dataset.AbstractTableMetaData;
 import org.dbunit.dataset.Column;
@@ -69,6 +73,10 @@ public class DatabaseTableMetaData extends AbstractTableMetaData
     private final IDatabaseConnection _connection;
     private Column[] _columns;
     private Column[] _primaryKeys;
+    /**
+     * Primary key names loaded in advance, <code>null</code> if they are looked up lazily
+     */
+    private String[] _primaryKeyNames;
     private boolean _caseSensitiveMetaData;
 	//added by hzhan032
     private IColumnFilter lastKeyFilter;
@@ -163,6 +171,187 @@ public class DatabaseTableMetaData extends AbstractTableMetaData
         
     }
 
+    /**
+     * Creates the metadata of a table found by a schema wide lookup. The table
+     * name is used as returned by the database, so it is neither validated nor
+     * case corrected.
+     */
+    private DatabaseTableMetaData(IDatabaseConnection connection, String tableName,
+            boolean caseSensitiveMetaData)
+    {
+        _connection = connection;
+        _caseSensitiveMetaData = caseSensitiveMetaData;
+        _originalTableName = tableName;
+        _qualifiedTableNameSupport = new QualifiedTableName(_originalTableName, _connection.getSchema());
+    }
+
+    /**
+     * Loads the metadata of all tables in the given schema with one lookup for
+     * the columns and one for the primary keys.
+     * @param connection The database connection
+     * @param schemaName The schema to load, <code>null</code> for all schemas
+     * @param metadataHandler The handler used for the schema wide lookups
+     * @param caseSensitiveMetaData Whether or not the schema is matched in a case sensitive way
+     * @return The metadata of the tables keyed by their name, qualified if
+     * {@link DatabaseConfig#FEATURE_QUALIFIED_TABLE_NAMES} is enabled
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    static Map loadSchemaMetaData(IDatabaseConnection connection, String schemaName,
+            IBulkMetadataHandler metadataHandler, boolean caseSensitiveMetaData)
+    throws DataSetException
+    {
+        logger.debug("loadSchemaMetaData(connection={}, schemaName={}) - start", connection, schemaName);
+
+        DatabaseConfig config = connection.getConfig();
+        IMetadataHandler handler = (IMetadataHandler)metadataHandler;
+        boolean datatypeWarning = config.getFeature(DatabaseConfig.FEATURE_DATATYPE_WARNING);
+
+        Map metaDataMap = new LinkedHashMap();
+        Map columnLists = new LinkedHashMap();
+        try
+        {
+            DatabaseMetaData databaseMetaData = connection.getConnection().getMetaData();
+
+            ResultSet resultSet = metadataHandler.getSchemaColumns(databaseMetaData, schemaName);
+            try
+            {
+                IDataTypeFactory dataTypeFactory = null;
+                while (resultSet.next())
+                {
+                    // Check for exact schema name match because
+                    // databaseMetaData.getColumns() uses patterns for the lookup
+                    if (!handler.matches(resultSet, schemaName, null, caseSensitiveMetaData))
+                    {
+                        continue;
+                    }
+                    String tableName = new QualifiedTableName(resultSet.getString(3),
+                            handler.getSchema(resultSet)).getQualifiedNameIfEnabled(config);
+                    DatabaseTableMetaData metaData = (DatabaseTableMetaData)metaDataMap.get(tableName);
+                    if (metaData == null)
+                    {
+                        metaData = new DatabaseTableMetaData(connection, tableName, caseSensitiveMetaData);
+                        metaDataMap.put(tableName, metaData);
+                        columnLists.put(tableName, new ArrayList());
+                    }
+                    if (dataTypeFactory == null)
+                    {
+                        dataTypeFactory = metaData.getDataTypeFactory(connection);
+                    }
+
+                    Column column = SQLHelper.createColumn(resultSet, dataTypeFactory, datatypeWarning);
+                    if (column != null)
+                    {
+                        ((List)columnLists.get(tableName)).add(column);
+                    }
+                }
+            }
+            finally
+            {
+                SQLHelper.close(resultSet, resultSet.getStatement());
+            }
+
+            Map primaryKeyLists = new LinkedHashMap();
+            resultSet = metadataHandler.getSchemaPrimaryKeys(databaseMetaData, schemaName);
+            try
+            {
+                while (resultSet.next())
+                {
+                    String tableName = new QualifiedTableName(resultSet.getString(3),
+                            handler.getSchema(resultSet)).getQualifiedNameIfEnabled(config);
+                    if (!metaDataMap.containsKey(tableName))
+                    {
+                        continue;
+                    }
+                    List list = (List)primaryKeyLists.get(tableName);
+                    if (list == null)
+                    {
+                        list = new ArrayList();
+                        primaryKeyLists.put(tableName, list);
+                    }
+                    list.add(new PrimaryKeyData(resultSet.getString(4), resultSet.getInt(5)));
+                }
+            }
+            finally
+            {
+                SQLHelper.close(resultSet, resultSet.getStatement());
+            }
+
+            for (Iterator i = metaDataMap.entrySet().iterator(); i.hasNext();)
+            {
+                Map.Entry entry = (Map.Entry)i.next();
+                DatabaseTableMetaData metaData = (DatabaseTableMetaData)entry.getValue();
+                List columnList = (List)columnLists.get(entry.getKey());
+                metaData._columns = (Column[])columnList.toArray(new Column[0]);
+                List primaryKeyList = (List)primaryKeyLists.get(entry.getKey());
+                metaData._primaryKeyNames = primaryKeyList == null ?
+                        new String[0] : getSortedNames(primaryKeyList);
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DataSetException("Exception while loading the metadata of schema '" + schemaName + "'", e);
+        }
+
+        logger.debug("Loaded metadata of {} tables", String.valueOf(metaDataMap.size()));
+        return metaDataMap;
+    }
+
+    /**
+     * Returns the columns and primary key names of this table in a
+     * serializable form to be stored in an {@link IMetadataCache}.
+     * @return The cache entry
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    Serializable toCacheEntry() throws DataSetException
+    {
+        Column[] columns = getColumns();
+        if (_primaryKeyNames == null)
+        {
+            try
+            {
+                _primaryKeyNames = getPrimaryKeyNames();
+            }
+            catch (SQLException e)
+            {
+                throw new DataSetException(e);
+            }
+        }
+        return new CacheEntry(getTableName(), columns, _primaryKeyNames);
+    }
+
+    /**
+     * Creates the metadata of a table from an entry created by
+     * {@link #toCacheEntry()}. The data types are created by the data type
+     * factory of the given connection.
+     * @param entry The cache entry
+     * @param connection The database connection
+     * @param caseSensitiveMetaData Whether or not the metadata looked up in a case sensitive way
+     * @return The table metadata
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    static DatabaseTableMetaData fromCacheEntry(Object entry,
+            IDatabaseConnection connection, boolean caseSensitiveMetaData)
+    throws DataSetException
+    {
+        CacheEntry cacheEntry = (CacheEntry)entry;
+        DatabaseTableMetaData metaData = new DatabaseTableMetaData(
+                connection, cacheEntry._tableName, caseSensitiveMetaData);
+        try
+        {
+            metaData._columns = cacheEntry.createColumns(
+                    metaData.getDataTypeFactory(connection));
+        }
+        catch (SQLException e)
+        {
+            throw new DataSetException(e);
+        }
+        metaData._primaryKeyNames = cacheEntry._primaryKeyNames;
+        return metaData;
+    }
+
     /**
      * @param tableName
      * @param resultSet
@@ -238,18 +427,23 @@ public class DatabaseTableMetaData extends AbstractTableMetaData
             resultSet.close();
         }
 
-        Collections.sort(list);
-        String[] keys = new String[list.size()];
+        return getSortedNames(list);
+    }
+
+    private static String[] getSortedNames(List primaryKeyDataList)
+    {
+        Collections.sort(primaryKeyDataList);
+        String[] keys = new String[primaryKeyDataList.size()];
         for (int i = 0; i < keys.length; i++)
         {
-            PrimaryKeyData data = (PrimaryKeyData)list.get(i);
+            PrimaryKeyData data = (PrimaryKeyData)primaryKeyDataList.get(i);
             keys[i] = data.getName();
         }
 
         return keys;
     }
 
-    private class PrimaryKeyData implements Comparable
+    private static class PrimaryKeyData implements Comparable
     {
         private final String _name;
         private final int _index;
@@ -282,6 +476,75 @@ public class DatabaseTableMetaData extends AbstractTableMetaData
         }
     }
 
+    /**
+     * Serializable form of the metadata of a table. The data types are stored
+     * by their SQL type and name and are created again when the entry is read.
+     */
+    private static class CacheEntry implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String _tableName;
+        private final String[] _primaryKeyNames;
+        private final String[] _columnNames;
+        private final int[] _sqlTypes;
+        private final String[] _sqlTypeNames;
+        private final int[] _nullables;
+        private final String[] _defaultValues;
+        private final String[] _remarks;
+        private final String[] _autoIncrements;
+
+        CacheEntry(String tableName, Column[] columns, String[] primaryKeyNames)
+        {
+            _tableName = tableName;
+            _primaryKeyNames = primaryKeyNames;
+            _columnNames = new String[columns.length];
+            _sqlTypes = new int[columns.length];
+            _sqlTypeNames = new String[columns.length];
+            _nullables = new int[columns.length];
+            _defaultValues = new String[columns.length];
+            _remarks = new String[columns.length];
+            _autoIncrements = new String[columns.length];
+            for (int i = 0; i < columns.length; i++)
+            {
+                Column column = columns[i];
+                _columnNames[i] = column.getColumnName();
+                _sqlTypes[i] = column.getDataType().getSqlType();
+                _sqlTypeNames[i] = column.getSqlTypeName();
+                _nullables[i] = toNullableValue(column.getNullable());
+                _defaultValues[i] = column.getDefaultValue();
+                _remarks[i] = column.getRemarks();
+                _autoIncrements[i] = column.getAutoIncrement().getKey();
+            }
+        }
+
+        private static int toNullableValue(Column.Nullable nullable)
+        {
+            if (nullable == Column.NO_NULLS)
+            {
+                return DatabaseMetaData.columnNoNulls;
+            }
+            if (nullable == Column.NULLABLE)
+            {
+                return DatabaseMetaData.columnNullable;
+            }
+            return DatabaseMetaData.columnNullableUnknown;
+        }
+
+        Column[] createColumns(IDataTypeFactory dataTypeFactory) throws DataSetException
+        {
+            Column[] columns = new Column[_columnNames.length];
+            for (int i = 0; i < columns.length; i++)
+            {
+                columns[i] = new Column(_columnNames[i],
+                        dataTypeFactory.createDataType(_sqlTypes[i], _sqlTypeNames[i], _tableName, _columnNames[i]),
+                        _sqlTypeNames[i], Column.nullableValue(_nullables[i]), _defaultValues[i], _remarks[i],
+                        Column.AutoIncrement.autoIncrementValue(_autoIncrements[i]));
+            }
+            return columns;
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // ITableMetaData interface
 
@@ -383,7 +646,8 @@ public class DatabaseTableMetaData extends AbstractTableMetaData
                 	_primaryKeys = Columns.getColumns(getTableName(), getColumns(),
                             primaryKeysFilter);
                 } else {
-                	String[] pkNames = getPrimaryKeyNames();
+                	String[] pkNames = _primaryKeyNames != null ?
+                	        _primaryKeyNames : getPrimaryKeyNames();
                     _primaryKeys = Columns.getColumns(pkNames, getColumns());
                 }
             }
@@ -0,0 +1,270 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory {@link IMetadataCache} which can optionally be saved to a file
+ * and read again in a later run. A single instance is meant to be configured
+ * for all connections of a JVM, for example held in a static field of a test
+ * base class.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DefaultMetadataCache implements IMetadataCache
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(DefaultMetadataCache.class);
+
+    private final File _file;
+    private final ConcurrentHashMap _scopes = new ConcurrentHashMap();
+
+    /**
+     * Creates an empty cache which is not persisted.
+     */
+    public DefaultMetadataCache()
+    {
+        _file = null;
+    }
+
+    /**
+     * Creates a cache persisted in the given file. The entries of an
+     * existing file are read immediately; a file which cannot be read is
+     * ignored. The entries are only written by {@link #save()}.
+     * @param file The file holding the serialized entries
+     */
+    public DefaultMetadataCache(File file)
+    {
+        if (file == null) {
+            throw new NullPointerException(
+            "The parameter 'file' must not be null");
+        }
+        _file = file;
+        if (file.exists())
+        {
+            load();
+        }
+    }
+
+    private void load()
+    {
+        logger.debug("load() - start");
+
+        try
+        {
+            ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(_file)));
+            try
+            {
+                Map scopes = (Map)in.readObject();
+                for (Iterator i = scopes.entrySet().iterator(); i.hasNext();)
+                {
+                    Map.Entry entry = (Map.Entry)i.next();
+                    _scopes.put(entry.getKey(), new Scope((PersistentScope)entry.getValue()));
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException e)
+        {
+            logger.warn("Could not read metadata cache file '" + _file + "'. Starting with an empty cache.", e);
+            _scopes.clear();
+        }
+        catch (ClassNotFoundException e)
+        {
+            logger.warn("Could not read metadata cache file '" + _file + "'. Starting with an empty cache.", e);
+            _scopes.clear();
+        }
+    }
+
+    /**
+     * Writes all entries to the file of this cache.
+     * @throws IOException
+     * @throws IllegalStateException If this cache has no file
+     */
+    public void save() throws IOException
+    {
+        logger.debug("save() - start");
+
+        if (_file == null)
+        {
+            throw new IllegalStateException("The metadata cache has no file to be saved to");
+        }
+
+        Map scopes = new HashMap();
+        for (Iterator i = _scopes.entrySet().iterator(); i.hasNext();)
+        {
+            Map.Entry entry = (Map.Entry)i.next();
+            scopes.put(entry.getKey(), ((Scope)entry.getValue()).toPersistentScope());
+        }
+
+        // Write to a temporary file first so that a concurrent reader never sees a partial file
+        File tempFile = new File(_file.getPath() + ".tmp");
+        ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try
+        {
+            out.writeObject(scopes);
+        }
+        finally
+        {
+            out.close();
+        }
+        if (!tempFile.renameTo(_file))
+        {
+            _file.delete();
+            if (!tempFile.renameTo(_file))
+            {
+                throw new IOException("Could not rename '" + tempFile + "' to '" + _file + "'");
+            }
+        }
+    }
+
+    private Scope getScope(String scope)
+    {
+        Scope result = (Scope)_scopes.get(scope);
+        if (result == null)
+        {
+            result = new Scope(null);
+            Scope previous = (Scope)_scopes.putIfAbsent(scope, result);
+            if (previous != null)
+            {
+                result = previous;
+            }
+        }
+        return result;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IMetadataCache interface
+
+    public Object get(String scope, String key)
+    {
+        return getScope(scope)._entries.get(key);
+    }
+
+    public void put(String scope, String key, Object value)
+    {
+        getScope(scope)._entries.put(key, value);
+    }
+
+    public boolean isValidated(String scope)
+    {
+        return getScope(scope)._validated;
+    }
+
+    public void validate(String scope, String fingerprint)
+    {
+        logger.debug("validate(scope={}, fingerprint={}) - start", scope, fingerprint);
+
+        Scope cachedScope = getScope(scope);
+        synchronized (cachedScope)
+        {
+            if (cachedScope._fingerprint != null && !cachedScope._fingerprint.equals(fingerprint))
+            {
+                logger.info("Schema fingerprint of '{}' changed. Discarding the cached metadata.", scope);
+                cachedScope._entries.clear();
+            }
+            cachedScope._fingerprint = fingerprint;
+            cachedScope._validated = true;
+        }
+    }
+
+    public void clear()
+    {
+        _scopes.clear();
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_file=").append(_file);
+        sb.append(", _scopes=").append(_scopes.keySet());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Entries of one scope.
+     */
+    private static class Scope
+    {
+        private final Map _entries = new ConcurrentHashMap();
+        private String _fingerprint;
+        private volatile boolean _validated;
+
+        Scope(PersistentScope persistentScope)
+        {
+            if (persistentScope != null)
+            {
+                _fingerprint = persistentScope._fingerprint;
+                _entries.putAll(persistentScope._entries);
+            }
+        }
+
+        PersistentScope toPersistentScope()
+        {
+            return new PersistentScope(_fingerprint, new HashMap(_entries));
+        }
+    }
+
+    /**
+     * Serialized form of a {@link Scope}.
+     */
+    private static class PersistentScope implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String _fingerprint;
+        private final HashMap _entries;
+
+        PersistentScope(String fingerprint, HashMap entries)
+        {
+            _fingerprint = fingerprint;
+            _entries = entries;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITableCursor;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.RowOutOfBoundsException;
 
@@ -78,6 +79,11 @@ public class ForwardOnlyResultSetTable extends AbstractResultSetTable
         if(logger.isDebugEnabled())
             logger.debug("getValue(row={}, columnName={}) - start", Integer.toString(row), columnName);
 
+        return getValue(row, getColumnIndex(columnName));
+    }
+
+    public Object getValue(int row, int columnIndex) throws DataSetException
+    {
         try
         {
             // Move cursor forward up to specified row
@@ -99,8 +105,12 @@ public class ForwardOnlyResultSetTable extends AbstractResultSetTable
                 throw new RowOutOfBoundsException(row + " > " + _lastRow);
             }
 
-            int columnIndex = getColumnIndex(columnName);
-            Column column = _metaData.getColumns()[columnIndex];
+            Column[] columns = _metaData.getColumns();
+            if (columnIndex < 0 || columnIndex >= columns.length)
+            {
+                assertValidColumnIndex(columnIndex);
+            }
+            Column column = columns[columnIndex];
             return column.getDataType().getSqlValue(columnIndex + 1, _resultSet);
         }
         catch (SQLException e)
@@ -109,6 +119,15 @@ public class ForwardOnlyResultSetTable extends AbstractResultSetTable
         }
     }
 
+    /**
+     * Returns a cursor that moves the underlying result set forward. The
+     * cursor shares its position with this table.
+     */
+    public ITableCursor cursor()
+    {
+        return new ResultSetCursor();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -125,4 +144,55 @@ public class ForwardOnlyResultSetTable extends AbstractResultSetTable
 
         return sb.toString();
     }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ResultSetCursor class
+
+    private class ResultSetCursor implements ITableCursor
+    {
+        public ITableMetaData getTableMetaData()
+        {
+            return _metaData;
+        }
+
+        public boolean next() throws DataSetException
+        {
+            if (_eot)
+            {
+                return false;
+            }
+
+            try
+            {
+                _eot = !_resultSet.next();
+                _lastRow++;
+            }
+            catch (SQLException e)
+            {
+                throw new DataSetException(e);
+            }
+
+            if (_eot)
+            {
+                // Proactively close the resultset
+                close();
+            }
+            return !_eot;
+        }
+
+        public int getRow()
+        {
+            return _lastRow;
+        }
+
+        public Object get(int column) throws DataSetException
+        {
+            if (_lastRow < 0)
+            {
+                throw new RowOutOfBoundsException(
+                        "Cursor is not positioned on a valid row: " + _lastRow);
+            }
+            return getValue(_lastRow, column);
+        }
+    }
 }
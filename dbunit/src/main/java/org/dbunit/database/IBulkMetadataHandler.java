@@ -0,0 +1,80 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Optional extension of an {@link IMetadataHandler} which looks up the
+ * metadata of all tables of a schema at once. It is used instead of the per
+ * table lookups when the feature
+ * {@link DatabaseConfig#FEATURE_BULK_METADATA_LOADING} is enabled.
+ * <p>
+ * The returned result sets may be produced by a query of the information
+ * schema instead of the {@link DatabaseMetaData}, so the caller closes them
+ * together with their statement.
+ * </p>
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public interface IBulkMetadataHandler
+{
+    /**
+     * Returns the columns of all tables in the given schema. The result set
+     * has the layout of
+     * {@link DatabaseMetaData#getColumns(String, String, String, String)} and
+     * lists the columns of a table in their ordinal order.
+     * @param databaseMetaData The database metadata to be used for retrieving the columns
+     * @param schemaName The schema name; <code>null</code> returns all schemas
+     * @return The result set containing all columns of the schema
+     * @throws SQLException
+     */
+    ResultSet getSchemaColumns(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException;
+
+    /**
+     * Returns the primary key columns of all tables in the given schema. The
+     * result set has the layout of
+     * {@link DatabaseMetaData#getPrimaryKeys(String, String, String)}.
+     * @param databaseMetaData The database metadata to be used for retrieving the primary keys
+     * @param schemaName The schema name; <code>null</code> returns all schemas
+     * @return The result set containing all primary key columns of the schema
+     * @throws SQLException
+     */
+    ResultSet getSchemaPrimaryKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException;
+
+    /**
+     * Returns the foreign key columns of all tables in the given schema. The
+     * result set has the layout of
+     * {@link DatabaseMetaData#getImportedKeys(String, String, String)}.
+     * @param databaseMetaData The database metadata to be used for retrieving the foreign keys
+     * @param schemaName The schema name; <code>null</code> returns all schemas
+     * @return The result set containing all foreign key columns of the schema
+     * @throws SQLException
+     */
+    ResultSet getSchemaImportedKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException;
+}
@@ -22,9 +22,11 @@
 package org.dbunit.database;
 
 import org.dbunit.database.statement.IStatementFactory;
+import org.dbunit.dataset.ColumnFilterTable;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.filter.IColumnFilter;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -104,6 +106,28 @@ public interface IDatabaseConnection
      */
     public ITable createTable(String tableName)
             throws DataSetException, SQLException;
+
+    /**
+     * Creates a table with the columns of <i>tableName</i> accepted by the
+     * given filter. Implementations should only list the accepted columns in
+     * the <code>select</code> SQL statement so that excluded columns are never
+     * fetched from the database.
+     * The default implementation selects all columns and filters them
+     * afterwards.
+     *
+     * @param tableName The name of the database table to be queried which is also returned by
+     * {@link org.dbunit.dataset.ITableMetaData#getTableName}.
+     * @param columnFilter The filter defining which columns are queried
+     * @return The new table
+     * @throws DataSetException
+     * @throws SQLException
+     * @since 2.7.1
+     */
+    public default ITable createTable(String tableName, IColumnFilter columnFilter)
+            throws DataSetException, SQLException
+    {
+        return new ColumnFilterTable(createTable(tableName), columnFilter);
+    }
     
     /**
      * Returns the specified table row count.
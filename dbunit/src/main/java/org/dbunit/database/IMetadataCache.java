@@ -0,0 +1,77 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+/**
+ * Cache for database metadata which outlives a single {@link IDatabaseConnection}.
+ * The entries are grouped by scope, see {@link MetadataCacheHelper#getScope(IDatabaseConnection)},
+ * so connections to the same database and schema with the same type settings
+ * share them.
+ * <p>
+ * Before a scope is used for the first time the current schema fingerprint is
+ * passed to {@link #validate(String, String)} which discards entries recorded
+ * for a different fingerprint, e.g. entries loaded from a previous test run
+ * before the schema was changed.
+ * </p>
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see DatabaseConfig#PROPERTY_METADATA_CACHE
+ */
+public interface IMetadataCache
+{
+    /**
+     * @param scope The scope of the entry
+     * @param key The key of the entry within the scope
+     * @return The cached value or <code>null</code> if there is none
+     */
+    Object get(String scope, String key);
+
+    /**
+     * Caches the given value. The values are serializable so that a cache can
+     * be persisted.
+     * @param scope The scope of the entry
+     * @param key The key of the entry within the scope
+     * @param value The value to be cached
+     */
+    void put(String scope, String key, Object value);
+
+    /**
+     * @param scope The scope to check
+     * @return <code>true</code> if the given scope has been validated by this cache instance
+     */
+    boolean isValidated(String scope);
+
+    /**
+     * Validates the given scope against the current schema fingerprint. All
+     * entries of the scope are discarded if they were recorded for another
+     * fingerprint.
+     * @param scope The scope to validate
+     * @param fingerprint The current fingerprint of the schema
+     */
+    void validate(String scope, String fingerprint);
+
+    /**
+     * Discards all entries.
+     */
+    void clear();
+}
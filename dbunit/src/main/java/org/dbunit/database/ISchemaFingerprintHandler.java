@@ -0,0 +1,47 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Optional extension of an {@link IMetadataHandler} which computes a cheap
+ * fingerprint of a schema, e.g. from the number of tables and the time of the
+ * last DDL statement. The fingerprint is used to validate the entries of an
+ * {@link IMetadataCache}. Without this extension the fingerprint is built from
+ * the names of the tables in the schema.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public interface ISchemaFingerprintHandler
+{
+    /**
+     * @param databaseMetaData The database meta data
+     * @param schemaName The schema name; <code>null</code> for the default schema
+     * @return A string which changes whenever the table definitions of the schema change
+     * @throws SQLException
+     */
+    String getSchemaFingerprint(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException;
+}
@@ -0,0 +1,241 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helper for the lookup of entries in the {@link IMetadataCache} configured
+ * for a connection.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class MetadataCacheHelper
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCacheHelper.class);
+
+    /**
+     * Key prefix of the (schema, table) name pairs of a schema
+     */
+    public static final String TABLES_PREFIX = "tables:";
+    /**
+     * Key prefix of the columns and primary keys of a table
+     */
+    public static final String TABLE_PREFIX = "table:";
+    /**
+     * Key prefix of the foreign keys of a table
+     */
+    public static final String IMPORTED_KEYS_PREFIX = "importedKeys:";
+    /**
+     * Key prefix of the foreign keys referencing a table
+     */
+    public static final String EXPORTED_KEYS_PREFIX = "exportedKeys:";
+
+    /**
+     * The database URL and user of each JDBC connection, which are looked up
+     * only once per connection
+     */
+    private static final Map<Connection, String> CONNECTION_SCOPES =
+            Collections.synchronizedMap(new WeakHashMap<Connection, String>());
+
+    private MetadataCacheHelper()
+    {
+    }
+
+    /**
+     * Returns the scope of the given connection. Connections share cache
+     * entries if they use the same database URL, user and schema and the
+     * same settings affecting the metadata.
+     * @param connection The connection
+     * @return The scope of the connection
+     * @throws SQLException
+     */
+    public static String getScope(IDatabaseConnection connection) throws SQLException
+    {
+        Connection jdbcConnection = connection.getConnection();
+        String connectionScope = CONNECTION_SCOPES.get(jdbcConnection);
+        if (connectionScope == null)
+        {
+            DatabaseMetaData metaData = jdbcConnection.getMetaData();
+            connectionScope = metaData.getURL() + "|" + metaData.getUserName();
+            CONNECTION_SCOPES.put(jdbcConnection, connectionScope);
+        }
+        DatabaseConfig config = connection.getConfig();
+        String[] tableType = (String[])config.getProperty(DatabaseConfig.PROPERTY_TABLE_TYPE);
+
+        StringBuffer sb = new StringBuffer();
+        sb.append(connectionScope);
+        sb.append("|").append(connection.getSchema());
+        sb.append("|").append(getClassName(config.getProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY)));
+        sb.append("|").append(getClassName(config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER)));
+        sb.append("|").append(tableType == null ? null : Arrays.asList(tableType));
+        sb.append("|").append(config.getFeature(DatabaseConfig.FEATURE_CASE_SENSITIVE_TABLE_NAMES));
+        sb.append("|").append(config.getFeature(DatabaseConfig.FEATURE_QUALIFIED_TABLE_NAMES));
+        return sb.toString();
+    }
+
+    private static String getClassName(Object object)
+    {
+        return object == null ? null : object.getClass().getName();
+    }
+
+    /**
+     * Returns the fingerprint of the schema of the given connection, either
+     * computed by the configured {@link ISchemaFingerprintHandler} or built
+     * from the names of the tables.
+     * @param connection The connection
+     * @return The schema fingerprint
+     * @throws SQLException
+     */
+    public static String getFingerprint(IDatabaseConnection connection) throws SQLException
+    {
+        logger.debug("getFingerprint(connection={}) - start", connection);
+
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        DatabaseConfig config = connection.getConfig();
+        IMetadataHandler metadataHandler = (IMetadataHandler)
+                config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+        if (metadataHandler instanceof ISchemaFingerprintHandler)
+        {
+            return ((ISchemaFingerprintHandler)metadataHandler)
+                    .getSchemaFingerprint(metaData, connection.getSchema());
+        }
+
+        String[] tableType = (String[])config.getProperty(DatabaseConfig.PROPERTY_TABLE_TYPE);
+        ResultSet resultSet = metadataHandler.getTables(metaData, connection.getSchema(), tableType);
+        int count = 0;
+        int hash = 0;
+        try
+        {
+            while (resultSet.next())
+            {
+                count++;
+                // Independent of the order of the tables
+                hash += (metadataHandler.getSchema(resultSet) + "." + resultSet.getString(3)).hashCode();
+            }
+        }
+        finally
+        {
+            resultSet.close();
+        }
+        return count + ":" + Integer.toHexString(hash);
+    }
+
+    /**
+     * Returns the cache configured for the given connection. The scope of the
+     * connection is validated against the schema fingerprint when it is used
+     * for the first time.
+     * @param connection The connection
+     * @param scope The scope of the connection
+     * @return The cache or <code>null</code> if caching is disabled
+     * @throws SQLException
+     */
+    private static IMetadataCache getCache(IDatabaseConnection connection, String scope)
+    throws SQLException
+    {
+        IMetadataCache cache = (IMetadataCache)connection.getConfig().getProperty(
+                DatabaseConfig.PROPERTY_METADATA_CACHE);
+        if (cache != null && !cache.isValidated(scope))
+        {
+            cache.validate(scope, getFingerprint(connection));
+        }
+        return cache;
+    }
+
+    /**
+     * @param connection The connection
+     * @param key The key of the entry
+     * @return The cached entry or <code>null</code> if there is none or caching is disabled
+     * @throws SQLException
+     */
+    public static Object get(IDatabaseConnection connection, String key) throws SQLException
+    {
+        if (!isEnabled(connection))
+        {
+            return null;
+        }
+        String scope = getScope(connection);
+        Object value = getCache(connection, scope).get(scope, key);
+        logger.debug("Metadata cache {} for '{}'", value == null ? "miss" : "hit", key);
+        return value;
+    }
+
+    /**
+     * Caches the given entry if caching is enabled.
+     * @param connection The connection
+     * @param key The key of the entry
+     * @param value The serializable value to be cached
+     * @throws SQLException
+     */
+    public static void put(IDatabaseConnection connection, String key, Object value) throws SQLException
+    {
+        if (!isEnabled(connection))
+        {
+            return;
+        }
+        String scope = getScope(connection);
+        getCache(connection, scope).put(scope, key, value);
+    }
+
+    /**
+     * @param connection The connection
+     * @return <code>true</code> if a metadata cache is configured for the connection
+     */
+    public static boolean isEnabled(IDatabaseConnection connection)
+    {
+        return connection.getConfig().getProperty(DatabaseConfig.PROPERTY_METADATA_CACHE) != null;
+    }
+
+    /**
+     * Builds the key of a table entry.
+     * @param prefix The kind of the entry
+     * @param schema The schema of the table, may be <code>null</code>
+     * @param table The table name
+     * @param caseSensitive Whether or not the table name is case sensitive
+     * @return The key
+     */
+    public static String getTableKey(String prefix, String schema, String table, boolean caseSensitive)
+    {
+        String name = schema == null ? table : schema + "." + table;
+        if (!caseSensitive)
+        {
+            name = name.toUpperCase(Locale.ENGLISH);
+        }
+        return prefix + name;
+    }
+}
@@ -144,4 +144,16 @@ public class PrimaryKeyFilteredTableWrapper implements ITable {
     }
   }
 
+  public Object getValue(int row, int column) throws DataSetException 
+  {
+    int max = this.filteredRowsMapping.size();
+    if ( row < max ) {
+      int realRow = ((Integer) this.filteredRowsMapping.get( row )).intValue();
+      return this.originalTable.getValue(realRow, column);
+    } else {
+      throw new RowOutOfBoundsException( "tried to access row " + row + 
+          " but rowCount is " + max );
+    }
+  }
+
 }
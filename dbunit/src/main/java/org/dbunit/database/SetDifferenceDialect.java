@@ -0,0 +1,192 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the SQL used to compute the differences between an expected
+ * table and a database table on the database server.
+ * <p>
+ * The expected rows are inserted into a scratch table that is created with
+ * the column types of the database table. A single query then counts the
+ * rows of both tables grouped by all compared columns and returns only the
+ * groups whose counts differ, so only the differing rows are transferred.
+ * Unlike <code>EXCEPT</code> this also detects a different number of
+ * duplicate rows, and it runs on databases without <code>EXCEPT</code>.
+ * Columns that cannot be grouped, like LOB columns, cannot be compared this
+ * way.
+ * </p>
+ * <p>
+ * This implementation creates a regular table using the standard
+ * <code>CREATE TABLE ... AS (SELECT ...) WITH NO DATA</code>, supported for
+ * example by Derby and HSQLDB 2.x, and drops it afterwards. The subclasses
+ * in the <code>ext</code> packages use the temporary tables of their
+ * database instead, which are private to the session and disappear with it.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see DatabaseConfig#PROPERTY_SET_DIFFERENCE_DIALECT
+ */
+public class SetDifferenceDialect
+{
+    /**
+     * Name of the result column holding the number of expected rows of a group.
+     */
+    public static final String EXPECTED_COUNT_COLUMN = "DBUNIT_EXPECTED_COUNT";
+
+    /**
+     * Name of the result column holding the number of actual rows of a group.
+     */
+    public static final String ACTUAL_COUNT_COLUMN = "DBUNIT_ACTUAL_COUNT";
+
+    public SetDifferenceDialect()
+    {
+    }
+
+    /**
+     * @return A new name for a scratch table with a random suffix, so that
+     *         it neither collides with the scratch tables of other sessions
+     *         nor with one left over by an aborted comparison.
+     */
+    public String getScratchTableName()
+    {
+        long suffix = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        return "DBUNIT_EXPECTED_" + Long.toString(suffix, 36).toUpperCase();
+    }
+
+    /**
+     * @param scratchTableName
+     *            The name of the scratch table to create.
+     * @param tableName
+     *            The qualified name of the database table whose column types
+     *            the scratch table gets.
+     * @param columnNames
+     *            The columns of the scratch table.
+     * @return The statement creating an empty scratch table.
+     */
+    public String getCreateScratchTableSql(String scratchTableName,
+            String tableName, String[] columnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(128);
+        sqlBuffer.append("create table ");
+        sqlBuffer.append(scratchTableName);
+        sqlBuffer.append(" as (select ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(" from ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(") with no data");
+        return sqlBuffer.toString();
+    }
+
+    /**
+     * @return The statement dropping the scratch table.
+     */
+    public String getDropScratchTableSql(String scratchTableName)
+    {
+        return "drop table " + scratchTableName;
+    }
+
+    /**
+     * @return The statement inserting one row into the scratch table.
+     */
+    public String getInsertSql(String scratchTableName, String[] columnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(128);
+        sqlBuffer.append("insert into ");
+        sqlBuffer.append(scratchTableName);
+        sqlBuffer.append(" (");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(") values (");
+        for (int i = 0; i < columnNames.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append("?");
+        }
+        sqlBuffer.append(")");
+        return sqlBuffer.toString();
+    }
+
+    /**
+     * @param scratchTableName
+     *            The scratch table holding the expected rows.
+     * @param tableName
+     *            The qualified name of the database table.
+     * @param columnNames
+     *            The columns to be compared.
+     * @param orderColumnNames
+     *            The columns the differing rows are ordered by.
+     * @return The query returning the compared columns of every group of
+     *         equal rows whose number of rows differs between both tables,
+     *         followed by the {@link #EXPECTED_COUNT_COLUMN} and
+     *         {@link #ACTUAL_COUNT_COLUMN} of the group.
+     */
+    public String getDifferenceSql(String scratchTableName, String tableName,
+            String[] columnNames, String[] orderColumnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(256);
+        sqlBuffer.append("select ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(", sum(DBUNIT_EXPECTED) as ");
+        sqlBuffer.append(EXPECTED_COUNT_COLUMN);
+        sqlBuffer.append(", sum(DBUNIT_ACTUAL) as ");
+        sqlBuffer.append(ACTUAL_COUNT_COLUMN);
+        sqlBuffer.append(" from (select ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(", 1 as DBUNIT_EXPECTED, 0 as DBUNIT_ACTUAL from ");
+        sqlBuffer.append(scratchTableName);
+        sqlBuffer.append(" union all select ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(", 0, 1 from ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(") DBUNIT_ROWS group by ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(" having sum(DBUNIT_EXPECTED) <> sum(DBUNIT_ACTUAL)");
+        if (orderColumnNames.length > 0)
+        {
+            sqlBuffer.append(" order by ");
+            appendNames(sqlBuffer, orderColumnNames);
+        }
+        return sqlBuffer.toString();
+    }
+
+    protected static void appendNames(StringBuffer sqlBuffer, String[] names)
+    {
+        for (int i = 0; i < names.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append(names[i]);
+        }
+    }
+
+    public String toString()
+    {
+        return getClass().getName();
+    }
+}
@@ -0,0 +1,715 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dbunit.dataset.AbstractTable;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.RowOutOfBoundsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Result set table caching its rows in pages of a fixed number of rows.
+ * Pages are kept in heap until their estimated size exceeds the memory
+ * budget. All further pages are written to a temporary file and read back
+ * through a small cache of recently used pages, so very large tables can
+ * be accessed randomly without holding them in memory.
+ * <p>
+ * {@link #close()} deletes the temporary file. Rows of spilled pages cannot
+ * be accessed after the table has been closed.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class SpillingResultSetTable extends AbstractTable implements IResultSetTable
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SpillingResultSetTable.class);
+
+    /**
+     * Number of spilled pages kept in memory after they have been read
+     */
+    private static final int CACHED_PAGES = 4;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int SHORT = 4;
+    private static final int BYTE = 5;
+    private static final int DOUBLE = 6;
+    private static final int FLOAT = 7;
+    private static final int BIG_DECIMAL = 8;
+    private static final int BIG_INTEGER = 9;
+    private static final int BOOLEAN = 10;
+    private static final int TIMESTAMP = 11;
+    private static final int DATE = 12;
+    private static final int TIME = 13;
+    private static final int UTIL_DATE = 14;
+    private static final int BYTES = 15;
+    private static final int NO_VALUE = 16;
+    private static final int SERIALIZED = 17;
+
+    private final ITableMetaData _metaData;
+    private final int _columnCount;
+    private final int _pageSize;
+    private final long _memoryBudget;
+    private final File _directory;
+    private int _rowCount;
+
+    /**
+     * The pages held in heap, always the first pages of the table
+     */
+    private final List<Object[][]> _residentPages = new ArrayList<Object[][]>();
+    private long _residentBytes;
+
+    /**
+     * Positions of the spilled pages in the temporary file, the first
+     * spilled page follows the last resident page
+     */
+    private long[] _pageOffsets = new long[16];
+    private int _spilledPageCount;
+    private long _fileLength;
+    private File _file;
+    private OutputStream _output;
+    private RandomAccessFile _input;
+
+    private final Map<Integer, Object[][]> _pageCache =
+            new LinkedHashMap<Integer, Object[][]>(CACHED_PAGES * 2, 0.75f, true)
+    {
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest)
+        {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Reads all rows of the given table and closes it.
+     * @param table The table to read
+     * @param memoryBudget The number of bytes kept in heap before pages are
+     * written to the temporary file
+     * @param pageSize The number of rows per page
+     * @param directory The directory of the temporary file or
+     * <code>null</code> for the default temporary directory
+     * @throws DataSetException
+     */
+    public SpillingResultSetTable(IResultSetTable table, long memoryBudget,
+            int pageSize, File directory) throws DataSetException
+    {
+        if (memoryBudget < 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'memoryBudget' must not be negative: " + memoryBudget);
+        }
+        if (pageSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'pageSize' must be greater than 0: " + pageSize);
+        }
+
+        _metaData = table.getTableMetaData();
+        _columnCount = _metaData.getColumns().length;
+        _pageSize = pageSize;
+        _memoryBudget = memoryBudget;
+        _directory = directory;
+
+        try
+        {
+            load(table);
+        }
+        catch (IOException e)
+        {
+            close();
+            throw new DataSetException(e);
+        }
+        catch (DataSetException e)
+        {
+            close();
+            throw e;
+        }
+        finally
+        {
+            table.close();
+        }
+    }
+
+    private void load(ITable table) throws DataSetException, IOException
+    {
+        ITableCursor cursor = table.cursor();
+        Object[][] page = new Object[_pageSize][];
+        int pageRows = 0;
+        long pageBytes = 0;
+        while (cursor.next())
+        {
+            Object[] rowValues = new Object[_columnCount];
+            for (int i = 0; i < _columnCount; i++)
+            {
+                rowValues[i] = cursor.get(i);
+                pageBytes += estimateSize(rowValues[i]);
+            }
+            page[pageRows++] = rowValues;
+            _rowCount++;
+
+            if (pageRows == _pageSize)
+            {
+                addPage(page, pageBytes);
+                page = new Object[_pageSize][];
+                pageRows = 0;
+                pageBytes = 0;
+            }
+        }
+        if (pageRows > 0)
+        {
+            addPage(Arrays.copyOf(page, pageRows), pageBytes);
+        }
+
+        if (_output != null)
+        {
+            _output.close();
+            _output = null;
+            _input = new RandomAccessFile(_file, "r");
+        }
+    }
+
+    private void addPage(Object[][] page, long pageBytes) throws DataSetException, IOException
+    {
+        if (_file == null && _residentBytes + pageBytes <= _memoryBudget)
+        {
+            _residentPages.add(page);
+            _residentBytes += pageBytes;
+            return;
+        }
+
+        if (_file == null)
+        {
+            _file = File.createTempFile("dbunit", ".spill", _directory);
+            _file.deleteOnExit();
+            _output = new BufferedOutputStream(new FileOutputStream(_file));
+            logger.debug("Spilling rows of table {} from row {} to {}",
+                    new Object[] {_metaData.getTableName(),
+                            String.valueOf(_rowCount - page.length), _file});
+        }
+
+        byte[] bytes = encodePage(page);
+        if (_spilledPageCount + 1 >= _pageOffsets.length)
+        {
+            _pageOffsets = Arrays.copyOf(_pageOffsets, _pageOffsets.length * 2);
+        }
+        _pageOffsets[_spilledPageCount] = _fileLength;
+        _output.write(bytes);
+        _fileLength += bytes.length;
+        _spilledPageCount++;
+        _pageOffsets[_spilledPageCount] = _fileLength;
+    }
+
+    /**
+     * @return <code>true</code> if rows have been written to the temporary
+     * file
+     */
+    public boolean isSpilled()
+    {
+        return _file != null;
+    }
+
+    private Object[][] getPage(int pageIndex) throws DataSetException
+    {
+        if (pageIndex < _residentPages.size())
+        {
+            return _residentPages.get(pageIndex);
+        }
+
+        synchronized (_pageCache)
+        {
+            Integer key = Integer.valueOf(pageIndex);
+            Object[][] page = _pageCache.get(key);
+            if (page == null)
+            {
+                page = readPage(pageIndex - _residentPages.size());
+                _pageCache.put(key, page);
+            }
+            return page;
+        }
+    }
+
+    private Object[][] readPage(int spilledPage) throws DataSetException
+    {
+        if (_input == null)
+        {
+            throw new DataSetException("The table " + _metaData.getTableName()
+                    + " has been closed");
+        }
+        try
+        {
+            long offset = _pageOffsets[spilledPage];
+            byte[] bytes = new byte[(int) (_pageOffsets[spilledPage + 1] - offset)];
+            _input.seek(offset);
+            _input.readFully(bytes);
+            return decodePage(bytes);
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private Object[][] readSpilledPage(int spilledPage) throws DataSetException
+    {
+        synchronized (_pageCache)
+        {
+            return readPage(spilledPage);
+        }
+    }
+
+    private Object[] getRow(int row) throws DataSetException
+    {
+        return getPage(row / _pageSize)[row % _pageSize];
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Page encoding
+
+    private byte[] encodePage(Object[][] page) throws IOException, DataSetException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(page.length);
+        for (int i = 0; i < page.length; i++)
+        {
+            for (int j = 0; j < _columnCount; j++)
+            {
+                writeValue(out, page[i][j]);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private Object[][] decodePage(byte[] bytes) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        Object[][] page = new Object[in.readInt()][];
+        for (int i = 0; i < page.length; i++)
+        {
+            Object[] rowValues = new Object[_columnCount];
+            for (int j = 0; j < _columnCount; j++)
+            {
+                rowValues[j] = readValue(in);
+            }
+            page[i] = rowValues;
+        }
+        return page;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value)
+            throws IOException, DataSetException
+    {
+        if (value == null)
+        {
+            out.writeByte(NULL);
+        }
+        else if (value == ITable.NO_VALUE)
+        {
+            out.writeByte(NO_VALUE);
+        }
+        else if (value.getClass() == String.class)
+        {
+            byte[] bytes = ((String) value).getBytes("UTF-8");
+            out.writeByte(STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        else if (value.getClass() == Integer.class)
+        {
+            out.writeByte(INTEGER);
+            out.writeInt(((Integer) value).intValue());
+        }
+        else if (value.getClass() == Long.class)
+        {
+            out.writeByte(LONG);
+            out.writeLong(((Long) value).longValue());
+        }
+        else if (value.getClass() == Short.class)
+        {
+            out.writeByte(SHORT);
+            out.writeShort(((Short) value).shortValue());
+        }
+        else if (value.getClass() == Byte.class)
+        {
+            out.writeByte(BYTE);
+            out.writeByte(((Byte) value).byteValue());
+        }
+        else if (value.getClass() == Double.class)
+        {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Double) value).doubleValue()));
+        }
+        else if (value.getClass() == Float.class)
+        {
+            out.writeByte(FLOAT);
+            out.writeInt(Float.floatToRawIntBits(((Float) value).floatValue()));
+        }
+        else if (value.getClass() == BigDecimal.class)
+        {
+            BigDecimal decimal = (BigDecimal) value;
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeByte(BIG_DECIMAL);
+            out.writeInt(decimal.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        }
+        else if (value.getClass() == BigInteger.class)
+        {
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            out.writeByte(BIG_INTEGER);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        else if (value.getClass() == Boolean.class)
+        {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(((Boolean) value).booleanValue());
+        }
+        else if (value.getClass() == Timestamp.class)
+        {
+            Timestamp timestamp = (Timestamp) value;
+            out.writeByte(TIMESTAMP);
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        }
+        else if (value.getClass() == java.sql.Date.class)
+        {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value.getClass() == Time.class)
+        {
+            out.writeByte(TIME);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value.getClass() == Date.class)
+        {
+            out.writeByte(UTIL_DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value.getClass() == byte[].class)
+        {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        else if (value instanceof Serializable)
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream objectOut = new ObjectOutputStream(bytes);
+            objectOut.writeObject(value);
+            objectOut.close();
+            out.writeByte(SERIALIZED);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+        else
+        {
+            throw new DataSetException("Cannot write value of " + value.getClass()
+                    + " to the temporary file since it is not serializable");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException
+    {
+        int tag = in.readByte();
+        switch (tag)
+        {
+        case NULL:
+            return null;
+        case NO_VALUE:
+            return ITable.NO_VALUE;
+        case STRING:
+            return new String(readBytes(in), "UTF-8");
+        case INTEGER:
+            return Integer.valueOf(in.readInt());
+        case LONG:
+            return Long.valueOf(in.readLong());
+        case SHORT:
+            return Short.valueOf(in.readShort());
+        case BYTE:
+            return Byte.valueOf(in.readByte());
+        case DOUBLE:
+            return Double.valueOf(Double.longBitsToDouble(in.readLong()));
+        case FLOAT:
+            return Float.valueOf(Float.intBitsToFloat(in.readInt()));
+        case BIG_DECIMAL:
+            int scale = in.readInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        case BIG_INTEGER:
+            return new BigInteger(readBytes(in));
+        case BOOLEAN:
+            return Boolean.valueOf(in.readBoolean());
+        case TIMESTAMP:
+            Timestamp timestamp = new Timestamp(in.readLong());
+            timestamp.setNanos(in.readInt());
+            return timestamp;
+        case DATE:
+            return new java.sql.Date(in.readLong());
+        case TIME:
+            return new Time(in.readLong());
+        case UTIL_DATE:
+            return new Date(in.readLong());
+        case BYTES:
+            return readBytes(in);
+        case SERIALIZED:
+            ObjectInputStream objectIn = new ObjectInputStream(
+                    new ByteArrayInputStream(readBytes(in)));
+            try
+            {
+                return objectIn.readObject();
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IOException("Cannot read spilled value", e);
+            }
+            finally
+            {
+                objectIn.close();
+            }
+        default:
+            throw new IOException("Unexpected value tag " + tag);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Roughly estimates the heap size of a value including its reference.
+     */
+    private static long estimateSize(Object value)
+    {
+        if (value == null)
+        {
+            return 8;
+        }
+        if (value instanceof String)
+        {
+            return 64 + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[])
+        {
+            return 24 + ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger)
+        {
+            return 72;
+        }
+        if (value instanceof Date)
+        {
+            return 40;
+        }
+        return 24;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ITable interface
+
+    public ITableMetaData getTableMetaData()
+    {
+        return _metaData;
+    }
+
+    public int getRowCount()
+    {
+        return _rowCount;
+    }
+
+    public Object getValue(int row, String column) throws DataSetException
+    {
+        if(logger.isDebugEnabled())
+            logger.debug("getValue(row={}, column={}) - start", Integer.toString(row), column);
+
+        assertValidRowIndex(row);
+
+        return getRow(row)[getColumnIndex(column)];
+    }
+
+    public Object getValue(int row, int column) throws DataSetException
+    {
+        assertValidRowIndex(row);
+
+        if (column < 0 || column >= _columnCount)
+        {
+            assertValidColumnIndex(column);
+        }
+        return getRow(row)[column];
+    }
+
+    public ITableCursor cursor()
+    {
+        return new PageCursor();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IResultSetTable interface
+
+    /**
+     * Deletes the temporary file.
+     */
+    public void close() throws DataSetException
+    {
+        logger.debug("close() - start");
+
+        try
+        {
+            if (_output != null)
+            {
+                _output.close();
+                _output = null;
+            }
+            if (_input != null)
+            {
+                _input.close();
+                _input = null;
+            }
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+        finally
+        {
+            synchronized (_pageCache)
+            {
+                _pageCache.clear();
+            }
+            if (_file != null && !_file.delete() && _file.exists())
+            {
+                logger.warn("Could not delete temporary file {}", _file);
+            }
+        }
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_metaData=").append(_metaData);
+        sb.append(", _rowCount=").append(_rowCount);
+        sb.append(", _residentPages=").append(_residentPages.size());
+        sb.append(", _spilledPageCount=").append(_spilledPageCount);
+        sb.append(", _file=").append(_file);
+        sb.append("]");
+        return sb.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // PageCursor class
+
+    /**
+     * Cursor reading the rows page by page without going through the page
+     * cache.
+     */
+    private class PageCursor implements ITableCursor
+    {
+        private int _row = -1;
+        private int _pageIndex = -1;
+        private Object[][] _page;
+
+        public ITableMetaData getTableMetaData()
+        {
+            return _metaData;
+        }
+
+        public boolean next() throws DataSetException
+        {
+            if (_row + 1 >= _rowCount)
+            {
+                _row = _rowCount;
+                _page = null;
+                return false;
+            }
+
+            _row++;
+            int pageIndex = _row / _pageSize;
+            if (pageIndex != _pageIndex)
+            {
+                _page = pageIndex < _residentPages.size()
+                        ? _residentPages.get(pageIndex)
+                        : readSpilledPage(pageIndex - _residentPages.size());
+                _pageIndex = pageIndex;
+            }
+            return true;
+        }
+
+        public int getRow()
+        {
+            return _row;
+        }
+
+        public Object get(int column) throws DataSetException
+        {
+            if (_page == null)
+            {
+                throw new RowOutOfBoundsException(
+                        "Cursor is not positioned on a valid row: " + _row);
+            }
+            if (column < 0 || column >= _columnCount)
+            {
+                assertValidColumnIndex(column);
+            }
+            return _page[_row % _pageSize][column];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITableMetaData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates {@link SpillingResultSetTable}s which cache the rows in heap up to
+ * {@link DatabaseConfig#PROPERTY_SPILL_MEMORY_BUDGET} and write further rows
+ * in pages of {@link DatabaseConfig#PROPERTY_SPILL_PAGE_SIZE} rows to a
+ * temporary file in {@link DatabaseConfig#PROPERTY_SPILL_DIRECTORY}.
+ * <p>
+ * Unlike the {@link ForwardOnlyResultSetTableFactory} the tables can be
+ * accessed randomly, e.g. sorted or compared, without holding all rows in
+ * memory like the {@link CachedResultSetTableFactory}.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class SpillingResultSetTableFactory implements IResultSetTableFactory
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SpillingResultSetTableFactory.class);
+
+    public IResultSetTable createTable(String tableName, String selectStatement,
+            IDatabaseConnection connection) throws SQLException, DataSetException
+    {
+        if (logger.isTraceEnabled())
+            logger.trace("createTable(tableName={}, selectStatement={}, connection={}) - start",
+                    new Object[] { tableName, selectStatement, connection });
+
+        return createSpillingTable(new ForwardOnlyResultSetTable(
+                tableName, selectStatement, connection), connection);
+    }
+
+    public IResultSetTable createTable(ITableMetaData metaData,
+            IDatabaseConnection connection) throws SQLException, DataSetException
+    {
+        logger.trace("createTable(metaData={}, connection={}) - start", metaData, connection);
+
+        return createSpillingTable(new ForwardOnlyResultSetTable(metaData,
+                connection), connection);
+    }
+
+    public IResultSetTable createTable(String tableName,
+            PreparedStatement preparedStatement, IDatabaseConnection connection)
+    throws SQLException, DataSetException
+    {
+        if (logger.isTraceEnabled())
+            logger.trace("createTable(tableName={}, preparedStatement={}, connection={}) - start",
+                new Object[]{ tableName, preparedStatement, connection});
+
+        // Reuse method from ForwardOnly factory
+        ForwardOnlyResultSetTable table = new ForwardOnlyResultSetTableFactory()
+                    .createForwardOnlyResultSetTable(tableName, preparedStatement, connection);
+        return createSpillingTable(table, connection);
+    }
+
+    private IResultSetTable createSpillingTable(IResultSetTable table,
+            IDatabaseConnection connection) throws DataSetException
+    {
+        DatabaseConfig config = connection.getConfig();
+        Long memoryBudget = (Long) config.getProperty(
+                DatabaseConfig.PROPERTY_SPILL_MEMORY_BUDGET);
+        Integer pageSize = (Integer) config.getProperty(
+                DatabaseConfig.PROPERTY_SPILL_PAGE_SIZE);
+        File directory = (File) config.getProperty(
+                DatabaseConfig.PROPERTY_SPILL_DIRECTORY);
+        return new SpillingResultSetTable(table, memoryBudget.longValue(),
+                pageSize.intValue(), directory);
+    }
+}
@@ -0,0 +1,623 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.NoSuchTableException;
+import org.dbunit.dataset.OrderedTableNameMap;
+import org.dbunit.util.QualifiedTableName;
+import org.dbunit.util.SQLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Foreign key dependency graph of a set of tables. The graph is built once
+ * from the imported keys of the tables and then answers ordering questions
+ * without further database access. If the feature
+ * {@link DatabaseConfig#FEATURE_BULK_METADATA_LOADING} is enabled and the
+ * metadata handler is an {@link IBulkMetadataHandler}, the imported keys of
+ * all tables of a schema are read with a single lookup.
+ * <p>
+ * An edge leads from a referenced ("parent") table to the table holding the
+ * foreign key. Self references are ignored and references to tables which
+ * are not part of the graph are dropped.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class TableDependencyGraph
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TableDependencyGraph.class);
+
+    /**
+     * Index of the PKTABLE_SCHEM column of the imported keys result set.
+     */
+    private static final int PK_SCHEMA_INDEX = 2;
+    /**
+     * Index of the PKTABLE_NAME column of the imported keys result set.
+     */
+    private static final int PK_TABLE_INDEX = 3;
+    /**
+     * Index of the PKCOLUMN_NAME column of the imported keys result set.
+     */
+    private static final int PK_COLUMN_INDEX = 4;
+    /**
+     * Index of the FKTABLE_NAME column of the imported keys result set.
+     */
+    private static final int FK_TABLE_INDEX = 7;
+    /**
+     * Index of the FKCOLUMN_NAME column of the imported keys result set.
+     */
+    private static final int FK_COLUMN_INDEX = 8;
+
+    private final String[] _tableNames;
+    private final OrderedTableNameMap _tableIndexes;
+    /**
+     * Outgoing edges, i.e. the indexes of the tables referencing each table.
+     */
+    private final List<Set<Integer>> _dependents;
+
+    /**
+     * Creates a graph without any dependency between the given tables.
+     * @param tableNames The tables of the graph
+     * @param caseSensitiveTableNames Whether or not dependencies are resolved
+     * case sensitively against the given table names
+     * @throws AmbiguousTableNameException If a table name is given twice
+     */
+    public TableDependencyGraph(String[] tableNames,
+            boolean caseSensitiveTableNames) throws AmbiguousTableNameException
+    {
+        _tableNames = (String[])tableNames.clone();
+        _tableIndexes = new OrderedTableNameMap(caseSensitiveTableNames);
+        _dependents = new ArrayList<Set<Integer>>(tableNames.length);
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            _tableIndexes.add(tableNames[i], new Integer(i));
+            _dependents.add(new LinkedHashSet<Integer>());
+        }
+    }
+
+    /**
+     * Builds the dependency graph of the given tables, reading the imported
+     * keys of every table exactly once unless they are found in the
+     * {@link IMetadataCache} of the connection.
+     * @param connection The connection used to read the foreign keys
+     * @param tableNames The tables of the graph
+     * @return The dependency graph
+     * @throws NoSuchTableException If one of the tables does not exist
+     * @throws SQLException If an exception is encountered in accessing the
+     *             database.
+     */
+    public static TableDependencyGraph build(IDatabaseConnection connection,
+            String[] tableNames) throws DataSetException, SQLException
+    {
+        logger.debug("build(connection={}, tableNames={}) - start", connection, tableNames);
+
+        DatabaseConfig config = connection.getConfig();
+        boolean caseSensitive = config.getFeature(
+                DatabaseConfig.FEATURE_CASE_SENSITIVE_TABLE_NAMES);
+        IMetadataHandler metadataHandler = (IMetadataHandler)
+                config.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+        IBulkMetadataHandler bulkMetadataHandler = null;
+        if (config.getFeature(DatabaseConfig.FEATURE_BULK_METADATA_LOADING)
+                && metadataHandler instanceof IBulkMetadataHandler)
+        {
+            bulkMetadataHandler = (IBulkMetadataHandler)metadataHandler;
+        }
+        Connection jdbcConnection = connection.getConnection();
+        DatabaseMetaData metaData = jdbcConnection.getMetaData();
+
+        TableDependencyGraph graph =
+                new TableDependencyGraph(tableNames, caseSensitive);
+        // The imported keys of each bulk loaded schema, by table name
+        Map<String, OrderedTableNameMap> schemaImportedKeys =
+                new HashMap<String, OrderedTableNameMap>();
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            QualifiedTableName qualifiedTableName =
+                    new QualifiedTableName(tableNames[i], connection.getSchema());
+            String schema = qualifiedTableName.getSchema();
+            String tableName = qualifiedTableName.getTable();
+
+            String cacheKey = MetadataCacheHelper.getTableKey(
+                    MetadataCacheHelper.IMPORTED_KEYS_PREFIX, schema, tableName,
+                    caseSensitive);
+            List<String[]> importedKeys = (List<String[]>)
+                    MetadataCacheHelper.get(connection, cacheKey);
+            if (importedKeys == null)
+            {
+                if (bulkMetadataHandler == null)
+                {
+                    if (!metadataHandler.tableExists(metaData, schema, tableName))
+                    {
+                        throw new NoSuchTableException("The table '" + tableName
+                                + "' does not exist in schema '" + schema + "'");
+                    }
+                    importedKeys = getImportedKeys(config, metaData, schema,
+                            tableName);
+                }
+                else
+                {
+                    OrderedTableNameMap tableImportedKeys =
+                            schemaImportedKeys.get(schema);
+                    if (tableImportedKeys == null)
+                    {
+                        tableImportedKeys = getSchemaImportedKeys(config,
+                                metadataHandler, bulkMetadataHandler, metaData,
+                                schema, caseSensitive);
+                        schemaImportedKeys.put(schema, tableImportedKeys);
+                    }
+                    importedKeys = (List<String[]>)tableImportedKeys.get(tableName);
+                    if (importedKeys == null)
+                    {
+                        throw new NoSuchTableException("The table '" + tableName
+                                + "' does not exist in schema '" + schema + "'");
+                    }
+                }
+                MetadataCacheHelper.put(connection, cacheKey, importedKeys);
+            }
+
+            for (String[] importedKey : importedKeys)
+            {
+                graph.addDependency(tableNames[i], importedKey[0]);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Reads the foreign keys of the given table.
+     * @return A list of string arrays holding the referenced table, qualified
+     * if enabled, the foreign key column and the primary key column
+     */
+    private static List<String[]> getImportedKeys(DatabaseConfig config,
+            DatabaseMetaData metaData, String schema, String tableName)
+    throws SQLException
+    {
+        List<String[]> importedKeys = new ArrayList<String[]>();
+        ResultSet resultSet = metaData.getImportedKeys(null, schema, tableName);
+        try
+        {
+            while (resultSet.next())
+            {
+                importedKeys.add(createImportedKey(config, resultSet));
+            }
+        }
+        finally
+        {
+            SQLHelper.close(resultSet);
+        }
+        return importedKeys;
+    }
+
+    /**
+     * Reads the foreign keys of all tables of the given schema at once.
+     * @return The lists of imported keys as returned by
+     * {@link #getImportedKeys(DatabaseConfig, DatabaseMetaData, String, String)},
+     * by the name of the table holding the foreign key. Tables which do not
+     * exist are missing.
+     */
+    private static OrderedTableNameMap getSchemaImportedKeys(
+            DatabaseConfig config, IMetadataHandler metadataHandler,
+            IBulkMetadataHandler bulkMetadataHandler, DatabaseMetaData metaData,
+            String schema, boolean caseSensitive)
+    throws DataSetException, SQLException
+    {
+        logger.debug("getSchemaImportedKeys(schema={}) - start", schema);
+
+        // All existing tables, so that tables without foreign keys are known
+        OrderedTableNameMap tableImportedKeys =
+                new OrderedTableNameMap(caseSensitive);
+        ResultSet resultSet = metadataHandler.getTables(metaData, schema, null);
+        try
+        {
+            while (resultSet.next())
+            {
+                String tableName = resultSet.getString(3);
+                if (!tableImportedKeys.containsTable(tableName))
+                {
+                    tableImportedKeys.add(tableName, new ArrayList<String[]>());
+                }
+            }
+        }
+        finally
+        {
+            SQLHelper.close(resultSet);
+        }
+
+        resultSet = bulkMetadataHandler.getSchemaImportedKeys(metaData, schema);
+        try
+        {
+            while (resultSet.next())
+            {
+                String tableName = resultSet.getString(FK_TABLE_INDEX);
+                List<String[]> importedKeys =
+                        (List<String[]>)tableImportedKeys.get(tableName);
+                if (importedKeys != null)
+                {
+                    importedKeys.add(createImportedKey(config, resultSet));
+                }
+            }
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, resultSet.getStatement());
+        }
+        return tableImportedKeys;
+    }
+
+    private static String[] createImportedKey(DatabaseConfig config,
+            ResultSet resultSet) throws SQLException
+    {
+        String referencedTableName = new QualifiedTableName(
+                resultSet.getString(PK_TABLE_INDEX),
+                resultSet.getString(PK_SCHEMA_INDEX))
+                .getQualifiedNameIfEnabled(config);
+        return new String[] {referencedTableName,
+                resultSet.getString(FK_COLUMN_INDEX),
+                resultSet.getString(PK_COLUMN_INDEX)};
+    }
+
+    /**
+     * Records that the given table references the given other table. The
+     * dependency is ignored when the referenced table is not part of the graph
+     * or when it is the table itself.
+     * @param tableName The table holding the foreign key
+     * @param referencedTableName The table referenced by the foreign key
+     * @throws NoSuchTableException If the referencing table is not part of the
+     *             graph
+     */
+    public void addDependency(String tableName, String referencedTableName)
+            throws NoSuchTableException
+    {
+        int index = getIndex(tableName);
+        if (index < 0)
+        {
+            throw new NoSuchTableException(tableName);
+        }
+        int referencedIndex = getIndex(referencedTableName);
+        if (referencedIndex < 0 || referencedIndex == index)
+        {
+            return;
+        }
+        _dependents.get(referencedIndex).add(new Integer(index));
+    }
+
+    /**
+     * @return The tables of this graph in the order they were given
+     */
+    public String[] getTableNames()
+    {
+        return (String[])_tableNames.clone();
+    }
+
+    /**
+     * Orders the tables so that each table comes after all the tables it
+     * references. Among the tables ready at a time the one given first is
+     * taken, so independent tables keep their relative order.
+     * @return The sorted table names
+     * @throws CyclicTablesDependencyException If the tables have cyclic
+     *             dependencies
+     */
+    public String[] sort() throws CyclicTablesDependencyException
+    {
+        logger.debug("sort() - start");
+
+        int[] inDegrees = getInDegrees();
+        PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+        for (int i = 0; i < inDegrees.length; i++)
+        {
+            if (inDegrees[i] == 0)
+            {
+                ready.add(new Integer(i));
+            }
+        }
+
+        List<String> sortedTableNames = new ArrayList<String>(_tableNames.length);
+        while (!ready.isEmpty())
+        {
+            Integer index = ready.poll();
+            sortedTableNames.add(_tableNames[index.intValue()]);
+            for (Integer dependentIndex : _dependents.get(index.intValue()))
+            {
+                int dependent = dependentIndex.intValue();
+                if (--inDegrees[dependent] == 0)
+                {
+                    ready.add(new Integer(dependent));
+                }
+            }
+        }
+
+        if (sortedTableNames.size() < _tableNames.length)
+        {
+            throw createCyclicException(inDegrees);
+        }
+        return sortedTableNames.toArray(new String[0]);
+    }
+
+    /**
+     * Groups the tables into dependency levels. The first level contains the
+     * tables which do not reference any table of the graph, each following
+     * level the tables which only reference tables of the previous levels.
+     * Within a level the tables keep the order in which they were given.
+     * @return The table names of each level
+     * @throws CyclicTablesDependencyException If the tables have cyclic
+     *             dependencies
+     */
+    public String[][] getLevels() throws CyclicTablesDependencyException
+    {
+        logger.debug("getLevels() - start");
+
+        int[] inDegrees = getInDegrees();
+        List<Integer> current = new ArrayList<Integer>();
+        for (int i = 0; i < inDegrees.length; i++)
+        {
+            if (inDegrees[i] == 0)
+            {
+                current.add(new Integer(i));
+            }
+        }
+
+        List<String[]> levels = new ArrayList<String[]>();
+        int count = 0;
+        while (!current.isEmpty())
+        {
+            String[] level = new String[current.size()];
+            List<Integer> next = new ArrayList<Integer>();
+            for (int i = 0; i < level.length; i++)
+            {
+                int index = current.get(i).intValue();
+                level[i] = _tableNames[index];
+                for (Integer dependentIndex : _dependents.get(index))
+                {
+                    int dependent = dependentIndex.intValue();
+                    if (--inDegrees[dependent] == 0)
+                    {
+                        next.add(new Integer(dependent));
+                    }
+                }
+            }
+            // Keep the given order within the level
+            Collections.sort(next);
+            levels.add(level);
+            count += level.length;
+            current = next;
+        }
+
+        if (count < _tableNames.length)
+        {
+            throw createCyclicException(inDegrees);
+        }
+        return levels.toArray(new String[0][]);
+    }
+
+    /**
+     * Returns the cycles of this graph as its strongly connected components
+     * consisting of more than one table.
+     * @return A list of table name sets, empty if the graph is acyclic
+     */
+    public List<Set<String>> getCycles()
+    {
+        logger.debug("getCycles() - start");
+
+        boolean[] candidates = new boolean[_tableNames.length];
+        Arrays.fill(candidates, true);
+        return getCycles(candidates);
+    }
+
+    private int getIndex(String tableName)
+    {
+        Integer index = (Integer)_tableIndexes.get(tableName);
+        return index == null ? -1 : index.intValue();
+    }
+
+    private int[] getInDegrees()
+    {
+        int[] inDegrees = new int[_tableNames.length];
+        for (Set<Integer> dependents : _dependents)
+        {
+            for (Integer dependent : dependents)
+            {
+                inDegrees[dependent.intValue()]++;
+            }
+        }
+        return inDegrees;
+    }
+
+    private CyclicTablesDependencyException createCyclicException(int[] inDegrees)
+    {
+        // Only tables left over by the topological sort can be part of a cycle
+        boolean[] candidates = new boolean[inDegrees.length];
+        for (int i = 0; i < inDegrees.length; i++)
+        {
+            candidates[i] = inDegrees[i] > 0;
+        }
+        List<Set<String>> cycles = getCycles(candidates);
+        if (cycles.size() == 1)
+        {
+            Set<String> cycle = cycles.get(0);
+            return new CyclicTablesDependencyException(
+                    cycle.iterator().next(), cycle);
+        }
+        return new CyclicTablesDependencyException(
+                "Cyclic table dependencies: " + cycles);
+    }
+
+    /**
+     * Tarjan's algorithm restricted to the candidate tables.
+     */
+    private List<Set<String>> getCycles(boolean[] candidates)
+    {
+        Tarjan tarjan = new Tarjan(candidates);
+        for (int i = 0; i < _tableNames.length; i++)
+        {
+            if (candidates[i] && tarjan._indexes[i] == 0)
+            {
+                tarjan.visit(i);
+            }
+        }
+        return tarjan._components;
+    }
+
+    /**
+     * State of one strongly connected components search.
+     */
+    private class Tarjan
+    {
+        private final boolean[] _candidates;
+        /**
+         * Discovery index of each table plus one, zero if not yet visited.
+         */
+        private final int[] _indexes;
+        private final int[] _lowLinks;
+        private final boolean[] _onStack;
+        private final int[] _stack;
+        private int _stackSize;
+        private int _counter;
+        private final List<Set<String>> _components = new ArrayList<Set<String>>();
+
+        Tarjan(boolean[] candidates)
+        {
+            _candidates = candidates;
+            _indexes = new int[candidates.length];
+            _lowLinks = new int[candidates.length];
+            _onStack = new boolean[candidates.length];
+            _stack = new int[candidates.length];
+        }
+
+        /**
+         * Visits the tables reachable from the given one. The depth first
+         * search keeps its own call stack so that long dependency chains do
+         * not overflow the thread stack.
+         */
+        void visit(int root)
+        {
+            int[] callStack = new int[_candidates.length];
+            List<Iterator<Integer>> iterators = new ArrayList<Iterator<Integer>>();
+            int depth = 0;
+            open(root);
+            callStack[depth++] = root;
+            iterators.add(_dependents.get(root).iterator());
+
+            while (depth > 0)
+            {
+                int index = callStack[depth - 1];
+                Iterator<Integer> dependents = iterators.get(depth - 1);
+                if (dependents.hasNext())
+                {
+                    int dependent = dependents.next().intValue();
+                    if (!_candidates[dependent])
+                    {
+                        continue;
+                    }
+                    if (_indexes[dependent] == 0)
+                    {
+                        open(dependent);
+                        callStack[depth++] = dependent;
+                        iterators.add(_dependents.get(dependent).iterator());
+                    }
+                    else if (_onStack[dependent])
+                    {
+                        _lowLinks[index] = Math.min(_lowLinks[index], _indexes[dependent]);
+                    }
+                    continue;
+                }
+
+                // All dependents visited: return to the calling table
+                iterators.remove(--depth);
+                if (depth > 0)
+                {
+                    int caller = callStack[depth - 1];
+                    _lowLinks[caller] = Math.min(_lowLinks[caller], _lowLinks[index]);
+                }
+                close(index);
+            }
+        }
+
+        private void open(int index)
+        {
+            _indexes[index] = ++_counter;
+            _lowLinks[index] = _counter;
+            _stack[_stackSize++] = index;
+            _onStack[index] = true;
+        }
+
+        private void close(int index)
+        {
+            if (_lowLinks[index] == _indexes[index])
+            {
+                // Root of a component: pop it from the stack
+                int[] members = new int[_stackSize];
+                int count = 0;
+                int member;
+                do
+                {
+                    member = _stack[--_stackSize];
+                    _onStack[member] = false;
+                    members[count++] = member;
+                }
+                while (member != index);
+
+                if (count > 1)
+                {
+                    Arrays.sort(members, 0, count);
+                    Set<String> component = new LinkedHashSet<String>();
+                    for (int i = 0; i < count; i++)
+                    {
+                        component.add(_tableNames[members[i]]);
+                    }
+                    _components.add(component);
+                }
+            }
+        }
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_tableNames=").append(Arrays.asList(_tableNames));
+        sb.append(", _dependents=").append(_dependents);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -25,12 +25,16 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.database.IMetadataHandler;
+import org.dbunit.database.MetadataCacheHelper;
 import org.dbunit.dataset.NoSuchTableException;
 import org.dbunit.util.QualifiedTableName;
 import org.dbunit.util.SQLHelper;
@@ -175,11 +179,34 @@ public abstract class AbstractMetaDataBasedSearchCallback extends AbstractNodesF
     	QualifiedTableName qualifiedTableName = new QualifiedTableName(tableName, schema);
     	schema = qualifiedTableName.getSchema();
     	tableName = qualifiedTableName.getTable();
-        
+
+        DatabaseConfig dbConfig = this.connection.getConfig();
+        String cacheKey = MetadataCacheHelper.getTableKey(
+                type == IMPORT ? MetadataCacheHelper.IMPORTED_KEYS_PREFIX : MetadataCacheHelper.EXPORTED_KEYS_PREFIX,
+                schema, tableName, dbConfig.getFeature(DatabaseConfig.FEATURE_CASE_SENSITIVE_TABLE_NAMES));
+        // set the schema in front if there is none ("SCHEMA.TABLE") - depending on the "qualified table names" feature
+        String qualifiedName = new QualifiedTableName(tableName, schema).getQualifiedNameIfEnabled(dbConfig);
+
+        List keys;
+        try {
+            keys = (List) MetadataCacheHelper.get(this.connection, cacheKey);
+        } catch (SQLException e) {
+            throw new SearchException(e);
+        }
+        if (keys != null) {
+            for (Iterator i = keys.iterator(); i.hasNext();) {
+                String[] key = (String[]) i.next();
+                // The edge comes from the cache, so there is no result set
+                addEdge(edges, newEdge(null, type, qualifiedName, key[0], key[1], key[2]));
+            }
+            return;
+        }
+
+        keys = new ArrayList();
         ResultSet rs = null;
         try {
             IMetadataHandler metadataHandler = (IMetadataHandler) 
-                    this.connection.getConfig().getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
+                    dbConfig.getProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER);
             // Validate if the table exists
             if(!metadataHandler.tableExists(metaData, schema, tableName))
             {
@@ -197,7 +224,6 @@ public abstract class AbstractMetaDataBasedSearchCallback extends AbstractNodesF
             
             
             
-            DatabaseConfig dbConfig = this.connection.getConfig();
             while (rs.next()) {
                 int index = TABLENAME_INDEXES[type];
                 int schemaindex = SCHEMANAME_INDEXES[type];
@@ -206,16 +232,12 @@ public abstract class AbstractMetaDataBasedSearchCallback extends AbstractNodesF
                 String pkColumn = rs.getString( PK_INDEXES[type] );
                 String fkColumn = rs.getString( FK_INDEXES[type] );
 
-                // set the schema in front if there is none ("SCHEMA.TABLE") - depending on the "qualified table names" feature
-            	tableName = new QualifiedTableName(tableName, schema).getQualifiedNameIfEnabled(dbConfig);
             	dependentTableName = new QualifiedTableName(dependentTableName, dependentSchemaName).getQualifiedNameIfEnabled(dbConfig);
                 
-                IEdge edge = newEdge(rs, type, tableName, dependentTableName, fkColumn, pkColumn );
-                if ( logger.isDebugEnabled() ) {
-                    logger.debug("Adding edge " + edge);
-                }
-                edges.add(edge);
+                keys.add(new String[] { dependentTableName, fkColumn, pkColumn });
+                addEdge(edges, newEdge(rs, type, qualifiedName, dependentTableName, fkColumn, pkColumn ));
             }
+            MetadataCacheHelper.put(this.connection, cacheKey, keys);
         } 
         catch (SQLException e) {
             throw new SearchException(e);
@@ -230,6 +252,13 @@ public abstract class AbstractMetaDataBasedSearchCallback extends AbstractNodesF
         }
     }
 
+    private void addEdge(SortedSet edges, IEdge edge) {
+        if ( logger.isDebugEnabled() ) {
+            logger.debug("Adding edge " + edge);
+        }
+        edges.add(edge);
+    }
+
 
     /**
      * Creates an edge representing a foreign key relationship between 2 tables.<br>
@@ -261,7 +290,8 @@ public abstract class AbstractMetaDataBasedSearchCallback extends AbstractNodesF
      * This method can be overwritten by the sub-classes if they need to decorate
      * the edge (for instance, providing an Edge that contains the primary and 
      * foreign keys used).
-     * @param rs database meta-data result set
+     * @param rs database meta-data result set, <code>null</code> if the
+     * relationship was found in the metadata cache
      * @param type type of relationship (IMPORT or EXPORT)
      * @param from name of the table representing the 'from' node
      * @param to name of the table representing the 'to' node
@@ -71,6 +71,14 @@ public abstract class AbstractTable implements ITable {
                 .getTableName());
     }
 
+    protected void assertValidColumnIndex(int column) throws DataSetException {
+        ITableMetaData metaData = getTableMetaData();
+        if (column < 0 || column >= metaData.getColumns().length) {
+            throw new NoSuchColumnException(metaData.getTableName(),
+                    String.valueOf(column), "column index out of bounds");
+        }
+    }
+
     protected int getColumnIndex(String columnName) throws DataSetException {
         logger.debug("getColumnIndex(columnName={}) - start", columnName);
 
@@ -40,28 +40,48 @@ public class CachedDataSet extends AbstractDataSet implements IDataSetConsumer
 
     private DefaultTable _activeTable;
 
+    /**
+     * Whether the tables are stored in {@link ColumnarTable}s
+     */
+    private final boolean _columnar;
+
     /**
      * Default constructor.
      */
     public CachedDataSet() throws DataSetException {
         super();
         initialize();
+        _columnar = false;
     }
 
     /**
      * Creates a copy of the specified dataset.
      */
     public CachedDataSet(IDataSet dataSet) throws DataSetException
+    {
+        this(dataSet, false);
+    }
+
+    /**
+     * Creates a copy of the specified dataset.
+     * @param dataSet The dataset to copy
+     * @param columnar Whether the tables are stored column by column in
+     * {@link ColumnarTable}s
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    public CachedDataSet(IDataSet dataSet, boolean columnar) throws DataSetException
     {
         super(dataSet.isCaseSensitiveTableNames());
         initialize();
+        _columnar = columnar;
 
         final ITableIterator iterator = dataSet.iterator();
         while (iterator.next())
          {
             final ITable table = iterator.getTable();
             _orderedTableNameMap.add(table.getTableMetaData().getTableName(),
-                    new CachedTable(table));
+                    columnar ? new ColumnarTable(table) : new CachedTable(table));
         }
     }
 
@@ -80,9 +100,25 @@ public class CachedDataSet extends AbstractDataSet implements IDataSetConsumer
      * @throws DataSetException
      */
     public CachedDataSet(IDataSetProducer producer, boolean caseSensitiveTableNames) throws DataSetException
+    {
+        this(producer, caseSensitiveTableNames, false);
+    }
+
+    /**
+     * Creates a CachedDataSet that synchronously consume the specified producer.
+     * @param producer
+     * @param caseSensitiveTableNames Whether or not case sensitive table names should be used
+     * @param columnar Whether the tables are stored column by column in
+     * {@link ColumnarTable}s
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    public CachedDataSet(IDataSetProducer producer, boolean caseSensitiveTableNames,
+            boolean columnar) throws DataSetException
     {
         super(caseSensitiveTableNames);
         initialize();
+        _columnar = columnar;
 
         producer.setConsumer(this);
         producer.produce();
@@ -119,7 +155,7 @@ public class CachedDataSet extends AbstractDataSet implements IDataSetConsumer
     public void startTable(ITableMetaData metaData) throws DataSetException
     {
         logger.debug("startTable(metaData={}) - start", metaData);
-        _activeTable = new DefaultTable(metaData);
+        _activeTable = _columnar ? new ColumnarTable(metaData) : new DefaultTable(metaData);
     }
 
     public void endTable() throws DataSetException
@@ -84,6 +84,11 @@ public class CaseInsensitiveTable implements ITable
 
         return _table.getValue(row, getInternalColumnName(column));
     }
+
+    public Object getValue(int row, int column) throws DataSetException
+    {
+        return _table.getValue(row, column);
+    }
 }
 
 
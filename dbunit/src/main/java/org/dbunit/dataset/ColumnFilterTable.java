@@ -49,6 +49,12 @@ public class ColumnFilterTable implements ITable
      */
     private final ITableMetaData tableMetaData;
 
+    /**
+     * Maps the column positions of the filtered table metadata to the column
+     * positions of the original table. Resolved lazily on first access.
+     */
+    private int[] originalColumnIndexes;
+
     
     /**
      * @param table The table from which some columns should be filtered
@@ -93,6 +99,33 @@ public class ColumnFilterTable implements ITable
         return this.originalTable.getValue(row, column);
     }
 
+    public Object getValue(int row, int column) throws DataSetException 
+    {
+        int[] columnIndexes = getOriginalColumnIndexes();
+        if (column < 0 || column >= columnIndexes.length)
+        {
+            throw new NoSuchColumnException(this.tableMetaData.getTableName(),
+                    String.valueOf(column), "column index out of bounds");
+        }
+        return this.originalTable.getValue(row, columnIndexes[column]);
+    }
+
+    private int[] getOriginalColumnIndexes() throws DataSetException
+    {
+        if (this.originalColumnIndexes == null)
+        {
+            Column[] columns = this.tableMetaData.getColumns();
+            ITableMetaData originalMetaData = this.originalTable.getTableMetaData();
+            int[] indexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++)
+            {
+                indexes[i] = originalMetaData.getColumnIndex(columns[i].getColumnName());
+            }
+            this.originalColumnIndexes = indexes;
+        }
+        return this.originalColumnIndexes;
+    }
+
     public ITableMetaData getOriginalMetaData() 
     {
         logger.debug("getOriginalMetaData() - start");
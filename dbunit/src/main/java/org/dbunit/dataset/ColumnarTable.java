@@ -0,0 +1,733 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dbunit.dataset.datatype.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory table storing its values column by column. The storage of each
+ * column is chosen from the {@link DataType} of the column:
+ * <ul>
+ * <li>integers, longs and doubles in primitive arrays with a null bitmap,</li>
+ * <li>decimals as unscaled long and scale,</li>
+ * <li>timestamps as epoch milliseconds and nanoseconds,
+ * dates and times as epoch milliseconds,</li>
+ * <li>strings and values of unknown type dictionary encoded.</li>
+ * </ul>
+ * Compared to the boxed rows of a {@link DefaultTable} this avoids an object
+ * per value, which dominates the memory of large numeric tables.
+ * <p>
+ * A value which cannot be stored exactly by the chosen storage, for example
+ * a string in an integer column or a decimal exceeding the long range,
+ * switches the column to plain object storage. So {@link #getValue} always
+ * returns a value which is equal to and of the same class as the value that
+ * has been added. Values stored in primitive form are recreated on every
+ * access though, so they are equal but not the same instances.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ColumnarTable extends CachedTable
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarTable.class);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ColumnStore[] _stores;
+    private int _rowCount;
+
+    /**
+     * Creates a columnar copy of the given table.
+     * @param table The table to copy
+     * @throws DataSetException
+     */
+    public ColumnarTable(ITable table) throws DataSetException
+    {
+        this(table.getTableMetaData());
+        addTableRows(table);
+        trimToSize();
+    }
+
+    /**
+     * Creates a new empty table with the given metadata.
+     * @param metaData The table metadata
+     * @throws DataSetException
+     */
+    public ColumnarTable(ITableMetaData metaData) throws DataSetException
+    {
+        super(metaData);
+
+        Column[] columns = metaData.getColumns();
+        _stores = new ColumnStore[columns.length];
+        for (int i = 0; i < columns.length; i++)
+        {
+            _stores[i] = createStore(columns[i].getDataType());
+        }
+    }
+
+    private static ColumnStore createStore(DataType dataType)
+    {
+        Class typeClass = dataType == null ? Object.class : dataType.getTypeClass();
+        if (typeClass == Integer.class)
+        {
+            return new IntStore();
+        }
+        if (typeClass == Long.class)
+        {
+            return new LongStore();
+        }
+        if (typeClass == Double.class)
+        {
+            return new DoubleStore();
+        }
+        if (typeClass == BigDecimal.class)
+        {
+            return new DecimalStore();
+        }
+        if (typeClass == Timestamp.class)
+        {
+            return new TimestampStore();
+        }
+        if (typeClass == java.sql.Date.class || typeClass == Time.class)
+        {
+            return new MillisStore(typeClass);
+        }
+        if (typeClass == String.class || typeClass == Object.class)
+        {
+            // Flat XML and CSV values of unknown type are strings
+            return new StringStore();
+        }
+        return new ObjectStore(INITIAL_CAPACITY);
+    }
+
+    private void store(int column, int row, Object value)
+    {
+        ColumnStore store = _stores[column];
+        if (!store.accepts(value))
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Switching column {} to object storage for value of {}",
+                        String.valueOf(column), value.getClass());
+            }
+            store = store.toObjectStore(_rowCount);
+            _stores[column] = store;
+        }
+        store.set(row, value);
+    }
+
+    /**
+     * Shrinks the column storage to the current number of rows.
+     */
+    public void trimToSize()
+    {
+        for (int i = 0; i < _stores.length; i++)
+        {
+            _stores[i].trimToSize(_rowCount);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // DefaultTable class
+
+    public void addRow() throws DataSetException
+    {
+        logger.debug("addRow() - start");
+
+        addRow(new Object[_stores.length]);
+    }
+
+    public void addRow(Object[] values) throws DataSetException
+    {
+        logger.debug("addRow(values={}) - start", values);
+
+        int row = _rowCount;
+        for (int i = 0; i < _stores.length; i++)
+        {
+            store(i, row, i < values.length ? values[i] : null);
+        }
+        _rowCount++;
+    }
+
+    public void addTableRows(ITable table) throws DataSetException
+    {
+        logger.debug("addTableRows(table={}) - start", table);
+
+        Column[] columns = getTableMetaData().getColumns();
+        if (columns.length <= 0)
+        {
+            logger.warn("The table '" + table + "' does not have any columns. Cannot add table rows. This should never happen...");
+            return;
+        }
+
+        ITableCursor cursor = table.cursor();
+        if (!cursor.next())
+        {
+            // empty table
+            return;
+        }
+
+        // Resolve the source column positions once for the whole table
+        int[] columnIndexes = new int[columns.length];
+        ITableMetaData tableMetaData = table.getTableMetaData();
+        for (int j = 0; j < columns.length; j++)
+        {
+            columnIndexes[j] = tableMetaData.getColumnIndex(
+                    columns[j].getColumnName());
+        }
+
+        do
+        {
+            int row = _rowCount;
+            for (int j = 0; j < columns.length; j++)
+            {
+                store(j, row, cursor.get(columnIndexes[j]));
+            }
+            _rowCount++;
+        }
+        while (cursor.next());
+    }
+
+    public Object setValue(int row, String column, Object value)
+            throws RowOutOfBoundsException, NoSuchColumnException, DataSetException
+    {
+        if(logger.isDebugEnabled())
+            logger.debug("setValue(row={}, column={}, value={}) - start", new Object[] {Integer.toString(row), column, value});
+
+        assertValidRowIndex(row);
+
+        int columnIndex = getColumnIndex(column);
+        Object oldValue = _stores[columnIndex].get(row);
+        store(columnIndex, row, value);
+        return oldValue;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ITable interface
+
+    public int getRowCount()
+    {
+        return _rowCount;
+    }
+
+    public Object getValue(int row, String column) throws DataSetException
+    {
+        if(logger.isDebugEnabled())
+            logger.debug("getValue(row={}, column={}) - start", Integer.toString(row), column);
+
+        assertValidRowIndex(row);
+
+        return _stores[getColumnIndex(column)].get(row);
+    }
+
+    public Object getValue(int row, int column) throws DataSetException
+    {
+        assertValidRowIndex(row);
+
+        if (column < 0 || column >= _stores.length)
+        {
+            assertValidColumnIndex(column);
+        }
+        return _stores[column].get(row);
+    }
+
+    public ITableCursor cursor()
+    {
+        return new ColumnCursor();
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_metaData=").append(getTableMetaData());
+        sb.append(", _rowCount=").append(_rowCount);
+        sb.append(", _stores=").append(Arrays.asList(_stores));
+        sb.append("]");
+        return sb.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ColumnCursor class
+
+    /**
+     * Cursor reading the values of the current row from the column stores.
+     */
+    private class ColumnCursor implements ITableCursor
+    {
+        private int _row = -1;
+
+        public ITableMetaData getTableMetaData()
+        {
+            return ColumnarTable.this.getTableMetaData();
+        }
+
+        public boolean next()
+        {
+            if (_row + 1 >= _rowCount)
+            {
+                _row = _rowCount;
+                return false;
+            }
+            _row++;
+            return true;
+        }
+
+        public int getRow()
+        {
+            return _row;
+        }
+
+        public Object get(int column) throws DataSetException
+        {
+            if (_row < 0 || _row >= _rowCount)
+            {
+                throw new RowOutOfBoundsException(
+                        "Cursor is not positioned on a valid row: " + _row);
+            }
+            if (column < 0 || column >= _stores.length)
+            {
+                assertValidColumnIndex(column);
+            }
+            return _stores[column].get(_row);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ColumnStore classes
+
+    /**
+     * The values of a single column.
+     */
+    private abstract static class ColumnStore
+    {
+        /**
+         * The number of rows that have been set
+         */
+        int _size;
+
+        /**
+         * @return <code>true</code> if the value can be stored exactly
+         */
+        abstract boolean accepts(Object value);
+
+        abstract Object get(int row);
+
+        abstract void set(int row, Object value);
+
+        abstract void trimToSize(int size);
+
+        static int newCapacity(int capacity, int minCapacity)
+        {
+            return Math.max(minCapacity, capacity + (capacity >> 1) + INITIAL_CAPACITY);
+        }
+
+        void updateSize(int row)
+        {
+            if (row >= _size)
+            {
+                _size = row + 1;
+            }
+        }
+
+        ObjectStore toObjectStore(int size)
+        {
+            ObjectStore store = new ObjectStore(Math.max(size, INITIAL_CAPACITY));
+            for (int i = 0; i < size; i++)
+            {
+                store.set(i, get(i));
+            }
+            return store;
+        }
+
+        public String toString()
+        {
+            return getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Stores arbitrary values as references.
+     */
+    private static class ObjectStore extends ColumnStore
+    {
+        private Object[] _values;
+
+        ObjectStore(int capacity)
+        {
+            _values = new Object[capacity];
+        }
+
+        boolean accepts(Object value)
+        {
+            return true;
+        }
+
+        Object get(int row)
+        {
+            return _values[row];
+        }
+
+        void set(int row, Object value)
+        {
+            if (row >= _values.length)
+            {
+                _values = Arrays.copyOf(_values, newCapacity(_values.length, row + 1));
+            }
+            _values[row] = value;
+            updateSize(row);
+        }
+
+        void trimToSize(int size)
+        {
+            if (size < _values.length)
+            {
+                _values = Arrays.copyOf(_values, size);
+            }
+        }
+    }
+
+    /**
+     * Base class of the stores keeping values in primitive arrays. Nulls are
+     * tracked in a bitmap which is only allocated once a null is stored.
+     */
+    private abstract static class PrimitiveStore extends ColumnStore
+    {
+        private BitSet _nulls;
+        private int _capacity;
+
+        Object get(int row)
+        {
+            if (_nulls != null && _nulls.get(row))
+            {
+                return null;
+            }
+            return getValue(row);
+        }
+
+        void set(int row, Object value)
+        {
+            if (row >= _capacity)
+            {
+                _capacity = newCapacity(_capacity, row + 1);
+                resize(_capacity);
+            }
+            if (value == null)
+            {
+                if (_nulls == null)
+                {
+                    _nulls = new BitSet();
+                }
+                _nulls.set(row);
+            }
+            else
+            {
+                if (_nulls != null)
+                {
+                    _nulls.clear(row);
+                }
+                setValue(row, value);
+            }
+            updateSize(row);
+        }
+
+        void trimToSize(int size)
+        {
+            if (size < _capacity)
+            {
+                _capacity = size;
+                resize(size);
+            }
+        }
+
+        abstract Object getValue(int row);
+
+        abstract void setValue(int row, Object value);
+
+        abstract void resize(int capacity);
+    }
+
+    private static class IntStore extends PrimitiveStore
+    {
+        private int[] _values = new int[0];
+
+        boolean accepts(Object value)
+        {
+            return value == null || value.getClass() == Integer.class;
+        }
+
+        Object getValue(int row)
+        {
+            return Integer.valueOf(_values[row]);
+        }
+
+        void setValue(int row, Object value)
+        {
+            _values[row] = ((Integer) value).intValue();
+        }
+
+        void resize(int capacity)
+        {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+
+    private static class LongStore extends PrimitiveStore
+    {
+        private long[] _values = new long[0];
+
+        boolean accepts(Object value)
+        {
+            return value == null || value.getClass() == Long.class;
+        }
+
+        Object getValue(int row)
+        {
+            return Long.valueOf(_values[row]);
+        }
+
+        void setValue(int row, Object value)
+        {
+            _values[row] = ((Long) value).longValue();
+        }
+
+        void resize(int capacity)
+        {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+
+    private static class DoubleStore extends PrimitiveStore
+    {
+        private double[] _values = new double[0];
+
+        boolean accepts(Object value)
+        {
+            return value == null || value.getClass() == Double.class;
+        }
+
+        Object getValue(int row)
+        {
+            return Double.valueOf(_values[row]);
+        }
+
+        void setValue(int row, Object value)
+        {
+            _values[row] = ((Double) value).doubleValue();
+        }
+
+        void resize(int capacity)
+        {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+
+    /**
+     * Stores decimals whose unscaled value fits into a long.
+     */
+    private static class DecimalStore extends PrimitiveStore
+    {
+        private long[] _unscaled = new long[0];
+        private int[] _scales = new int[0];
+
+        boolean accepts(Object value)
+        {
+            return value == null || (value.getClass() == BigDecimal.class
+                    && ((BigDecimal) value).unscaledValue().bitLength() < 64);
+        }
+
+        Object getValue(int row)
+        {
+            return BigDecimal.valueOf(_unscaled[row], _scales[row]);
+        }
+
+        void setValue(int row, Object value)
+        {
+            BigDecimal decimal = (BigDecimal) value;
+            _unscaled[row] = decimal.unscaledValue().longValue();
+            _scales[row] = decimal.scale();
+        }
+
+        void resize(int capacity)
+        {
+            _unscaled = Arrays.copyOf(_unscaled, capacity);
+            _scales = Arrays.copyOf(_scales, capacity);
+        }
+    }
+
+    /**
+     * Stores timestamps as epoch milliseconds and nanoseconds.
+     */
+    private static class TimestampStore extends PrimitiveStore
+    {
+        private long[] _millis = new long[0];
+        private int[] _nanos = new int[0];
+
+        boolean accepts(Object value)
+        {
+            return value == null || value.getClass() == Timestamp.class;
+        }
+
+        Object getValue(int row)
+        {
+            Timestamp timestamp = new Timestamp(_millis[row]);
+            timestamp.setNanos(_nanos[row]);
+            return timestamp;
+        }
+
+        void setValue(int row, Object value)
+        {
+            Timestamp timestamp = (Timestamp) value;
+            _millis[row] = timestamp.getTime();
+            _nanos[row] = timestamp.getNanos();
+        }
+
+        void resize(int capacity)
+        {
+            _millis = Arrays.copyOf(_millis, capacity);
+            _nanos = Arrays.copyOf(_nanos, capacity);
+        }
+    }
+
+    /**
+     * Stores {@link java.sql.Date} or {@link Time} values as epoch
+     * milliseconds.
+     */
+    private static class MillisStore extends PrimitiveStore
+    {
+        private final Class _typeClass;
+        private long[] _millis = new long[0];
+
+        MillisStore(Class typeClass)
+        {
+            _typeClass = typeClass;
+        }
+
+        boolean accepts(Object value)
+        {
+            return value == null || value.getClass() == _typeClass;
+        }
+
+        Object getValue(int row)
+        {
+            if (_typeClass == Time.class)
+            {
+                return new Time(_millis[row]);
+            }
+            return new java.sql.Date(_millis[row]);
+        }
+
+        void setValue(int row, Object value)
+        {
+            _millis[row] = ((java.util.Date) value).getTime();
+        }
+
+        void resize(int capacity)
+        {
+            _millis = Arrays.copyOf(_millis, capacity);
+        }
+    }
+
+    /**
+     * Stores strings as codes into a dictionary of the distinct values.
+     * Columns with mostly distinct values are switched to object storage
+     * since the dictionary would not save anything.
+     */
+    private static class StringStore extends ColumnStore
+    {
+        private static final int NULL_CODE = -1;
+        private static final int MIN_DICTIONARY_LIMIT = 4096;
+
+        private int[] _codes = new int[0];
+        private final List<String> _dictionary = new ArrayList<String>();
+        private final Map<String, Integer> _codesByValue = new HashMap<String, Integer>();
+
+        boolean accepts(Object value)
+        {
+            if (value == null)
+            {
+                return true;
+            }
+            if (value.getClass() != String.class)
+            {
+                return false;
+            }
+            return _codesByValue.containsKey(value)
+                    || _dictionary.size() < Math.max(MIN_DICTIONARY_LIMIT, _size / 4);
+        }
+
+        Object get(int row)
+        {
+            int code = _codes[row];
+            return code == NULL_CODE ? null : _dictionary.get(code);
+        }
+
+        void set(int row, Object value)
+        {
+            if (row >= _codes.length)
+            {
+                _codes = Arrays.copyOf(_codes, newCapacity(_codes.length, row + 1));
+            }
+            if (value == null)
+            {
+                _codes[row] = NULL_CODE;
+            }
+            else
+            {
+                Integer code = _codesByValue.get(value);
+                if (code == null)
+                {
+                    code = Integer.valueOf(_dictionary.size());
+                    _dictionary.add((String) value);
+                    _codesByValue.put((String) value, code);
+                }
+                _codes[row] = code.intValue();
+            }
+            updateSize(row);
+        }
+
+        void trimToSize(int size)
+        {
+            if (size < _codes.length)
+            {
+                _codes = Arrays.copyOf(_codes, size);
+            }
+        }
+    }
+}
@@ -121,31 +121,39 @@ public class DefaultTable extends AbstractTable
     {
         logger.debug("addTableRows(table={}) - start", table);
 
-        try
+        Column[] columns = _metaData.getColumns();
+        if (columns.length <= 0)
         {
-            Column[] columns = _metaData.getColumns();
-            if (columns.length <= 0)
-            {
-            	logger.warn("The table '" + table + "' does not have any columns. Cannot add table rows. This should never happen...");
-            	return;
-            }
-            
-            for (int i = 0; ; i++)
-            {
-                Object[] rowValues = new Object[columns.length];
-                for (int j = 0; j < columns.length; j++)
-                {
-                    Column column = columns[j];
-                    rowValues[j] = table.getValue(i, column.getColumnName());
-                }
-                _rowList.add(rowValues);
-            }
+        	logger.warn("The table '" + table + "' does not have any columns. Cannot add table rows. This should never happen...");
+        	return;
+        }
+        
+        ITableCursor cursor = table.cursor();
+        if (!cursor.next())
+        {
+            // empty table
+            return;
         }
-        catch(RowOutOfBoundsException e)
+
+        // Resolve the source column positions once for the whole table
+        int[] columnIndexes = new int[columns.length];
+        ITableMetaData tableMetaData = table.getTableMetaData();
+        for (int j = 0; j < columns.length; j++)
+        {
+            columnIndexes[j] = tableMetaData.getColumnIndex(
+                    columns[j].getColumnName());
+        }
+
+        do
         {
-            // end of table
-        	// ignore error.
+            Object[] rowValues = new Object[columns.length];
+            for (int j = 0; j < columns.length; j++)
+            {
+                rowValues[j] = cursor.get(columnIndexes[j]);
+            }
+            _rowList.add(rowValues);
         }
+        while (cursor.next());
     }
 
     /**
@@ -197,6 +205,23 @@ public class DefaultTable extends AbstractTable
         return rowValues[getColumnIndex(column)];
     }
 
+    public Object getValue(int row, int column) throws DataSetException
+    {
+        assertValidRowIndex(row);
+
+        Object[] rowValues = (Object[])_rowList.get(row);
+        if (column < 0 || column >= rowValues.length)
+        {
+            assertValidColumnIndex(column);
+        }
+        return rowValues[column];
+    }
+
+    public ITableCursor cursor()
+    {
+        return new RowListCursor();
+    }
+
     public String toString()
     {
     	StringBuffer sb = new StringBuffer();
@@ -206,9 +231,54 @@ public class DefaultTable extends AbstractTable
     	sb.append("]");
     	return sb.toString();
     }
-}
 
+    ////////////////////////////////////////////////////////////////////////////
+    // RowListCursor class
+
+    /**
+     * Cursor directly iterating over the row list of this table.
+     */
+    private class RowListCursor implements ITableCursor
+    {
+        private int _row = -1;
+        private Object[] _rowValues;
 
+        public ITableMetaData getTableMetaData()
+        {
+            return _metaData;
+        }
 
+        public boolean next()
+        {
+            if (_row + 1 >= _rowList.size())
+            {
+                _row = _rowList.size();
+                _rowValues = null;
+                return false;
+            }
 
+            _row++;
+            _rowValues = (Object[])_rowList.get(_row);
+            return true;
+        }
 
+        public int getRow()
+        {
+            return _row;
+        }
+
+        public Object get(int column) throws DataSetException
+        {
+            if (_rowValues == null)
+            {
+                throw new RowOutOfBoundsException(
+                        "Cursor is not positioned on a valid row: " + _row);
+            }
+            if (column < 0 || column >= _rowValues.length)
+            {
+                assertValidColumnIndex(column);
+            }
+            return _rowValues[column];
+        }
+    }
+}
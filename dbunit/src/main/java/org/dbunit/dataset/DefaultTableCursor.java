@@ -0,0 +1,178 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cursor implementation working on top of the random access methods of any
+ * {@link ITable}. If the table knows its row count the end of the table is
+ * detected by comparing with {@link ITable#getRowCount()}. Otherwise the
+ * cursor probes the next row and stops at the first
+ * {@link RowOutOfBoundsException}.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DefaultTableCursor implements ITableCursor
+{
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(DefaultTableCursor.class);
+
+    private static final int UNKNOWN_ROW_COUNT = -1;
+
+    private final ITable _table;
+    private final boolean _reverse;
+    private final int _rowCount;
+    private int _row;
+    private boolean _eot = false;
+
+    /**
+     * Creates a cursor iterating the rows of the given table from the first to
+     * the last row.
+     *
+     * @param table The table to iterate
+     */
+    public DefaultTableCursor(ITable table)
+    {
+        this(table, false);
+    }
+
+    /**
+     * Creates a cursor iterating the rows of the given table.
+     *
+     * @param table The table to iterate
+     * @param reverse <code>true</code> to iterate from the last to the first
+     * row. Requires the table to support {@link ITable#getRowCount()}.
+     */
+    public DefaultTableCursor(ITable table, boolean reverse)
+    {
+        if (table == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'table' must not be null");
+        }
+
+        _table = table;
+        _reverse = reverse;
+        _rowCount = reverse ? table.getRowCount() : getRowCount(table);
+        _row = reverse ? _rowCount : -1;
+    }
+
+    private static int getRowCount(ITable table)
+    {
+        try
+        {
+            return table.getRowCount();
+        }
+        catch (UnsupportedOperationException e)
+        {
+            logger.debug("Table does not support getRowCount(),"
+                    + " probing rows instead: {}", table);
+            return UNKNOWN_ROW_COUNT;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ITableCursor interface
+
+    public ITableMetaData getTableMetaData()
+    {
+        return _table.getTableMetaData();
+    }
+
+    public boolean next() throws DataSetException
+    {
+        if (_eot)
+        {
+            return false;
+        }
+
+        if (_reverse)
+        {
+            _row--;
+            _eot = _row < 0;
+        }
+        else if (_rowCount != UNKNOWN_ROW_COUNT)
+        {
+            _row++;
+            _eot = _row >= _rowCount;
+        }
+        else
+        {
+            _row++;
+            _eot = !probeRow(_row);
+        }
+        return !_eot;
+    }
+
+    private boolean probeRow(int row) throws DataSetException
+    {
+        if (_table.getTableMetaData().getColumns().length == 0)
+        {
+            // Nothing that could be probed, treat as empty
+            return false;
+        }
+
+        try
+        {
+            _table.getValue(row, 0);
+            return true;
+        }
+        catch (RowOutOfBoundsException e)
+        {
+            return false;
+        }
+    }
+
+    public int getRow()
+    {
+        return _row;
+    }
+
+    public Object get(int column) throws DataSetException
+    {
+        if (_eot || _row < 0)
+        {
+            throw new RowOutOfBoundsException(
+                    "Cursor is not positioned on a valid row: " + _row);
+        }
+        return _table.getValue(_row, column);
+    }
+
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_table=").append(_table);
+        sb.append(", _reverse=").append(_reverse);
+        sb.append(", _rowCount=").append(_rowCount);
+        sb.append(", _row=").append(_row);
+        sb.append(", _eot=").append(_eot);
+        sb.append("]");
+        return sb.toString();
+    }
+}
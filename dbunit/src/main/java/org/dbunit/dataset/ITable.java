@@ -55,6 +55,57 @@ public interface ITable
      * equals or greater than <code>getRowCount</code>
      */
     public Object getValue(int row, String column) throws DataSetException;
+
+    /**
+     * Returns this table value for the specified row and column index. The
+     * column index is the position of the column in the array returned by
+     * <code>getTableMetaData().getColumns()</code>.
+     * <p>
+     * Callers accessing many cells of the same table should resolve the column
+     * index once using {@link ITableMetaData#getColumnIndex(String)} and then
+     * use this method, which avoids the column name lookup for every cell.
+     * The default implementation falls back to {@link #getValue(int, String)}.
+     * </p>
+     * @param row The row index, starting with 0
+     * @param column The column index, starting with 0
+     * @return The value
+     *
+     * @throws NoSuchColumnException if specified column index is less than
+     * zero or equals or greater than the number of columns of this table
+     * @throws RowOutOfBoundsException if specified row is less than zero or
+     * equals or greater than <code>getRowCount</code>
+     * @since 2.7.1
+     */
+    public default Object getValue(int row, int column) throws DataSetException
+    {
+        ITableMetaData metaData = getTableMetaData();
+        Column[] columns = metaData.getColumns();
+        if (column < 0 || column >= columns.length)
+        {
+            throw new NoSuchColumnException(metaData.getTableName(),
+                    String.valueOf(column), "column index out of bounds");
+        }
+        return getValue(row, columns[column].getColumnName());
+    }
+
+    /**
+     * Returns a new forward cursor over the rows of this table. Iterating a
+     * table through its cursor is the preferred way to process all rows since
+     * it neither needs to know the row count in advance nor relies on a
+     * {@link RowOutOfBoundsException} to detect the end of the table.
+     * <p>
+     * The default implementation returns a {@link DefaultTableCursor} working
+     * on top of the random access methods of this table. Forward-only tables
+     * share their read position with the returned cursor, so only a single
+     * cursor should be used per table instance.
+     * </p>
+     * @return A cursor positioned before the first row
+     * @since 2.7.1
+     */
+    public default ITableCursor cursor() throws DataSetException
+    {
+        return new DefaultTableCursor(this);
+    }
 }
 
 
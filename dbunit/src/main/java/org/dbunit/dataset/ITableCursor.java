@@ -0,0 +1,72 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+/**
+ * Forward cursor over the rows of an {@link ITable}. The cursor is initially
+ * positioned before the first row; the first call to {@link #next()} makes the
+ * first row the current row, the second call makes the second row the current
+ * row, and so on.
+ * <p>
+ * In contrast to probing {@link ITable#getValue(int, int)} until a
+ * {@link RowOutOfBoundsException} occurs, a cursor detects the end of the
+ * table without an exception and also works on tables that cannot tell their
+ * row count in advance, like streaming or result set backed tables.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see ITable#cursor()
+ */
+public interface ITableCursor
+{
+    /**
+     * Returns the metadata of the table this cursor iterates over.
+     */
+    public ITableMetaData getTableMetaData();
+
+    /**
+     * Moves this cursor to the next row.
+     *
+     * @return <code>true</code> if the new current row is valid;
+     * <code>false</code> if there are no more rows
+     */
+    public boolean next() throws DataSetException;
+
+    /**
+     * Returns the index of the current row within the table, starting with 0.
+     * Returns -1 if the cursor is positioned before the first row.
+     */
+    public int getRow();
+
+    /**
+     * Returns the value of the current row for the specified column index.
+     *
+     * @param column The column index as defined by
+     * {@link ITableMetaData#getColumns()}, starting with 0
+     * @return The value
+     * @throws NoSuchColumnException if specified column index does not exist
+     * @throws RowOutOfBoundsException if the cursor is not positioned on a
+     * valid row
+     */
+    public Object get(int column) throws DataSetException;
+}
@@ -244,8 +244,16 @@ public class ReplacementTable implements ITable
         if(logger.isDebugEnabled())
             logger.debug("getValue(row={}, columnName={}) - start", Integer.toString(row), column);
 
-        Object value = _table.getValue(row, column);
+        return replaceValue(_table.getValue(row, column));
+    }
 
+    public Object getValue(int row, int column) throws DataSetException
+    {
+        return replaceValue(_table.getValue(row, column));
+    }
+
+    private Object replaceValue(Object value) throws DataSetException
+    {
         // Object replacement
         if (_objectMap.containsKey(value))
         {
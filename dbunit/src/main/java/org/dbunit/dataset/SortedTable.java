@@ -323,6 +323,15 @@ public class SortedTable extends AbstractTable
         return _table.getValue(getOriginalRowIndex(row), columnName);
     }
 
+    @Override
+    public Object getValue(final int row, final int column)
+            throws DataSetException
+    {
+        assertValidRowIndex(row);
+
+        return _table.getValue(getOriginalRowIndex(row), column);
+    }
+
     // //////////////////////////////////////////////////////////////////////////
     // Comparator interface
 
@@ -339,6 +348,11 @@ public class SortedTable extends AbstractTable
                 LoggerFactory.getLogger(AbstractRowComparator.class);
         private final ITable _table;
         private final Column[] _sortColumns;
+        /**
+         * Positions of the sort columns within the wrapped table, resolved
+         * lazily on the first comparison
+         */
+        private int[] _sortColumnIndexes;
 
         /**
          * @param table
@@ -363,14 +377,15 @@ public class SortedTable extends AbstractTable
 
             try
             {
+                final int[] sortColumnIndexes = getSortColumnIndexes();
                 for (int i = 0; i < _sortColumns.length; i++)
                 {
-                    final String columnName = _sortColumns[i].getColumnName();
+                    final int columnIndex = sortColumnIndexes[i];
 
                     final Object value1 =
-                            _table.getValue(i1.intValue(), columnName);
+                            _table.getValue(i1.intValue(), columnIndex);
                     final Object value2 =
-                            _table.getValue(i2.intValue(), columnName);
+                            _table.getValue(i2.intValue(), columnIndex);
 
                     if (value1 == null && value2 == null)
                     {
@@ -403,6 +418,22 @@ public class SortedTable extends AbstractTable
             return 0;
         }
 
+        private int[] getSortColumnIndexes() throws DataSetException
+        {
+            if (_sortColumnIndexes == null)
+            {
+                final ITableMetaData metaData = _table.getTableMetaData();
+                final int[] indexes = new int[_sortColumns.length];
+                for (int i = 0; i < _sortColumns.length; i++)
+                {
+                    indexes[i] = metaData
+                            .getColumnIndex(_sortColumns[i].getColumnName());
+                }
+                _sortColumnIndexes = indexes;
+            }
+            return _sortColumnIndexes;
+        }
+
         /**
          * @param column
          *            The column to be compared
@@ -0,0 +1,97 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes the compact binary dataset format. Unlike the text
+ * formats it keeps the column data types, the primary keys and the Java
+ * types of the values, so loading it involves no parsing of strings.
+ *
+ * @see BinaryDataSetWriter
+ * @see BinaryProducer
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryDataSet extends CachedDataSet
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BinaryDataSet.class);
+
+    /**
+     * Creates a BinaryDataSet reading the specified file through a memory
+     * mapped buffer.
+     */
+    public BinaryDataSet(File file) throws DataSetException
+    {
+        super(new BinaryProducer(file));
+    }
+
+    /**
+     * Creates a BinaryDataSet with the specified input stream.
+     */
+    public BinaryDataSet(InputStream in) throws DataSetException
+    {
+        super(new BinaryProducer(in));
+    }
+
+    /**
+     * Write the specified dataset to the specified output stream in the
+     * binary format.
+     */
+    public static void write(IDataSet dataSet, OutputStream out)
+            throws IOException, DataSetException
+    {
+        logger.debug("write(dataSet={}, out={}) - start", dataSet, out);
+        write(dataSet, out, false);
+    }
+
+    /**
+     * Write the specified dataset to the specified output stream in the
+     * binary format.
+     * @param compressed Whether or not to deflate the row blocks
+     */
+    public static void write(IDataSet dataSet, OutputStream out,
+            boolean compressed) throws IOException, DataSetException
+    {
+        if (logger.isDebugEnabled())
+            logger.debug("write(dataSet={}, out={}, compressed={}) - start",
+                    new Object[] {dataSet, out, Boolean.valueOf(compressed)});
+
+        BinaryDataSetWriter writer = new BinaryDataSetWriter(out);
+        writer.setCompressed(compressed);
+        writer.write(dataSet);
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.DatabaseMetaData;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.Columns;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.DataSetProducerAdapter;
+import org.dbunit.dataset.stream.IDataSetConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a dataset in the binary dataset format read by
+ * {@link BinaryProducer}. The column definitions including their
+ * {@link DataType}s and the primary keys are stored with every table. The
+ * rows are written in blocks of {@link #setBlockSize(int) blockSize} rows
+ * which are stored column by column, each column with the most compact
+ * encoding its values allow.
+ * <p>
+ * The given output stream is flushed but not closed at the end of the
+ * dataset.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryDataSetWriter implements IDataSetConsumer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BinaryDataSetWriter.class);
+
+    /**
+     * The default number of rows stored in one block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final OutputStream _out;
+    private final BinaryFormat.Output _record = new BinaryFormat.Output(8192);
+    private final BinaryFormat.Output _data = new BinaryFormat.Output(8192);
+    private final BinaryFormat.Output _prefix = new BinaryFormat.Output(16);
+    private int _blockSize = DEFAULT_BLOCK_SIZE;
+    private boolean _compressed = false;
+    private Deflater _deflater;
+    private BinaryFormat.Output _deflated;
+    private List<Object[]> _rows = new ArrayList<Object[]>();
+    private int _columnCount;
+
+    public BinaryDataSetWriter(OutputStream out)
+    {
+        _out = new BufferedOutputStream(out);
+    }
+
+    /**
+     * @param blockSize The number of rows stored in one block. Defaults to
+     *            {@link #DEFAULT_BLOCK_SIZE}.
+     */
+    public void setBlockSize(int blockSize)
+    {
+        if (blockSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'blockSize' must be greater than 0: "
+                            + blockSize);
+        }
+        _blockSize = blockSize;
+    }
+
+    /**
+     * @param compressed Whether or not to deflate the row blocks. A block is
+     *            stored uncompressed if deflating does not make it smaller.
+     *            Defaults to <code>false</code>.
+     */
+    public void setCompressed(boolean compressed)
+    {
+        _compressed = compressed;
+    }
+
+    /**
+     * Writes the given {@link IDataSet} using this writer.
+     * @param dataSet The {@link IDataSet} to be written
+     * @throws DataSetException
+     */
+    public void write(IDataSet dataSet) throws DataSetException
+    {
+        logger.debug("write(dataSet={}) - start", dataSet);
+
+        DataSetProducerAdapter provider = new DataSetProducerAdapter(dataSet);
+        provider.setConsumer(this);
+        provider.produce();
+    }
+
+    private void writeRecord(int type, BinaryFormat.Output payload)
+            throws DataSetException
+    {
+        try
+        {
+            _prefix.reset();
+            _prefix.write(type);
+            _prefix.writeVarint(payload.size());
+            _prefix.writeTo(_out);
+            payload.writeTo(_out);
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private void writeBlock() throws DataSetException
+    {
+        int rowCount = _rows.size();
+        if (rowCount == 0)
+        {
+            return;
+        }
+
+        _data.reset();
+        for (int i = 0; i < _columnCount; i++)
+        {
+            writeColumn(i);
+        }
+
+        _record.reset();
+        _record.writeVarint(rowCount);
+        if (_compressed && deflate())
+        {
+            _record.write(BinaryFormat.DEFLATED);
+            _record.writeVarint(_data.size());
+            _record.write(_deflated.buffer(), 0, _deflated.size());
+        }
+        else
+        {
+            _record.write(0);
+            _record.write(_data.buffer(), 0, _data.size());
+        }
+        writeRecord(BinaryFormat.BLOCK, _record);
+        _rows.clear();
+    }
+
+    /**
+     * Deflates the current block data.
+     * @return <code>false</code> if the deflated data is not smaller
+     */
+    private boolean deflate()
+    {
+        if (_deflater == null)
+        {
+            _deflater = new Deflater();
+            _deflated = new BinaryFormat.Output(8192);
+        }
+        _deflater.reset();
+        _deflated.reset();
+        _deflater.setInput(_data.buffer(), 0, _data.size());
+        _deflater.finish();
+
+        byte[] buffer = new byte[8192];
+        while (!_deflater.finished())
+        {
+            int length = _deflater.deflate(buffer);
+            _deflated.write(buffer, 0, length);
+            if (_deflated.size() >= _data.size())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeColumn(int column) throws DataSetException
+    {
+        int rowCount = _rows.size();
+        int tag = -1;
+        boolean nulls = false;
+        for (int i = 0; i < rowCount; i++)
+        {
+            Object value = _rows.get(i)[column];
+            if (value == null)
+            {
+                nulls = true;
+            }
+            else if (tag == -1)
+            {
+                tag = tagOf(value);
+            }
+            else if (tag != BinaryFormat.MIXED && tag != tagOf(value))
+            {
+                tag = BinaryFormat.MIXED;
+            }
+        }
+
+        if (tag == -1)
+        {
+            _data.write(BinaryFormat.NULL);
+            return;
+        }
+
+        if (nulls)
+        {
+            _data.write(tag | BinaryFormat.NULLS_PRESENT);
+            byte[] bitmap = new byte[(rowCount + 7) / 8];
+            for (int i = 0; i < rowCount; i++)
+            {
+                if (_rows.get(i)[column] == null)
+                {
+                    bitmap[i >> 3] |= 1 << (i & 7);
+                }
+            }
+            _data.write(bitmap, 0, bitmap.length);
+        }
+        else
+        {
+            _data.write(tag);
+        }
+
+        for (int i = 0; i < rowCount; i++)
+        {
+            Object value = _rows.get(i)[column];
+            if (value != null)
+            {
+                if (tag == BinaryFormat.MIXED)
+                {
+                    int valueTag = tagOf(value);
+                    _data.write(valueTag);
+                    writeValue(valueTag, value);
+                }
+                else
+                {
+                    writeValue(tag, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The {@link java.sql.DatabaseMetaData} constant of the given
+     *         nullable, or 3 if it is <code>null</code>
+     */
+    private static int nullableCode(Column.Nullable nullable)
+    {
+        if (nullable == Column.NO_NULLS)
+        {
+            return DatabaseMetaData.columnNoNulls;
+        }
+        if (nullable == Column.NULLABLE)
+        {
+            return DatabaseMetaData.columnNullable;
+        }
+        if (nullable == Column.NULLABLE_UNKNOWN)
+        {
+            return DatabaseMetaData.columnNullableUnknown;
+        }
+        return BinaryFormat.NULLABLE_NONE;
+    }
+
+    private static int tagOf(Object value)
+    {
+        if (value instanceof String)
+        {
+            return BinaryFormat.STRING;
+        }
+        if (value instanceof Integer || value instanceof Short
+                || value instanceof Byte)
+        {
+            return BinaryFormat.INTEGER;
+        }
+        if (value instanceof Long)
+        {
+            return BinaryFormat.LONG;
+        }
+        if (value instanceof Double)
+        {
+            return BinaryFormat.DOUBLE;
+        }
+        if (value instanceof Float)
+        {
+            return BinaryFormat.FLOAT;
+        }
+        if (value instanceof BigDecimal)
+        {
+            return BinaryFormat.BIG_DECIMAL;
+        }
+        if (value instanceof BigInteger)
+        {
+            return BinaryFormat.BIG_INTEGER;
+        }
+        if (value instanceof Boolean)
+        {
+            return BinaryFormat.BOOLEAN;
+        }
+        if (value instanceof Timestamp)
+        {
+            return BinaryFormat.TIMESTAMP;
+        }
+        if (value instanceof java.sql.Date)
+        {
+            return BinaryFormat.DATE;
+        }
+        if (value instanceof Time)
+        {
+            return BinaryFormat.TIME;
+        }
+        if (value instanceof Date)
+        {
+            return BinaryFormat.UTIL_DATE;
+        }
+        if (value instanceof byte[])
+        {
+            return BinaryFormat.BYTES;
+        }
+        if (value == ITable.NO_VALUE)
+        {
+            return BinaryFormat.NO_VALUE;
+        }
+        // Other values are stored as their string representation
+        return BinaryFormat.STRING;
+    }
+
+    private void writeValue(int tag, Object value) throws DataSetException
+    {
+        switch (tag)
+        {
+        case BinaryFormat.STRING:
+            _data.writeString(value instanceof String ? (String) value
+                    : DataType.asString(value));
+            break;
+        case BinaryFormat.INTEGER:
+            _data.writeZigZag(((Number) value).intValue());
+            break;
+        case BinaryFormat.LONG:
+            _data.writeZigZag(((Long) value).longValue());
+            break;
+        case BinaryFormat.DOUBLE:
+            _data.writeLong(Double.doubleToRawLongBits(((Double) value)
+                    .doubleValue()));
+            break;
+        case BinaryFormat.FLOAT:
+            _data.writeInt(Float.floatToRawIntBits(((Float) value)
+                    .floatValue()));
+            break;
+        case BinaryFormat.BIG_DECIMAL:
+            _data.writeBigDecimal((BigDecimal) value);
+            break;
+        case BinaryFormat.BIG_INTEGER:
+            _data.writeByteArray(((BigInteger) value).toByteArray());
+            break;
+        case BinaryFormat.BOOLEAN:
+            _data.write(((Boolean) value).booleanValue() ? 1 : 0);
+            break;
+        case BinaryFormat.TIMESTAMP:
+            Timestamp timestamp = (Timestamp) value;
+            _data.writeZigZag(timestamp.getTime());
+            _data.writeVarint(timestamp.getNanos());
+            break;
+        case BinaryFormat.DATE:
+        case BinaryFormat.TIME:
+        case BinaryFormat.UTIL_DATE:
+            _data.writeZigZag(((Date) value).getTime());
+            break;
+        case BinaryFormat.BYTES:
+            _data.writeByteArray((byte[]) value);
+            break;
+        case BinaryFormat.NO_VALUE:
+            break;
+        default:
+            throw new IllegalStateException("Unexpected value tag " + tag);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetConsumer interface
+
+    public void startDataSet() throws DataSetException
+    {
+        logger.debug("startDataSet() - start");
+
+        try
+        {
+            _out.write(BinaryFormat.MAGIC);
+            _out.write(BinaryFormat.VERSION);
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    public void endDataSet() throws DataSetException
+    {
+        logger.debug("endDataSet() - start");
+
+        _record.reset();
+        writeRecord(BinaryFormat.END_DATASET, _record);
+        try
+        {
+            _out.flush();
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+        if (_deflater != null)
+        {
+            _deflater.end();
+            _deflater = null;
+        }
+    }
+
+    public void startTable(ITableMetaData metaData) throws DataSetException
+    {
+        logger.debug("startTable(metaData={}) - start", metaData);
+
+        Column[] columns = metaData.getColumns();
+        _columnCount = columns.length;
+        _rows.clear();
+
+        _record.reset();
+        _record.writeString(metaData.getTableName());
+        _record.writeVarint(columns.length);
+        for (int i = 0; i < columns.length; i++)
+        {
+            Column column = columns[i];
+            DataType dataType = column.getDataType();
+            _record.writeString(column.getColumnName());
+            _record.writeZigZag(dataType.getSqlType());
+            _record.writeString(dataType.toString());
+            _record.writeOptionalString(column.getSqlTypeName());
+            _record.write(nullableCode(column.getNullable()));
+            _record.writeOptionalString(column.getDefaultValue());
+            _record.writeOptionalString(column.getRemarks());
+            _record.writeOptionalString(column.getAutoIncrement() == null ? null
+                    : column.getAutoIncrement().getKey());
+        }
+
+        Column[] primaryKeys = metaData.getPrimaryKeys();
+        _record.writeVarint(primaryKeys.length);
+        for (int i = 0; i < primaryKeys.length; i++)
+        {
+            Column column = Columns.getColumn(
+                    primaryKeys[i].getColumnName(), columns);
+            int index = -1;
+            for (int j = 0; j < columns.length; j++)
+            {
+                if (columns[j] == column)
+                {
+                    index = j;
+                    break;
+                }
+            }
+            if (index < 0)
+            {
+                throw new DataSetException("Primary key column '"
+                        + primaryKeys[i].getColumnName()
+                        + "' not found in table '" + metaData.getTableName()
+                        + "'");
+            }
+            _record.writeVarint(index);
+        }
+        writeRecord(BinaryFormat.TABLE, _record);
+    }
+
+    public void endTable() throws DataSetException
+    {
+        logger.debug("endTable() - start");
+
+        writeBlock();
+        _record.reset();
+        writeRecord(BinaryFormat.END_TABLE, _record);
+    }
+
+    public void row(Object[] values) throws DataSetException
+    {
+        if (values.length != _columnCount)
+        {
+            throw new DataSetException("Expected " + _columnCount
+                    + " values but got " + values.length);
+        }
+        _rows.add(values);
+        if (_rows.size() == _blockSize)
+        {
+            writeBlock();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.dbunit.dataset.DataSetException;
+
+/**
+ * Constants and primitive encodings of the binary dataset format.
+ * <p>
+ * A binary dataset starts with the magic bytes <code>DBUB</code> and a
+ * version byte, followed by records. Each record consists of a type byte, the
+ * varint length of its payload and the payload:
+ * </p>
+ * <pre>
+ * 'T' table header: name, column definitions and primary key column indexes
+ * 'B' row block:    row count, flags, [uncompressed length,] column blocks
+ * 'E' end of the current table
+ * 'Z' end of the dataset
+ * </pre>
+ * <p>
+ * The rows of a block are stored column by column. Every column block
+ * starts with a value tag, ORed with {@link #NULLS_PRESENT} when a bitmap of
+ * the <code>null</code> rows follows. The values of a column block all have
+ * the type of the tag unless the tag is {@link #MIXED}, in which case every
+ * value is preceded by its own tag.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+final class BinaryFormat
+{
+    static final byte[] MAGIC = {'D', 'B', 'U', 'B'};
+    static final int VERSION = 1;
+
+    static final int TABLE = 'T';
+    static final int BLOCK = 'B';
+    static final int END_TABLE = 'E';
+    static final int END_DATASET = 'Z';
+
+    /** Block flag: the column blocks are deflate compressed */
+    static final int DEFLATED = 1;
+
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int INTEGER = 2;
+    static final int LONG = 3;
+    static final int DOUBLE = 4;
+    static final int FLOAT = 5;
+    static final int BIG_DECIMAL = 6;
+    static final int BIG_INTEGER = 7;
+    static final int BOOLEAN = 8;
+    static final int TIMESTAMP = 9;
+    static final int DATE = 10;
+    static final int TIME = 11;
+    static final int UTIL_DATE = 12;
+    static final int BYTES = 13;
+    static final int NO_VALUE = 14;
+    static final int MIXED = 15;
+
+    static final int NULLS_PRESENT = 0x80;
+
+    /** Column nullable code for columns without nullable information */
+    static final int NULLABLE_NONE = 3;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private BinaryFormat()
+    {
+    }
+
+    /**
+     * Growable byte buffer with the primitive encodings of the format.
+     */
+    static class Output extends ByteArrayOutputStream
+    {
+        Output(int size)
+        {
+            super(size);
+        }
+
+        byte[] buffer()
+        {
+            return buf;
+        }
+
+        void writeVarint(long value)
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigZag(long value)
+        {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value)
+        {
+            for (int shift = 56; shift >= 0; shift -= 8)
+            {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeInt(int value)
+        {
+            for (int shift = 24; shift >= 0; shift -= 8)
+            {
+                write(value >>> shift);
+            }
+        }
+
+        void writeByteArray(byte[] bytes)
+        {
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value)
+        {
+            writeByteArray(value.getBytes(UTF8));
+        }
+
+        /**
+         * Writes a string that may be <code>null</code>.
+         */
+        void writeOptionalString(String value)
+        {
+            if (value == null)
+            {
+                writeVarint(0);
+            }
+            else
+            {
+                byte[] bytes = value.getBytes(UTF8);
+                writeVarint(bytes.length + 1L);
+                write(bytes, 0, bytes.length);
+            }
+        }
+
+        void writeBigDecimal(BigDecimal value)
+        {
+            writeZigZag(value.scale());
+            writeByteArray(value.unscaledValue().toByteArray());
+        }
+    }
+
+    static long readVarint(ByteBuffer in) throws DataSetException
+    {
+        try
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw truncated();
+        }
+        throw new DataSetException("Malformed varint in binary dataset");
+    }
+
+    static int readLength(ByteBuffer in) throws DataSetException
+    {
+        long length = readVarint(in);
+        if (length < 0 || length > in.remaining())
+        {
+            throw truncated();
+        }
+        return (int) length;
+    }
+
+    static long readZigZag(ByteBuffer in) throws DataSetException
+    {
+        long value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static byte[] readBytes(ByteBuffer in) throws DataSetException
+    {
+        byte[] bytes = new byte[readLength(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    static String readString(ByteBuffer in) throws DataSetException
+    {
+        return decode(in, readLength(in));
+    }
+
+    static String readOptionalString(ByteBuffer in) throws DataSetException
+    {
+        long length = readVarint(in);
+        if (length == 0)
+        {
+            return null;
+        }
+        if (length - 1 > in.remaining())
+        {
+            throw truncated();
+        }
+        return decode(in, (int) (length - 1));
+    }
+
+    private static String decode(ByteBuffer in, int length)
+    {
+        String value;
+        if (in.hasArray())
+        {
+            value = new String(in.array(), in.arrayOffset() + in.position(),
+                    length, UTF8);
+            in.position(in.position() + length);
+        }
+        else
+        {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, UTF8);
+        }
+        return value;
+    }
+
+    static BigDecimal readBigDecimal(ByteBuffer in) throws DataSetException
+    {
+        int scale = (int) readZigZag(in);
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+    }
+
+    static DataSetException truncated()
+    {
+        return new DataSetException("Unexpected end of binary dataset");
+    }
+}
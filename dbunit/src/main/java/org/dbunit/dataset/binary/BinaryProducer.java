@@ -0,0 +1,532 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.dataset.stream.DefaultConsumer;
+import org.dbunit.dataset.stream.IDataSetConsumer;
+import org.dbunit.dataset.stream.IDataSetProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces a dataset written by {@link BinaryDataSetWriter}. The values are
+ * restored with the Java types they were written with, so no string parsing
+ * is involved. A file source is read through a memory mapped buffer.
+ * <p>
+ * The column {@link DataType}s are recreated with the
+ * {@link #setDataTypeFactory(IDataTypeFactory) data type factory} from the
+ * stored SQL type and type name.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryProducer implements IDataSetProducer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BinaryProducer.class);
+
+    private static final IDataSetConsumer EMPTY_CONSUMER = new DefaultConsumer();
+
+    private final File _file;
+    private final InputStream _inputStream;
+    private IDataSetConsumer _consumer = EMPTY_CONSUMER;
+    private IDataTypeFactory _dataTypeFactory = new DefaultDataTypeFactory();
+
+    /**
+     * @param file The binary dataset file, read through a memory mapped
+     *            buffer
+     */
+    public BinaryProducer(File file)
+    {
+        _file = file;
+        _inputStream = null;
+    }
+
+    /**
+     * @param inputStream The binary dataset, closed after it has been read
+     */
+    public BinaryProducer(InputStream inputStream)
+    {
+        _file = null;
+        _inputStream = inputStream;
+    }
+
+    /**
+     * @param dataTypeFactory The factory creating the column data types.
+     *            Defaults to {@link DefaultDataTypeFactory}.
+     */
+    public void setDataTypeFactory(IDataTypeFactory dataTypeFactory)
+    {
+        _dataTypeFactory = dataTypeFactory;
+    }
+
+    private RecordSource openSource() throws IOException
+    {
+        if (_inputStream != null)
+        {
+            return new StreamSource(_inputStream);
+        }
+
+        RandomAccessFile file = new RandomAccessFile(_file, "r");
+        try
+        {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                // Too large for a single mapped buffer
+                return new StreamSource(new FileInputStream(_file));
+            }
+            return new BufferSource(channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, size));
+        }
+        finally
+        {
+            // The mapping stays valid after the channel has been closed
+            file.close();
+        }
+    }
+
+    private ITableMetaData readTableMetaData(ByteBuffer in)
+            throws DataSetException
+    {
+        String tableName = BinaryFormat.readString(in);
+        Column[] columns = new Column[(int) BinaryFormat.readVarint(in)];
+        for (int i = 0; i < columns.length; i++)
+        {
+            String columnName = BinaryFormat.readString(in);
+            int sqlType = (int) BinaryFormat.readZigZag(in);
+            String dataTypeName = BinaryFormat.readString(in);
+            String sqlTypeName = BinaryFormat.readOptionalString(in);
+            int nullable = in.get();
+            String defaultValue = BinaryFormat.readOptionalString(in);
+            String remarks = BinaryFormat.readOptionalString(in);
+            String autoIncrement = BinaryFormat.readOptionalString(in);
+
+            DataType dataType;
+            if (DataType.UNKNOWN.toString().equals(dataTypeName))
+            {
+                dataType = DataType.UNKNOWN;
+            }
+            else
+            {
+                dataType = _dataTypeFactory.createDataType(sqlType,
+                        sqlTypeName != null ? sqlTypeName : dataTypeName,
+                        tableName, columnName);
+            }
+            columns[i] = new Column(columnName, dataType, sqlTypeName,
+                    nullable == BinaryFormat.NULLABLE_NONE ? null
+                            : Column.nullableValue(nullable),
+                    defaultValue, remarks,
+                    autoIncrement == null ? null
+                            : Column.AutoIncrement
+                                    .autoIncrementValue(autoIncrement));
+        }
+
+        Column[] primaryKeys = new Column[(int) BinaryFormat.readVarint(in)];
+        for (int i = 0; i < primaryKeys.length; i++)
+        {
+            int index = (int) BinaryFormat.readVarint(in);
+            if (index < 0 || index >= columns.length)
+            {
+                throw new DataSetException("Invalid primary key column index "
+                        + index + " in table '" + tableName + "'");
+            }
+            primaryKeys[i] = columns[index];
+        }
+        return new DefaultTableMetaData(tableName, columns, primaryKeys);
+    }
+
+    private void produceBlock(ByteBuffer in, int columnCount)
+            throws DataSetException
+    {
+        int rowCount = (int) BinaryFormat.readVarint(in);
+        int flags = in.get();
+        if ((flags & BinaryFormat.DEFLATED) != 0)
+        {
+            in = inflate(in, (int) BinaryFormat.readVarint(in));
+        }
+
+        Object[][] rows = new Object[rowCount][columnCount];
+        for (int column = 0; column < columnCount; column++)
+        {
+            int header = in.get() & 0xFF;
+            if (header == BinaryFormat.NULL)
+            {
+                continue;
+            }
+
+            byte[] nulls = null;
+            if ((header & BinaryFormat.NULLS_PRESENT) != 0)
+            {
+                nulls = new byte[(rowCount + 7) / 8];
+                in.get(nulls);
+            }
+            int tag = header & ~BinaryFormat.NULLS_PRESENT;
+            for (int row = 0; row < rowCount; row++)
+            {
+                if (nulls == null || (nulls[row >> 3] & (1 << (row & 7))) == 0)
+                {
+                    rows[row][column] = readValue(in,
+                            tag == BinaryFormat.MIXED ? in.get() : tag);
+                }
+            }
+        }
+
+        for (int row = 0; row < rowCount; row++)
+        {
+            _consumer.row(rows[row]);
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer in, int length)
+            throws DataSetException
+    {
+        byte[] input;
+        int offset;
+        if (in.hasArray())
+        {
+            input = in.array();
+            offset = in.arrayOffset() + in.position();
+        }
+        else
+        {
+            input = new byte[in.remaining()];
+            in.get(input);
+            offset = 0;
+        }
+
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(input, offset, input.length - offset);
+            byte[] output = new byte[length];
+            int inflated = 0;
+            while (inflated < length)
+            {
+                int count = inflater.inflate(output, inflated, length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput()))
+                {
+                    throw BinaryFormat.truncated();
+                }
+                inflated += count;
+            }
+            return ByteBuffer.wrap(output);
+        }
+        catch (DataFormatException e)
+        {
+            throw new DataSetException("Corrupt compressed block", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private static Object readValue(ByteBuffer in, int tag)
+            throws DataSetException
+    {
+        switch (tag)
+        {
+        case BinaryFormat.STRING:
+            return BinaryFormat.readString(in);
+        case BinaryFormat.INTEGER:
+            return Integer.valueOf((int) BinaryFormat.readZigZag(in));
+        case BinaryFormat.LONG:
+            return Long.valueOf(BinaryFormat.readZigZag(in));
+        case BinaryFormat.DOUBLE:
+            return Double.valueOf(Double.longBitsToDouble(in.getLong()));
+        case BinaryFormat.FLOAT:
+            return Float.valueOf(Float.intBitsToFloat(in.getInt()));
+        case BinaryFormat.BIG_DECIMAL:
+            return BinaryFormat.readBigDecimal(in);
+        case BinaryFormat.BIG_INTEGER:
+            return new BigInteger(BinaryFormat.readBytes(in));
+        case BinaryFormat.BOOLEAN:
+            return Boolean.valueOf(in.get() != 0);
+        case BinaryFormat.TIMESTAMP:
+            Timestamp timestamp = new Timestamp(BinaryFormat.readZigZag(in));
+            timestamp.setNanos((int) BinaryFormat.readVarint(in));
+            return timestamp;
+        case BinaryFormat.DATE:
+            return new java.sql.Date(BinaryFormat.readZigZag(in));
+        case BinaryFormat.TIME:
+            return new Time(BinaryFormat.readZigZag(in));
+        case BinaryFormat.UTIL_DATE:
+            return new Date(BinaryFormat.readZigZag(in));
+        case BinaryFormat.BYTES:
+            return BinaryFormat.readBytes(in);
+        case BinaryFormat.NO_VALUE:
+            return ITable.NO_VALUE;
+        default:
+            throw new DataSetException("Unknown value tag " + tag);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetProducer interface
+
+    public void setConsumer(IDataSetConsumer consumer) throws DataSetException
+    {
+        logger.debug("setConsumer(consumer) - start");
+
+        _consumer = consumer;
+    }
+
+    public void produce() throws DataSetException
+    {
+        logger.debug("produce() - start");
+
+        RecordSource source;
+        try
+        {
+            source = openSource();
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+
+        try
+        {
+            source.readHeader();
+            _consumer.startDataSet();
+
+            ITableMetaData metaData = null;
+            while (true)
+            {
+                int type = source.readType();
+                ByteBuffer payload = source.readPayload();
+                if (type == BinaryFormat.TABLE && metaData == null)
+                {
+                    metaData = readTableMetaData(payload);
+                    _consumer.startTable(metaData);
+                }
+                else if (type == BinaryFormat.BLOCK && metaData != null)
+                {
+                    produceBlock(payload, metaData.getColumns().length);
+                }
+                else if (type == BinaryFormat.END_TABLE && metaData != null)
+                {
+                    _consumer.endTable();
+                    metaData = null;
+                }
+                else if (type == BinaryFormat.END_DATASET && metaData == null)
+                {
+                    _consumer.endDataSet();
+                    break;
+                }
+                else
+                {
+                    throw new DataSetException("Unexpected record type '"
+                            + (char) type + "' in binary dataset");
+                }
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw BinaryFormat.truncated();
+        }
+        catch (EOFException e)
+        {
+            throw BinaryFormat.truncated();
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+        finally
+        {
+            try
+            {
+                source.close();
+            }
+            catch (IOException e)
+            {
+                logger.warn("Failed to close binary dataset source", e);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // RecordSource classes
+
+    /**
+     * Reads the records of a binary dataset.
+     */
+    private abstract static class RecordSource
+    {
+        abstract int read() throws IOException;
+
+        /**
+         * Reads the given number of bytes
+         */
+        abstract ByteBuffer read(int length) throws IOException;
+
+        abstract void close() throws IOException;
+
+        void readHeader() throws IOException, DataSetException
+        {
+            byte[] magic = BinaryFormat.MAGIC;
+            for (int i = 0; i < magic.length; i++)
+            {
+                if (read() != magic[i])
+                {
+                    throw new DataSetException("Not a binary dataset");
+                }
+            }
+            int version = read();
+            if (version != BinaryFormat.VERSION)
+            {
+                throw new DataSetException(
+                        "Unsupported binary dataset version " + version);
+            }
+        }
+
+        int readType() throws IOException
+        {
+            return read();
+        }
+
+        ByteBuffer readPayload() throws IOException, DataSetException
+        {
+            long length = 0;
+            for (int shift = 0;; shift += 7)
+            {
+                if (shift > 28)
+                {
+                    throw new DataSetException(
+                            "Malformed record length in binary dataset");
+                }
+                int b = read();
+                length |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    break;
+                }
+            }
+            if (length > Integer.MAX_VALUE)
+            {
+                throw new DataSetException(
+                        "Malformed record length in binary dataset");
+            }
+            return read((int) length);
+        }
+    }
+
+    private static class BufferSource extends RecordSource
+    {
+        private final ByteBuffer _buffer;
+
+        BufferSource(ByteBuffer buffer)
+        {
+            _buffer = buffer;
+        }
+
+        int read() throws IOException
+        {
+            if (!_buffer.hasRemaining())
+            {
+                throw new EOFException();
+            }
+            return _buffer.get() & 0xFF;
+        }
+
+        ByteBuffer read(int length) throws IOException
+        {
+            if (length > _buffer.remaining())
+            {
+                throw new EOFException();
+            }
+            ByteBuffer slice = _buffer.slice();
+            slice.limit(length);
+            _buffer.position(_buffer.position() + length);
+            return slice;
+        }
+
+        void close()
+        {
+        }
+    }
+
+    private static class StreamSource extends RecordSource
+    {
+        private final DataInputStream _in;
+        private byte[] _buffer = new byte[8192];
+
+        StreamSource(InputStream in)
+        {
+            _in = new DataInputStream(new BufferedInputStream(in));
+        }
+
+        int read() throws IOException
+        {
+            return _in.readUnsignedByte();
+        }
+
+        ByteBuffer read(int length) throws IOException
+        {
+            // The buffer is reused since the payload is decoded right away
+            if (_buffer.length < length)
+            {
+                _buffer = new byte[Math.max(length, _buffer.length * 2)];
+            }
+            _in.readFully(_buffer, 0, length);
+            return ByteBuffer.wrap(_buffer, 0, length).slice();
+        }
+
+        void close() throws IOException
+        {
+            _in.close();
+        }
+    }
+}
@@ -43,5 +43,39 @@ public class CsvDataSet extends CachedDataSet {
         super(new CsvProducer(dir));
 //        this.dir = dir;
     }
+
+    /**
+     * @param dir The directory containing the CSV files
+     * @param useScanner If <code>true</code> the files are read with the
+     * single-pass {@link CsvScanner} instead of the {@link CsvParserImpl}
+     * pipeline
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    public CsvDataSet(File dir, boolean useScanner) throws DataSetException {
+        super(new CsvProducer(dir, useScanner));
+    }
+
+    /**
+     * @param dir The directory containing the CSV files
+     * @param useScanner If <code>true</code> the files are read with the
+     * single-pass {@link CsvScanner} instead of the {@link CsvParserImpl}
+     * pipeline
+     * @param threadCount The maximum number of files parsed concurrently
+     * @param maxBufferedTables The maximum number of tables parsed ahead of
+     * the one currently added to this dataset
+     * @throws DataSetException
+     * @see CsvProducer#setParallelism(int, int)
+     * @since 2.7.1
+     */
+    public CsvDataSet(File dir, boolean useScanner, int threadCount, int maxBufferedTables) throws DataSetException {
+        super(createProducer(dir, useScanner, threadCount, maxBufferedTables));
+    }
+
+    private static CsvProducer createProducer(File dir, boolean useScanner, int threadCount, int maxBufferedTables) {
+        CsvProducer producer = new CsvProducer(dir, useScanner);
+        producer.setParallelism(threadCount, maxBufferedTables);
+        return producer;
+    }
     
 }
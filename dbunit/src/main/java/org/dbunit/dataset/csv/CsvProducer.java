@@ -23,9 +23,11 @@ package org.dbunit.dataset.csv;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -41,6 +43,7 @@ import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.stream.DefaultConsumer;
 import org.dbunit.dataset.stream.IDataSetConsumer;
 import org.dbunit.dataset.stream.IDataSetProducer;
+import org.dbunit.dataset.stream.ParallelProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +63,9 @@ public class CsvProducer implements IDataSetProducer {
     private static final IDataSetConsumer EMPTY_CONSUMER = new DefaultConsumer();
     private IDataSetConsumer _consumer = EMPTY_CONSUMER;
     private String _theDirectory;
+    private boolean _useScanner;
+    private int _threadCount = 1;
+    private int _maxBufferedTables = 1;
 
     public CsvProducer(String theDirectory) {
         _theDirectory = theDirectory;
@@ -69,6 +75,50 @@ public class CsvProducer implements IDataSetProducer {
         _theDirectory = theDirectory.getAbsolutePath();
     }
 
+    /**
+     * @param theDirectory The directory containing the CSV files
+     * @param useScanner If <code>true</code> the files are read with the
+     * single-pass {@link CsvScanner} which sends each row to the consumer as
+     * soon as it is parsed, otherwise with the {@link CsvParserImpl} pipeline
+     * @since 2.7.1
+     */
+    public CsvProducer(String theDirectory, boolean useScanner) {
+        _theDirectory = theDirectory;
+        _useScanner = useScanner;
+    }
+
+    /**
+     * @param theDirectory The directory containing the CSV files
+     * @param useScanner If <code>true</code> the files are read with the
+     * single-pass {@link CsvScanner} which sends each row to the consumer as
+     * soon as it is parsed, otherwise with the {@link CsvParserImpl} pipeline
+     * @since 2.7.1
+     */
+    public CsvProducer(File theDirectory, boolean useScanner) {
+        this(theDirectory.getAbsolutePath(), useScanner);
+    }
+
+    /**
+     * Parses the table files concurrently. The consumer still receives the
+     * tables in the order of the table ordering file.
+     * @param threadCount The maximum number of files parsed concurrently. A
+     * value of 1 parses the files one after another on the calling thread.
+     * @param maxBufferedTables The maximum number of tables parsed ahead of
+     * the one currently sent to the consumer, which bounds the memory used
+     * @see ParallelProducer
+     * @since 2.7.1
+     */
+    public void setParallelism(int threadCount, int maxBufferedTables) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The parameter 'threadCount' must be greater than 0: " + threadCount);
+        }
+        if (maxBufferedTables < 1) {
+            throw new IllegalArgumentException("The parameter 'maxBufferedTables' must be greater than 0: " + maxBufferedTables);
+        }
+        _threadCount = threadCount;
+        _maxBufferedTables = maxBufferedTables;
+    }
+
     public void setConsumer(IDataSetConsumer consumer) throws DataSetException {
         logger.debug("setConsumer(consumer) - start");
 
@@ -84,29 +134,55 @@ public class CsvProducer implements IDataSetProducer {
             throw new DataSetException("'" + _theDirectory + "' should be a directory");
         }
 
-        _consumer.startDataSet();
+        List tableSpecs;
         try {
-        	List tableSpecs = CsvProducer.getTables(dir.toURL(), CsvDataSet.TABLE_ORDERING_FILE);
-        	for (Iterator tableIter = tableSpecs.iterator(); tableIter.hasNext();) {
-				String table = (String) tableIter.next();
-	            try {
-	                produceFromFile(new File(dir, table + ".csv"));
-	            } catch (CsvParserException e) {
-	                throw new DataSetException("error producing dataset for table '" + table + "'", e);
-	            } catch (DataSetException e) {
-	            	throw new DataSetException("error producing dataset for table '" + table + "'", e);
-	            }
-
-			}
-            _consumer.endDataSet();
+            tableSpecs = CsvProducer.getTables(dir.toURL(), CsvDataSet.TABLE_ORDERING_FILE);
         } catch (IOException e) {
         	throw new DataSetException("error getting list of tables", e);
         }
+
+        if (_threadCount > 1) {
+            // Sends the start and end of the dataset itself
+            createParallelProducer(dir, tableSpecs).produce();
+            return;
+        }
+
+        _consumer.startDataSet();
+        for (Iterator tableIter = tableSpecs.iterator(); tableIter.hasNext();) {
+            String table = (String) tableIter.next();
+            produceTable(dir, table, _consumer);
+        }
+        _consumer.endDataSet();
+    }
+
+    private ParallelProducer createParallelProducer(File dir, List tableSpecs) throws DataSetException {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        for (Iterator tableIter = tableSpecs.iterator(); tableIter.hasNext();) {
+            producers.add(new TableProducer(dir, (String) tableIter.next()));
+        }
+        ParallelProducer producer = new ParallelProducer(producers, _threadCount, _maxBufferedTables);
+        producer.setConsumer(_consumer);
+        return producer;
+    }
+
+    private void produceTable(File dir, String table, IDataSetConsumer consumer) throws DataSetException {
+        try {
+            produceFromFile(new File(dir, table + ".csv"), consumer);
+        } catch (CsvParserException e) {
+            throw new DataSetException("error producing dataset for table '" + table + "'", e);
+        } catch (DataSetException e) {
+        	throw new DataSetException("error producing dataset for table '" + table + "'", e);
+        }
     }
 
-    private void produceFromFile(File theDataFile) throws DataSetException, CsvParserException {
+    private void produceFromFile(File theDataFile, IDataSetConsumer consumer) throws DataSetException, CsvParserException {
         logger.debug("produceFromFile(theDataFile={}) - start", theDataFile);
 
+        if (_useScanner) {
+            scanFile(theDataFile, consumer);
+            return;
+        }
+
         try {
             CsvParser parser = new CsvParserImpl();
             List readData = parser.parse(theDataFile);
@@ -121,16 +197,16 @@ public class CsvProducer implements IDataSetProducer {
 
             String tableName = theDataFile.getName().substring(0, theDataFile.getName().indexOf(".csv"));
             ITableMetaData metaData = new DefaultTableMetaData(tableName, columns);
-            _consumer.startTable(metaData);
+            consumer.startTable(metaData);
             for (int i = 1 ; i < readData.size(); i++) {
                 List rowList = (List)readData.get(i);
                 Object[] row = rowList.toArray();
                 for(int col = 0; col < row.length; col++) {
                     row[col] = row[col].equals(CsvDataSetWriter.NULL) ? null : row[col];
                 }
-                _consumer.row(row);
+                consumer.row(row);
             }
-            _consumer.endTable();
+            consumer.endTable();
         } catch (PipelineException e) {
             throw new DataSetException(e);
         } catch (IllegalInputCharacterException e) {
@@ -140,6 +216,22 @@ public class CsvProducer implements IDataSetProducer {
         }
     }
 
+    private void scanFile(File theDataFile, IDataSetConsumer consumer) throws DataSetException, CsvParserException {
+        logger.debug("scanFile(theDataFile={}) - start", theDataFile);
+
+        String tableName = theDataFile.getName().substring(0, theDataFile.getName().indexOf(".csv"));
+        try {
+            Reader reader = new InputStreamReader(new FileInputStream(theDataFile));
+            try {
+                new CsvScanner(reader, theDataFile.getAbsolutePath()).produce(tableName, consumer);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new DataSetException(e);
+        }
+    }
+
 	/**
 	 * Get a list of tables that this producer will create
 	 * @return a list of Strings, where each item is a CSV file relative to the base URL
@@ -170,4 +262,30 @@ public class CsvProducer implements IDataSetProducer {
 		return orderedNames;
 	}
 
+    /**
+     * Produces a single table file, used by the parallel mode.
+     */
+    private class TableProducer implements IDataSetProducer {
+        private final File _dir;
+        private final String _table;
+        private IDataSetConsumer _tableConsumer = EMPTY_CONSUMER;
+
+        public TableProducer(File dir, String table) {
+            _dir = dir;
+            _table = table;
+        }
+
+        public void setConsumer(IDataSetConsumer consumer) throws DataSetException {
+            _tableConsumer = consumer;
+        }
+
+        public void produce() throws DataSetException {
+            produceTable(_dir, _table, _tableConsumer);
+        }
+
+        public String toString() {
+            return _table;
+        }
+    }
+
 }
@@ -0,0 +1,191 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.dataset.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.stream.AbstractPullProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pull producer reading the CSV files of a directory or base URL with the
+ * {@link CsvScanner}. Only the file of the current table is open at a time
+ * and its rows are read while the caller iterates, so used with a
+ * {@link org.dbunit.dataset.stream.StreamingDataSet} no table is held in
+ * memory. The tables are read in the order of the
+ * {@link CsvDataSet#TABLE_ORDERING_FILE}.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class CsvPullProducer extends AbstractPullProducer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CsvPullProducer.class);
+
+    private final URL _base;
+    private final String _tableList;
+
+    private List _tableNames;
+    private int _tableIndex;
+    private String _activeTableName;
+    private Reader _activeReader;
+    private CsvScanner _activeScanner;
+
+    /**
+     * @param dir The directory containing the CSV files and the table ordering file
+     * @throws DataSetException if the directory cannot be converted to an URL
+     */
+    public CsvPullProducer(File dir) throws DataSetException
+    {
+        try
+        {
+            _base = dir.toURI().toURL();
+        }
+        catch (MalformedURLException e)
+        {
+            throw new DataSetException(e);
+        }
+        _tableList = CsvDataSet.TABLE_ORDERING_FILE;
+    }
+
+    /**
+     * @param base The URL where the table list and data can be found
+     * @param tableList The location of the list of tables relative to the base URL
+     */
+    public CsvPullProducer(URL base, String tableList)
+    {
+        _base = base;
+        _tableList = tableList;
+    }
+
+    private void closeActiveTable() throws DataSetException
+    {
+        _activeScanner = null;
+        if (_activeReader != null)
+        {
+            Reader reader = _activeReader;
+            _activeReader = null;
+            try
+            {
+                reader.close();
+            }
+            catch (IOException e)
+            {
+                throw new DataSetException(e);
+            }
+        }
+    }
+
+    private DataSetException buildException(Exception cause)
+    {
+        return new DataSetException("error producing dataset for table '"
+                + _activeTableName + "'", cause);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetPullProducer interface
+
+    public ITableMetaData nextTable() throws DataSetException
+    {
+        logger.debug("nextTable() - start");
+
+        closeActiveTable();
+        if (_tableNames == null)
+        {
+            try
+            {
+                _tableNames = CsvProducer.getTables(_base, _tableList);
+            }
+            catch (IOException e)
+            {
+                throw new DataSetException("error getting list of tables", e);
+            }
+        }
+        if (_tableIndex >= _tableNames.size())
+        {
+            return null;
+        }
+
+        _activeTableName = (String) _tableNames.get(_tableIndex++);
+        try
+        {
+            URL url = new URL(_base, _activeTableName + ".csv");
+            _activeReader = new InputStreamReader(url.openStream());
+            _activeScanner = new CsvScanner(_activeReader, url.toString());
+            return _activeScanner.readTableMetaData(_activeTableName);
+        }
+        catch (IOException e)
+        {
+            throw buildException(e);
+        }
+        catch (CsvParserException e)
+        {
+            throw buildException(e);
+        }
+    }
+
+    public Object[] nextRow() throws DataSetException
+    {
+        if (_activeScanner == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return _activeScanner.nextRow();
+        }
+        catch (IOException e)
+        {
+            throw buildException(e);
+        }
+        catch (CsvParserException e)
+        {
+            throw buildException(e);
+        }
+    }
+
+    public void close() throws DataSetException
+    {
+        logger.debug("close() - start");
+
+        closeActiveTable();
+        // No further tables are read after closing
+        _tableNames = Collections.EMPTY_LIST;
+        _tableIndex = 0;
+    }
+}
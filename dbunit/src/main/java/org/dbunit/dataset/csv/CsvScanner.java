@@ -0,0 +1,440 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.dataset.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.IDataSetConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-pass CSV scanner working directly on a character buffer.
+ * <p>
+ * In contrast to {@link CsvParserImpl}, which parses every line through the
+ * handler pipeline and collects the whole file in memory, this scanner is a
+ * small state machine that reads the input once and hands every record to the
+ * caller as soon as it is complete. {@link #produce(String, IDataSetConsumer)}
+ * forwards the records straight to an {@link IDataSetConsumer}.
+ * </p>
+ * <p>
+ * The accepted syntax is RFC 4180 with the following additions, kept for
+ * compatibility with the files written by {@link CsvDataSetWriter}:
+ * <ul>
+ * <li>a backslash escapes a following <code>"</code> or <code>\</code>,
+ * any other backslash is taken literally;</li>
+ * <li>whitespace before a field and between a closing quote and the next
+ * separator is ignored;</li>
+ * <li>a {@link CsvDataSetWriter#NULL} value is returned as <code>null</code>,
+ * like the producers do with the output of {@link CsvParserImpl};</li>
+ * <li>completely empty lines are skipped.</li>
+ * </ul>
+ * Quoted fields may span several lines and a doubled quote inside a quoted
+ * field stands for a single quote character.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class CsvScanner
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CsvScanner.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int UNQUOTED_ESCAPE = 2;
+    private static final int QUOTED = 3;
+    private static final int QUOTED_ESCAPE = 4;
+    private static final int QUOTE_IN_QUOTED = 5;
+    private static final int AFTER_QUOTED = 6;
+
+    private final Reader _reader;
+    private final String _source;
+
+    private final char[] _buffer = new char[BUFFER_SIZE];
+    private int _position;
+    private int _limit;
+    private boolean _skipLineFeed;
+
+    private char[] _field = new char[64];
+    private int _fieldLength;
+
+    private final List _values = new ArrayList();
+    private int _lineNumber = 1;
+    private int _columnCount = -1;
+
+    /**
+     * @param reader The reader to scan. The caller remains responsible for
+     * closing it.
+     * @param source Description of the input used in error messages,
+     * typically the file name or URL
+     */
+    public CsvScanner(Reader reader, String source)
+    {
+        _reader = reader;
+        _source = source;
+    }
+
+    /**
+     * @return The line the scanner is currently positioned on, starting
+     * with 1
+     */
+    public int getLineNumber()
+    {
+        return _lineNumber;
+    }
+
+    /**
+     * Reads the next record.
+     * @return The field values of the record or <code>null</code> when the
+     * end of the input has been reached
+     * @throws IOException
+     * @throws CsvParserException if a quoted field is not terminated
+     */
+    public Object[] nextRecord() throws IOException, CsvParserException
+    {
+        _values.clear();
+        _fieldLength = 0;
+
+        int state = FIELD_START;
+        int startLine = _lineNumber;
+        boolean blank = true;
+
+        while (true)
+        {
+            if (_position == _limit && !fill())
+            {
+                switch (state)
+                {
+                case QUOTED:
+                case QUOTED_ESCAPE:
+                    throw new CsvParserException("Unterminated quoted field starting on line "
+                            + startLine + " of " + _source);
+                case UNQUOTED_ESCAPE:
+                    append(ESCAPE);
+                    break;
+                case FIELD_START:
+                    if (blank)
+                    {
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+                }
+                endField();
+                return _values.toArray();
+            }
+
+            char c = _buffer[_position++];
+            if (_skipLineFeed)
+            {
+                _skipLineFeed = false;
+                if (c == '\n')
+                {
+                    continue;
+                }
+            }
+
+            boolean lineEnd = (c == '\n' || c == '\r');
+            if (lineEnd && state != QUOTED && state != QUOTED_ESCAPE)
+            {
+                newLine(c);
+                if (blank)
+                {
+                    // Skip empty lines entirely
+                    startLine = _lineNumber;
+                    continue;
+                }
+                if (state == UNQUOTED_ESCAPE)
+                {
+                    append(ESCAPE);
+                }
+                endField();
+                return _values.toArray();
+            }
+            blank = false;
+
+            switch (state)
+            {
+            case FIELD_START:
+                if (c == ' ' || c == '\t')
+                {
+                    break;
+                }
+                if (c == QUOTE)
+                {
+                    state = QUOTED;
+                    break;
+                }
+                state = UNQUOTED;
+                // Process the first character of an unquoted field
+                if (c == SEPARATOR)
+                {
+                    endField();
+                    state = FIELD_START;
+                }
+                else if (c == ESCAPE)
+                {
+                    state = UNQUOTED_ESCAPE;
+                }
+                else
+                {
+                    append(c);
+                }
+                break;
+
+            case UNQUOTED:
+                if (c == SEPARATOR)
+                {
+                    endField();
+                    state = FIELD_START;
+                }
+                else if (c == ESCAPE)
+                {
+                    state = UNQUOTED_ESCAPE;
+                }
+                else
+                {
+                    append(c);
+                }
+                break;
+
+            case UNQUOTED_ESCAPE:
+                state = UNQUOTED;
+                if (c != QUOTE && c != ESCAPE)
+                {
+                    append(ESCAPE);
+                    if (c == SEPARATOR)
+                    {
+                        endField();
+                        state = FIELD_START;
+                        break;
+                    }
+                }
+                append(c);
+                break;
+
+            case QUOTED:
+                if (c == QUOTE)
+                {
+                    state = QUOTE_IN_QUOTED;
+                }
+                else if (c == ESCAPE)
+                {
+                    state = QUOTED_ESCAPE;
+                }
+                else
+                {
+                    if (c == '\n')
+                    {
+                        _lineNumber++;
+                    }
+                    append(c);
+                }
+                break;
+
+            case QUOTED_ESCAPE:
+                state = QUOTED;
+                if (c != QUOTE && c != ESCAPE)
+                {
+                    append(ESCAPE);
+                }
+                if (c == '\n')
+                {
+                    _lineNumber++;
+                }
+                append(c);
+                break;
+
+            case QUOTE_IN_QUOTED:
+                if (c == QUOTE)
+                {
+                    // RFC 4180 doubled quote
+                    append(c);
+                    state = QUOTED;
+                    break;
+                }
+                state = AFTER_QUOTED;
+                // Continue with the character following the closing quote
+            case AFTER_QUOTED:
+                if (c == SEPARATOR)
+                {
+                    endField();
+                    state = FIELD_START;
+                }
+                else if (c != ' ' && c != '\t')
+                {
+                    // Text after the closing quote is appended as the legacy parser does
+                    append(c);
+                    state = UNQUOTED;
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown scanner state " + state);
+            }
+        }
+    }
+
+    /**
+     * Reads the first record of the input, which holds the column names.
+     * @param tableName The name of the table
+     * @return The metadata of the table
+     * @throws IOException
+     * @throws CsvParserException if the input is empty or malformed
+     */
+    public ITableMetaData readTableMetaData(String tableName)
+            throws IOException, CsvParserException
+    {
+        logger.debug("readTableMetaData(tableName={}) - start", tableName);
+
+        Object[] header = nextRecord();
+        if (header == null)
+        {
+            throw new CsvParserException("The first line of " + _source + " is null");
+        }
+
+        Column[] columns = new Column[header.length];
+        for (int i = 0; i < header.length; i++)
+        {
+            String columnName = header[i] == null ? CsvDataSetWriter.NULL : ((String) header[i]).trim();
+            columns[i] = new Column(columnName, DataType.UNKNOWN);
+        }
+        _columnCount = columns.length;
+        return new DefaultTableMetaData(tableName, columns);
+    }
+
+    /**
+     * Reads the next data record, after the column names have been read by
+     * {@link #readTableMetaData(String)}.
+     * @return The row values or <code>null</code> at the end of the input
+     * @throws IOException
+     * @throws CsvParserException if the input is malformed or the record
+     * does not have as many fields as the header
+     */
+    public Object[] nextRow() throws IOException, CsvParserException
+    {
+        if (_columnCount < 0)
+        {
+            throw new IllegalStateException("The column names have not been read");
+        }
+
+        int line = _lineNumber;
+        Object[] row = nextRecord();
+        if (row != null && row.length != _columnCount)
+        {
+            throw new CsvParserException("Expected " + _columnCount
+                    + " columns on line " + line + " of " + _source
+                    + ", got " + row.length);
+        }
+        return row;
+    }
+
+    /**
+     * Scans the whole input as one table whose first record holds the column
+     * names and sends it to the given consumer row by row.
+     * @param tableName The name of the produced table
+     * @param consumer The consumer receiving the table
+     * @throws IOException
+     * @throws CsvParserException if the input is empty, malformed or a record
+     * does not have as many fields as the header
+     * @throws DataSetException thrown by the consumer
+     */
+    public void produce(String tableName, IDataSetConsumer consumer)
+            throws IOException, CsvParserException, DataSetException
+    {
+        logger.debug("produce(tableName={}, consumer={}) - start", tableName, consumer);
+
+        consumer.startTable(readTableMetaData(tableName));
+        Object[] row;
+        while ((row = nextRow()) != null)
+        {
+            consumer.row(row);
+        }
+        consumer.endTable();
+    }
+
+    private boolean fill() throws IOException
+    {
+        int count = _reader.read(_buffer, 0, _buffer.length);
+        if (count <= 0)
+        {
+            _position = 0;
+            _limit = 0;
+            return false;
+        }
+        _position = 0;
+        _limit = count;
+        return true;
+    }
+
+    private void newLine(char c)
+    {
+        _lineNumber++;
+        _skipLineFeed = (c == '\r');
+    }
+
+    private void append(char c)
+    {
+        if (_fieldLength == _field.length)
+        {
+            char[] field = new char[_field.length * 2];
+            System.arraycopy(_field, 0, field, 0, _fieldLength);
+            _field = field;
+        }
+        _field[_fieldLength++] = c;
+    }
+
+    private void endField()
+    {
+        String value = new String(_field, 0, _fieldLength);
+        _fieldLength = 0;
+        if (CsvDataSetWriter.NULL.equals(value))
+        {
+            _values.add(null);
+        }
+        else
+        {
+            _values.add(value);
+        }
+    }
+}
@@ -50,4 +50,17 @@ public class CsvURLDataSet extends CachedDataSet {
 //		this.base = base;
 	}
 
+	/**
+	 * Create a Data Set from CSV files, using the base URL provided to find data.
+	 * @param base the URL where the table list and data can be found
+	 * @param useScanner if <code>true</code> the data is read with the
+	 * single-pass {@link CsvScanner} instead of the {@link CsvParserImpl}
+	 * pipeline
+	 * @since 2.7.1
+	 */
+	public CsvURLDataSet(URL base, boolean useScanner) throws DataSetException
+	{
+        super(new CsvURLProducer(base, CsvDataSet.TABLE_ORDERING_FILE, useScanner));
+	}
+
 }
@@ -24,6 +24,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.util.Iterator;
 import java.util.List;
@@ -70,6 +72,9 @@ public class CsvURLProducer implements IDataSetProducer {
 
     /** the offset from the base url where the list of tables can be found */
     private String tableList;
+
+    /** whether the data is read with the {@link CsvScanner} */
+    private boolean useScanner;
     
     /**
      * Create a CSV Data Set Producer which uses the base URL to retrieve 
@@ -82,6 +87,22 @@ public class CsvURLProducer implements IDataSetProducer {
     	this.base = base;
     	this.tableList = tableList;
     }
+
+    /**
+     * Create a CSV Data Set Producer which uses the base URL to retrieve 
+     * a list of tables and the data.
+     * @param base the URL where the tableList and data can be found. 
+     * @param tableList the relative location of the list of tables.
+     * @param useScanner if <code>true</code> the data is read with the
+     * single-pass {@link CsvScanner} which sends each row to the consumer as
+     * soon as it is parsed, otherwise with the {@link CsvParserImpl} pipeline.
+     * @since 2.7.1
+     */
+    public CsvURLProducer(URL base, String tableList, boolean useScanner)
+    {
+    	this(base, tableList);
+    	this.useScanner = useScanner;
+    }
     
     /*
 	 * @see IDataSetProducer#setConsumer(org.dbunit.dataset.stream.IDataSetConsumer)
@@ -124,6 +145,11 @@ public class CsvURLProducer implements IDataSetProducer {
 	private void produceFromURL(URL url) throws DataSetException {
         logger.debug("produceFromURL(url=" + url + ") - start");
 
+        if (useScanner) {
+            scanURL(url);
+            return;
+        }
+
         try {
             CsvParser parser = new CsvParserImpl();
             List readData = parser.parse(url);
@@ -155,4 +181,27 @@ public class CsvURLProducer implements IDataSetProducer {
         	throw new DataSetException("I/O error parsing CSV for URL: '" + url + "'", e);
 		}
 	}
+
+	/**
+	 * Produce a dataset from a URL using the {@link CsvScanner}.
+	 * @param url a url containing CSV data.
+	 */
+	private void scanURL(URL url) throws DataSetException {
+        logger.debug("scanURL(url={}) - start", url);
+
+        String tableName = url.getFile();
+        tableName = tableName.substring(tableName.lastIndexOf("/")+1, tableName.indexOf(".csv"));
+        try {
+            Reader reader = new InputStreamReader(url.openStream());
+            try {
+                new CsvScanner(reader, url.toString()).produce(tableName, _consumer);
+            } finally {
+                reader.close();
+            }
+        } catch (CsvParserException e) {
+        	throw new DataSetException("error parsing CSV for URL: '" + url + "'", e);
+		} catch (IOException e) {
+        	throw new DataSetException("I/O error parsing CSV for URL: '" + url + "'", e);
+		}
+	}
 }
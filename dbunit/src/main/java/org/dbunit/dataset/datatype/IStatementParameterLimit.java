@@ -0,0 +1,41 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.datatype;
+
+/**
+ * Reports the maximum number of parameter markers a single prepared statement
+ * may contain on the database this object relates to. Used to bound the number
+ * of rows put into one multi-row insert statement.
+ * Typically implemented by an <code>IDataTypeFactory</code>.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see IDataTypeFactory
+ * @see org.dbunit.database.DatabaseConfig#PROPERTY_INSERT_ROWS_PER_STATEMENT
+ */
+public interface IStatementParameterLimit
+{
+    /**
+     * @return The maximum number of parameters allowed in one statement
+     */
+    public int getMaxStatementParameters();
+}
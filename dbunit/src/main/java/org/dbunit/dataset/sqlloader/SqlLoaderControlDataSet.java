@@ -97,4 +97,31 @@ public class SqlLoaderControlDataSet extends CachedDataSet implements IDataSet {
         super(new SqlLoaderControlProducer(ctlDir, orderedTableNames));
     }
 
+    /**
+     * Creates a dataset parsing the control files concurrently.
+     * 
+     * @param ctlDir the control files directory
+     * @param orderedTablesFile the table order file
+     * @param threadCount the maximum number of control files parsed concurrently
+     * @param maxBufferedTables the maximum number of tables parsed ahead of the
+     *            one currently added to this dataset
+     * 
+     * @throws DataSetException the data set exception
+     * @see SqlLoaderControlProducer#setParallelism(int, int)
+     * @since 2.7.1
+     */
+    public SqlLoaderControlDataSet(File ctlDir, File orderedTablesFile, int threadCount,
+            int maxBufferedTables) throws DataSetException 
+    {
+        super(createProducer(ctlDir, orderedTablesFile, threadCount, maxBufferedTables));
+    }
+
+    private static SqlLoaderControlProducer createProducer(File ctlDir, File orderedTablesFile,
+            int threadCount, int maxBufferedTables) throws DataSetException 
+    {
+        SqlLoaderControlProducer producer = new SqlLoaderControlProducer(ctlDir, orderedTablesFile);
+        producer.setParallelism(threadCount, maxBufferedTables);
+        return producer;
+    }
+
 }
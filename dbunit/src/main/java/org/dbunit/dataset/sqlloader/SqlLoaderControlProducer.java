@@ -22,6 +22,7 @@ package org.dbunit.dataset.sqlloader;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -36,6 +37,7 @@ import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.stream.DefaultConsumer;
 import org.dbunit.dataset.stream.IDataSetConsumer;
 import org.dbunit.dataset.stream.IDataSetProducer;
+import org.dbunit.dataset.stream.ParallelProducer;
 import org.dbunit.util.FileHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +77,12 @@ public class SqlLoaderControlProducer implements IDataSetProducer {
      */
     private List orderedTableNames;
 
+    /** The maximum number of control files parsed concurrently */
+    private int threadCount = 1;
+
+    /** The maximum number of tables parsed ahead of the consumer */
+    private int maxBufferedTables = 1;
+
 
     /**
      * The Constructor.
@@ -120,6 +128,28 @@ public class SqlLoaderControlProducer implements IDataSetProducer {
         this.orderedTableNames = orderedTableNames;
     }
 
+    /**
+     * Parses the control files concurrently. The consumer still receives the
+     * tables in the order of the table list.
+     * 
+     * @param threadCount the maximum number of files parsed concurrently, 1
+     *            parses the files one after another on the calling thread
+     * @param maxBufferedTables the maximum number of tables parsed ahead of
+     *            the one currently sent to the consumer
+     * @see ParallelProducer
+     * @since 2.7.1
+     */
+    public void setParallelism(int threadCount, int maxBufferedTables) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The parameter 'threadCount' must be greater than 0: " + threadCount);
+        }
+        if (maxBufferedTables < 1) {
+            throw new IllegalArgumentException("The parameter 'maxBufferedTables' must be greater than 0: " + maxBufferedTables);
+        }
+        this.threadCount = threadCount;
+        this.maxBufferedTables = maxBufferedTables;
+    }
+
     /**
      * @see org.dbunit.dataset.stream.IDataSetProducer#setConsumer(org.dbunit.dataset.stream.IDataSetConsumer)
      */
@@ -140,34 +170,54 @@ public class SqlLoaderControlProducer implements IDataSetProducer {
                     + this.controlFilesDir + "' should be a directory of the control files");
         }
 
+        if (this.threadCount > 1) {
+            // Sends the start and end of the dataset itself
+            createParallelProducer(dir).produce();
+            return;
+        }
+
         this.consumer.startDataSet();
         
         for (Iterator tableIter = this.orderedTableNames.iterator(); tableIter.hasNext();) {
             String table = (String) tableIter.next();
-            try {
-                File ctlFile = new File(dir, table + ".ctl");
-                produceFromControlFile(ctlFile);
-            }
-            catch (SqlLoaderControlParserException e) {
-                throw new DataSetException("error producing dataset for table '" + table + "'", e);
-            }
-            catch (DataSetException e) {
-                throw new DataSetException("error producing dataset for table '" + table + "'", e);
-            }
-
+            produceTable(dir, table, this.consumer);
         }
         this.consumer.endDataSet();
     }
 
+    private ParallelProducer createParallelProducer(File dir) throws DataSetException {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        for (Iterator tableIter = this.orderedTableNames.iterator(); tableIter.hasNext();) {
+            producers.add(new TableProducer(dir, (String) tableIter.next()));
+        }
+        ParallelProducer producer = new ParallelProducer(producers, this.threadCount, this.maxBufferedTables);
+        producer.setConsumer(this.consumer);
+        return producer;
+    }
+
+    private void produceTable(File dir, String table, IDataSetConsumer consumer) throws DataSetException {
+        try {
+            File ctlFile = new File(dir, table + ".ctl");
+            produceFromControlFile(ctlFile, consumer);
+        }
+        catch (SqlLoaderControlParserException e) {
+            throw new DataSetException("error producing dataset for table '" + table + "'", e);
+        }
+        catch (DataSetException e) {
+            throw new DataSetException("error producing dataset for table '" + table + "'", e);
+        }
+    }
+
     /**
      * Produce from control file.
      * 
      * @param controlFile the control file
+     * @param consumer the consumer receiving the table
      * 
      * @throws DataSetException the data set exception
      * @throws SqlLoaderControlParserException the oracle control parser exception
      */
-    private void produceFromControlFile(File controlFile) throws DataSetException,
+    private void produceFromControlFile(File controlFile, IDataSetConsumer consumer) throws DataSetException,
     SqlLoaderControlParserException 
     {
         logger.debug("produceFromControlFile(controlFile={}) - start", controlFile);
@@ -184,16 +234,16 @@ public class SqlLoaderControlProducer implements IDataSetProducer {
 
             String tableName = parser.getTableName();
             ITableMetaData metaData = new DefaultTableMetaData(tableName, columns);
-            this.consumer.startTable(metaData);
+            consumer.startTable(metaData);
             for (int i = 1; i < readData.size(); i++) {
                 List rowList = (List) readData.get(i);
                 Object[] row = rowList.toArray();
                 for (int col = 0; col < row.length; col++) {
                     row[col] = row[col].equals(NULL) ? null : row[col];
                 }
-                this.consumer.row(row);
+                consumer.row(row);
             }
-            this.consumer.endTable();
+            consumer.endTable();
         }
         catch (PipelineException e) {
             throw new DataSetException(e);
@@ -237,4 +287,30 @@ public class SqlLoaderControlProducer implements IDataSetProducer {
         return orderedNames;
     }
 
+    /**
+     * Produces a single control file, used by the parallel mode.
+     */
+    private class TableProducer implements IDataSetProducer {
+        private final File dir;
+        private final String table;
+        private IDataSetConsumer tableConsumer = EMPTY_CONSUMER;
+
+        public TableProducer(File dir, String table) {
+            this.dir = dir;
+            this.table = table;
+        }
+
+        public void setConsumer(IDataSetConsumer consumer) throws DataSetException {
+            this.tableConsumer = consumer;
+        }
+
+        public void produce() throws DataSetException {
+            produceTable(this.dir, this.table, this.tableConsumer);
+        }
+
+        public String toString() {
+            return this.table;
+        }
+    }
+
 }
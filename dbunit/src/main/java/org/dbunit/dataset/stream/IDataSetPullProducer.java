@@ -0,0 +1,65 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITableMetaData;
+
+/**
+ * Interface for reading a dataset on demand. In contrast to
+ * {@link IDataSetProducer#produce()}, which pushes the whole dataset to a
+ * consumer, the caller pulls the tables and rows one at a time, so a dataset
+ * can be iterated on the calling thread without buffering.
+ * <p>
+ * A pull producer is read once from the beginning to the end, a table is
+ * positioned before its first row when returned by {@link #nextTable()}.
+ * {@link AbstractPullProducer} implements the push methods on top of the
+ * pull methods.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see StreamingDataSet
+ */
+public interface IDataSetPullProducer extends IDataSetProducer
+{
+    /**
+     * Moves to the next table. The remaining rows of the current table are
+     * skipped.
+     * @return The metadata of the next table or <code>null</code> when the
+     * end of the dataset has been reached
+     */
+    public ITableMetaData nextTable() throws DataSetException;
+
+    /**
+     * Reads the next row of the current table.
+     * @return The row values in the order of the table columns or
+     * <code>null</code> when the end of the table has been reached
+     */
+    public Object[] nextRow() throws DataSetException;
+
+    /**
+     * Releases the resources held by this producer. Invoked by the caller
+     * when it stops reading, also before the end of the dataset.
+     */
+    public void close() throws DataSetException;
+}
@@ -0,0 +1,289 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITableMetaData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Producer running several independent producers concurrently, typically one
+ * per table file of a directory based dataset.
+ * <p>
+ * Each producer writes into a buffer on a thread of a fixed size pool. The
+ * calling thread replays the buffers to the consumer in the order of the
+ * given producers, so the consumer receives the same events as if the
+ * producers had been run one after another. The <code>startDataSet</code> and
+ * <code>endDataSet</code> events of the producers are replaced by a single
+ * pair sent by this producer.
+ * </p>
+ * <p>
+ * At most <code>maxBufferedProducers</code> producers are started ahead of
+ * the one currently replayed, which bounds the number of buffered tables held
+ * in memory. The pool uses virtual threads when the JVM supports them.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ParallelProducer implements IDataSetProducer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ParallelProducer.class);
+
+    private static final IDataSetConsumer EMPTY_CONSUMER = new DefaultConsumer();
+
+    private final List<? extends IDataSetProducer> _producers;
+    private final int _threadCount;
+    private final int _maxBufferedProducers;
+    private IDataSetConsumer _consumer = EMPTY_CONSUMER;
+
+    /**
+     * @param producers The producers to run, in the order their output is
+     *            sent to the consumer
+     * @param threadCount The maximum number of producers running concurrently
+     * @param maxBufferedProducers The maximum number of producers started
+     *            ahead of the one whose output is currently sent to the
+     *            consumer
+     */
+    public ParallelProducer(List<? extends IDataSetProducer> producers,
+            int threadCount, int maxBufferedProducers)
+    {
+        if (producers == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'producers' must not be null");
+        }
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'threadCount' must be greater than 0: "
+                            + threadCount);
+        }
+        if (maxBufferedProducers < 1)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'maxBufferedProducers' must be greater than 0: "
+                            + maxBufferedProducers);
+        }
+        _producers = producers;
+        _threadCount = threadCount;
+        _maxBufferedProducers = maxBufferedProducers;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetProducer interface
+
+    public void setConsumer(IDataSetConsumer consumer) throws DataSetException
+    {
+        logger.debug("setConsumer(consumer) - start");
+
+        _consumer = consumer;
+    }
+
+    public void produce() throws DataSetException
+    {
+        logger.debug("produce() - start");
+
+        _consumer.startDataSet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(_threadCount, Math.max(_producers.size(), 1)),
+                createThreadFactory());
+        try
+        {
+            LinkedList<Future<RecordingConsumer>> pending =
+                    new LinkedList<Future<RecordingConsumer>>();
+            int next = 0;
+            while (next < _producers.size() || !pending.isEmpty())
+            {
+                // Start producers as long as the buffer budget allows it
+                while (next < _producers.size()
+                        && pending.size() < _maxBufferedProducers)
+                {
+                    pending.add(executor.submit(
+                            new ProducerTask(_producers.get(next++))));
+                }
+
+                RecordingConsumer recording = get(pending.removeFirst());
+                recording.replay(_consumer);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        _consumer.endDataSet();
+    }
+
+    private static RecordingConsumer get(Future<RecordingConsumer> future)
+            throws DataSetException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new DataSetException("Interrupted while waiting for a producer", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataSetException)
+            {
+                throw (DataSetException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new DataSetException(cause);
+        }
+    }
+
+    /**
+     * @return A factory creating virtual threads on JVMs supporting them,
+     *         otherwise the default thread factory
+     */
+    private static ThreadFactory createThreadFactory()
+    {
+        try
+        {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        }
+        catch (Exception e)
+        {
+            logger.debug("Virtual threads not available, using platform threads", e);
+            return Executors.defaultThreadFactory();
+        }
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_producers=").append(_producers);
+        sb.append(", _threadCount=").append(_threadCount);
+        sb.append(", _maxBufferedProducers=").append(_maxBufferedProducers);
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Runs a single producer into a buffer.
+     */
+    private static class ProducerTask implements Callable<RecordingConsumer>
+    {
+        private final IDataSetProducer _producer;
+
+        public ProducerTask(IDataSetProducer producer)
+        {
+            _producer = producer;
+        }
+
+        public RecordingConsumer call() throws Exception
+        {
+            logger.debug("call() - start: producer={}", _producer);
+
+            RecordingConsumer recording = new RecordingConsumer();
+            _producer.setConsumer(recording);
+            _producer.produce();
+            return recording;
+        }
+    }
+
+    /**
+     * Buffers the table events of a producer until they can be replayed.
+     */
+    private static class RecordingConsumer implements IDataSetConsumer
+    {
+        private final List<ITableMetaData> _metaData = new ArrayList<ITableMetaData>();
+        private final List<List<Object[]>> _rows = new ArrayList<List<Object[]>>();
+        private List<Object[]> _activeRows;
+
+        public void startDataSet() throws DataSetException
+        {
+        }
+
+        public void endDataSet() throws DataSetException
+        {
+        }
+
+        public void startTable(ITableMetaData metaData) throws DataSetException
+        {
+            _activeRows = new ArrayList<Object[]>();
+            _metaData.add(metaData);
+            _rows.add(_activeRows);
+        }
+
+        public void endTable() throws DataSetException
+        {
+            _activeRows = null;
+        }
+
+        public void row(Object[] values) throws DataSetException
+        {
+            _activeRows.add(values);
+        }
+
+        public void replay(IDataSetConsumer consumer) throws DataSetException
+        {
+            for (int i = 0; i < _metaData.size(); i++)
+            {
+                consumer.startTable(_metaData.get(i));
+                List<Object[]> rows = _rows.get(i);
+                for (Object[] values : rows)
+                {
+                    consumer.row(values);
+                }
+                // Release the rows as soon as they have been consumed
+                _rows.set(i, null);
+                consumer.endTable();
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import org.dbunit.dataset.AbstractTable;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.RowOutOfBoundsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Table iterator reading an {@link IDataSetPullProducer} on the calling
+ * thread. The tables are forward only, like the ones of the
+ * {@link StreamingIterator}, but no background thread is involved.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class PullIterator implements ITableIterator
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PullIterator.class);
+
+    private final IDataSetPullProducer _source;
+    private PullTable _activeTable;
+    private boolean _eod = false;
+
+    /**
+     * @param source The source of the data
+     */
+    public PullIterator(IDataSetPullProducer source)
+    {
+        _source = source;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ITableIterator interface
+
+    public boolean next() throws DataSetException
+    {
+        logger.debug("next() - start");
+
+        // End of dataset has previously been reach
+        if (_eod)
+        {
+            return false;
+        }
+
+        // The previous table must not read the rows of the next one
+        if (_activeTable != null)
+        {
+            _activeTable._eot = true;
+        }
+
+        ITableMetaData metaData;
+        try
+        {
+            metaData = _source.nextTable();
+        }
+        catch (DataSetException e)
+        {
+            _eod = true;
+            _source.close();
+            throw e;
+        }
+
+        if (metaData == null)
+        {
+            _eod = true;
+            _activeTable = null;
+            _source.close();
+
+            logger.debug("End of iterator.");
+            return false;
+        }
+
+        _activeTable = new PullTable(metaData);
+        return true;
+    }
+
+    public ITableMetaData getTableMetaData() throws DataSetException
+    {
+        logger.debug("getTableMetaData() - start");
+
+        return _activeTable.getTableMetaData();
+    }
+
+    public ITable getTable() throws DataSetException
+    {
+        logger.debug("getTable() - start");
+
+        return _activeTable;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // PullTable class
+
+    private class PullTable extends AbstractTable
+    {
+        private final ITableMetaData _metaData;
+        private int _lastRow = -1;
+        private boolean _eot = false;
+        private Object[] _rowValues;
+
+        public PullTable(ITableMetaData metaData)
+        {
+            _metaData = metaData;
+        }
+
+        boolean next() throws DataSetException
+        {
+            // End of table has previously been reach
+            if (_eot)
+            {
+                return false;
+            }
+
+            Object[] values = _source.nextRow();
+            if (values == null)
+            {
+                _eot = true;
+                return false;
+            }
+
+            _lastRow++;
+            _rowValues = values;
+            return true;
+        }
+
+        ////////////////////////////////////////////////////////////////////////
+        // ITable interface
+
+        public ITableMetaData getTableMetaData()
+        {
+            return _metaData;
+        }
+
+        public int getRowCount()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public Object getValue(int row, String columnName) throws DataSetException
+        {
+            return getValue(row, getColumnIndex(columnName));
+        }
+
+        public Object getValue(int row, int column) throws DataSetException
+        {
+            // Iterate up to specified row
+            while (!_eot && row > _lastRow)
+            {
+                next();
+            }
+
+            if (row < _lastRow)
+            {
+                throw new UnsupportedOperationException("Cannot go backward!");
+            }
+
+            if (_eot || row > _lastRow)
+            {
+                throw new RowOutOfBoundsException(row + " > " + _lastRow);
+            }
+
+            if (column < 0 || column >= _rowValues.length)
+            {
+                assertValidColumnIndex(column);
+            }
+            return _rowValues[column];
+        }
+
+        /**
+         * Returns a cursor that pulls the rows directly from the producer.
+         * The cursor shares its position with this table.
+         */
+        public ITableCursor cursor()
+        {
+            return new ITableCursor()
+            {
+                public ITableMetaData getTableMetaData()
+                {
+                    return _metaData;
+                }
+
+                public boolean next() throws DataSetException
+                {
+                    return PullTable.this.next();
+                }
+
+                public int getRow()
+                {
+                    return _lastRow;
+                }
+
+                public Object get(int column) throws DataSetException
+                {
+                    if (_eot || _lastRow < 0)
+                    {
+                        throw new RowOutOfBoundsException(
+                                "Cursor is not positioned on a valid row: "
+                                        + _lastRow);
+                    }
+                    if (column < 0 || column >= _rowValues.length)
+                    {
+                        assertValidColumnIndex(column);
+                    }
+                    return _rowValues[column];
+                }
+            };
+        }
+
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(getClass().getName()).append("[");
+            sb.append("_metaData=").append(_metaData);
+            sb.append(", _eot=").append(_eot);
+            sb.append(", _lastRow=").append(_lastRow);
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
@@ -20,6 +20,8 @@
  */
 package org.dbunit.dataset.stream;
 
+import java.util.concurrent.Executor;
+
 import org.dbunit.dataset.AbstractDataSet;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.ITable;
@@ -29,7 +31,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Dataset that consumes producer asynchronously.
+ * Dataset that consumes producer asynchronously. Producers implementing
+ * {@link IDataSetPullProducer} are read synchronously on the calling thread
+ * instead.
  *
  * @author Manuel Laflamme
  * @author Last changed by: $Author$
@@ -45,11 +49,48 @@ public class StreamingDataSet extends AbstractDataSet
     private static final Logger logger = LoggerFactory.getLogger(StreamingDataSet.class);
 
     private IDataSetProducer _source;
+    private IDataSetPullProducer _pullSource;
+    private Executor _executor;
+    private int _chunkSize = StreamingIterator.DEFAULT_CHUNK_SIZE;
     private int _iteratorCount;
 
     public StreamingDataSet(IDataSetProducer source)
     {
         _source = source;
+        if (source instanceof IDataSetPullProducer)
+        {
+            _pullSource = (IDataSetPullProducer) source;
+        }
+    }
+
+    /**
+     * Creates a dataset running a push based producer with the given
+     * executor instead of a new thread.
+     * @param source The source of the data
+     * @param executor Runs the producer, for example an executor using
+     *            virtual threads or a pool shared by several datasets
+     * @param chunkSize The number of rows handed over from the producer
+     *            thread at once
+     * @see StreamingIterator#StreamingIterator(IDataSetProducer, Executor, int)
+     * @since 2.7.1
+     */
+    public StreamingDataSet(IDataSetProducer source, Executor executor,
+            int chunkSize)
+    {
+        this(source);
+        if (executor == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'executor' must not be null");
+        }
+        if (chunkSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'chunkSize' must be greater than 0: "
+                            + chunkSize);
+        }
+        _executor = executor;
+        _chunkSize = chunkSize;
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -73,6 +114,14 @@ public class StreamingDataSet extends AbstractDataSet
         }
 
         _iteratorCount++;
+        if (_pullSource != null)
+        {
+            return new PullIterator(_pullSource);
+        }
+        if (_executor != null)
+        {
+            return new StreamingIterator(_source, _executor, _chunkSize);
+        }
         return new StreamingIterator(_source);
     }
 
@@ -20,21 +20,36 @@
  */
 package org.dbunit.dataset.stream;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import org.dbunit.dataset.AbstractTable;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
 import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.RowOutOfBoundsException;
-import org.dbunit.util.concurrent.BoundedBuffer;
-import org.dbunit.util.concurrent.Channel;
-import org.dbunit.util.concurrent.Puttable;
-import org.dbunit.util.concurrent.Takable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Asynchronous table iterator that uses a new Thread for asynchronous processing.
+ * Asynchronous table iterator that runs the producer on another thread.
+ * <p>
+ * The producer thread hands the rows over in chunks of
+ * <code>chunkSize</code> rows through a small bounded queue, so the threads
+ * synchronize once per chunk rather than once per row. The producer is run
+ * by the given {@link Executor}; by default a new daemon thread is created
+ * for every iterator.
+ * </p>
+ * <p>
+ * The producer is stopped when the iterator is {@link #close() closed} or
+ * garbage collected before the end of the dataset has been reached.
+ * </p>
  * 
  * @author Manuel Laflamme
  * @author Last changed by: $Author$
@@ -49,18 +64,45 @@ public class StreamingIterator implements ITableIterator
      */
     private static final Logger logger = LoggerFactory.getLogger(StreamingIterator.class);
 
+    /**
+     * The default number of rows handed over from the producer thread at once.
+     * @since 2.7.1
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    /**
+     * The number of chunks the producer thread may run ahead of the consumer
+     */
+    private static final int QUEUE_CAPACITY = 4;
+
+    /**
+     * The interval in milliseconds in which a blocked producer thread checks
+     * whether the iterator has been abandoned
+     */
+    private static final long CANCEL_CHECK_INTERVAL = 100;
+
     private static final Object EOD = new Object(); // end of dataset marker
 
-    private final Takable _channel;
+    private static final Executor NEW_THREAD_EXECUTOR = new Executor()
+    {
+        public void execute(Runnable command)
+        {
+            Thread thread = new Thread(command, "StreamingIterator");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    };
+
+    private final BlockingQueue<Object> _channel;
+    private final Handoff _handoff;
     private StreamingTable _activeTable;
     private Object _taken = null;
     private boolean _eod = false;
-    /**
-     * Variable to store an exception that might occur in the asynchronous consumer
-     */
-	private Exception _asyncException;
+    private Object[][] _chunk;
+    private int _chunkLength;
+    private int _chunkIndex;
+    private Throwable _failure;
 
-	
     /**
      * Iterator that creates a table iterator by reading the input from
      * the given source in an asynchronous way. Therefore a Thread is
@@ -70,38 +112,108 @@ public class StreamingIterator implements ITableIterator
      */
     public StreamingIterator(IDataSetProducer source) throws DataSetException
     {
-        Channel channel = new BoundedBuffer(30);
-        _channel = channel;
+        this(source, NEW_THREAD_EXECUTOR, DEFAULT_CHUNK_SIZE);
+    }
 
-        AsynchronousConsumer consumer = new AsynchronousConsumer(source, channel, this);
-        Thread thread = new Thread(consumer, "StreamingIterator");
-        thread.setDaemon(true);
-        thread.start();
+    /**
+     * Iterator that creates a table iterator by reading the input from
+     * the given source in an asynchronous way.
+     * @param source The source of the data
+     * @param executor Runs the producer, for example an executor using
+     *            virtual threads or a pool shared by several iterators
+     * @param chunkSize The number of rows handed over from the producer
+     *            thread at once
+     * @throws DataSetException
+     * @since 2.7.1
+     */
+    public StreamingIterator(IDataSetProducer source, Executor executor,
+            int chunkSize) throws DataSetException
+    {
+        if (executor == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'executor' must not be null");
+        }
+        if (chunkSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'chunkSize' must be greater than 0: "
+                            + chunkSize);
+        }
+
+        _channel = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+        _handoff = new Handoff(_channel, this);
+
+        AsynchronousConsumer consumer = new AsynchronousConsumer(source,
+                _handoff, chunkSize);
+        try
+        {
+            executor.execute(consumer);
+        }
+        catch (RejectedExecutionException e)
+        {
+            throw new DataSetException("Producer was rejected by executor "
+                    + executor, e);
+        }
 
         // Take first element from asynchronous handler
+        _taken = take();
+    }
+
+    private Object take() throws DataSetException
+    {
+        if (_failure != null)
+        {
+            throw new DataSetException("Producer failed", _failure);
+        }
+        if (_handoff._cancelled)
+        {
+            return EOD;
+        }
+
+        Object taken;
         try
         {
-            _taken = _channel.take();
+            taken = _channel.take();
         }
         catch (InterruptedException e)
         {
-        	logger.debug("Thread '" + Thread.currentThread() + "' was interrupted");
-        	throw resolveException(e);
+            logger.debug("Thread '" + Thread.currentThread() + "' was interrupted");
+            close();
+            Thread.currentThread().interrupt();
+            throw new DataSetException("Current thread was interrupted (Thread="
+                    + Thread.currentThread() + ")", e);
         }
+
+        if (taken instanceof Failure)
+        {
+            _failure = ((Failure)taken).cause;
+            _eod = true;
+            throw new DataSetException("Producer failed", _failure);
+        }
+        return taken;
     }
 
-    private DataSetException resolveException(InterruptedException cause) throws DataSetException 
+    /**
+     * Stops the producer and releases the rows it has already handed over.
+     * After this method has been called the iterator behaves as if the end
+     * of the dataset had been reached. Calling this method after the end of
+     * the dataset has no effect.
+     * @since 2.7.1
+     */
+    public void close()
     {
-    	String msg = "Current thread was interrupted (Thread=" + Thread.currentThread() + ")";
-    	if(this._asyncException != null)
-    	{
-            return new DataSetException(msg, this._asyncException);
-    	}
-    	else 
-    	{
-    		return new DataSetException(msg, cause);
-    	}
-	}
+        logger.debug("close() - start");
+
+        _handoff._cancelled = true;
+        _eod = true;
+        _activeTable = null;
+        _chunk = null;
+        _chunkLength = 0;
+        _chunkIndex = 0;
+        // Unblock a producer waiting for free space
+        _channel.clear();
+    }
 
 	////////////////////////////////////////////////////////////////////////////
     // ITableIterator interface
@@ -155,12 +267,6 @@ public class StreamingIterator implements ITableIterator
         return _activeTable;
     }
 
-	private void handleException(Exception e)
-	{
-		// Is invoked when the asynchronous thread reports an exception
-		this._asyncException = e;
-	}
-
     ////////////////////////////////////////////////////////////////////////////
     // StreamingTable class
 
@@ -184,31 +290,32 @@ public class StreamingIterator implements ITableIterator
 
         boolean next() throws DataSetException
         {
-            logger.debug("next() - start");
-
             // End of table has previously been reach
             if (_eot)
             {
                 return false;
             }
 
-            try
+            if (_chunkIndex >= _chunkLength)
             {
-                _taken = _channel.take();
-                if (!(_taken instanceof Object[]))
+                Object taken = take();
+                if (!(taken instanceof RowChunk))
                 {
+                    _taken = taken;
                     _eot = true;
                     return false;
                 }
 
-                _lastRow++;
-                _rowValues = (Object[])_taken;
-                return true;
-            }
-            catch (InterruptedException e)
-            {
-            	throw resolveException(e);
+                RowChunk chunk = (RowChunk)taken;
+                _chunk = chunk.rows;
+                _chunkLength = chunk.length;
+                _chunkIndex = 0;
             }
+
+            _lastRow++;
+            _rowValues = _chunk[_chunkIndex];
+            _chunk[_chunkIndex++] = null;
+            return true;
         }
 
         ////////////////////////////////////////////////////////////////////////
@@ -233,6 +340,11 @@ public class StreamingIterator implements ITableIterator
             if(logger.isDebugEnabled())
                 logger.debug("getValue(row={}, columnName={}) - start", Integer.toString(row), columnName);
 
+            return getValue(row, getColumnIndex(columnName));
+        }
+
+        public Object getValue(int row, int column) throws DataSetException
+        {
             // Iterate up to specified row
             while (!_eot && row > _lastRow)
             {
@@ -249,7 +361,51 @@ public class StreamingIterator implements ITableIterator
                 throw new RowOutOfBoundsException(row + " > " + _lastRow);
             }
 
-            return _rowValues[getColumnIndex(columnName)];
+            if (column < 0 || column >= _rowValues.length)
+            {
+                assertValidColumnIndex(column);
+            }
+            return _rowValues[column];
+        }
+
+        /**
+         * Returns a cursor that takes the rows directly from the asynchronous
+         * handler. The cursor shares its position with this table.
+         */
+        public ITableCursor cursor()
+        {
+            return new ITableCursor()
+            {
+                public ITableMetaData getTableMetaData()
+                {
+                    return _metaData;
+                }
+
+                public boolean next() throws DataSetException
+                {
+                    return StreamingTable.this.next();
+                }
+
+                public int getRow()
+                {
+                    return _lastRow;
+                }
+
+                public Object get(int column) throws DataSetException
+                {
+                    if (_eot || _lastRow < 0)
+                    {
+                        throw new RowOutOfBoundsException(
+                                "Cursor is not positioned on a valid row: "
+                                        + _lastRow);
+                    }
+                    if (column < 0 || column >= _rowValues.length)
+                    {
+                        assertValidColumnIndex(column);
+                    }
+                    return _rowValues[column];
+                }
+            };
         }
 
         public String toString()
@@ -269,6 +425,94 @@ public class StreamingIterator implements ITableIterator
         }
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    // Handoff class
+
+    /**
+     * State shared between the iterator and its producer thread. It only
+     * holds a weak reference to the iterator, so an abandoned iterator can be
+     * garbage collected while its producer is blocked.
+     */
+    private static class Handoff
+    {
+        private final BlockingQueue<Object> _channel;
+        private final WeakReference<StreamingIterator> _iterator;
+        private volatile boolean _cancelled = false;
+
+        Handoff(BlockingQueue<Object> channel, StreamingIterator iterator)
+        {
+            _channel = channel;
+            _iterator = new WeakReference<StreamingIterator>(iterator);
+        }
+
+        boolean isCancelled()
+        {
+            return _cancelled || _iterator.get() == null;
+        }
+
+        /**
+         * Waits until the item has been queued.
+         * @return <code>false</code> if the iterator was closed or abandoned
+         *         in the meantime
+         */
+        boolean put(Object item) throws InterruptedException
+        {
+            while (!_channel.offer(item, CANCEL_CHECK_INTERVAL,
+                    TimeUnit.MILLISECONDS))
+            {
+                if (isCancelled())
+                {
+                    return false;
+                }
+            }
+            return !_cancelled;
+        }
+    }
+
+    /**
+     * Rows handed over at once. Only the first <code>length</code> entries
+     * are used.
+     */
+    private static class RowChunk
+    {
+        private final Object[][] rows;
+        private final int length;
+
+        RowChunk(Object[][] rows, int length)
+        {
+            this.rows = rows;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Handed over instead of the end of dataset marker when the producer
+     * failed.
+     */
+    private static class Failure
+    {
+        private final Throwable cause;
+
+        Failure(Throwable cause)
+        {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Thrown on the producer thread to abort the producer once the iterator
+     * has been closed or abandoned.
+     */
+    private static class CancelledException extends DataSetException
+    {
+        private static final long serialVersionUID = 1L;
+
+        CancelledException()
+        {
+            super("Streaming iterator was closed");
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // AsynchronousConsumer class
 
@@ -281,16 +525,44 @@ public class StreamingIterator implements ITableIterator
         private static final Logger logger = LoggerFactory.getLogger(AsynchronousConsumer.class);
 
         private final IDataSetProducer _producer;
-        private final Puttable _channel;
-        private final StreamingIterator _exceptionHandler;
-        private final Thread _invokerThread;
+        private final Handoff _handoff;
+        private final int _chunkSize;
+        private Object[][] _rows;
+        private int _rowCount;
 
-        public AsynchronousConsumer(IDataSetProducer source, Puttable channel, StreamingIterator exceptionHandler)
+        public AsynchronousConsumer(IDataSetProducer source, Handoff handoff, int chunkSize)
         {
             _producer = source;
-            _channel = channel;
-            _exceptionHandler = exceptionHandler;
-            _invokerThread = Thread.currentThread();
+            _handoff = handoff;
+            _chunkSize = chunkSize;
+            _rows = new Object[chunkSize][];
+        }
+
+        private void put(Object item) throws DataSetException
+        {
+            try
+            {
+                if (!_handoff.put(item))
+                {
+                    throw new CancelledException();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                throw new DataSetException("Operation was interrupted");
+            }
+        }
+
+        private void flush() throws DataSetException
+        {
+            if (_rowCount > 0)
+            {
+                Object[][] rows = _rows;
+                int rowCount = _rowCount;
+                _rows = new Object[_chunkSize][];
+                _rowCount = 0;
+                put(new RowChunk(rows, rowCount));
+            }
         }
 
         ////////////////////////////////////////////////////////////////////////
@@ -305,11 +577,28 @@ public class StreamingIterator implements ITableIterator
                 _producer.setConsumer(this);
                 _producer.produce();
             }
-            catch (Exception e)
+            catch (CancelledException e)
+            {
+                logger.debug("Producer cancelled");
+            }
+            catch (Throwable e)
             {
-            	_exceptionHandler.handleException(e);
-            	// Since the invoker thread probably waits tell it that we have finished here
-            	_invokerThread.interrupt();
+                if (_handoff.isCancelled())
+                {
+                    logger.debug("Producer failed after cancellation", e);
+                }
+                else
+                {
+                    // Report the failure in place of the remaining data
+                    try
+                    {
+                        _handoff.put(new Failure(e));
+                    }
+                    catch (InterruptedException e1)
+                    {
+                        logger.warn("Failed to report producer failure", e);
+                    }
+                }
             }
             
             logger.debug("End of thread " + Thread.currentThread());
@@ -326,45 +615,34 @@ public class StreamingIterator implements ITableIterator
         {
             logger.debug("endDataSet() - start");
 
-            try
-            {
-                _channel.put(EOD);
-            }
-            catch (InterruptedException e)
-            {
-                throw new DataSetException("Operation was interrupted");
-            }
+            flush();
+            put(EOD);
         }
 
         public void startTable(ITableMetaData metaData) throws DataSetException
         {
             logger.debug("startTable(metaData={}) - start", metaData);
 
-            try
-            {
-                _channel.put(metaData);
-            }
-            catch (InterruptedException e)
-            {
-                throw new DataSetException("Operation was interrupted");
-            }
+            flush();
+            put(metaData);
         }
 
         public void endTable() throws DataSetException
         {
+            flush();
         }
 
         public void row(Object[] values) throws DataSetException
         {
-            logger.debug("row(values={}) - start", values);
-
-            try
+            if (_handoff._cancelled)
             {
-                _channel.put(values);
+                throw new CancelledException();
             }
-            catch (InterruptedException e)
+
+            _rows[_rowCount++] = values;
+            if (_rowCount == _chunkSize)
             {
-                throw new DataSetException("Operation was interrupted");
+                flush();
             }
         }
     }
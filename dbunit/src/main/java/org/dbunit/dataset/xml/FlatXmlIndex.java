@@ -0,0 +1,939 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Vector;
+
+import org.dbunit.database.AmbiguousTableNameException;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.OrderedTableNameMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Byte offset index of a flat XML dataset file. A single scan over the raw
+ * bytes records, for every table, the byte ranges of its row elements, the
+ * number of rows and the column names that the {@link FlatXmlProducer}
+ * would derive from the attributes. No SAX parsing is involved, so the scan
+ * is limited to ASCII compatible encodings such as UTF-8 or ISO-8859-1.
+ * <p>
+ * The index can be persisted next to the XML file. It is keyed by the SHA-1
+ * hash of the file content and is rebuilt whenever the content changes.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+class FlatXmlIndex
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FlatXmlIndex.class);
+
+    private static final int MAGIC = 0x44425849; // "DBXI"
+    private static final int VERSION = 1;
+    private static final String DATASET = "dataset";
+    private static final String DEFAULT_ENCODING = "UTF-8";
+
+    private final long _fileLength;
+    private final byte[] _hash;
+    private final boolean _columnSensing;
+    private final boolean _caseSensitiveTableNames;
+
+    /**
+     * The bytes up to and including the start tag of the root element
+     */
+    private byte[] _prolog = new byte[0];
+    private boolean _doctype;
+    private String _encoding = DEFAULT_ENCODING;
+    private final OrderedTableNameMap _tables;
+
+    private FlatXmlIndex(long fileLength, byte[] hash, boolean columnSensing,
+            boolean caseSensitiveTableNames)
+    {
+        _fileLength = fileLength;
+        _hash = hash;
+        _columnSensing = columnSensing;
+        _caseSensitiveTableNames = caseSensitiveTableNames;
+        _tables = new OrderedTableNameMap(caseSensitiveTableNames);
+    }
+
+    /**
+     * Returns the index of the given flat XML file. A persisted index is
+     * reused when it was built from the same content with the same options,
+     * otherwise the file is scanned and the index file is (re)written.
+     * @param xmlFile The flat XML file
+     * @param indexFile The file holding the persisted index or
+     * <code>null</code> to keep the index in memory only
+     * @param columnSensing Whether the columns of all rows are collected
+     * @param caseSensitiveTableNames Whether table names are case sensitive
+     * @return The index of the file
+     * @throws DataSetException
+     */
+    static FlatXmlIndex load(File xmlFile, File indexFile,
+            boolean columnSensing, boolean caseSensitiveTableNames)
+            throws DataSetException
+    {
+        logger.debug("load(xmlFile={}, indexFile={}) - start", xmlFile, indexFile);
+
+        ByteBuffer buffer = map(xmlFile);
+        byte[] hash = hash(buffer);
+
+        if (indexFile != null && indexFile.exists())
+        {
+            FlatXmlIndex index = read(indexFile, buffer.limit(), hash,
+                    columnSensing, caseSensitiveTableNames);
+            if (index != null)
+            {
+                logger.debug("Reusing index file {}", indexFile);
+                return index;
+            }
+        }
+
+        FlatXmlIndex index = new FlatXmlIndex(buffer.limit(), hash,
+                columnSensing, caseSensitiveTableNames);
+        new Scanner(buffer, index, xmlFile).scan();
+
+        if (indexFile != null)
+        {
+            index.write(indexFile);
+        }
+        return index;
+    }
+
+    private static ByteBuffer map(File xmlFile) throws DataSetException
+    {
+        try
+        {
+            RandomAccessFile file = new RandomAccessFile(xmlFile, "r");
+            try
+            {
+                FileChannel channel = file.getChannel();
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE)
+                {
+                    throw new DataSetException("The file '" + xmlFile
+                            + "' is too large to be indexed: " + size + " bytes");
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            finally
+            {
+                // The mapping stays valid after the channel has been closed
+                file.close();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private static byte[] hash(ByteBuffer buffer) throws DataSetException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(buffer.duplicate());
+            return digest.digest();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    /**
+     * @return The table names in the order of their first occurrence
+     */
+    String[] getTableNames()
+    {
+        return _tables.getTableNames();
+    }
+
+    /**
+     * @param tableName The table name
+     * @return The entry of the given table or <code>null</code> if the file
+     * does not contain the table
+     */
+    TableEntry getTable(String tableName)
+    {
+        return (TableEntry) _tables.get(tableName);
+    }
+
+    /**
+     * @return <code>true</code> if the file has a document type declaration
+     */
+    boolean hasDoctype()
+    {
+        return _doctype;
+    }
+
+    /**
+     * Opens a document consisting of the prolog of the indexed file, the
+     * given element markup and the end tag of the root element.
+     * @param elements Element markup in the encoding of the indexed file
+     * @return The document
+     */
+    InputStream openDocument(byte[] elements)
+    {
+        Vector<InputStream> streams = new Vector<InputStream>(3);
+        streams.add(new ByteArrayInputStream(_prolog));
+        streams.add(new ByteArrayInputStream(elements));
+        streams.add(new ByteArrayInputStream(getEpilog()));
+        return new SequenceInputStream(streams.elements());
+    }
+
+    /**
+     * Opens a document consisting of the prolog of the indexed file, all
+     * row elements of the given table and the end tag of the root element.
+     * The stream reads through the given channel which must be closed by
+     * the caller.
+     * @param channel The channel of the indexed file
+     * @param entry The table to read
+     * @return The document
+     */
+    InputStream openTableDocument(FileChannel channel, TableEntry entry)
+    {
+        Vector<InputStream> streams = new Vector<InputStream>(
+                entry._segmentCount + 2);
+        streams.add(new ByteArrayInputStream(_prolog));
+        for (int i = 0; i < entry._segmentCount; i++)
+        {
+            streams.add(new RegionInputStream(channel, entry._segments[2 * i],
+                    entry._segments[2 * i + 1]));
+        }
+        streams.add(new ByteArrayInputStream(getEpilog()));
+        return new SequenceInputStream(streams.elements());
+    }
+
+    /**
+     * Encodes the given text with the encoding of the indexed file.
+     * @param text The text to encode
+     * @return The encoded bytes
+     * @throws DataSetException
+     */
+    byte[] encode(String text) throws DataSetException
+    {
+        try
+        {
+            return text.getBytes(_encoding);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private byte[] getEpilog()
+    {
+        return ("</" + DATASET + ">").getBytes(Charset.forName("US-ASCII"));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Persistence
+
+    private static FlatXmlIndex read(File indexFile, long fileLength,
+            byte[] hash, boolean columnSensing, boolean caseSensitiveTableNames)
+    {
+        try
+        {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(indexFile)));
+            try
+            {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION
+                        || in.readLong() != fileLength)
+                {
+                    return null;
+                }
+                byte[] storedHash = new byte[in.readInt()];
+                in.readFully(storedHash);
+                if (!Arrays.equals(hash, storedHash)
+                        || in.readBoolean() != columnSensing
+                        || in.readBoolean() != caseSensitiveTableNames)
+                {
+                    return null;
+                }
+
+                FlatXmlIndex index = new FlatXmlIndex(fileLength, hash,
+                        columnSensing, caseSensitiveTableNames);
+                index._doctype = in.readBoolean();
+                index._encoding = in.readUTF();
+                index._prolog = new byte[in.readInt()];
+                in.readFully(index._prolog);
+
+                int tableCount = in.readInt();
+                for (int i = 0; i < tableCount; i++)
+                {
+                    TableEntry entry = new TableEntry(in.readUTF());
+                    entry._rowCount = in.readInt();
+                    int columnCount = in.readInt();
+                    for (int j = 0; j < columnCount; j++)
+                    {
+                        entry._columnNames.add(in.readUTF());
+                    }
+                    int segmentCount = in.readInt();
+                    for (int j = 0; j < segmentCount; j++)
+                    {
+                        entry.addSegment(in.readLong(), in.readLong());
+                    }
+                    index._tables.add(entry._tableName, entry);
+                }
+                return index;
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException e)
+        {
+            logger.warn("Ignoring unreadable index file " + indexFile, e);
+            return null;
+        }
+        catch (AmbiguousTableNameException e)
+        {
+            logger.warn("Ignoring corrupt index file " + indexFile, e);
+            return null;
+        }
+    }
+
+    private void write(File indexFile)
+    {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try
+        {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            try
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(_fileLength);
+                out.writeInt(_hash.length);
+                out.write(_hash);
+                out.writeBoolean(_columnSensing);
+                out.writeBoolean(_caseSensitiveTableNames);
+                out.writeBoolean(_doctype);
+                out.writeUTF(_encoding);
+                out.writeInt(_prolog.length);
+                out.write(_prolog);
+
+                String[] tableNames = _tables.getTableNames();
+                out.writeInt(tableNames.length);
+                for (int i = 0; i < tableNames.length; i++)
+                {
+                    TableEntry entry = getTable(tableNames[i]);
+                    out.writeUTF(entry._tableName);
+                    out.writeInt(entry._rowCount);
+                    out.writeInt(entry._columnNames.size());
+                    for (int j = 0; j < entry._columnNames.size(); j++)
+                    {
+                        out.writeUTF(entry._columnNames.get(j));
+                    }
+                    out.writeInt(entry._segmentCount);
+                    for (int j = 0; j < entry._segmentCount * 2; j++)
+                    {
+                        out.writeLong(entry._segments[j]);
+                    }
+                }
+            }
+            finally
+            {
+                out.close();
+            }
+
+            indexFile.delete();
+            if (!tempFile.renameTo(indexFile))
+            {
+                logger.warn("Could not rename {} to {}", tempFile, indexFile);
+                tempFile.delete();
+            }
+        }
+        catch (IOException e)
+        {
+            // The in-memory index is still usable
+            logger.warn("Could not write index file " + indexFile, e);
+            tempFile.delete();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // TableEntry class
+
+    /**
+     * The index information of a single table.
+     */
+    static class TableEntry
+    {
+        private final String _tableName;
+        private int _rowCount;
+        private final List<String> _columnNames = new ArrayList<String>();
+        private Set<String> _upperCaseColumnNames;
+        private long[] _segments = new long[2];
+        private int _segmentCount;
+
+        TableEntry(String tableName)
+        {
+            _tableName = tableName;
+        }
+
+        /**
+         * @return The table name as written in its first row element
+         */
+        String getTableName()
+        {
+            return _tableName;
+        }
+
+        /**
+         * @return The number of row elements having at least one attribute
+         */
+        int getRowCount()
+        {
+            return _rowCount;
+        }
+
+        /**
+         * @return The column names in the order the {@link FlatXmlProducer}
+         * would create them when no DTD is present
+         */
+        String[] getColumnNames()
+        {
+            return _columnNames.toArray(new String[0]);
+        }
+
+        private void addColumns(List<String> attributeNames)
+        {
+            if (_upperCaseColumnNames == null)
+            {
+                _upperCaseColumnNames = new HashSet<String>();
+                for (int i = 0; i < _columnNames.size(); i++)
+                {
+                    _upperCaseColumnNames.add(_columnNames.get(i)
+                            .toUpperCase(Locale.ENGLISH));
+                }
+            }
+            for (int i = 0; i < attributeNames.size(); i++)
+            {
+                String columnName = attributeNames.get(i);
+                // Column lookups are case insensitive
+                if (_upperCaseColumnNames.add(columnName.toUpperCase(Locale.ENGLISH)))
+                {
+                    _columnNames.add(columnName);
+                }
+            }
+        }
+
+        private void addSegment(long start, long end)
+        {
+            if (_segments.length == _segmentCount * 2)
+            {
+                long[] segments = new long[_segments.length * 2];
+                System.arraycopy(_segments, 0, segments, 0, _segments.length);
+                _segments = segments;
+            }
+            _segments[_segmentCount * 2] = start;
+            _segments[_segmentCount * 2 + 1] = end;
+            _segmentCount++;
+        }
+
+        private void extendSegment(long end)
+        {
+            _segments[_segmentCount * 2 - 1] = end;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Scanner class
+
+    /**
+     * Scans the raw bytes of a flat XML document. Quoted attribute values,
+     * comments, processing instructions and CDATA sections are skipped
+     * without being decoded.
+     */
+    private static class Scanner
+    {
+        private final ByteBuffer _buffer;
+        private final int _limit;
+        private final FlatXmlIndex _index;
+        private final File _file;
+        private Charset _charset = Charset.forName(DEFAULT_ENCODING);
+
+        private String _tagName;
+        private boolean _emptyElement;
+        private final List<String> _attributeNames = new ArrayList<String>();
+
+        private Scanner(ByteBuffer buffer, FlatXmlIndex index, File file)
+        {
+            _buffer = buffer;
+            _limit = buffer.limit();
+            _index = index;
+            _file = file;
+        }
+
+        private void scan() throws DataSetException
+        {
+            checkEncoding();
+            int pos = startsWith(0, "\u00ef\u00bb\u00bf") ? 3 : 0;
+
+            // Prolog
+            while (true)
+            {
+                pos = skipWhitespace(pos);
+                if (pos >= _limit)
+                {
+                    throw error("Missing root element", pos);
+                }
+                if (startsWith(pos, "<?"))
+                {
+                    int end = indexOf("?>", pos);
+                    if (startsWith(pos, "<?xml "))
+                    {
+                        readEncoding(pos, end);
+                    }
+                    pos = end + 2;
+                }
+                else if (startsWith(pos, "<!--"))
+                {
+                    pos = indexOf("-->", pos) + 3;
+                }
+                else if (startsWith(pos, "<!DOCTYPE"))
+                {
+                    _index._doctype = true;
+                    pos = skipDoctype(pos);
+                }
+                else
+                {
+                    break;
+                }
+            }
+
+            pos = readStartTag(pos);
+            if (!DATASET.equals(_tagName))
+            {
+                throw error("Expected root element '" + DATASET
+                        + "' but found '" + _tagName + "'", pos);
+            }
+            if (_emptyElement)
+            {
+                return;
+            }
+            _index._prolog = new byte[pos];
+            ByteBuffer prolog = _buffer.duplicate();
+            prolog.get(_index._prolog);
+            _index._encoding = _charset.name();
+
+            // Row elements
+            TableEntry lastEntry = null;
+            while (true)
+            {
+                pos = indexOf("<", pos);
+                if (startsWith(pos, "</"))
+                {
+                    break;
+                }
+                int end = skipMarkup(pos);
+                if (end > pos)
+                {
+                    pos = end;
+                    continue;
+                }
+
+                int start = pos;
+                pos = readStartTag(pos);
+                if (!_emptyElement)
+                {
+                    pos = skipContent(pos);
+                }
+
+                TableEntry entry = (TableEntry) _index._tables.get(_tagName);
+                if (entry == null)
+                {
+                    entry = new TableEntry(_tagName);
+                    entry.addColumns(_attributeNames);
+                    _index._tables.add(_tagName, entry);
+                }
+                else if (_index._columnSensing)
+                {
+                    entry.addColumns(_attributeNames);
+                }
+
+                if (entry == lastEntry)
+                {
+                    entry.extendSegment(pos);
+                }
+                else
+                {
+                    entry.addSegment(start, pos);
+                }
+                if (!_attributeNames.isEmpty())
+                {
+                    entry._rowCount++;
+                }
+                lastEntry = entry;
+            }
+        }
+
+        private void checkEncoding() throws DataSetException
+        {
+            if (_limit >= 2 && (_buffer.get(0) == 0 || _buffer.get(1) == 0
+                    || startsWith(0, "\u00fe\u00ff") || startsWith(0, "\u00ff\u00fe")))
+            {
+                throw new DataSetException("The file '" + _file
+                        + "' is not in an ASCII compatible encoding"
+                        + " and cannot be indexed");
+            }
+        }
+
+        private void readEncoding(int start, int end) throws DataSetException
+        {
+            int pos = find("encoding", start, end);
+            if (pos == -1)
+            {
+                return;
+            }
+            pos = skipWhitespace(pos + "encoding".length());
+            if (_buffer.get(pos) != '=')
+            {
+                throw error("Malformed XML declaration", pos);
+            }
+            pos = skipWhitespace(pos + 1);
+            int valueEnd = indexOf(String.valueOf((char) _buffer.get(pos)), pos + 1);
+            String encoding = decode(pos + 1, valueEnd);
+            try
+            {
+                _charset = Charset.forName(encoding);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new DataSetException("Unsupported encoding '" + encoding
+                        + "' in file " + _file, e);
+            }
+            byte[] probe = "<dataset a=''/>".getBytes(_charset);
+            if (!Arrays.equals(probe, "<dataset a=''/>".getBytes(Charset.forName("US-ASCII"))))
+            {
+                throw new DataSetException("The encoding '" + encoding
+                        + "' of file '" + _file + "' is not ASCII compatible"
+                        + " and cannot be indexed");
+            }
+        }
+
+        private int skipDoctype(int pos) throws DataSetException
+        {
+            boolean internalSubset = false;
+            for (pos += 2; pos < _limit; pos++)
+            {
+                byte b = _buffer.get(pos);
+                if (b == '"' || b == '\'')
+                {
+                    pos = indexOf(String.valueOf((char) b), pos + 1);
+                }
+                else if (internalSubset && startsWith(pos, "<!--"))
+                {
+                    pos = indexOf("-->", pos) + 2;
+                }
+                else if (b == '[')
+                {
+                    internalSubset = true;
+                }
+                else if (b == ']')
+                {
+                    internalSubset = false;
+                }
+                else if (b == '>' && !internalSubset)
+                {
+                    return pos + 1;
+                }
+            }
+            throw error("Unterminated document type declaration", pos);
+        }
+
+        /**
+         * Skips a comment, processing instruction or CDATA section.
+         * @return The position after the markup or the given position if
+         * there is no such markup
+         */
+        private int skipMarkup(int pos) throws DataSetException
+        {
+            if (startsWith(pos, "<!--"))
+            {
+                return indexOf("-->", pos) + 3;
+            }
+            if (startsWith(pos, "<?"))
+            {
+                return indexOf("?>", pos) + 2;
+            }
+            if (startsWith(pos, "<![CDATA["))
+            {
+                return indexOf("]]>", pos) + 3;
+            }
+            return pos;
+        }
+
+        /**
+         * Reads the start tag at the given position into the tag name,
+         * attribute names and empty element flag.
+         * @return The position after the start tag
+         */
+        private int readStartTag(int pos) throws DataSetException
+        {
+            _attributeNames.clear();
+            int nameStart = pos + 1;
+            pos = readName(nameStart);
+            _tagName = decode(nameStart, pos);
+            if (_tagName.length() == 0)
+            {
+                throw error("Missing element name", pos);
+            }
+
+            while (true)
+            {
+                pos = skipWhitespace(pos);
+                if (pos >= _limit)
+                {
+                    throw error("Unterminated start tag '" + _tagName + "'", pos);
+                }
+                byte b = _buffer.get(pos);
+                if (b == '>')
+                {
+                    _emptyElement = false;
+                    return pos + 1;
+                }
+                if (startsWith(pos, "/>"))
+                {
+                    _emptyElement = true;
+                    return pos + 2;
+                }
+
+                int attributeStart = pos;
+                pos = readName(pos);
+                if (pos == attributeStart)
+                {
+                    throw error("Malformed start tag '" + _tagName + "'", pos);
+                }
+                _attributeNames.add(decode(attributeStart, pos));
+
+                pos = skipWhitespace(pos);
+                if (pos >= _limit || _buffer.get(pos) != '=')
+                {
+                    throw error("Missing attribute value in start tag '"
+                            + _tagName + "'", pos);
+                }
+                pos = skipWhitespace(pos + 1);
+                byte quote = pos < _limit ? _buffer.get(pos) : 0;
+                if (quote != '"' && quote != '\'')
+                {
+                    throw error("Unquoted attribute value in start tag '"
+                            + _tagName + "'", pos);
+                }
+                pos = indexOf(String.valueOf((char) quote), pos + 1) + 1;
+            }
+        }
+
+        /**
+         * Skips the content and the end tag of a row element that has not
+         * been written as empty element.
+         * @return The position after the end tag
+         */
+        private int skipContent(int pos) throws DataSetException
+        {
+            while (true)
+            {
+                pos = indexOf("<", pos);
+                if (startsWith(pos, "</"))
+                {
+                    return indexOf(">", pos) + 1;
+                }
+                int end = skipMarkup(pos);
+                if (end == pos)
+                {
+                    throw error("Nested element in row '" + _tagName
+                            + "' is not supported in flat XML", pos);
+                }
+                pos = end;
+            }
+        }
+
+        private int readName(int pos)
+        {
+            while (pos < _limit)
+            {
+                byte b = _buffer.get(pos);
+                if (b == '=' || b == '/' || b == '>' || isWhitespace(b))
+                {
+                    break;
+                }
+                pos++;
+            }
+            return pos;
+        }
+
+        private int skipWhitespace(int pos)
+        {
+            while (pos < _limit && isWhitespace(_buffer.get(pos)))
+            {
+                pos++;
+            }
+            return pos;
+        }
+
+        private boolean isWhitespace(byte b)
+        {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+
+        /**
+         * @param text Text consisting of characters in the range 0-255 which
+         * are compared as single bytes
+         */
+        private boolean startsWith(int pos, String text)
+        {
+            if (pos + text.length() > _limit)
+            {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++)
+            {
+                if (_buffer.get(pos + i) != (byte) text.charAt(i))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(String text, int pos) throws DataSetException
+        {
+            int found = find(text, pos, _limit);
+            if (found == -1)
+            {
+                throw error("Unexpected end of file while looking for '"
+                        + text + "'", pos);
+            }
+            return found;
+        }
+
+        private int find(String text, int from, int to)
+        {
+            byte first = (byte) text.charAt(0);
+            for (int i = from; i < to; i++)
+            {
+                if (_buffer.get(i) == first && startsWith(i, text))
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private String decode(int start, int end)
+        {
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++)
+            {
+                bytes[i] = _buffer.get(start + i);
+            }
+            return new String(bytes, _charset);
+        }
+
+        private DataSetException error(String message, int pos)
+        {
+            return new DataSetException(message + " at byte offset " + pos
+                    + " of file " + _file);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // RegionInputStream class
+
+    /**
+     * Reads a byte range of a file channel without changing the channel's
+     * position.
+     */
+    private static class RegionInputStream extends InputStream
+    {
+        private final FileChannel _channel;
+        private long _position;
+        private final long _end;
+
+        private RegionInputStream(FileChannel channel, long start, long end)
+        {
+            _channel = channel;
+            _position = start;
+            _end = end;
+        }
+
+        public int read() throws IOException
+        {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (_position >= _end)
+            {
+                return -1;
+            }
+            len = (int) Math.min(len, _end - _position);
+            int count = _channel.read(ByteBuffer.wrap(b, off, len), _position);
+            if (count > 0)
+            {
+                _position += count;
+            }
+            return count;
+        }
+
+        public int available()
+        {
+            return (int) Math.min(Integer.MAX_VALUE, _end - _position);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoSuchColumnException;
+import org.dbunit.dataset.OrderedTableNameMap;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.AbstractPullProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+
+/**
+ * Pull producer reading the flat XML format with StAX. Used with a
+ * {@link org.dbunit.dataset.stream.StreamingDataSet} the document is read on
+ * the calling thread while iterating, without the background thread of the
+ * SAX based {@link FlatXmlProducer}.
+ * <p>
+ * The table metadata is taken from the given metadata dataset, e.g. a
+ * {@link FlatDtdDataSet}, or else from the attributes of the first row of
+ * each table. Referenced DTDs are not read. Since the metadata must be known
+ * before the rows are returned, column sensing is not supported: attributes
+ * of columns missing from the metadata are ignored with a warning, like
+ * {@link FlatXmlProducer} does without column sensing.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class FlatXmlPullProducer extends AbstractPullProducer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FlatXmlPullProducer.class);
+
+    private final InputSource _inputSource;
+    private final IDataSet _metaDataSet;
+    private final boolean _caseSensitiveTableNames;
+
+    private StaxInput _input;
+    private OrderedTableNameMap _orderedTableNameMap;
+    private ITableMetaData _activeMetaData;
+    /** Whether the reader is on the start element of a row not yet returned */
+    private boolean _pendingRow;
+    private boolean _eod;
+    /** The element depth of the reader, 1 within the dataset element */
+    private int _depth;
+    private int _lineNumber;
+
+    public FlatXmlPullProducer(InputSource xmlSource)
+    {
+        this(xmlSource, false);
+    }
+
+    /**
+     * @param xmlSource The input datasource
+     * @param caseSensitiveTableNames Whether or not this dataset should use
+     * case sensitive table names
+     */
+    public FlatXmlPullProducer(InputSource xmlSource, boolean caseSensitiveTableNames)
+    {
+        _inputSource = xmlSource;
+        _metaDataSet = null;
+        _caseSensitiveTableNames = caseSensitiveTableNames;
+    }
+
+    /**
+     * @param xmlSource The input datasource
+     * @param metaDataSet The dataset providing the table metadata
+     */
+    public FlatXmlPullProducer(InputSource xmlSource, IDataSet metaDataSet)
+    {
+        _inputSource = xmlSource;
+        _metaDataSet = metaDataSet;
+        _caseSensitiveTableNames = metaDataSet.isCaseSensitiveTableNames();
+    }
+
+    /**
+     * @return Whether or not this producer works case sensitively
+     */
+    public boolean isCaseSensitiveTableNames()
+    {
+        return _caseSensitiveTableNames;
+    }
+
+    private ITableMetaData createTableMetaData(String tableName) throws DataSetException
+    {
+        logger.debug("createTableMetaData(tableName={}) - start", tableName);
+
+        if (_metaDataSet != null)
+        {
+            return _metaDataSet.getTableMetaData(tableName);
+        }
+
+        // Create metadata from attributes
+        XMLStreamReader reader = _input.getReader();
+        Column[] columns = new Column[reader.getAttributeCount()];
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i] = new Column(_input.getAttributeName(i), DataType.UNKNOWN);
+        }
+        return new DefaultTableMetaData(tableName, columns);
+    }
+
+    /**
+     * Opens the document and moves to the dataset element.
+     */
+    private void open() throws DataSetException
+    {
+        logger.debug("open() - start");
+
+        _input = new StaxInput(_inputSource);
+        _orderedTableNameMap = new OrderedTableNameMap(_caseSensitiveTableNames);
+        if (_input.nextTag() != XMLStreamConstants.START_ELEMENT)
+        {
+            throw new DataSetException("Line " + _input.getLineNumber()
+                    + ": the document has no dataset element");
+        }
+        _depth = 1;
+    }
+
+    /**
+     * Moves to the next element within the dataset element.
+     * @return <code>false</code> at the end of the dataset
+     */
+    private boolean nextElement() throws DataSetException
+    {
+        while (true)
+        {
+            int event = _input.nextTag();
+            if (event == XMLStreamConstants.END_DOCUMENT)
+            {
+                return false;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT)
+            {
+                // Rows are the children of the dataset element
+                if (++_depth == 2)
+                {
+                    return true;
+                }
+            }
+            else if (--_depth == 0)
+            {
+                // End of the dataset element
+                return false;
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetPullProducer interface
+
+    public ITableMetaData nextTable() throws DataSetException
+    {
+        logger.debug("nextTable() - start");
+
+        if (_eod)
+        {
+            return null;
+        }
+        if (_input == null)
+        {
+            open();
+        }
+
+        // Skip the remaining rows of the active table
+        while (_activeMetaData != null && nextRow() != null)
+            ;
+
+        if (_eod)
+        {
+            return null;
+        }
+
+        if (!_pendingRow)
+        {
+            if (!nextElement())
+            {
+                _eod = true;
+                return null;
+            }
+        }
+
+        String tableName = _input.getName();
+        if (_orderedTableNameMap.containsTable(tableName))
+        {
+            // In flat XML the table might have appeared before already
+            _activeMetaData = (ITableMetaData) _orderedTableNameMap.get(tableName);
+            _orderedTableNameMap.setLastTable(tableName);
+        }
+        else
+        {
+            _activeMetaData = createTableMetaData(tableName);
+            _orderedTableNameMap.add(_activeMetaData.getTableName(), _activeMetaData);
+        }
+        _pendingRow = true;
+        _lineNumber = 0;
+        return _activeMetaData;
+    }
+
+    public Object[] nextRow() throws DataSetException
+    {
+        if (_activeMetaData == null)
+        {
+            return null;
+        }
+
+        while (true)
+        {
+            if (!_pendingRow)
+            {
+                if (!nextElement())
+                {
+                    _eod = true;
+                    _activeMetaData = null;
+                    return null;
+                }
+                if (!_orderedTableNameMap.isLastTable(_input.getName()))
+                {
+                    // First row of the next table
+                    _pendingRow = true;
+                    _activeMetaData = null;
+                    return null;
+                }
+            }
+            _pendingRow = false;
+
+            // An element without attributes only declares an empty table
+            XMLStreamReader reader = _input.getReader();
+            int attributeCount = reader.getAttributeCount();
+            if (attributeCount > 0)
+            {
+                _lineNumber++;
+                Object[] values = new Object[_activeMetaData.getColumns().length];
+                for (int i = 0; i < attributeCount; i++)
+                {
+                    String columnName = _input.getAttributeName(i);
+                    try
+                    {
+                        values[_activeMetaData.getColumnIndex(columnName)] =
+                                reader.getAttributeValue(i);
+                    }
+                    catch (NoSuchColumnException e)
+                    {
+                        logger.warn("Extra column (" + columnName + ") on line "
+                                + _lineNumber + " for table "
+                                + _activeMetaData.getTableName()
+                                + " (document line " + _input.getLineNumber()
+                                + "). The column will be ignored.");
+                    }
+                }
+                return values;
+            }
+        }
+    }
+
+    public void close() throws DataSetException
+    {
+        logger.debug("close() - start");
+
+        _eod = true;
+        _activeMetaData = null;
+        if (_input != null)
+        {
+            StaxInput input = _input;
+            _input = null;
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dbunit.dataset.AbstractDataSet;
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoSuchTableException;
+import org.dbunit.dataset.datatype.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+
+/**
+ * Flat XML dataset providing random access to the tables of a large file.
+ * Instead of parsing the whole document up front, one fast scan over the raw
+ * bytes records the byte ranges, row counts and column names of every table.
+ * The table names and the metadata are answered from this index without
+ * parsing any row data. A table is parsed on demand from its byte ranges
+ * with the {@link FlatXmlProducer}, so it gets exactly the same content as
+ * in a {@link FlatXmlDataSet}. A bounded number of parsed tables is cached.
+ * <p>
+ * The index is persisted in a sidecar file which is reused as long as the
+ * SHA-1 hash of the XML file matches the hash it was built from. The file
+ * must be in an ASCII compatible encoding such as UTF-8 or ISO-8859-1.
+ * </p>
+ * <p>
+ * If the document declares a DTD the table metadata is read from the DTD
+ * like the {@link FlatXmlDataSet} does by default.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class IndexedFlatXmlDataSet extends AbstractDataSet
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(IndexedFlatXmlDataSet.class);
+
+    /**
+     * The default number of parsed tables kept in memory
+     */
+    public static final int DEFAULT_MAX_CACHED_TABLES = 8;
+
+    /**
+     * The suffix appended to the XML file name to get the default index file
+     */
+    public static final String INDEX_FILE_SUFFIX = ".index";
+
+    private final File _file;
+    private final File _indexFile;
+    private final boolean _columnSensing;
+    private final int _maxCachedTables;
+    private final FlatXmlIndex _index;
+
+    /**
+     * The metadata of all tables as declared in the DTD
+     */
+    private IDataSet _dtdMetaDataSet;
+
+    /**
+     * The parsed tables in least recently used order
+     */
+    private final Map<String, ITable> _tables;
+
+    /**
+     * Creates a dataset for the given file which persists its index in the
+     * {@link #getDefaultIndexFile(File) default index file}.
+     * @param xmlFile The flat XML file
+     * @throws DataSetException
+     */
+    public IndexedFlatXmlDataSet(File xmlFile) throws DataSetException
+    {
+        this(xmlFile, getDefaultIndexFile(xmlFile), false, false,
+                DEFAULT_MAX_CACHED_TABLES);
+    }
+
+    /**
+     * Creates a dataset for the given file.
+     * @param xmlFile The flat XML file
+     * @param indexFile The file persisting the index or <code>null</code>
+     * to keep the index in memory only
+     * @param columnSensing Whether the columns of a table are collected from
+     * all of its rows instead of the first one only
+     * @param caseSensitiveTableNames Whether table names are case sensitive
+     * @param maxCachedTables The number of parsed tables kept in memory
+     * @throws DataSetException
+     */
+    public IndexedFlatXmlDataSet(File xmlFile, File indexFile,
+            boolean columnSensing, boolean caseSensitiveTableNames,
+            int maxCachedTables) throws DataSetException
+    {
+        super(caseSensitiveTableNames);
+
+        if (xmlFile == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'xmlFile' must not be null");
+        }
+        if (maxCachedTables < 0)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'maxCachedTables' must not be negative: "
+                            + maxCachedTables);
+        }
+
+        _file = xmlFile;
+        _indexFile = indexFile;
+        _columnSensing = columnSensing;
+        _maxCachedTables = maxCachedTables;
+        _index = FlatXmlIndex.load(xmlFile, indexFile, columnSensing,
+                caseSensitiveTableNames);
+        _tables = new LinkedHashMap<String, ITable>(16, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry<String, ITable> eldest)
+            {
+                return size() > _maxCachedTables;
+            }
+        };
+    }
+
+    /**
+     * @param xmlFile The flat XML file
+     * @return The index file used by {@link #IndexedFlatXmlDataSet(File)}
+     */
+    public static File getDefaultIndexFile(File xmlFile)
+    {
+        return new File(xmlFile.getPath() + INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * @return The file persisting the index or <code>null</code> if the
+     * index is kept in memory only
+     */
+    public File getIndexFile()
+    {
+        return _indexFile;
+    }
+
+    /**
+     * Returns the number of rows of the given table from the index without
+     * parsing the table.
+     * @param tableName The table name
+     * @return The row count
+     * @throws NoSuchTableException if the dataset does not contain the table
+     */
+    public int getRowCount(String tableName) throws DataSetException
+    {
+        return getEntry(tableName).getRowCount();
+    }
+
+    /**
+     * @return The number of parsed tables currently kept in memory
+     */
+    int getCachedTableCount()
+    {
+        return _tables.size();
+    }
+
+    private FlatXmlIndex.TableEntry getEntry(String tableName)
+            throws DataSetException
+    {
+        FlatXmlIndex.TableEntry entry = _index.getTable(tableName);
+        if (entry == null)
+        {
+            throw new NoSuchTableException(tableName);
+        }
+        return entry;
+    }
+
+    private IDataSet getDtdMetaDataSet() throws DataSetException
+    {
+        if (_dtdMetaDataSet == null)
+        {
+            // One empty element per table makes the producer report the
+            // DTD metadata of all tables without any rows
+            String[] tableNames = _index.getTableNames();
+            ByteArrayOutputStream elements = new ByteArrayOutputStream();
+            for (int i = 0; i < tableNames.length; i++)
+            {
+                byte[] element = _index.encode("<" + tableNames[i] + "/>");
+                elements.write(element, 0, element.length);
+            }
+            _dtdMetaDataSet = parse(new InputSource(
+                    _index.openDocument(elements.toByteArray())));
+        }
+        return _dtdMetaDataSet;
+    }
+
+    private ITable loadTable(FlatXmlIndex.TableEntry entry)
+            throws DataSetException
+    {
+        logger.debug("loadTable(tableName={}) - start", entry.getTableName());
+
+        try
+        {
+            RandomAccessFile file = new RandomAccessFile(_file, "r");
+            try
+            {
+                IDataSet dataSet = parse(new InputSource(
+                        _index.openTableDocument(file.getChannel(), entry)));
+                // The document contains this single table only
+                return dataSet.getTables()[0];
+            }
+            finally
+            {
+                file.close();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private IDataSet parse(InputSource source) throws DataSetException
+    {
+        // Lets relative DTD references resolve against the XML file
+        source.setSystemId(_file.toURI().toString());
+        FlatXmlProducer producer = new FlatXmlProducer(source, true,
+                _columnSensing, isCaseSensitiveTableNames());
+        return new CachedDataSet(producer, isCaseSensitiveTableNames());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // AbstractDataSet class
+
+    protected ITableIterator createIterator(boolean reversed)
+            throws DataSetException
+    {
+        logger.debug("createIterator(reversed={}) - start", String.valueOf(reversed));
+
+        return new IndexedTableIterator(getTableNames(), reversed);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSet interface
+
+    public String[] getTableNames() throws DataSetException
+    {
+        logger.debug("getTableNames() - start");
+
+        if (_index.hasDoctype())
+        {
+            return getDtdMetaDataSet().getTableNames();
+        }
+        return _index.getTableNames();
+    }
+
+    public ITableMetaData getTableMetaData(String tableName)
+            throws DataSetException
+    {
+        logger.debug("getTableMetaData(tableName={}) - start", tableName);
+
+        FlatXmlIndex.TableEntry entry = getEntry(tableName);
+        if (_index.hasDoctype())
+        {
+            return getDtdMetaDataSet().getTableMetaData(tableName);
+        }
+
+        String[] columnNames = entry.getColumnNames();
+        Column[] columns = new Column[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++)
+        {
+            columns[i] = new Column(columnNames[i], DataType.UNKNOWN);
+        }
+        return new DefaultTableMetaData(entry.getTableName(), columns);
+    }
+
+    public ITable getTable(String tableName) throws DataSetException
+    {
+        logger.debug("getTable(tableName={}) - start", tableName);
+
+        FlatXmlIndex.TableEntry entry = getEntry(tableName);
+        ITable table = _tables.get(entry.getTableName());
+        if (table == null)
+        {
+            table = loadTable(entry);
+            if (_maxCachedTables > 0)
+            {
+                _tables.put(entry.getTableName(), table);
+            }
+        }
+        return table;
+    }
+
+    public ITable[] getTables() throws DataSetException
+    {
+        logger.debug("getTables() - start");
+
+        String[] tableNames = getTableNames();
+        ITable[] tables = new ITable[tableNames.length];
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            tables[i] = getTable(tableNames[i]);
+        }
+        return tables;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Object class
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_file=").append(_file);
+        sb.append(", _indexFile=").append(_indexFile);
+        sb.append(", _columnSensing=").append(_columnSensing);
+        sb.append(", _maxCachedTables=").append(_maxCachedTables);
+        sb.append(", cachedTables=").append(_tables.keySet());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IndexedTableIterator class
+
+    /**
+     * Iterates over the tables, parsing each one when it is requested.
+     */
+    private class IndexedTableIterator implements ITableIterator
+    {
+        private final String[] _tableNames;
+        private final boolean _reversed;
+        private int _index = -1;
+
+        private IndexedTableIterator(String[] tableNames, boolean reversed)
+        {
+            _tableNames = tableNames;
+            _reversed = reversed;
+        }
+
+        private String getTableName()
+        {
+            return _tableNames[_reversed ? _tableNames.length - 1 - _index : _index];
+        }
+
+        public boolean next() throws DataSetException
+        {
+            _index++;
+            return _index < _tableNames.length;
+        }
+
+        public ITableMetaData getTableMetaData() throws DataSetException
+        {
+            return IndexedFlatXmlDataSet.this.getTableMetaData(getTableName());
+        }
+
+        public ITable getTable() throws DataSetException
+        {
+            return IndexedFlatXmlDataSet.this.getTable(getTableName());
+        }
+    }
+}
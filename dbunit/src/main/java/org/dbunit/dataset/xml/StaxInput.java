@@ -0,0 +1,235 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dbunit.dataset.DataSetException;
+import org.xml.sax.InputSource;
+
+/**
+ * StAX reader opened on a SAX {@link InputSource}, shared by the pull
+ * producers of this package. External entities like DTDs are not loaded.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+class StaxInput
+{
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final XMLStreamReader _reader;
+    /** The stream opened from the system id, <code>null</code> if provided by the caller */
+    private final InputStream _openedStream;
+
+    public StaxInput(InputSource source) throws DataSetException
+    {
+        try
+        {
+            if (source.getCharacterStream() != null)
+            {
+                _openedStream = null;
+                _reader = FACTORY.createXMLStreamReader(source.getSystemId(),
+                        source.getCharacterStream());
+            }
+            else if (source.getByteStream() != null)
+            {
+                _openedStream = null;
+                _reader = createReader(source.getByteStream(), source);
+            }
+            else if (source.getSystemId() != null)
+            {
+                _openedStream = new URL(source.getSystemId()).openStream();
+                _reader = createReader(_openedStream, source);
+            }
+            else
+            {
+                throw new DataSetException("The input source " + source
+                        + " has neither a stream nor a system id");
+            }
+        }
+        catch (XMLStreamException e)
+        {
+            throw buildException(e);
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    private static XMLStreamReader createReader(InputStream stream,
+            InputSource source) throws XMLStreamException
+    {
+        if (source.getEncoding() != null)
+        {
+            return FACTORY.createXMLStreamReader(stream, source.getEncoding());
+        }
+        return FACTORY.createXMLStreamReader(source.getSystemId(), stream);
+    }
+
+    private static XMLInputFactory createFactory()
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                Boolean.FALSE);
+        factory.setXMLResolver(new XMLResolver()
+        {
+            public Object resolveEntity(String publicID, String systemID,
+                    String baseURI, String namespace)
+            {
+                // Do not load the DTD, it is not used for the metadata
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        });
+        return factory;
+    }
+
+    public XMLStreamReader getReader()
+    {
+        return _reader;
+    }
+
+    /**
+     * Moves to the next start or end element.
+     * @return The event type, {@link XMLStreamConstants#END_DOCUMENT} at
+     * the end of the input
+     */
+    public int nextTag() throws DataSetException
+    {
+        try
+        {
+            while (_reader.hasNext())
+            {
+                int event = _reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT
+                        || event == XMLStreamConstants.END_ELEMENT)
+                {
+                    return event;
+                }
+            }
+            return XMLStreamConstants.END_DOCUMENT;
+        }
+        catch (XMLStreamException e)
+        {
+            throw buildException(e);
+        }
+    }
+
+    /**
+     * @return The qualified name of the current element
+     */
+    public String getName()
+    {
+        return getQName(_reader.getPrefix(), _reader.getLocalName());
+    }
+
+    /**
+     * @return The qualified name of the specified attribute of the current
+     * element
+     */
+    public String getAttributeName(int index)
+    {
+        return getQName(_reader.getAttributePrefix(index),
+                _reader.getAttributeLocalName(index));
+    }
+
+    private static String getQName(String prefix, String localName)
+    {
+        if (prefix == null || prefix.length() == 0)
+        {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    /**
+     * Reads the text of the current element up to its end element.
+     */
+    public String getElementText() throws DataSetException
+    {
+        try
+        {
+            return _reader.getElementText();
+        }
+        catch (XMLStreamException e)
+        {
+            throw buildException(e);
+        }
+    }
+
+    /**
+     * @return The current line number for error messages
+     */
+    public int getLineNumber()
+    {
+        Location location = _reader.getLocation();
+        return location == null ? -1 : location.getLineNumber();
+    }
+
+    public void close() throws DataSetException
+    {
+        try
+        {
+            _reader.close();
+            if (_openedStream != null)
+            {
+                _openedStream.close();
+            }
+        }
+        catch (XMLStreamException e)
+        {
+            throw buildException(e);
+        }
+        catch (IOException e)
+        {
+            throw new DataSetException(e);
+        }
+    }
+
+    /**
+     * Wraps a {@link XMLStreamException} into a {@link DataSetException}
+     * carrying the line number like {@link XmlProducer#buildException}.
+     */
+    static DataSetException buildException(XMLStreamException cause)
+    {
+        Location location = cause.getLocation();
+        Throwable exception = cause.getNestedException() == null ? cause : cause.getNestedException();
+        if (location != null && location.getLineNumber() >= 0)
+        {
+            return new DataSetException("Line " + location.getLineNumber()
+                    + ": " + exception.getMessage(), exception);
+        }
+        return new DataSetException(exception.getMessage(), exception);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.AbstractPullProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+
+/**
+ * Pull producer reading the full XML format of {@link XmlDataSet} with StAX.
+ * Used with a {@link org.dbunit.dataset.stream.StreamingDataSet} the document
+ * is read on the calling thread while iterating, without the background
+ * thread needed by the SAX based {@link XmlProducer}. The document is not
+ * validated against its DTD.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class XmlPullProducer extends AbstractPullProducer
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(XmlPullProducer.class);
+
+    private static final String DATASET = "dataset";
+    private static final String TABLE = "table";
+    private static final String NAME = "name";
+    private static final String COLUMN = "column";
+    private static final String ROW = "row";
+    private static final String VALUE = "value";
+    private static final String NULL = "null";
+    private static final String NONE = "none";
+
+    private final InputSource _inputSource;
+
+    private StaxInput _input;
+    private ITableMetaData _activeMetaData;
+    /** Whether the reader is on the start element of a row not yet returned */
+    private boolean _pendingRow;
+    /** Whether the end element of the active table has been read */
+    private boolean _eot;
+    private boolean _eod;
+
+    public XmlPullProducer(InputSource inputSource)
+    {
+        _inputSource = inputSource;
+    }
+
+    private ITableMetaData createMetaData(String tableName, List<String> columnNames)
+    {
+        logger.debug("createMetaData(tableName={}, columnNames={}) - start", tableName, columnNames);
+
+        Column[] columns = new Column[columnNames.size()];
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i] = new Column(columnNames.get(i), DataType.UNKNOWN);
+        }
+        return new DefaultTableMetaData(tableName, columns);
+    }
+
+    private boolean isStart(int event, String name)
+    {
+        return event == XMLStreamConstants.START_ELEMENT && name.equals(_input.getName());
+    }
+
+    private boolean isEnd(int event, String name)
+    {
+        return event == XMLStreamConstants.END_ELEMENT && name.equals(_input.getName());
+    }
+
+    private DataSetException unexpectedEnd()
+    {
+        return new DataSetException("Line " + _input.getLineNumber()
+                + ": unexpected end of document");
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // IDataSetPullProducer interface
+
+    public ITableMetaData nextTable() throws DataSetException
+    {
+        logger.debug("nextTable() - start");
+
+        if (_eod)
+        {
+            return null;
+        }
+        if (_input == null)
+        {
+            _input = new StaxInput(_inputSource);
+            if (!isStart(_input.nextTag(), DATASET))
+            {
+                throw new DataSetException("Line " + _input.getLineNumber()
+                        + ": the document has no dataset element");
+            }
+        }
+
+        // Skip the remaining rows of the active table
+        while (_activeMetaData != null && nextRow() != null)
+            ;
+
+        // Move to the next table
+        while (true)
+        {
+            int event = _input.nextTag();
+            if (event == XMLStreamConstants.END_DOCUMENT || isEnd(event, DATASET))
+            {
+                _eod = true;
+                _activeMetaData = null;
+                return null;
+            }
+            if (isStart(event, TABLE))
+            {
+                break;
+            }
+        }
+
+        String tableName = _input.getReader().getAttributeValue(null, NAME);
+        List<String> columnNames = new ArrayList<String>();
+        _eot = false;
+        _pendingRow = false;
+        while (true)
+        {
+            int event = _input.nextTag();
+            if (event == XMLStreamConstants.END_DOCUMENT)
+            {
+                throw unexpectedEnd();
+            }
+            if (isStart(event, COLUMN))
+            {
+                columnNames.add(_input.getElementText());
+            }
+            else if (isStart(event, ROW))
+            {
+                // End of metadata at first row
+                _pendingRow = true;
+                break;
+            }
+            else if (isEnd(event, TABLE))
+            {
+                _eot = true;
+                break;
+            }
+        }
+
+        _activeMetaData = createMetaData(tableName, columnNames);
+        return _activeMetaData;
+    }
+
+    public Object[] nextRow() throws DataSetException
+    {
+        if (_activeMetaData == null || _eot)
+        {
+            return null;
+        }
+
+        if (!_pendingRow)
+        {
+            while (true)
+            {
+                int event = _input.nextTag();
+                if (event == XMLStreamConstants.END_DOCUMENT)
+                {
+                    throw unexpectedEnd();
+                }
+                if (isStart(event, ROW))
+                {
+                    break;
+                }
+                if (isEnd(event, TABLE))
+                {
+                    _eot = true;
+                    return null;
+                }
+            }
+        }
+        _pendingRow = false;
+
+        List<Object> rowValues = new ArrayList<Object>();
+        while (true)
+        {
+            int event = _input.nextTag();
+            if (event == XMLStreamConstants.END_DOCUMENT)
+            {
+                throw unexpectedEnd();
+            }
+            if (isStart(event, VALUE))
+            {
+                rowValues.add(_input.getElementText());
+            }
+            else if (isStart(event, NULL))
+            {
+                rowValues.add(null);
+            }
+            else if (isStart(event, NONE))
+            {
+                rowValues.add(ITable.NO_VALUE);
+            }
+            else if (isEnd(event, ROW))
+            {
+                break;
+            }
+        }
+
+        int length = Math.max(rowValues.size(), _activeMetaData.getColumns().length);
+        Object[] values = new Object[length];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = (i >= rowValues.size()) ? ITable.NO_VALUE : rowValues.get(i);
+        }
+        return values;
+    }
+
+    public void close() throws DataSetException
+    {
+        logger.debug("close() - start");
+
+        _eod = true;
+        _activeMetaData = null;
+        if (_input != null)
+        {
+            StaxInput input = _input;
+            _input = null;
+            input.close();
+        }
+    }
+}
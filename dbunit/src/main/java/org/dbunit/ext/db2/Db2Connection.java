@@ -46,5 +46,7 @@ public class Db2Connection extends DatabaseConnection
                 new Db2DataTypeFactory());
         getConfig().setProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER, 
                 new Db2MetadataHandler());
+        getConfig().setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new Db2SetDifferenceDialect());
     }
 }
\ No newline at end of file
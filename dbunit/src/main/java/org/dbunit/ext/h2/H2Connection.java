@@ -40,5 +40,9 @@ public class H2Connection extends DatabaseConnection
         super(connection, schema);
         getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY,
                 new H2DataTypeFactory());
+        getConfig().setProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER,
+                new H2MetadataHandler());
+        getConfig().setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new H2SetDifferenceDialect());
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import org.dbunit.operation.AbstractUpsertOperation;
+import org.dbunit.operation.DatabaseOperation;
+
+/**
+ * Refreshes the dataset contents into a H2 database using
+ * <code>MERGE INTO ... KEY (...) VALUES (...)</code> statements.
+ * <p>
+ * Since this statement only updates the listed columns, columns without value
+ * keep their current value in existing rows instead of being set to null.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see org.dbunit.database.DatabaseConfig#PROPERTY_REFRESH_OPERATION
+ */
+public class H2MergeOperation extends AbstractUpsertOperation
+{
+    /**
+     * Refreshes the dataset contents with this operation.
+     */
+    public static final DatabaseOperation REFRESH = new H2MergeOperation();
+
+    public H2MergeOperation()
+    {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // AbstractUpsertOperation class
+
+    protected String getUpsertSql(String tableName, String[] columnNames,
+            String[] primaryKeyNames, String[] updateColumnNames,
+            String[] nullColumnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(128);
+        sqlBuffer.append("merge into ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(" (");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(") key (");
+        appendNames(sqlBuffer, primaryKeyNames);
+        sqlBuffer.append(") values (");
+        appendParameters(sqlBuffer, columnNames.length);
+        sqlBuffer.append(")");
+        return sqlBuffer.toString();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.dbunit.database.DefaultMetadataHandler;
+import org.dbunit.database.IBulkMetadataHandler;
+import org.dbunit.database.ISchemaFingerprintHandler;
+import org.dbunit.util.SQLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Special metadata handler for H2. The H2 driver does not return any primary
+ * or foreign key for a lookup without table name, so the keys of a whole
+ * schema are read from the information schema.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class H2MetadataHandler extends DefaultMetadataHandler
+        implements IBulkMetadataHandler, ISchemaFingerprintHandler
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(H2MetadataHandler.class);
+
+    /**
+     * The selected columns have the positions of the getPrimaryKeys result set.
+     */
+    private static final String SCHEMA_PRIMARY_KEYS_SQL =
+            "select table_catalog, table_schema, table_name, column_name, ordinal_position"
+            + " from information_schema.indexes"
+            + " where primary_key = true and (? is null or table_schema = ?)"
+            + " order by table_schema, table_name, ordinal_position";
+
+    /**
+     * The selected columns have the positions of the getImportedKeys result set.
+     */
+    private static final String SCHEMA_IMPORTED_KEYS_SQL =
+            "select pktable_catalog, pktable_schema, pktable_name, pkcolumn_name,"
+            + " fktable_catalog, fktable_schema, fktable_name, fkcolumn_name, ordinal_position"
+            + " from information_schema.cross_references"
+            + " where (? is null or fktable_schema = ?)"
+            + " order by pktable_schema, pktable_name, fk_name, ordinal_position";
+
+    /**
+     * H2 does not record the time of DDL statements, but every created or
+     * altered table and constraint gets a new object id and the SQL text
+     * describes its current definition.
+     */
+    private static final String SCHEMA_FINGERPRINT_SQL =
+            "select count(*), sum(id), sum(length(sql)) from ("
+            + "select id, sql from information_schema.tables"
+            + " where table_schema = coalesce(?, schema())"
+            + " union all select id, sql from information_schema.constraints"
+            + " where constraint_schema = coalesce(?, schema()))";
+
+    public ResultSet getSchemaColumns(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaColumns(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return databaseMetaData.getColumns(null, schemaName, "%", "%");
+    }
+
+    public ResultSet getSchemaPrimaryKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaPrimaryKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_PRIMARY_KEYS_SQL);
+        try
+        {
+            statement.setString(1, schemaName);
+            statement.setString(2, schemaName);
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public ResultSet getSchemaImportedKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaImportedKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_IMPORTED_KEYS_SQL);
+        try
+        {
+            statement.setString(1, schemaName);
+            statement.setString(2, schemaName);
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public String getSchemaFingerprint(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaFingerprint(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_FINGERPRINT_SQL);
+        ResultSet resultSet = null;
+        try
+        {
+            statement.setString(1, schemaName);
+            statement.setString(2, schemaName);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            StringBuffer fingerprint = new StringBuffer();
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            for (int i = 1; i <= columnCount; i++)
+            {
+                if (i > 1)
+                {
+                    fingerprint.append(":");
+                }
+                fingerprint.append(resultSet.getString(i));
+            }
+            return fingerprint.toString();
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, statement);
+        }
+    }
+
+}
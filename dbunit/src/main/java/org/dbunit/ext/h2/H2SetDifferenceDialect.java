@@ -0,0 +1,48 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import org.dbunit.database.SetDifferenceDialect;
+
+/**
+ * Creates the scratch table as a local temporary table, visible only to
+ * the current session.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class H2SetDifferenceDialect extends SetDifferenceDialect
+{
+    public String getCreateScratchTableSql(String scratchTableName,
+            String tableName, String[] columnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(128);
+        sqlBuffer.append("create local temporary table ");
+        sqlBuffer.append(scratchTableName);
+        sqlBuffer.append(" as select ");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(" from ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(" where 1=0");
+        return sqlBuffer.toString();
+    }
+}
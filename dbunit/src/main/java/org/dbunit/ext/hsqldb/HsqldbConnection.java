@@ -39,5 +39,7 @@ public class HsqldbConnection extends DatabaseConnection
         super(connection, schema);
         getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY,
                 new HsqldbDataTypeFactory());
+        getConfig().setProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER,
+                new HsqldbMetadataHandler());
     }
 }
\ No newline at end of file
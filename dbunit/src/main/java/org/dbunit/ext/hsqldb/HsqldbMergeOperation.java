@@ -0,0 +1,109 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.hsqldb;
+
+import org.dbunit.operation.AbstractUpsertOperation;
+import org.dbunit.operation.DatabaseOperation;
+
+/**
+ * Refreshes the dataset contents into a HSQLDB database using
+ * <code>MERGE INTO ... USING (VALUES (...))</code> statements. Requires
+ * HSQLDB 2.0 or later.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see org.dbunit.database.DatabaseConfig#PROPERTY_REFRESH_OPERATION
+ */
+public class HsqldbMergeOperation extends AbstractUpsertOperation
+{
+    /**
+     * Refreshes the dataset contents with this operation.
+     */
+    public static final DatabaseOperation REFRESH = new HsqldbMergeOperation();
+
+    public HsqldbMergeOperation()
+    {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // AbstractUpsertOperation class
+
+    protected String getUpsertSql(String tableName, String[] columnNames,
+            String[] primaryKeyNames, String[] updateColumnNames,
+            String[] nullColumnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(256);
+        sqlBuffer.append("merge into ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(" as t using (values (");
+        appendParameters(sqlBuffer, columnNames.length);
+        sqlBuffer.append(")) as v (");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(") on ");
+        for (int i = 0; i < primaryKeyNames.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(" and ");
+            }
+            sqlBuffer.append("t.").append(primaryKeyNames[i]);
+            sqlBuffer.append(" = v.").append(primaryKeyNames[i]);
+        }
+
+        if (updateColumnNames.length > 0 || nullColumnNames.length > 0)
+        {
+            sqlBuffer.append(" when matched then update set ");
+            for (int i = 0; i < updateColumnNames.length; i++)
+            {
+                if (i > 0)
+                {
+                    sqlBuffer.append(", ");
+                }
+                sqlBuffer.append("t.").append(updateColumnNames[i]);
+                sqlBuffer.append(" = v.").append(updateColumnNames[i]);
+            }
+            for (int i = 0; i < nullColumnNames.length; i++)
+            {
+                if (updateColumnNames.length > 0 || i > 0)
+                {
+                    sqlBuffer.append(", ");
+                }
+                sqlBuffer.append("t.").append(nullColumnNames[i]);
+                sqlBuffer.append(" = null");
+            }
+        }
+
+        sqlBuffer.append(" when not matched then insert (");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(") values (");
+        for (int i = 0; i < columnNames.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append("v.").append(columnNames[i]);
+        }
+        sqlBuffer.append(")");
+        return sqlBuffer.toString();
+    }
+}
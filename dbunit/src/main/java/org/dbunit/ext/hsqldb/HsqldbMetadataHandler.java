@@ -0,0 +1,188 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.hsqldb;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.dbunit.database.DefaultMetadataHandler;
+import org.dbunit.database.IBulkMetadataHandler;
+import org.dbunit.database.ISchemaFingerprintHandler;
+import org.dbunit.util.SQLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Special metadata handler for HSQLDB. The keys of a whole schema are read
+ * from the system tables backing the {@link DatabaseMetaData} of HSQLDB.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class HsqldbMetadataHandler extends DefaultMetadataHandler
+        implements IBulkMetadataHandler, ISchemaFingerprintHandler
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(HsqldbMetadataHandler.class);
+
+    /**
+     * The selected columns have the positions of the getPrimaryKeys result set.
+     */
+    private static final String SCHEMA_PRIMARY_KEYS_SQL =
+            "select table_cat, table_schem, table_name, column_name, key_seq"
+            + " from information_schema.system_primarykeys";
+
+    private static final String SCHEMA_PRIMARY_KEYS_ORDER =
+            " order by table_schem, table_name, key_seq";
+
+    /**
+     * The selected columns have the positions of the getImportedKeys result set.
+     */
+    private static final String SCHEMA_IMPORTED_KEYS_SQL =
+            "select pktable_cat, pktable_schem, pktable_name, pkcolumn_name,"
+            + " fktable_cat, fktable_schem, fktable_name, fkcolumn_name, key_seq"
+            + " from information_schema.system_crossreference";
+
+    private static final String SCHEMA_IMPORTED_KEYS_ORDER =
+            " order by pktable_schem, pktable_name, fk_name, key_seq";
+
+    /**
+     * HSQLDB does not record the time of DDL statements, so the fingerprint
+     * sums up the column definitions and counts the keys of the schema. A
+     * <code>null</code> schema name matches all schemas.
+     */
+    private static final String SCHEMA_FINGERPRINT_SQL =
+            "select count(*), sum(data_type), sum(column_size),"
+            + " sum(length(table_name) + length(column_name)),"
+            + " (select count(*) from information_schema.system_primarykeys"
+            + " where table_schem like ?),"
+            + " (select count(*) from information_schema.system_crossreference"
+            + " where fktable_schem like ?)"
+            + " from information_schema.system_columns where table_schem like ?";
+
+    public ResultSet getSchemaColumns(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaColumns(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return databaseMetaData.getColumns(null, schemaName, "%", "%");
+    }
+
+    public ResultSet getSchemaPrimaryKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaPrimaryKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return executeSchemaQuery(databaseMetaData, SCHEMA_PRIMARY_KEYS_SQL,
+                "table_schem", SCHEMA_PRIMARY_KEYS_ORDER, schemaName);
+    }
+
+    public ResultSet getSchemaImportedKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaImportedKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return executeSchemaQuery(databaseMetaData, SCHEMA_IMPORTED_KEYS_SQL,
+                "fktable_schem", SCHEMA_IMPORTED_KEYS_ORDER, schemaName);
+    }
+
+    /**
+     * Executes the given query of the system tables, restricted to the given
+     * schema unless the schema name is <code>null</code>.
+     */
+    private ResultSet executeSchemaQuery(DatabaseMetaData databaseMetaData,
+            String selectSql, String schemaColumn, String orderSql,
+            String schemaName) throws SQLException
+    {
+        String sql = selectSql;
+        if (schemaName != null)
+        {
+            sql += " where " + schemaColumn + " = ?";
+        }
+        sql += orderSql;
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(sql);
+        try
+        {
+            if (schemaName != null)
+            {
+                statement.setString(1, schemaName);
+            }
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public String getSchemaFingerprint(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaFingerprint(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_FINGERPRINT_SQL);
+        ResultSet resultSet = null;
+        try
+        {
+            String schemaPattern = schemaName == null ? "%" : schemaName;
+            statement.setString(1, schemaPattern);
+            statement.setString(2, schemaPattern);
+            statement.setString(3, schemaPattern);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            StringBuffer fingerprint = new StringBuffer();
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            for (int i = 1; i <= columnCount; i++)
+            {
+                if (i > 1)
+                {
+                    fingerprint.append(":");
+                }
+                fingerprint.append(resultSet.getString(i));
+            }
+            return fingerprint.toString();
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, statement);
+        }
+    }
+
+}
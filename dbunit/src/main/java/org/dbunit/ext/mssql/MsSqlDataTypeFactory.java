@@ -27,6 +27,7 @@ import java.util.Collection;
 import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.datatype.DataTypeException;
 import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
+import org.dbunit.dataset.datatype.IStatementParameterLimit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
  * @version $Revision$
  */
 public class MsSqlDataTypeFactory extends DefaultDataTypeFactory
+        implements IStatementParameterLimit
 {
 
     /**
@@ -48,6 +50,7 @@ public class MsSqlDataTypeFactory extends DefaultDataTypeFactory
      * Database product names supported.
      */
     private static final Collection DATABASE_PRODUCTS = Arrays.asList(new String[] {"mssql", "Microsoft SQL Server"});
+    private static final int MAX_STATEMENT_PARAMETERS = 2100;
     
     private static final DateTimeOffsetType DATE_TIME_OFFSET_TYPE = new DateTimeOffsetType();
 
@@ -64,6 +67,15 @@ public class MsSqlDataTypeFactory extends DefaultDataTypeFactory
       return DATABASE_PRODUCTS;
     }
 
+    /**
+     * SQL Server accepts at most 2100 parameters per request.
+     * @see org.dbunit.dataset.datatype.IStatementParameterLimit#getMaxStatementParameters()
+     */
+    public int getMaxStatementParameters()
+    {
+        return MAX_STATEMENT_PARAMETERS;
+    }
+
     public DataType createDataType(int sqlType, String sqlTypeName) throws DataTypeException
     {
     	if(logger.isDebugEnabled())
@@ -41,5 +41,7 @@ public class MySqlConnection extends DatabaseConnection
                 new MySqlDataTypeFactory());
         getConfig().setProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER, 
                 new MySqlMetadataHandler());
+        getConfig().setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new MySqlSetDifferenceDialect());
     }
 }
@@ -27,6 +27,7 @@ import java.util.Collection;
 import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.datatype.DataTypeException;
 import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
+import org.dbunit.dataset.datatype.IStatementParameterLimit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +40,7 @@ import org.slf4j.LoggerFactory;
  * @since 1.5 (Sep 3, 2003)
  */
 public class MySqlDataTypeFactory extends DefaultDataTypeFactory
+        implements IStatementParameterLimit
 {
     public static final String UNSIGNED_SUFFIX = " UNSIGNED";
     public static final String SQL_TYPE_NAME_TINYINT_UNSIGNED = "TINYINT" + UNSIGNED_SUFFIX;
@@ -51,6 +53,7 @@ public class MySqlDataTypeFactory extends DefaultDataTypeFactory
      * Database product names supported.
      */
     private static final Collection DATABASE_PRODUCTS = Arrays.asList(new String[] {"mysql"});
+    private static final int MAX_STATEMENT_PARAMETERS = 65535;
     /**
      * @see org.dbunit.dataset.datatype.IDbProductRelatable#getValidDbProducts()
      */
@@ -59,6 +62,15 @@ public class MySqlDataTypeFactory extends DefaultDataTypeFactory
         return DATABASE_PRODUCTS;
     }
 
+    /**
+     * Limit of the MySQL prepared statement protocol.
+     * @see org.dbunit.dataset.datatype.IStatementParameterLimit#getMaxStatementParameters()
+     */
+    public int getMaxStatementParameters()
+    {
+        return MAX_STATEMENT_PARAMETERS;
+    }
+
     public DataType createDataType(int sqlType, String sqlTypeName) throws DataTypeException
     {
         if(logger.isDebugEnabled())
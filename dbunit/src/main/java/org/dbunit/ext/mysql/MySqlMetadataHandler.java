@@ -21,10 +21,13 @@
 package org.dbunit.ext.mysql;
 
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import org.dbunit.database.IBulkMetadataHandler;
 import org.dbunit.database.IMetadataHandler;
+import org.dbunit.database.ISchemaFingerprintHandler;
 import org.dbunit.util.SQLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,13 +41,46 @@ import org.slf4j.LoggerFactory;
  * @version $Revision$ $Date$
  * @since 2.4.4
  */
-public class MySqlMetadataHandler implements IMetadataHandler {
+public class MySqlMetadataHandler implements IMetadataHandler, IBulkMetadataHandler,
+        ISchemaFingerprintHandler {
 
     /**
      * Logger for this class
      */
     private static final Logger logger = LoggerFactory.getLogger(MySqlMetadataHandler.class);
 
+    /**
+     * The MySQL driver rejects a primary key lookup without table name, so the
+     * primary keys of a whole schema are read from the information schema. The
+     * selected columns have the positions of the getPrimaryKeys result set.
+     */
+    private static final String SCHEMA_PRIMARY_KEYS_SQL =
+            "select table_schema, null, table_name, column_name, ordinal_position"
+            + " from information_schema.key_column_usage"
+            + " where constraint_name = 'PRIMARY' and table_schema = coalesce(?, database())"
+            + " order by table_schema, table_name, ordinal_position";
+
+    /**
+     * The foreign keys of a whole schema are read from the information schema
+     * as well. Like the MySQL driver the schema is returned as catalog. The
+     * selected columns have the positions of the getImportedKeys result set.
+     */
+    private static final String SCHEMA_IMPORTED_KEYS_SQL =
+            "select referenced_table_schema, null, referenced_table_name, referenced_column_name,"
+            + " table_schema, null, table_name, column_name, ordinal_position"
+            + " from information_schema.key_column_usage"
+            + " where referenced_table_name is not null and table_schema = coalesce(?, database())"
+            + " order by referenced_table_schema, referenced_table_name, constraint_name,"
+            + " ordinal_position";
+
+    /**
+     * The creation time of a table changes with every DDL statement which
+     * rebuilds the table.
+     */
+    private static final String SCHEMA_FINGERPRINT_SQL =
+            "select count(*), max(create_time) from information_schema.tables"
+            + " where table_schema = coalesce(?, database())";
+
     public ResultSet getColumns(DatabaseMetaData databaseMetaData, String schemaName, String tableName) 
     throws SQLException {
         // Note that MySQL uses the catalogName instead of the schemaName, so
@@ -138,4 +174,82 @@ public class MySqlMetadataHandler implements IMetadataHandler {
         return resultSet;
     }
 
+    public ResultSet getSchemaColumns(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaColumns(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        // MySQL uses the catalogName instead of the schemaName
+        return databaseMetaData.getColumns(schemaName, null, "%", "%");
+    }
+
+    public ResultSet getSchemaPrimaryKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaPrimaryKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_PRIMARY_KEYS_SQL);
+        try
+        {
+            statement.setString(1, schemaName);
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public ResultSet getSchemaImportedKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaImportedKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_IMPORTED_KEYS_SQL);
+        try
+        {
+            statement.setString(1, schemaName);
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public String getSchemaFingerprint(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaFingerprint(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_FINGERPRINT_SQL);
+        ResultSet resultSet = null;
+        try
+        {
+            statement.setString(1, schemaName);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            return resultSet.getString(1) + ":" + resultSet.getString(2);
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, statement);
+        }
+    }
+
 }
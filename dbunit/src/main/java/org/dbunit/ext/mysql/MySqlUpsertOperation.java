@@ -0,0 +1,91 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.mysql;
+
+import org.dbunit.operation.AbstractUpsertOperation;
+import org.dbunit.operation.DatabaseOperation;
+
+/**
+ * Refreshes the dataset contents into a MySQL database using
+ * <code>INSERT ... ON DUPLICATE KEY UPDATE</code> statements.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see org.dbunit.database.DatabaseConfig#PROPERTY_REFRESH_OPERATION
+ */
+public class MySqlUpsertOperation extends AbstractUpsertOperation
+{
+    /**
+     * Refreshes the dataset contents with this operation.
+     */
+    public static final DatabaseOperation REFRESH = new MySqlUpsertOperation();
+
+    public MySqlUpsertOperation()
+    {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // AbstractUpsertOperation class
+
+    protected String getUpsertSql(String tableName, String[] columnNames,
+            String[] primaryKeyNames, String[] updateColumnNames,
+            String[] nullColumnNames)
+    {
+        StringBuffer sqlBuffer = new StringBuffer(256);
+        sqlBuffer.append("insert into ");
+        sqlBuffer.append(tableName);
+        sqlBuffer.append(" (");
+        appendNames(sqlBuffer, columnNames);
+        sqlBuffer.append(") values (");
+        appendParameters(sqlBuffer, columnNames.length);
+        sqlBuffer.append(") on duplicate key update ");
+
+        // existing rows made only of primary key columns stay unchanged
+        if (updateColumnNames.length == 0 && nullColumnNames.length == 0)
+        {
+            sqlBuffer.append(primaryKeyNames[0]);
+            sqlBuffer.append(" = ").append(primaryKeyNames[0]);
+            return sqlBuffer.toString();
+        }
+
+        for (int i = 0; i < updateColumnNames.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append(updateColumnNames[i]);
+            sqlBuffer.append(" = values(").append(updateColumnNames[i]);
+            sqlBuffer.append(")");
+        }
+        for (int i = 0; i < nullColumnNames.length; i++)
+        {
+            if (updateColumnNames.length > 0 || i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append(nullColumnNames[i]);
+            sqlBuffer.append(" = null");
+        }
+        return sqlBuffer.toString();
+    }
+}
@@ -23,6 +23,7 @@ package org.dbunit.ext.postgresql;
 import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.datatype.DataTypeException;
 import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
+import org.dbunit.dataset.datatype.IStatementParameterLimit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +43,7 @@ import java.util.Collection;
  * @since 2.4.5 (Apr 27, 2009)
  */
 public class PostgresqlDataTypeFactory extends DefaultDataTypeFactory
+        implements IStatementParameterLimit
 {
     /**
      * Logger for this class
@@ -53,6 +55,7 @@ public class PostgresqlDataTypeFactory extends DefaultDataTypeFactory
      */
     private static final Collection DATABASE_PRODUCTS =
             Arrays.asList(new String[] {"PostgreSQL"});
+    private static final int MAX_STATEMENT_PARAMETERS = 32767;
 
     /**
      * @see org.dbunit.dataset.datatype.IDbProductRelatable#getValidDbProducts()
@@ -63,6 +66,16 @@ public class PostgresqlDataTypeFactory extends DefaultDataTypeFactory
         return DATABASE_PRODUCTS;
     }
 
+    /**
+     * The PostgreSQL wire protocol limits the number of bind parameters to a
+     * 16 bit value.
+     * @see org.dbunit.dataset.datatype.IStatementParameterLimit#getMaxStatementParameters()
+     */
+    public int getMaxStatementParameters()
+    {
+        return MAX_STATEMENT_PARAMETERS;
+    }
+
     public static Collection getDatabaseProducts()
     {
         return DATABASE_PRODUCTS;
@@ -0,0 +1,189 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.postgresql;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.dbunit.database.DefaultMetadataHandler;
+import org.dbunit.database.IBulkMetadataHandler;
+import org.dbunit.database.ISchemaFingerprintHandler;
+import org.dbunit.util.SQLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Special metadata handler for PostgreSQL. The keys of a whole schema are
+ * read from the system catalog.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class PostgresqlMetadataHandler extends DefaultMetadataHandler
+        implements IBulkMetadataHandler, ISchemaFingerprintHandler
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PostgresqlMetadataHandler.class);
+
+    /**
+     * The selected columns have the positions of the getPrimaryKeys result set.
+     */
+    private static final String SCHEMA_PRIMARY_KEYS_SQL =
+            "select current_database(), n.nspname, c.relname, a.attname, k.seq"
+            + " from pg_catalog.pg_constraint con"
+            + " join pg_catalog.pg_class c on c.oid = con.conrelid"
+            + " join pg_catalog.pg_namespace n on n.oid = c.relnamespace"
+            + " cross join generate_series(1, array_length(con.conkey, 1)) as k(seq)"
+            + " join pg_catalog.pg_attribute a"
+            + " on a.attrelid = con.conrelid and a.attnum = con.conkey[k.seq]"
+            + " where con.contype = 'p'"
+            + " and (cast(? as text) is null or n.nspname = ?)"
+            + " order by n.nspname, c.relname, k.seq";
+
+    /**
+     * The selected columns have the positions of the getImportedKeys result set.
+     */
+    private static final String SCHEMA_IMPORTED_KEYS_SQL =
+            "select current_database(), pn.nspname, pc.relname, pa.attname,"
+            + " current_database(), fn.nspname, fc.relname, fa.attname, k.seq"
+            + " from pg_catalog.pg_constraint con"
+            + " join pg_catalog.pg_class fc on fc.oid = con.conrelid"
+            + " join pg_catalog.pg_namespace fn on fn.oid = fc.relnamespace"
+            + " join pg_catalog.pg_class pc on pc.oid = con.confrelid"
+            + " join pg_catalog.pg_namespace pn on pn.oid = pc.relnamespace"
+            + " cross join generate_series(1, array_length(con.conkey, 1)) as k(seq)"
+            + " join pg_catalog.pg_attribute fa"
+            + " on fa.attrelid = con.conrelid and fa.attnum = con.conkey[k.seq]"
+            + " join pg_catalog.pg_attribute pa"
+            + " on pa.attrelid = con.confrelid and pa.attnum = con.confkey[k.seq]"
+            + " where con.contype = 'f'"
+            + " and (cast(? as text) is null or fn.nspname = ?)"
+            + " order by pn.nspname, pc.relname, con.conname, k.seq";
+
+    /**
+     * PostgreSQL does not record the time of DDL statements, but every DDL
+     * statement writes new versions of the catalog rows of the affected tables,
+     * columns and constraints, which changes their <code>xmin</code>.
+     */
+    private static final String SCHEMA_FINGERPRINT_SQL =
+            "select count(distinct c.oid), count(*),"
+            + " sum(cast(cast(c.xmin as text) as bigint)),"
+            + " sum(cast(cast(a.xmin as text) as bigint)),"
+            + " (select sum(cast(cast(con.xmin as text) as bigint))"
+            + " from pg_catalog.pg_constraint con"
+            + " join pg_catalog.pg_namespace cn on cn.oid = con.connamespace"
+            + " where cn.nspname = coalesce(?, current_schema()))"
+            + " from pg_catalog.pg_class c"
+            + " join pg_catalog.pg_namespace n on n.oid = c.relnamespace"
+            + " join pg_catalog.pg_attribute a on a.attrelid = c.oid and a.attnum > 0"
+            + " where c.relkind in ('r', 'v', 'm', 'p', 'f')"
+            + " and n.nspname = coalesce(?, current_schema())";
+
+    public ResultSet getSchemaColumns(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaColumns(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return databaseMetaData.getColumns(null, schemaName, "%", "%");
+    }
+
+    public ResultSet getSchemaPrimaryKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaPrimaryKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return executeSchemaQuery(databaseMetaData, SCHEMA_PRIMARY_KEYS_SQL, schemaName);
+    }
+
+    public ResultSet getSchemaImportedKeys(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaImportedKeys(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        return executeSchemaQuery(databaseMetaData, SCHEMA_IMPORTED_KEYS_SQL, schemaName);
+    }
+
+    private ResultSet executeSchemaQuery(DatabaseMetaData databaseMetaData,
+            String sql, String schemaName) throws SQLException
+    {
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(sql);
+        try
+        {
+            statement.setString(1, schemaName);
+            statement.setString(2, schemaName);
+            // The statement is closed by the caller together with the result set
+            return statement.executeQuery();
+        }
+        catch (SQLException e)
+        {
+            SQLHelper.close(statement);
+            throw e;
+        }
+    }
+
+    public String getSchemaFingerprint(DatabaseMetaData databaseMetaData, String schemaName)
+    throws SQLException
+    {
+        if(logger.isTraceEnabled())
+            logger.trace("getSchemaFingerprint(databaseMetaData={}, schemaName={}) - start",
+                    databaseMetaData, schemaName);
+
+        PreparedStatement statement = databaseMetaData.getConnection()
+                .prepareStatement(SCHEMA_FINGERPRINT_SQL);
+        ResultSet resultSet = null;
+        try
+        {
+            statement.setString(1, schemaName);
+            statement.setString(2, schemaName);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            StringBuffer fingerprint = new StringBuffer();
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            for (int i = 1; i <= columnCount; i++)
+            {
+                if (i > 1)
+                {
+                    fingerprint.append(":");
+                }
+                fingerprint.append(resultSet.getString(i));
+            }
+            return fingerprint.toString();
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, statement);
+        }
+    }
+
+}
@@ -31,12 +31,12 @@ import org.dbunit.database.statement.IPreparedBatchStatement;
 import org.dbunit.database.statement.IStatementFactory;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableCursor;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
 import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.ITableMetaData;
-import org.dbunit.dataset.RowOutOfBoundsException;
-import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.datatype.TypeCastException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,28 +59,58 @@ public abstract class AbstractBatchOperation extends AbstractOperation
     private static final BitSet EMPTY_BITSET = new BitSet();
     protected boolean _reverseRowOrder = false;
 
-    static boolean isEmpty(ITable table) throws DataSetException
+    /**
+     * Returns a cursor positioned before the first row this operation is
+     * applied to. Honors the reverse row order of this operation.
+     */
+    ITableCursor cursor(ITable table) throws DataSetException
     {
-        logger.debug("isEmpty(table={}) - start", table);
-
-        Column[] columns = table.getTableMetaData().getColumns();
-
-        // No columns = empty
-        if (columns.length == 0)
+        if (_reverseRowOrder)
         {
-            return true;
+            return new DefaultTableCursor(table, true);
         }
+        return table.cursor();
+    }
 
-        // Try to fetch first table value
-        try
+    /**
+     * Moves the given cursor to the first row of its table.
+     *
+     * @return <code>false</code> if the table has no columns or no rows
+     */
+    static boolean moveToFirstRow(ITableCursor cursor) throws DataSetException
+    {
+        // No columns = empty
+        if (cursor.getTableMetaData().getColumns().length == 0)
         {
-            table.getValue(0, columns[0].getColumnName());
             return false;
-        } catch (RowOutOfBoundsException e)
+        }
+        return cursor.next();
+    }
+
+    /**
+     * Resolves the position of each of the specified columns within the given
+     * table, so that row values can be accessed by index instead of looking up
+     * the column name for every single cell.
+     *
+     * @param table
+     *            The table from which the values are read
+     * @param columns
+     *            The columns whose positions should be resolved
+     * @return The column positions, in the order of the specified columns
+     * @throws DataSetException
+     *             if one of the columns does not exist in the table
+     */
+    static int[] getColumnIndexes(ITable table, Column[] columns)
+            throws DataSetException
+    {
+        ITableMetaData metaData = table.getTableMetaData();
+        int[] columnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
         {
-            // Not able to access first row thus empty
-            return true;
+            columnIndexes[i] =
+                    metaData.getColumnIndex(columns[i].getColumnName());
         }
+        return columnIndexes;
     }
 
     /**
@@ -112,10 +142,62 @@ public abstract class AbstractBatchOperation extends AbstractOperation
         return true;
     }
 
+    /**
+     * Returns mapping of columns to ignore for the current row of the
+     * specified cursor over the given table. Delegates to
+     * {@link #getIgnoreMapping(ITable, int)} so that overriding subclasses
+     * keep working.
+     */
+    final BitSet getIgnoreMapping(ITable table, ITableCursor cursor)
+            throws DataSetException
+    {
+        return getIgnoreMapping(table, cursor.getRow());
+    }
+
+    /**
+     * Returns false if the current row of the specified cursor over the given
+     * table have a different ignore mapping than the specified mapping.
+     * Delegates to {@link #equalsIgnoreMapping(BitSet, ITable, int)}.
+     */
+    final boolean equalsIgnoreMapping(BitSet ignoreMapping, ITable table,
+            ITableCursor cursor) throws DataSetException
+    {
+        return equalsIgnoreMapping(ignoreMapping, table, cursor.getRow());
+    }
+
     abstract OperationData getOperationData(ITableMetaData metaData,
             BitSet ignoreMapping, IDatabaseConnection connection)
             throws DataSetException;
 
+    /**
+     * Returns the number of rows processed by a single statement generated for
+     * the specified ignore mapping. Operations that do not support multi-row
+     * statements return 1, which is the default.
+     */
+    int getRowsPerStatement(ITableMetaData metaData, BitSet ignoreMapping,
+            IDatabaseConnection connection) throws DataSetException
+    {
+        return 1;
+    }
+
+    /**
+     * Returns the operation data of a statement processing the specified
+     * number of rows at once. The default implementation only supports a
+     * single row per statement.
+     */
+    OperationData getOperationData(ITableMetaData metaData,
+            BitSet ignoreMapping, IDatabaseConnection connection, int rowCount)
+            throws DataSetException
+    {
+        if (rowCount != 1)
+        {
+            throw new IllegalArgumentException("Operation " + getClass().getName()
+                    + " does not support multi-row statements: rowCount="
+                    + rowCount);
+        }
+        return getOperationData(metaData, ignoreMapping, connection);
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // DatabaseOperation class
 
@@ -131,6 +213,8 @@ public abstract class AbstractBatchOperation extends AbstractOperation
                 .getProperty(DatabaseConfig.PROPERTY_STATEMENT_FACTORY);
         boolean allowEmptyFields = connection.getConfig()
                 .getFeature(DatabaseConfig.FEATURE_ALLOW_EMPTY_FIELDS);
+        int statementCacheSize = ((Integer) databaseConfig.getProperty(
+                DatabaseConfig.PROPERTY_STATEMENT_CACHE_SIZE)).intValue();
 
         // for each table
         ITableIterator iterator = iterator(dataSet);
@@ -142,97 +226,75 @@ public abstract class AbstractBatchOperation extends AbstractOperation
             logger.trace("execute: processing table='{}'", tableName);
 
             // Do not process empty table
-            if (isEmpty(table))
+            ITableCursor cursor = cursor(table);
+            if (!moveToFirstRow(cursor))
             {
                 continue;
             }
 
             ITableMetaData metaData =
                     getOperationMetaData(connection, table.getTableMetaData());
-            BitSet ignoreMapping = null;
-            OperationData operationData = null;
-            IPreparedBatchStatement statement = null;
+            BatchStatementCache statements =
+                    new BatchStatementCache(statementCacheSize);
+            BatchStatementCache.Entry current = null;
 
             try
             {
                 // For each row
-                int start = _reverseRowOrder ? table.getRowCount() - 1 : 0;
-                int increment = _reverseRowOrder ? -1 : 1;
-
-                try
+                do
                 {
-                    for (int i = start;; i = i + increment)
+                    // If current row have a different ignore value mapping than
+                    // previous one, we switch to the statement of its mapping
+                    if (current == null || !equalsIgnoreMapping(
+                            current.getIgnoreMapping(), table, cursor))
                     {
-                        int row = i;
-
-                        // If current row have a different ignore value mapping
-                        // than
-                        // previous one, we generate a new statement
-                        if (ignoreMapping == null
-                                || !equalsIgnoreMapping(ignoreMapping, table,
-                                        row))
+                        BitSet ignoreMapping = getIgnoreMapping(table, cursor);
+                        current = statements.get(ignoreMapping);
+                        if (current == null)
                         {
-                            // Execute and close previous statement
-                            if (statement != null)
+                            int rowsPerStatement = getRowsPerStatement(metaData,
+                                    ignoreMapping, connection);
+                            OperationData operationData = getOperationData(
+                                    metaData, ignoreMapping, connection,
+                                    rowsPerStatement);
+                            int[] columnIndexes = getColumnIndexes(table,
+                                    operationData.getColumns());
+                            IPreparedBatchStatement statement =
+                                    factory.createPreparedBatchStatement(
+                                            operationData.getSql(), connection);
+                            current = new BatchStatementCache.Entry(
+                                    ignoreMapping, operationData,
+                                    columnIndexes, statement, rowsPerStatement);
+
+                            // If the cache is full, executes all pending
+                            // batches in first-use order before closing the
+                            // least recently used statement, so that its rows
+                            // are not written ahead of rows read earlier
+                            if (statements.isFull())
                             {
-                                statement.executeBatch();
-                                statement.clearBatch();
-                                statement.close();
+                                executeBatches(statements, metaData,
+                                        connection, factory, tableName);
                             }
-
-                            ignoreMapping = getIgnoreMapping(table, row);
-                            operationData = getOperationData(metaData,
-                                    ignoreMapping, connection);
-                            statement = factory.createPreparedBatchStatement(
-                                    operationData.getSql(), connection);
-                        }
-
-                        // for each column
-                        Column[] columns = operationData.getColumns();
-                        for (int j = 0; j < columns.length; j++)
-                        {
-                            // Bind value only if not in ignore mapping
-                            if (!ignoreMapping.get(j))
+                            BatchStatementCache.Entry eldest =
+                                    statements.put(current);
+                            if (eldest != null)
                             {
-                                Column column = columns[j];
-                                String columnName = column.getColumnName();
-                                try
-                                {
-                                    DataType dataType = column.getDataType();
-                                    Object value =
-                                            table.getValue(row, columnName);
-
-                                    if ("".equals(value) && !allowEmptyFields)
-                                    {
-                                        handleColumnHasNoValue(tableName,
-                                                columnName);
-                                    }
-
-                                    statement.addValue(value, dataType);
-                                } catch (TypeCastException e)
-                                {
-                                    final String msg =
-                                            "Error casting value for table '"
-                                                    + tableName
-                                                    + "' and column '"
-                                                    + columnName + "'";
-                                    logger.error("execute: {}", msg);
-                                    throw new TypeCastException(msg, e);
-                                }
+                                eldest.getStatement().close();
                             }
                         }
-                        statement.addBatch();
                     }
-                } catch (RowOutOfBoundsException e)
-                {
-                    // This exception occurs when records are exhausted
-                    // and we reach the end of the table. Ignore this error
 
-                    // end of table
-                }
+                    current.addPendingRow(getRowValues(current, cursor,
+                            tableName, allowEmptyFields));
+                    if (current.isStatementFull())
+                    {
+                        addPendingRows(current.getStatement(), current,
+                                tableName);
+                    }
+                } while (cursor.next());
 
-                statement.executeBatch();
-                statement.clearBatch();
+                executeBatches(statements, metaData, connection, factory,
+                        tableName);
             } catch (SQLException e)
             {
                 final String msg =
@@ -240,10 +302,126 @@ public abstract class AbstractBatchOperation extends AbstractOperation
                 throw new DatabaseUnitException(msg, e);
             } finally
             {
-                if (statement != null)
+                statements.closeAll();
+            }
+        }
+    }
+
+    /**
+     * Reads the values of the current row of the cursor that are bound to the
+     * statement of the given entry. Ignored columns are left <code>null</code>.
+     */
+    private Object[] getRowValues(BatchStatementCache.Entry entry,
+            ITableCursor cursor, String tableName, boolean allowEmptyFields)
+            throws DataSetException
+    {
+        BitSet ignoreMapping = entry.getIgnoreMapping();
+        int[] columnIndexes = entry.getColumnIndexes();
+        Column[] columns = entry.getOperationData().getColumns();
+
+        Object[] values = new Object[columns.length];
+        for (int j = 0; j < columns.length; j++)
+        {
+            // Read value only if not in ignore mapping
+            if (!ignoreMapping.get(j))
+            {
+                Object value = cursor.get(columnIndexes[j]);
+                if ("".equals(value) && !allowEmptyFields)
                 {
-                    statement.close();
+                    handleColumnHasNoValue(tableName,
+                            columns[j].getColumnName());
                 }
+                values[j] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Binds the pending rows of the given entry to the specified statement as
+     * a single batch entry.
+     */
+    private void addPendingRows(IPreparedBatchStatement statement,
+            BatchStatementCache.Entry entry, String tableName)
+            throws TypeCastException, SQLException
+    {
+        BitSet ignoreMapping = entry.getIgnoreMapping();
+        Column[] columns = entry.getOperationData().getColumns();
+
+        for (int i = 0; i < entry.getPendingRowCount(); i++)
+        {
+            Object[] values = entry.getPendingRow(i);
+
+            // for each column
+            for (int j = 0; j < columns.length; j++)
+            {
+                // Bind value only if not in ignore mapping
+                if (!ignoreMapping.get(j))
+                {
+                    Column column = columns[j];
+                    try
+                    {
+                        statement.addValue(values[j], column.getDataType());
+                    } catch (TypeCastException e)
+                    {
+                        final String msg = "Error casting value for table '"
+                                + tableName + "' and column '"
+                                + column.getColumnName() + "'";
+                        logger.error("execute: {}", msg);
+                        throw new TypeCastException(msg, e);
+                    }
+                }
+            }
+        }
+        statement.addBatch();
+        entry.clearPendingRows();
+    }
+
+    /**
+     * Executes the batches of all cached entries in first-use order. Rows
+     * with different column-presence patterns are not interleaved, so with a
+     * cache size greater than 1 the rows of a table may be written in a
+     * different order than in the dataset.
+     */
+    private void executeBatches(BatchStatementCache statements,
+            ITableMetaData metaData, IDatabaseConnection connection,
+            IStatementFactory factory, String tableName)
+            throws DataSetException, SQLException
+    {
+        for (BatchStatementCache.Entry entry : statements.getEntries())
+        {
+            executeBatch(entry, metaData, connection, factory, tableName);
+        }
+    }
+
+    /**
+     * Executes the batch of the given entry. Rows still pending because they
+     * do not fill up a multi-row statement are executed afterwards with a
+     * statement generated for exactly that number of rows.
+     */
+    private void executeBatch(BatchStatementCache.Entry entry,
+            ITableMetaData metaData, IDatabaseConnection connection,
+            IStatementFactory factory, String tableName)
+            throws DataSetException, SQLException
+    {
+        entry.executeBatch();
+
+        int pendingRowCount = entry.getPendingRowCount();
+        if (pendingRowCount > 0)
+        {
+            OperationData operationData = getOperationData(metaData,
+                    entry.getIgnoreMapping(), connection, pendingRowCount);
+            IPreparedBatchStatement statement = factory
+                    .createPreparedBatchStatement(operationData.getSql(),
+                            connection);
+            try
+            {
+                addPendingRows(statement, entry, tableName);
+                statement.executeBatch();
+                statement.clearBatch();
+            } finally
+            {
+                statement.close();
             }
         }
     }
@@ -0,0 +1,204 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoPrimaryKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base implementation for database specific operations that refresh the
+ * dataset contents with a single insert-or-update statement per row, like
+ * <code>MERGE</code> or <code>INSERT ... ON CONFLICT</code>. The statements
+ * are executed in batch so that refreshing a table costs one round trip per
+ * batch instead of up to two per row.
+ * <p>
+ * Columns without value are left out of the inserted values in the same way
+ * as for {@link DatabaseOperation#INSERT}. As the generic
+ * {@link DatabaseOperation#REFRESH} updates all non key columns of existing
+ * rows, these columns are set to null in existing rows, unless the dialect
+ * cannot express it. The parameters of the statement
+ * generated by {@link #getUpsertSql} must be the values of the given columns
+ * in that order.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ * @see org.dbunit.database.DatabaseConfig#PROPERTY_REFRESH_OPERATION
+ */
+public abstract class AbstractUpsertOperation extends AbstractBatchOperation
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(AbstractUpsertOperation.class);
+
+    private final InsertOperation _insertOperation =
+            (InsertOperation) DatabaseOperation.INSERT;
+
+    /**
+     * Generates the insert-or-update statement of the specified table. All
+     * names are already escaped.
+     *
+     * @param tableName
+     *            The qualified name of the table
+     * @param columnNames
+     *            The columns which values are bound to the statement, in the
+     *            order of the statement parameters
+     * @param primaryKeyNames
+     *            The primary key columns identifying existing rows
+     * @param updateColumnNames
+     *            The columns to update when the row already exists, i.e. the
+     *            bound columns which are not part of the primary key. May be
+     *            empty.
+     * @param nullColumnNames
+     *            The columns to set to null when the row already exists, i.e.
+     *            the columns without value which are not part of the primary
+     *            key. May be empty.
+     * @return The SQL statement
+     */
+    protected abstract String getUpsertSql(String tableName,
+            String[] columnNames, String[] primaryKeyNames,
+            String[] updateColumnNames, String[] nullColumnNames);
+
+    /**
+     * Appends the specified names separated by comma.
+     */
+    protected static void appendNames(StringBuffer sqlBuffer, String[] names)
+    {
+        for (int i = 0; i < names.length; i++)
+        {
+            if (i > 0)
+            {
+                sqlBuffer.append(", ");
+            }
+            sqlBuffer.append(names[i]);
+        }
+    }
+
+    /**
+     * Appends the specified number of parameter markers separated by comma.
+     */
+    protected static void appendParameters(StringBuffer sqlBuffer, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            sqlBuffer.append(i > 0 ? ", ?" : "?");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // AbstractBatchOperation class
+
+    OperationData getOperationData(ITableMetaData metaData,
+            BitSet ignoreMapping, IDatabaseConnection connection)
+            throws DataSetException
+    {
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("getOperationData(metaData={}, ignoreMapping={}, connection={}) - start",
+                    new Object[] {metaData, ignoreMapping, connection});
+        }
+
+        Column[] columns = metaData.getColumns();
+        Column[] primaryKeys = metaData.getPrimaryKeys();
+
+        // cannot identify existing rows if no primary key
+        if (primaryKeys.length == 0)
+        {
+            throw new NoPrimaryKeyException(metaData.getTableName());
+        }
+
+        List<String> columnNames = new ArrayList<String>(columns.length);
+        List<String> updateColumnNames = new ArrayList<String>(columns.length);
+        List<String> nullColumnNames = new ArrayList<String>();
+        for (int i = 0; i < columns.length; i++)
+        {
+            String columnName = getQualifiedName(null,
+                    columns[i].getColumnName(), connection);
+            boolean primaryKey = isPrimaryKey(columns[i], primaryKeys);
+            if (!ignoreMapping.get(i))
+            {
+                columnNames.add(columnName);
+                if (!primaryKey)
+                {
+                    updateColumnNames.add(columnName);
+                }
+            }
+            else if (!primaryKey)
+            {
+                nullColumnNames.add(columnName);
+            }
+        }
+
+        String[] primaryKeyNames = new String[primaryKeys.length];
+        for (int i = 0; i < primaryKeys.length; i++)
+        {
+            primaryKeyNames[i] = getQualifiedName(null,
+                    primaryKeys[i].getColumnName(), connection);
+        }
+
+        String tableName = getQualifiedName(connection.getSchema(),
+                metaData.getTableName(), connection);
+        String sql = getUpsertSql(tableName,
+                columnNames.toArray(new String[columnNames.size()]),
+                primaryKeyNames,
+                updateColumnNames.toArray(new String[updateColumnNames.size()]),
+                nullColumnNames.toArray(new String[nullColumnNames.size()]));
+        return new OperationData(sql, columns);
+    }
+
+    private static boolean isPrimaryKey(Column column, Column[] primaryKeys)
+    {
+        for (int i = 0; i < primaryKeys.length; i++)
+        {
+            if (primaryKeys[i].getColumnName().equalsIgnoreCase(
+                    column.getColumnName()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    BitSet getIgnoreMapping(ITable table, int row) throws DataSetException
+    {
+        return _insertOperation.getIgnoreMapping(table, row);
+    }
+
+    boolean equalsIgnoreMapping(BitSet ignoreMapping, ITable table, int row)
+            throws DataSetException
+    {
+        return _insertOperation.equalsIgnoreMapping(ignoreMapping, table, row);
+    }
+}
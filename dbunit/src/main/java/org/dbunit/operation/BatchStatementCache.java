@@ -0,0 +1,248 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.dbunit.database.statement.IPreparedBatchStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Least recently used cache of the prepared batch statements of a single
+ * table, keyed by the ignore mapping the statement was generated for. Rows
+ * having the same column-presence pattern are accumulated into the same batch
+ * regardless of their position in the table. When the cache is full the least
+ * recently used entry is removed and handed back to the caller, which is
+ * responsible for executing and closing it.
+ * <p>
+ * Since every batch is executed as a whole, rows are not sent to the database
+ * in dataset order as soon as more than one statement is cached: all rows of
+ * the first used statement are written before the rows of the next one. The
+ * cached entries are therefore returned in first-use order so that at least
+ * the first row of each column-presence pattern keeps its relative position.
+ * Datasets relying on the row order within a table, e.g. for self-referencing
+ * foreign keys, should keep the default cache size of 1.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+class BatchStatementCache
+{
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(BatchStatementCache.class);
+
+    private final int _maxSize;
+    private final Map<BitSet, Entry> _entries;
+    private final List<Entry> _entriesByFirstUse;
+
+    /**
+     * @param maxSize
+     *            The maximum number of statements kept open at the same time.
+     *            Values less than 1 are treated as 1.
+     */
+    BatchStatementCache(int maxSize)
+    {
+        _maxSize = Math.max(1, maxSize);
+        _entries = new LinkedHashMap<BitSet, Entry>(16, 0.75f, true);
+        _entriesByFirstUse = new LinkedList<Entry>();
+    }
+
+    /**
+     * @return The cached entry for the given ignore mapping or
+     *         <code>null</code> if there is none
+     */
+    Entry get(BitSet ignoreMapping)
+    {
+        return _entries.get(ignoreMapping);
+    }
+
+    /**
+     * @return <code>true</code> if adding another entry evicts the least
+     *         recently used one
+     */
+    boolean isFull()
+    {
+        return _entries.size() >= _maxSize;
+    }
+
+    /**
+     * Adds the given entry, evicting the least recently used entry if the
+     * cache is full.
+     *
+     * @return The evicted entry, which still has to be executed and closed,
+     *         or <code>null</code> if nothing was evicted
+     */
+    Entry put(Entry entry)
+    {
+        Entry eldest = null;
+        if (isFull())
+        {
+            Iterator<Entry> iterator = _entries.values().iterator();
+            eldest = iterator.next();
+            iterator.remove();
+            _entriesByFirstUse.remove(eldest);
+
+            logger.debug("put: evicting statement for ignoreMapping={}",
+                    eldest.getIgnoreMapping());
+        }
+        _entries.put(entry.getIgnoreMapping(), entry);
+        _entriesByFirstUse.add(entry);
+        return eldest;
+    }
+
+    /**
+     * @return The cached entries in the order they were added, which is the
+     *         order their batches have to be executed in
+     */
+    Collection<Entry> getEntries()
+    {
+        return _entriesByFirstUse;
+    }
+
+    /**
+     * Closes all cached statements and empties this cache.
+     */
+    void closeAll() throws SQLException
+    {
+        SQLException firstException = null;
+        for (Entry entry : _entriesByFirstUse)
+        {
+            try
+            {
+                entry.getStatement().close();
+            }
+            catch (SQLException e)
+            {
+                if (firstException == null)
+                {
+                    firstException = e;
+                }
+            }
+        }
+        _entries.clear();
+        _entriesByFirstUse.clear();
+
+        if (firstException != null)
+        {
+            throw firstException;
+        }
+    }
+
+    /**
+     * A prepared batch statement together with the information needed to bind
+     * the row values to it. A statement may process several rows at once, in
+     * which case the row values are buffered until the statement is full.
+     */
+    static class Entry
+    {
+        private final BitSet _ignoreMapping;
+        private final OperationData _operationData;
+        private final int[] _columnIndexes;
+        private final IPreparedBatchStatement _statement;
+        private final Object[][] _pendingRows;
+        private int _pendingRowCount;
+
+        Entry(BitSet ignoreMapping, OperationData operationData,
+                int[] columnIndexes, IPreparedBatchStatement statement,
+                int rowsPerStatement)
+        {
+            _ignoreMapping = ignoreMapping;
+            _operationData = operationData;
+            _columnIndexes = columnIndexes;
+            _statement = statement;
+            _pendingRows = new Object[rowsPerStatement][];
+            _pendingRowCount = 0;
+        }
+
+        BitSet getIgnoreMapping()
+        {
+            return _ignoreMapping;
+        }
+
+        OperationData getOperationData()
+        {
+            return _operationData;
+        }
+
+        int[] getColumnIndexes()
+        {
+            return _columnIndexes;
+        }
+
+        IPreparedBatchStatement getStatement()
+        {
+            return _statement;
+        }
+
+        /**
+         * Buffers the values of a row until the statement is full.
+         */
+        void addPendingRow(Object[] values)
+        {
+            _pendingRows[_pendingRowCount++] = values;
+        }
+
+        Object[] getPendingRow(int index)
+        {
+            return _pendingRows[index];
+        }
+
+        int getPendingRowCount()
+        {
+            return _pendingRowCount;
+        }
+
+        /**
+         * @return <code>true</code> if enough rows are pending to fill all
+         *         parameters of the statement
+         */
+        boolean isStatementFull()
+        {
+            return _pendingRowCount == _pendingRows.length;
+        }
+
+        void clearPendingRows()
+        {
+            Arrays.fill(_pendingRows, 0, _pendingRowCount, null);
+            _pendingRowCount = 0;
+        }
+
+        void executeBatch() throws SQLException
+        {
+            _statement.executeBatch();
+            _statement.clearBatch();
+        }
+    }
+}
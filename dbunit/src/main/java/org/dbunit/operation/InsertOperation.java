@@ -24,11 +24,13 @@ package org.dbunit.operation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.IStatementParameterLimit;
 
 import java.util.BitSet;
 
@@ -59,11 +61,23 @@ public class InsertOperation extends AbstractBatchOperation
 
     public OperationData getOperationData(ITableMetaData metaData,
             BitSet ignoreMapping, IDatabaseConnection connection) throws DataSetException
+    {
+        return getOperationData(metaData, ignoreMapping, connection, 1);
+    }
+
+    /**
+     * Generates an insert statement with one parameter group per row in its
+     * <code>values</code> clause, i.e.
+     * <code>insert into t (a, b) values (?, ?), (?, ?)</code>.
+     */
+    OperationData getOperationData(ITableMetaData metaData,
+            BitSet ignoreMapping, IDatabaseConnection connection, int rowCount)
+            throws DataSetException
     {
     	if (logger.isDebugEnabled())
     	{
-    		logger.debug("getOperationData(metaData={}, ignoreMapping={}, connection={}) - start",
-    				new Object[]{ metaData, ignoreMapping, connection });
+    		logger.debug("getOperationData(metaData={}, ignoreMapping={}, connection={}, rowCount={}) - start",
+    				new Object[]{ metaData, ignoreMapping, connection, String.valueOf(rowCount) });
     	}
 
         Column[] columns = metaData.getColumns();
@@ -91,22 +105,62 @@ public class InsertOperation extends AbstractBatchOperation
         }
 
         // values
-        sqlBuffer.append(") values (");
-        String valueSeparator = "";
-        for (int i = 0; i < columns.length; i++)
+        sqlBuffer.append(") values ");
+        for (int row = 0; row < rowCount; row++)
         {
-            if (!ignoreMapping.get(i))
+            if (row > 0)
             {
-                sqlBuffer.append(valueSeparator);
-                sqlBuffer.append("?");
-                valueSeparator = ", ";
+                sqlBuffer.append(", ");
             }
+            sqlBuffer.append("(");
+            String valueSeparator = "";
+            for (int i = 0; i < columns.length; i++)
+            {
+                if (!ignoreMapping.get(i))
+                {
+                    sqlBuffer.append(valueSeparator);
+                    sqlBuffer.append("?");
+                    valueSeparator = ", ";
+                }
+            }
+            sqlBuffer.append(")");
         }
-        sqlBuffer.append(")");
 
         return new OperationData(sqlBuffer.toString(), columns);
     }
 
+    /**
+     * Returns the number of rows configured by
+     * {@link DatabaseConfig#PROPERTY_INSERT_ROWS_PER_STATEMENT}, reduced so
+     * that the statement does not exceed the parameter limit declared by the
+     * data type factory when it implements {@link IStatementParameterLimit}.
+     */
+    int getRowsPerStatement(ITableMetaData metaData, BitSet ignoreMapping,
+            IDatabaseConnection connection) throws DataSetException
+    {
+        DatabaseConfig config = connection.getConfig();
+        int rowsPerStatement = ((Integer) config.getProperty(
+                DatabaseConfig.PROPERTY_INSERT_ROWS_PER_STATEMENT)).intValue();
+
+        int parameterCount =
+                metaData.getColumns().length - ignoreMapping.cardinality();
+        if (rowsPerStatement <= 1 || parameterCount <= 0)
+        {
+            return 1;
+        }
+
+        Object dataTypeFactory =
+                config.getProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY);
+        if (dataTypeFactory instanceof IStatementParameterLimit)
+        {
+            int maxParameters = ((IStatementParameterLimit) dataTypeFactory)
+                    .getMaxStatementParameters();
+            rowsPerStatement = Math.min(rowsPerStatement,
+                    Math.max(1, maxParameters / parameterCount));
+        }
+        return rowsPerStatement;
+    }
+
     protected BitSet getIgnoreMapping(ITable table, int row) throws DataSetException
     {
     	if(logger.isDebugEnabled())
@@ -118,7 +172,7 @@ public class InsertOperation extends AbstractBatchOperation
         for (int i = 0; i < columns.length; i++)
         {
             Column column = columns[i];
-            Object value = table.getValue(row, column.getColumnName());
+            Object value = table.getValue(row, i);
             if (value == ITable.NO_VALUE
                 || (value == null && column.isNotNullable() && column.hasDefaultValue()))
             {
@@ -142,7 +196,7 @@ public class InsertOperation extends AbstractBatchOperation
         for (int i = 0; i < columns.length; i++)
         {
             boolean bit = ignoreMapping.get(i);
-            Object value = table.getValue(row, columns[i].getColumnName());
+            Object value = table.getValue(row, i);
             if ((bit && value != ITable.NO_VALUE) || (!bit && value == ITable.NO_VALUE))
             {
                 return false;
@@ -0,0 +1,291 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.IDatabaseTester;
+import org.dbunit.database.DatabaseConnectionPool;
+import org.dbunit.database.DatabaseSequenceFilter;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.IDataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes another operation on several tables concurrently. The tables of
+ * the dataset are grouped into foreign key dependency levels (see
+ * {@link DatabaseSequenceFilter#getTableLevels}). All tables of a level are
+ * processed in parallel, each on a connection of a pool obtained from an
+ * {@link IDatabaseTester}, and a level only starts when the previous one has
+ * completed.
+ * <p>
+ * The connection passed to {@link #execute} is only used to read the table
+ * dependencies. Its configuration is copied to the pooled connections. The
+ * connection source must return a new connection on each call of
+ * {@link IDatabaseTester#getConnection()}, as done for example by the
+ * <code>JdbcDatabaseTester</code> or the <code>DataSourceDatabaseTester</code>.
+ * The dataset must allow random access to its tables, so streamed datasets
+ * are not supported.
+ * </p>
+ * <p>
+ * In transactional mode the pooled connections do not auto-commit. They are
+ * committed at the end of each level, so that the tables of the next level
+ * see the rows they depend on, and rolled back if a table of the level fails.
+ * Levels completed before a failure stay committed.
+ * </p>
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ParallelOperation extends DatabaseOperation
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(ParallelOperation.class);
+
+    private final DatabaseOperation _operation;
+    private final IDatabaseTester _connectionSource;
+    private final int _threadCount;
+    private final boolean _reverseLevelOrder;
+    private final boolean _transactional;
+
+    /**
+     * Creates a parallel operation processing the dependency levels from
+     * parents to children, e.g. for inserts.
+     *
+     * @param operation The operation executed for each table
+     * @param connectionSource Provides the pooled connections
+     * @param threadCount The maximum number of tables processed concurrently
+     */
+    public ParallelOperation(DatabaseOperation operation,
+            IDatabaseTester connectionSource, int threadCount)
+    {
+        this(operation, connectionSource, threadCount, false, false);
+    }
+
+    /**
+     * @param operation The operation executed for each table
+     * @param connectionSource Provides the pooled connections
+     * @param threadCount The maximum number of tables processed concurrently
+     * @param reverseLevelOrder <code>true</code> to process the children
+     *            before their parents, e.g. for deletes
+     * @param transactional <code>true</code> to commit the pooled connections
+     *            at the end of each level instead of auto-committing
+     */
+    public ParallelOperation(DatabaseOperation operation,
+            IDatabaseTester connectionSource, int threadCount,
+            boolean reverseLevelOrder, boolean transactional)
+    {
+        if (operation == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'operation' must not be null");
+        }
+        if (connectionSource == null)
+        {
+            throw new NullPointerException(
+                    "The parameter 'connectionSource' must not be null");
+        }
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException(
+                    "The parameter 'threadCount' must be greater than 0: "
+                            + threadCount);
+        }
+        _operation = operation;
+        _connectionSource = connectionSource;
+        _threadCount = threadCount;
+        _reverseLevelOrder = reverseLevelOrder;
+        _transactional = transactional;
+    }
+
+    /**
+     * Creates an operation that deletes all rows of the dataset tables and
+     * then inserts the dataset, both in parallel.
+     *
+     * @param connectionSource Provides the pooled connections
+     * @param threadCount The maximum number of tables processed concurrently
+     * @return The parallel equivalent of {@link DatabaseOperation#CLEAN_INSERT}
+     */
+    public static DatabaseOperation cleanInsert(
+            IDatabaseTester connectionSource, int threadCount)
+    {
+        return new CompositeOperation(
+                new ParallelOperation(DatabaseOperation.DELETE_ALL,
+                        connectionSource, threadCount, true, false),
+                new ParallelOperation(DatabaseOperation.INSERT,
+                        connectionSource, threadCount));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // DatabaseOperation class
+
+    public void execute(IDatabaseConnection connection, IDataSet dataSet)
+            throws DatabaseUnitException, SQLException
+    {
+        logger.debug("execute(connection={}, dataSet={}) - start", connection, dataSet);
+
+        String[][] levels = DatabaseSequenceFilter.getTableLevels(connection,
+                dataSet.getTableNames());
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(
+                _connectionSource, connection.getConfig(), _transactional);
+        ExecutorService executor = Executors.newFixedThreadPool(_threadCount);
+        try
+        {
+            for (int i = 0; i < levels.length; i++)
+            {
+                String[] level =
+                        levels[_reverseLevelOrder ? levels.length - 1 - i : i];
+                logger.debug("execute: processing level {} with tables {}",
+                        String.valueOf(i), level);
+
+                List<Callable<Object>> tasks =
+                        new ArrayList<Callable<Object>>(level.length);
+                for (int j = 0; j < level.length; j++)
+                {
+                    tasks.add(new TableTask(pool, dataSet, level[j]));
+                }
+
+                Throwable failure = null;
+                try
+                {
+                    // Waits until all tables of the level are processed
+                    List<Future<Object>> futures = executor.invokeAll(tasks);
+                    for (Future<Object> future : futures)
+                    {
+                        try
+                        {
+                            future.get();
+                        }
+                        catch (ExecutionException e)
+                        {
+                            if (failure == null)
+                            {
+                                failure = e.getCause();
+                            }
+                        }
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                }
+
+                if (_transactional)
+                {
+                    pool.endTransactions(failure == null);
+                }
+                if (failure != null)
+                {
+                    rethrow(failure);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+
+    private static void rethrow(Throwable failure)
+            throws DatabaseUnitException, SQLException
+    {
+        if (failure instanceof DatabaseUnitException)
+        {
+            throw (DatabaseUnitException) failure;
+        }
+        if (failure instanceof SQLException)
+        {
+            throw (SQLException) failure;
+        }
+        if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        throw new DatabaseUnitException(failure);
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("_operation=").append(_operation);
+        sb.append(", _threadCount=").append(_threadCount);
+        sb.append(", _reverseLevelOrder=").append(_reverseLevelOrder);
+        sb.append(", _transactional=").append(_transactional);
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Executes the operation on a single table of the dataset.
+     */
+    private class TableTask implements Callable<Object>
+    {
+        private final DatabaseConnectionPool _pool;
+        private final IDataSet _dataSet;
+        private final String _tableName;
+
+        public TableTask(DatabaseConnectionPool pool, IDataSet dataSet, String tableName)
+        {
+            _pool = pool;
+            _dataSet = dataSet;
+            _tableName = tableName;
+        }
+
+        public Object call() throws Exception
+        {
+            logger.debug("call() - start: table={}", _tableName);
+
+            IDatabaseConnection connection = _pool.acquire();
+            try
+            {
+                _operation.execute(connection,
+                        new DefaultDataSet(_dataSet.getTable(_tableName)));
+            }
+            finally
+            {
+                _pool.release(connection);
+            }
+            return null;
+        }
+    }
+}
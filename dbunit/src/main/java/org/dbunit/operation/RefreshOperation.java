@@ -25,23 +25,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.database.statement.IPreparedBatchStatement;
+import org.dbunit.database.statement.IStatementFactory;
 import org.dbunit.database.statement.SimplePreparedStatement;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
 import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.NoPrimaryKeyException;
-import org.dbunit.dataset.RowOutOfBoundsException;
 import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.TypeCastException;
 
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This operation literally refreshes dataset contents into the database. This
@@ -70,11 +82,6 @@ public class RefreshOperation extends AbstractOperation
         _updateOperation = (UpdateOperation)DatabaseOperation.UPDATE;
     }
 
-    private boolean isEmpty(ITable table) throws DataSetException
-    {
-        return AbstractBatchOperation.isEmpty(table);
-    }
-
     ////////////////////////////////////////////////////////////////////////////
     // DatabaseOperation class
 
@@ -82,7 +89,19 @@ public class RefreshOperation extends AbstractOperation
             throws DatabaseUnitException, SQLException
     {
         logger.debug("execute(connection={}, dataSet) - start", connection);
-        
+
+        // Database specific refresh operation
+        DatabaseOperation refreshOperation = (DatabaseOperation) connection
+                .getConfig().getProperty(DatabaseConfig.PROPERTY_REFRESH_OPERATION);
+        if (refreshOperation != null && refreshOperation != this)
+        {
+            refreshOperation.execute(connection, dataSet);
+            return;
+        }
+
+        boolean batchedRefresh = connection.getConfig()
+                .getFeature(DatabaseConfig.FEATURE_BATCHED_REFRESH);
+
         // for each table
         ITableIterator iterator = dataSet.iterator();
         while (iterator.next())
@@ -93,13 +112,38 @@ public class RefreshOperation extends AbstractOperation
             logger.trace("execute: processing table='{}'", tableName);
 
             // Do not process empty table
-            if (isEmpty(table))
+            ITableCursor cursor = table.cursor();
+            if (!AbstractBatchOperation.moveToFirstRow(cursor))
             {
                 continue;
             }
 
             ITableMetaData metaData = getOperationMetaData(connection,
                     table.getTableMetaData());
+
+            // Tables without primary key use the row by row algorithm which
+            // reports the missing primary key
+            if (batchedRefresh && metaData.getPrimaryKeys().length > 0)
+            {
+                BatchedTableRefresh tableRefresh =
+                        new BatchedTableRefresh(connection, table, metaData);
+                try
+                {
+                    tableRefresh.execute(cursor);
+                }
+                catch (SQLException e)
+                {
+                    final String msg =
+                        "Exception processing table name='" + tableName + "'";
+                    throw new DatabaseUnitException(msg, e);
+                }
+                finally
+                {
+                    tableRefresh.close();
+                }
+                continue;
+            }
+
             RowOperation updateRowOperation = createUpdateOperation(connection,
                     metaData);
             RowOperation insertRowOperation = new InsertRowOperation(connection,
@@ -108,20 +152,14 @@ public class RefreshOperation extends AbstractOperation
             try
             {
                 // refresh all rows
-                for (int i = 0; ; i++)
+                do
                 {
-                    if (!updateRowOperation.execute(table, i))
+                    if (!updateRowOperation.execute(table, cursor))
                     {
-                        insertRowOperation.execute(table, i);
+                        insertRowOperation.execute(table, cursor);
                     }
                 }
-            }
-            catch (RowOutOfBoundsException e)
-            {
-            	// This exception occurs when records are exhausted
-            	// and we reach the end of the table.  Ignore this error.
-
-                // end of table
+                while (cursor.next());
             }
             catch (SQLException e)
             {
@@ -169,23 +207,32 @@ public class RefreshOperation extends AbstractOperation
         protected IPreparedBatchStatement _statement;
         protected OperationData _operationData;
         protected BitSet _ignoreMapping;
+        /**
+         * Positions of the operation columns within the processed table,
+         * resolved on first use for the current operation data
+         */
+        protected int[] _columnIndexes;
 
         /**
-         * Execute this operation on the sepcified table row.
+         * Execute this operation on the current row of the specified cursor.
          * @return <code>true</code> if operation have been executed on the row.
          */
-        public boolean execute(ITable table, int row)
+        public boolean execute(ITable table, ITableCursor cursor)
                 throws DataSetException, SQLException
         {
-            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(row));
+            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(cursor.getRow()));
 
             Column[] columns = _operationData.getColumns();
+            if (_columnIndexes == null)
+            {
+                _columnIndexes = AbstractBatchOperation.getColumnIndexes(table, columns);
+            }
             for (int i = 0; i < columns.length; i++)
             {
                 // Bind value only if not in ignore mapping
                 if (_ignoreMapping == null || !_ignoreMapping.get(i))
                 {
-                    Object value = table.getValue(row, columns[i].getColumnName());
+                    Object value = cursor.get(_columnIndexes[i]);
                     _statement.addValue(value, columns[i].getDataType());
                 }
             }
@@ -232,15 +279,15 @@ public class RefreshOperation extends AbstractOperation
             _metaData = metaData;
         }
 
-        public boolean execute(ITable table, int row)
+        public boolean execute(ITable table, ITableCursor cursor)
                 throws DataSetException, SQLException
         {
-            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(row));
+            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(cursor.getRow()));
 
             // If current row has a different ignore value mapping than
             // previous one, we generate a new statement
             if (_ignoreMapping == null ||
-                    !_insertOperation.equalsIgnoreMapping(_ignoreMapping, table, row))
+                    !_insertOperation.equalsIgnoreMapping(_ignoreMapping, table, cursor))
             {
                 // Execute and close previous statement
                 if (_statement != null)
@@ -248,14 +295,15 @@ public class RefreshOperation extends AbstractOperation
                     _statement.close();
                 }
 
-                _ignoreMapping = _insertOperation.getIgnoreMapping(table, row);
+                _ignoreMapping = _insertOperation.getIgnoreMapping(table, cursor);
                 _operationData = _insertOperation.getOperationData(_metaData,
                         _ignoreMapping, _connection);
+                _columnIndexes = null;
                 _statement = new SimplePreparedStatement(_operationData.getSql(),
                         _connection.getConnection());
             }
 
-            return super.execute(table, row);
+            return super.execute(table, cursor);
         }
 
     }
@@ -341,18 +389,23 @@ public class RefreshOperation extends AbstractOperation
         // RowOperation class
 
         /**
-         * Verify if the specified table row exists in the database.
+         * Verify if the current row of the specified cursor exists in the
+         * database.
          * @return <code>true</code> if row exists.
          */
-        public boolean execute(ITable table, int row)
+        public boolean execute(ITable table, ITableCursor cursor)
                 throws DataSetException, SQLException
         {
-            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(row));
+            logger.debug("execute(table={}, row={}) - start", table, String.valueOf(cursor.getRow()));
 
             Column[] columns = _operationData.getColumns();
+            if (_columnIndexes == null)
+            {
+                _columnIndexes = AbstractBatchOperation.getColumnIndexes(table, columns);
+            }
             for (int i = 0; i < columns.length; i++)
             {
-                Object value = table.getValue(row, columns[i].getColumnName());
+                Object value = cursor.get(_columnIndexes[i]);
                 DataType dataType = columns[i].getDataType();
                 dataType.setSqlValue(value, i + 1, _countStatement);
             }
@@ -377,4 +430,555 @@ public class RefreshOperation extends AbstractOperation
         }
     }
 
+
+    /**
+     * Refreshes a table with primary key in chunks of rows. The existing
+     * primary keys of each chunk are read with a single query, then the rows
+     * are partitioned into rows to insert and rows to update, which are both
+     * executed through batched statements. Inserts of a chunk are executed
+     * before its updates so that duplicated keys within the dataset behave as
+     * with the row by row algorithm.
+     * <p>
+     * The keys returned by the query are matched with the keys of the dataset
+     * in Java, which may not agree with the collation of the database. If the
+     * query returns a key which does not match any key of the chunk, the rows
+     * without matching key are refreshed with the row by row algorithm
+     * instead of being inserted. Updated rows which the database reports as
+     * not found are inserted afterwards. Keys of the dataset which only the
+     * database considers equal are still treated as distinct rows.
+     * </p>
+     */
+    private class BatchedTableRefresh
+    {
+
+        /**
+         * Logger for this class
+         */
+        private final Logger logger = LoggerFactory.getLogger(BatchedTableRefresh.class);
+
+        private final IDatabaseConnection _connection;
+        private final ITable _table;
+        private final ITableMetaData _metaData;
+        private final IStatementFactory _factory;
+        private final int _chunkSize;
+
+        private final Column[] _primaryKeys;
+        private final int[] _primaryKeyIndexes;
+
+        private final OperationData _updateData;
+        private final int[] _updateColumnIndexes;
+        private PreparedStatement _updateStatement;
+
+        private final BatchStatementCache _insertStatements;
+        private BatchStatementCache.Entry _currentInsert;
+
+        private PreparedStatement _probeStatement;
+        private int _probeKeyCount;
+        private PreparedStatement _rowProbeStatement;
+
+        public BatchedTableRefresh(IDatabaseConnection connection,
+                ITable table, ITableMetaData metaData)
+                throws DataSetException
+        {
+            _connection = connection;
+            _table = table;
+            _metaData = metaData;
+
+            DatabaseConfig config = connection.getConfig();
+            _factory = (IStatementFactory) config.getProperty(
+                    DatabaseConfig.PROPERTY_STATEMENT_FACTORY);
+            _chunkSize = Math.max(1, ((Integer) config.getProperty(
+                    DatabaseConfig.PROPERTY_BATCH_SIZE)).intValue());
+            _insertStatements = new BatchStatementCache(((Integer) config
+                    .getProperty(DatabaseConfig.PROPERTY_STATEMENT_CACHE_SIZE))
+                    .intValue());
+
+            _primaryKeys = metaData.getPrimaryKeys();
+            _primaryKeyIndexes =
+                    AbstractBatchOperation.getColumnIndexes(table, _primaryKeys);
+
+            // update only if columns are not all primary keys
+            if (metaData.getColumns().length > _primaryKeys.length)
+            {
+                _updateData = _updateOperation.getOperationData(metaData, null,
+                        connection);
+                _updateColumnIndexes = AbstractBatchOperation.getColumnIndexes(
+                        table, _updateData.getColumns());
+            }
+            else
+            {
+                _updateData = null;
+                _updateColumnIndexes = null;
+            }
+        }
+
+        /**
+         * Refreshes the rows of the table, starting at the current row of the
+         * specified cursor.
+         */
+        public void execute(ITableCursor cursor)
+                throws DataSetException, SQLException
+        {
+            logger.debug("execute(cursor={}) - start", cursor);
+
+            int columnCount = cursor.getTableMetaData().getColumns().length;
+            List<Object[]> rows = new ArrayList<Object[]>(_chunkSize);
+            List<BitSet> ignoreMappings = new ArrayList<BitSet>(_chunkSize);
+            BitSet ignoreMapping = null;
+
+            boolean hasNext;
+            do
+            {
+                // Keep the insert ignore mapping of each row
+                if (ignoreMapping == null || !_insertOperation
+                        .equalsIgnoreMapping(ignoreMapping, _table, cursor))
+                {
+                    ignoreMapping = _insertOperation.getIgnoreMapping(_table, cursor);
+                }
+
+                Object[] values = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++)
+                {
+                    values[i] = cursor.get(i);
+                }
+                rows.add(values);
+                ignoreMappings.add(ignoreMapping);
+
+                hasNext = cursor.next();
+                if (rows.size() == _chunkSize || !hasNext)
+                {
+                    refreshChunk(rows, ignoreMappings);
+                    rows.clear();
+                    ignoreMappings.clear();
+                }
+            }
+            while (hasNext);
+        }
+
+        private void refreshChunk(List<Object[]> rows,
+                List<BitSet> ignoreMappings)
+                throws DataSetException, SQLException
+        {
+            logger.debug("refreshChunk(rows={}) - start", String.valueOf(rows.size()));
+
+            // Distinct primary keys of the chunk
+            List<List<Object>> rowKeys = new ArrayList<List<Object>>(rows.size());
+            Map<List<Object>, Object[]> keys =
+                    new LinkedHashMap<List<Object>, Object[]>();
+            for (Object[] values : rows)
+            {
+                List<Object> key = getKey(values);
+                rowKeys.add(key);
+                if (!keys.containsKey(key))
+                {
+                    keys.put(key, values);
+                }
+            }
+
+            Set<List<Object>> existingKeys = selectExistingKeys(keys);
+
+            // A key returned by the database that matches none of the chunk
+            // shows that the database compares keys differently, so a key
+            // which was not found does not prove that the row is new
+            boolean trustMissingKeys = keys.keySet().containsAll(existingKeys);
+
+            // Partition rows into inserts and updates, preserving row order
+            List<Integer> updateRows = new ArrayList<Integer>();
+            List<Integer> uncheckedRows = new ArrayList<Integer>();
+            Set<List<Object>> uncheckedKeys = new HashSet<List<Object>>();
+            for (int i = 0; i < rows.size(); i++)
+            {
+                List<Object> key = rowKeys.get(i);
+                if (uncheckedKeys.contains(key))
+                {
+                    uncheckedRows.add(new Integer(i));
+                }
+                else if (existingKeys.add(key))
+                {
+                    if (trustMissingKeys)
+                    {
+                        addInsert(rows.get(i), ignoreMappings.get(i));
+                    }
+                    else
+                    {
+                        uncheckedRows.add(new Integer(i));
+                        uncheckedKeys.add(key);
+                    }
+                }
+                else if (_updateData != null)
+                {
+                    updateRows.add(new Integer(i));
+                }
+            }
+            executeInserts();
+
+            if (!updateRows.isEmpty())
+            {
+                int[] updateCounts = executeUpdates(rows, updateRows);
+                for (int i = 0; i < updateCounts.length; i++)
+                {
+                    // The row does not exist in spite of the probe. Unknown
+                    // update counts are trusted to match the probe.
+                    if (updateCounts[i] == 0)
+                    {
+                        int row = updateRows.get(i).intValue();
+                        addInsert(rows.get(row), ignoreMappings.get(row));
+                    }
+                }
+                executeInserts();
+            }
+
+            for (Integer row : uncheckedRows)
+            {
+                refreshRow(rows.get(row.intValue()),
+                        ignoreMappings.get(row.intValue()));
+            }
+        }
+
+        /**
+         * Executes the pending inserts of all cached insert statements.
+         */
+        private void executeInserts() throws SQLException
+        {
+            for (BatchStatementCache.Entry entry : _insertStatements.getEntries())
+            {
+                entry.executeBatch();
+            }
+        }
+
+        /**
+         * Updates the specified rows with a single batch.
+         * @return The update count of each row
+         */
+        private int[] executeUpdates(List<Object[]> rows, List<Integer> updateRows)
+                throws DataSetException, SQLException
+        {
+            if (_updateStatement == null)
+            {
+                _updateStatement = _connection.getConnection().prepareStatement(
+                        _updateData.getSql());
+            }
+
+            for (Integer row : updateRows)
+            {
+                bindUpdate(_updateStatement, rows.get(row.intValue()));
+                _updateStatement.addBatch();
+            }
+            int[] updateCounts = _updateStatement.executeBatch();
+            _updateStatement.clearBatch();
+            if (updateCounts.length != updateRows.size())
+            {
+                throw new SQLException("Expected " + updateRows.size()
+                        + " update counts but got " + updateCounts.length);
+            }
+            return updateCounts;
+        }
+
+        private void bindUpdate(PreparedStatement statement, Object[] values)
+                throws DataSetException, SQLException
+        {
+            Column[] columns = _updateData.getColumns();
+            for (int i = 0; i < columns.length; i++)
+            {
+                columns[i].getDataType().setSqlValue(
+                        values[_updateColumnIndexes[i]], i + 1, statement);
+            }
+        }
+
+        /**
+         * Refreshes a single row like the row by row algorithm: the row is
+         * updated, or checked for existence if all its columns are primary
+         * keys, and inserted if it does not exist.
+         */
+        private void refreshRow(Object[] values, BitSet ignoreMapping)
+                throws DataSetException, SQLException
+        {
+            boolean exists;
+            if (_updateData != null)
+            {
+                if (_updateStatement == null)
+                {
+                    _updateStatement = _connection.getConnection()
+                            .prepareStatement(_updateData.getSql());
+                }
+                bindUpdate(_updateStatement, values);
+                exists = _updateStatement.executeUpdate() > 0;
+            }
+            else
+            {
+                if (_rowProbeStatement == null)
+                {
+                    _rowProbeStatement = _connection.getConnection()
+                            .prepareStatement(getSelectKeysSql(1));
+                }
+                for (int i = 0; i < _primaryKeys.length; i++)
+                {
+                    _primaryKeys[i].getDataType().setSqlValue(
+                            values[_primaryKeyIndexes[i]], i + 1,
+                            _rowProbeStatement);
+                }
+                ResultSet resultSet = _rowProbeStatement.executeQuery();
+                try
+                {
+                    exists = resultSet.next();
+                }
+                finally
+                {
+                    resultSet.close();
+                }
+            }
+
+            if (!exists)
+            {
+                addInsert(values, ignoreMapping);
+                executeInserts();
+            }
+        }
+
+        private void addInsert(Object[] values, BitSet ignoreMapping)
+                throws DataSetException, SQLException
+        {
+            if (_currentInsert == null
+                    || !_currentInsert.getIgnoreMapping().equals(ignoreMapping))
+            {
+                _currentInsert = _insertStatements.get(ignoreMapping);
+                if (_currentInsert == null)
+                {
+                    OperationData operationData = _insertOperation
+                            .getOperationData(_metaData, ignoreMapping,
+                                    _connection);
+                    int[] columnIndexes = AbstractBatchOperation
+                            .getColumnIndexes(_table, operationData.getColumns());
+                    IPreparedBatchStatement statement = _factory
+                            .createPreparedBatchStatement(operationData.getSql(),
+                                    _connection);
+                    _currentInsert = new BatchStatementCache.Entry(
+                            ignoreMapping, operationData, columnIndexes,
+                            statement, 1);
+
+                    // Executes and closes the least recently used statement
+                    // if the cache is full
+                    BatchStatementCache.Entry eldest =
+                            _insertStatements.put(_currentInsert);
+                    if (eldest != null)
+                    {
+                        try
+                        {
+                            eldest.executeBatch();
+                        }
+                        finally
+                        {
+                            eldest.getStatement().close();
+                        }
+                    }
+                }
+            }
+
+            IPreparedBatchStatement statement = _currentInsert.getStatement();
+            int[] columnIndexes = _currentInsert.getColumnIndexes();
+            Column[] columns = _currentInsert.getOperationData().getColumns();
+            for (int i = 0; i < columns.length; i++)
+            {
+                // Bind value only if not in ignore mapping
+                if (!ignoreMapping.get(i))
+                {
+                    statement.addValue(values[columnIndexes[i]],
+                            columns[i].getDataType());
+                }
+            }
+            statement.addBatch();
+        }
+
+        /**
+         * Reads which of the specified primary keys exist in the database.
+         */
+        private Set<List<Object>> selectExistingKeys(
+                Map<List<Object>, Object[]> keys)
+                throws DataSetException, SQLException
+        {
+            if (_probeStatement == null || _probeKeyCount != keys.size())
+            {
+                if (_probeStatement != null)
+                {
+                    _probeStatement.close();
+                }
+                _probeStatement = _connection.getConnection().prepareStatement(
+                        getSelectKeysSql(keys.size()));
+                _probeKeyCount = keys.size();
+            }
+
+            int parameterIndex = 0;
+            for (Object[] values : keys.values())
+            {
+                for (int i = 0; i < _primaryKeys.length; i++)
+                {
+                    DataType dataType = _primaryKeys[i].getDataType();
+                    dataType.setSqlValue(values[_primaryKeyIndexes[i]],
+                            ++parameterIndex, _probeStatement);
+                }
+            }
+
+            Set<List<Object>> existingKeys = new HashSet<List<Object>>();
+            ResultSet resultSet = _probeStatement.executeQuery();
+            try
+            {
+                while (resultSet.next())
+                {
+                    List<Object> key = new ArrayList<Object>(_primaryKeys.length);
+                    for (int i = 0; i < _primaryKeys.length; i++)
+                    {
+                        DataType dataType = _primaryKeys[i].getDataType();
+                        key.add(toKeyValue(dataType,
+                                dataType.getSqlValue(i + 1, resultSet)));
+                    }
+                    existingKeys.add(key);
+                }
+            }
+            finally
+            {
+                resultSet.close();
+            }
+            return existingKeys;
+        }
+
+        /**
+         * Generates a query selecting the primary key columns of the given
+         * number of keys, using an <code>in</code> list for single column keys.
+         */
+        private String getSelectKeysSql(int keyCount)
+        {
+            StringBuffer sqlBuffer = new StringBuffer(128);
+            sqlBuffer.append("select ");
+            for (int i = 0; i < _primaryKeys.length; i++)
+            {
+                if (i > 0)
+                {
+                    sqlBuffer.append(", ");
+                }
+                sqlBuffer.append(getQualifiedName(null,
+                        _primaryKeys[i].getColumnName(), _connection));
+            }
+            sqlBuffer.append(" from ");
+            sqlBuffer.append(getQualifiedName(_connection.getSchema(),
+                    _metaData.getTableName(), _connection));
+            sqlBuffer.append(" where ");
+
+            if (_primaryKeys.length == 1)
+            {
+                sqlBuffer.append(getQualifiedName(null,
+                        _primaryKeys[0].getColumnName(), _connection));
+                sqlBuffer.append(" in (");
+                for (int k = 0; k < keyCount; k++)
+                {
+                    sqlBuffer.append(k > 0 ? ", ?" : "?");
+                }
+                sqlBuffer.append(")");
+                return sqlBuffer.toString();
+            }
+
+            for (int k = 0; k < keyCount; k++)
+            {
+                if (k > 0)
+                {
+                    sqlBuffer.append(" or ");
+                }
+                sqlBuffer.append("(");
+                for (int i = 0; i < _primaryKeys.length; i++)
+                {
+                    if (i > 0)
+                    {
+                        sqlBuffer.append(" and ");
+                    }
+                    sqlBuffer.append(getQualifiedName(null,
+                            _primaryKeys[i].getColumnName(), _connection));
+                    sqlBuffer.append(" = ?");
+                }
+                sqlBuffer.append(")");
+            }
+            return sqlBuffer.toString();
+        }
+
+        private List<Object> getKey(Object[] values) throws TypeCastException
+        {
+            List<Object> key = new ArrayList<Object>(_primaryKeys.length);
+            for (int i = 0; i < _primaryKeys.length; i++)
+            {
+                key.add(toKeyValue(_primaryKeys[i].getDataType(),
+                        values[_primaryKeyIndexes[i]]));
+            }
+            return key;
+        }
+
+        /**
+         * Converts a primary key value read from the dataset or from the
+         * database to a representation with value based equality.
+         */
+        private Object toKeyValue(DataType dataType, Object value)
+                throws TypeCastException
+        {
+            Object keyValue = dataType.typeCast(value);
+            if (keyValue instanceof BigDecimal)
+            {
+                return ((BigDecimal) keyValue).stripTrailingZeros();
+            }
+            if (keyValue instanceof byte[])
+            {
+                return ByteBuffer.wrap((byte[]) keyValue);
+            }
+            if (keyValue instanceof String && (dataType.getSqlType() == Types.CHAR
+                    || dataType.getSqlType() == Types.NCHAR))
+            {
+                // Fixed length values are padded by the database
+                String string = (String) keyValue;
+                int length = string.length();
+                while (length > 0 && string.charAt(length - 1) == ' ')
+                {
+                    length--;
+                }
+                return string.substring(0, length);
+            }
+            return keyValue;
+        }
+
+        /**
+         * Cleanup this operation state.
+         */
+        public void close() throws SQLException
+        {
+            logger.debug("close() - start");
+
+            try
+            {
+                _insertStatements.closeAll();
+            }
+            finally
+            {
+                try
+                {
+                    if (_updateStatement != null)
+                    {
+                        _updateStatement.close();
+                    }
+                }
+                finally
+                {
+                    try
+                    {
+                        if (_probeStatement != null)
+                        {
+                            _probeStatement.close();
+                        }
+                    }
+                    finally
+                    {
+                        if (_rowProbeStatement != null)
+                        {
+                            _rowProbeStatement.close();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -23,7 +23,9 @@ package org.dbunit.util.fileloader;
 import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.dbunit.DatabaseUnitRuntimeException;
 import org.dbunit.dataset.DataSetException;
@@ -47,6 +49,7 @@ public abstract class AbstractDataFileLoader implements DataFileLoader {
 
     private Map replacementObjects;
     private Map replacementSubstrings;
+    private DataSetCache dataSetCache;
 
     /** Create new instance. */
     public AbstractDataFileLoader() {
@@ -111,8 +114,19 @@ public abstract class AbstractDataFileLoader implements DataFileLoader {
             }
 
             try {
-                ds = loadDataSet(url);
-                ds = processReplacementTokens(ds);
+                if (dataSetCache == null) {
+                    ds = loadDataSet(url);
+                    ds = processReplacementTokens(ds);
+                } else {
+                    ds = dataSetCache.getDataSet(url, getCacheKey(),
+                            new DataSetCache.DataSetLoader() {
+                                public IDataSet load(URL url)
+                                        throws DataSetException, IOException {
+                                    return processReplacementTokens(
+                                            loadDataSet(url));
+                                }
+                            });
+                }
             } catch (DataSetException e) {
                 final String msg =
                         "DataSetException occurred loading data set file name='"
@@ -151,6 +165,55 @@ public abstract class AbstractDataFileLoader implements DataFileLoader {
         return rds;
     }
 
+    /**
+     * Enable caching of the loaded datasets. The datasets returned by
+     * {@link #load(String)} are then shared with other loads of the same file
+     * and must not be modified.
+     * 
+     * @param dataSetCache
+     *            The cache to use, possibly shared with other loaders, or
+     *            null to disable caching.
+     * @since 2.7.1
+     */
+    public void setDataSetCache(DataSetCache dataSetCache) {
+        this.dataSetCache = dataSetCache;
+    }
+
+    /**
+     * @return The cache of the loaded datasets or null.
+     * @since 2.7.1
+     */
+    public DataSetCache getDataSetCache() {
+        return dataSetCache;
+    }
+
+    /**
+     * Identifies the configuration of this loader in the
+     * {@link DataSetCache}. Subclasses with settings affecting the loaded
+     * datasets must add them to the key.
+     * 
+     * @return The cache key of this loader, including the replacement objects
+     *         and substrings.
+     * @since 2.7.1
+     */
+    protected String getCacheKey() {
+        return getClass().getName() + "[objects="
+                + toCacheKey(replacementObjects) + ", substrings="
+                + toCacheKey(replacementSubstrings) + "]";
+    }
+
+    private static String toCacheKey(Map replacements) {
+        // Sorted so that equal maps produce the same key
+        Map sorted = new TreeMap();
+        for (Iterator i = replacements.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry) i.next();
+            Object value = entry.getValue();
+            sorted.put(String.valueOf(entry.getKey()), value == null ? "null"
+                    : value.getClass().getName() + ':' + value);
+        }
+        return sorted.toString();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,87 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.util.fileloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.binary.BinaryDataSet;
+
+/**
+ * Loads datasets in the binary format written by
+ * {@link org.dbunit.dataset.binary.BinaryDataSetWriter}. Files on the file
+ * system are read through a memory mapped buffer.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryDataFileLoader extends AbstractDataFileLoader {
+    /** Create new instance. */
+    public BinaryDataFileLoader() {
+    }
+
+    /**
+     * Create new instance with replacement objects.
+     * 
+     * @param ro
+     *            The replacement objects for use with
+     *            {@link org.dbunit.dataset.ReplacementDataSet}.
+     */
+    public BinaryDataFileLoader(Map ro) {
+        super(ro);
+    }
+
+    /**
+     * Create new instance with replacement objects and replacement substrings.
+     * 
+     * @param ro
+     *            The replacement objects for use with
+     *            {@link org.dbunit.dataset.ReplacementDataSet}.
+     * @param rs
+     *            The replacement substrings for use with
+     *            {@link org.dbunit.dataset.ReplacementDataSet}.
+     */
+    public BinaryDataFileLoader(Map ro, Map rs) {
+        super(ro, rs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public IDataSet loadDataSet(URL url) throws DataSetException,
+            IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new BinaryDataSet(new File(url.toURI()));
+            } catch (URISyntaxException e) {
+                // Fall back to reading the stream
+            }
+        }
+        return new BinaryDataSet(url.openStream());
+    }
+}
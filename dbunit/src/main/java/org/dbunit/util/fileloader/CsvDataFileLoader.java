@@ -37,10 +37,25 @@ import org.dbunit.dataset.csv.CsvURLDataSet;
  * 
  */
 public class CsvDataFileLoader extends AbstractDataFileLoader {
+    /** Whether the files are read with the single-pass CSV scanner. */
+    private boolean useScanner;
+
     /** Create new instance. */
     public CsvDataFileLoader() {
     }
 
+    /**
+     * Create new instance choosing the CSV parser.
+     * 
+     * @param useScanner
+     *            If <code>true</code> the files are read with the
+     *            single-pass {@link org.dbunit.dataset.csv.CsvScanner}.
+     * @since 2.7.1
+     */
+    public CsvDataFileLoader(boolean useScanner) {
+        this.useScanner = useScanner;
+    }
+
     /**
      * Create new instance with replacement objects.
      * 
@@ -66,13 +81,40 @@ public class CsvDataFileLoader extends AbstractDataFileLoader {
         super(ro, rs);
     }
 
+    /**
+     * Create new instance with replacement objects, replacement substrings and
+     * the choice of CSV parser.
+     * 
+     * @param ro
+     *            The replacement objects for use with
+     *            {@link org.dbunit.dataset.ReplacementDataSet}.
+     * @param rs
+     *            The replacement substrings for use with
+     *            {@link org.dbunit.dataset.ReplacementDataSet}.
+     * @param useScanner
+     *            If <code>true</code> the files are read with the
+     *            single-pass {@link org.dbunit.dataset.csv.CsvScanner}.
+     * @since 2.7.1
+     */
+    public CsvDataFileLoader(Map ro, Map rs, boolean useScanner) {
+        super(ro, rs);
+        this.useScanner = useScanner;
+    }
+
     /**
      * {@inheritDoc}
      */
     public IDataSet loadDataSet(URL url) throws DataSetException,
             IOException {
-        IDataSet ds = new CsvURLDataSet(url);
+        IDataSet ds = new CsvURLDataSet(url, useScanner);
 
         return ds;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected String getCacheKey() {
+        return super.getCacheKey() + "[useScanner=" + useScanner + "]";
+    }
 }
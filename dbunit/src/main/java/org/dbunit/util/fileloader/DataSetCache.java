@@ -0,0 +1,381 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.util.fileloader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.binary.BinaryDataSetWriter;
+import org.dbunit.dataset.binary.BinaryProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the datasets loaded by {@link AbstractDataFileLoader}s, enabled
+ * with {@link AbstractDataFileLoader#setDataSetCache(DataSetCache)}. A
+ * single instance is meant to be shared by the loaders of a JVM, for example
+ * held in a static field of a test base class.
+ * <p>
+ * The loaded datasets are kept in memory, after the replacement objects and
+ * substrings have been applied, and the least recently used ones are evicted
+ * once their estimated size exceeds <code>maxBytes</code>. An entry is
+ * reused while the size and modification time of its file are unchanged.
+ * The datasets returned by the cache are shared and must not be modified.
+ * </p>
+ * <p>
+ * If a directory is given the datasets are also written to it in the binary
+ * dataset format, so a later run reads them without parsing the original
+ * files. These files are keyed by the content hash of the original file
+ * instead of its modification time, so they survive a fresh checkout.
+ * </p>
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DataSetCache {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(DataSetCache.class);
+
+    /** The default maximum estimated size of the cached datasets. */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final String FILE_SUFFIX = ".dbub";
+    private static final String CASE_SENSITIVE_SUFFIX = ".cs" + FILE_SUFFIX;
+
+    private final long maxBytes;
+    private final File directory;
+    private final LinkedHashMap entries = new LinkedHashMap(16, 0.75f, true);
+    private long estimatedBytes;
+    private int hitCount;
+    private int missCount;
+
+    /** Create new in-memory cache with the default size. */
+    public DataSetCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Create new in-memory cache.
+     * 
+     * @param maxBytes
+     *            The maximum estimated size of the cached datasets.
+     */
+    public DataSetCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Create new cache which also stores the datasets in binary form.
+     * 
+     * @param maxBytes
+     *            The maximum estimated size of the datasets cached in
+     *            memory.
+     * @param directory
+     *            The directory of the binary dataset files, for example
+     *            below the build output directory. Created when needed.
+     */
+    public DataSetCache(long maxBytes, File directory) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException(
+                    "The parameter 'maxBytes' must be greater than 0: "
+                            + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cached dataset of the given file or loads and caches it.
+     * 
+     * @param url
+     *            The data file.
+     * @param loaderKey
+     *            Identifies the loader configuration, including the
+     *            replacement objects and substrings.
+     * @param loader
+     *            Loads the dataset on a cache miss.
+     */
+    IDataSet getDataSet(URL url, String loaderKey, DataSetLoader loader)
+            throws DataSetException, IOException {
+        File file = toFile(url);
+        long size;
+        long lastModified;
+        if (file != null) {
+            size = file.length();
+            lastModified = file.lastModified();
+        } else {
+            URLConnection connection = url.openConnection();
+            size = connection.getContentLengthLong();
+            lastModified = connection.getLastModified();
+        }
+
+        String key = loaderKey + '|' + url.toExternalForm();
+        String version = size + "|" + lastModified;
+        synchronized (this) {
+            Entry entry = (Entry) entries.get(key);
+            if (entry != null && entry.version.equals(version)) {
+                hitCount++;
+                return entry.dataSet;
+            }
+            missCount++;
+        }
+
+        IDataSet dataSet = null;
+        File binaryFile = null;
+        if (directory != null) {
+            String name = digest(key.getBytes("UTF-8")) + '-'
+                    + digest(readContent(url));
+            binaryFile = new File(directory, name + FILE_SUFFIX);
+            File caseSensitiveFile =
+                    new File(directory, name + CASE_SENSITIVE_SUFFIX);
+            if (binaryFile.isFile()) {
+                dataSet = readBinary(binaryFile, false);
+            } else if (caseSensitiveFile.isFile()) {
+                dataSet = readBinary(caseSensitiveFile, true);
+            }
+        }
+
+        if (dataSet == null) {
+            dataSet = new CachedDataSet(loader.load(url));
+            if (binaryFile != null) {
+                if (dataSet.isCaseSensitiveTableNames()) {
+                    binaryFile = new File(directory, binaryFile.getName()
+                            .replace(FILE_SUFFIX, CASE_SENSITIVE_SUFFIX));
+                }
+                writeBinary(dataSet, binaryFile);
+            }
+        }
+
+        put(key, new Entry(version, dataSet, estimateSize(dataSet)));
+        return dataSet;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = (Entry) entries.remove(key);
+        if (previous != null) {
+            estimatedBytes -= previous.size;
+        }
+        if (entry.size > maxBytes) {
+            LOG.debug("put: dataset of {} exceeds the cache size", key);
+            return;
+        }
+
+        entries.put(key, entry);
+        estimatedBytes += entry.size;
+        for (Iterator i = entries.values().iterator(); estimatedBytes > maxBytes
+                && i.hasNext();) {
+            Entry eldest = (Entry) i.next();
+            i.remove();
+            estimatedBytes -= eldest.size;
+        }
+    }
+
+    private static File toFile(URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            } catch (URISyntaxException e) {
+                // Fall back to the URL connection
+            } catch (IllegalArgumentException e) {
+                // Fall back to the URL connection
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readContent(URL url) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String digest(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        byte[] hash = digest.digest(bytes);
+        StringBuffer sb = new StringBuffer(hash.length * 2);
+        for (int i = 0; i < hash.length; i++) {
+            sb.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static IDataSet readBinary(File file, boolean caseSensitive) {
+        try {
+            return new CachedDataSet(new BinaryProducer(file), caseSensitive);
+        } catch (DataSetException e) {
+            LOG.warn("readBinary: ignoring unreadable cache file " + file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void writeBinary(IDataSet dataSet, File file) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream(tempFile);
+            try {
+                new BinaryDataSetWriter(out).write(dataSet);
+            } finally {
+                out.close();
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename '" + tempFile
+                        + "' to '" + file + "'");
+            }
+        } catch (IOException e) {
+            LOG.warn("writeBinary: could not write cache file " + file, e);
+            tempFile.delete();
+        } catch (DataSetException e) {
+            LOG.warn("writeBinary: could not write cache file " + file, e);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Estimates the heap size of the given dataset.
+     */
+    static long estimateSize(IDataSet dataSet) throws DataSetException {
+        long size = 0;
+        ITableIterator iterator = dataSet.iterator();
+        while (iterator.next()) {
+            ITable table = iterator.getTable();
+            Column[] columns = table.getTableMetaData().getColumns();
+            int rowCount = table.getRowCount();
+            size += 64 + 64 * columns.length;
+            for (int row = 0; row < rowCount; row++) {
+                size += 16 + 8 * columns.length;
+                for (int column = 0; column < columns.length; column++) {
+                    size += estimateSize(table.getValue(row,
+                            columns[column].getColumnName()));
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null || value == ITable.NO_VALUE) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        return 24;
+    }
+
+    /** Remove all datasets from memory. The binary files are kept. */
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    /** @return The number of datasets held in memory. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return The estimated size of the datasets held in memory. */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /** @return The number of loads answered from memory. */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /** @return The number of loads not answered from memory. */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /** @return The directory of the binary dataset files or null. */
+    public File getDirectory() {
+        return directory;
+    }
+
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName()).append("[");
+        sb.append("maxBytes=").append(maxBytes);
+        sb.append(", directory=").append(directory);
+        sb.append(", estimatedBytes=").append(getEstimatedBytes());
+        sb.append(", size=").append(size());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Loads a dataset on a cache miss.
+     */
+    interface DataSetLoader {
+        IDataSet load(URL url) throws DataSetException, IOException;
+    }
+
+    private static class Entry {
+        private final String version;
+        private final IDataSet dataSet;
+        private final long size;
+
+        Entry(String version, IDataSet dataSet, long size) {
+            this.version = version;
+            this.dataSet = dataSet;
+            this.size = size;
+        }
+    }
+}
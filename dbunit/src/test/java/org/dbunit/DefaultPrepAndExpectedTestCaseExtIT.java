@@ -104,4 +104,47 @@ public class DefaultPrepAndExpectedTestCaseExtIT extends
             // test passes
         }
     }
+
+    public void testSuccessRunInDatabase() throws Exception {
+        String[] prepDataFiles = {PREP_DATA_FILE_NAME};
+        String[] expectedDataFiles = {PREP_DATA_FILE_NAME};
+        VerifyTableDefinition[] tables = {TEST_TABLE, SECOND_TABLE, EMPTY_TABLE,
+                PK_TABLE, ONLY_PK_TABLE, EMPTY_MULTITYPE_TABLE};
+
+        configureTest(tables, prepDataFiles, expectedDataFiles);
+        preTest();
+
+        reopenConnectionForVerifyInDatabase();
+
+        postTest();
+    }
+
+    public void testFailRunInDatabase() throws Exception {
+        String[] prepDataFiles = {PREP_DATA_FILE_NAME};
+        String[] expectedDataFiles = {EXP_DATA_FILE_NAME};
+        VerifyTableDefinition[] tables = {TEST_TABLE, SECOND_TABLE, EMPTY_TABLE,
+                PK_TABLE, ONLY_PK_TABLE, EMPTY_MULTITYPE_TABLE};
+
+        configureTest(tables, prepDataFiles, expectedDataFiles);
+        preTest();
+
+        reopenConnectionForVerifyInDatabase();
+
+        try {
+            postTest();
+            fail("Did not catch expected exception:"
+                    + " junit.framework.ComparisonFailure");
+        } catch (ComparisonFailure e) {
+            // test passes
+        }
+    }
+
+    private void reopenConnectionForVerifyInDatabase() throws Exception {
+        connection = dbEnv.getConnection();
+        // the database specific set difference dialect
+        dbEnv.setupDatabaseConfig(connection.getConfig());
+        databaseTester = new DefaultDatabaseTester(connection);
+        setDatabaseTester(databaseTester);
+        setVerifyInDatabase(true);
+    }
 }
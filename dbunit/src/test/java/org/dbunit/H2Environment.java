@@ -21,6 +21,8 @@
 
 package org.dbunit;
 
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.ext.h2.H2SetDifferenceDialect;
 import org.dbunit.operation.DatabaseOperation;
 
 import java.io.File;
@@ -57,6 +59,13 @@ public class H2Environment extends DatabaseEnvironment
                 username, password);
     }
 
+    @Override
+    protected void setupDatabaseConfig(DatabaseConfig config)
+    {
+        config.setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new H2SetDifferenceDialect());
+    }
+
     @Override
     public void closeConnection() throws Exception
     {
@@ -21,6 +21,8 @@
 
 package org.dbunit;
 
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.ext.hsqldb.HsqldbSetDifferenceDialect;
 import org.dbunit.operation.DatabaseOperation;
 
 import java.io.File;
@@ -49,6 +51,13 @@ public class HypersonicEnvironment extends DatabaseEnvironment
         return connection;
     }
 
+    @Override
+    protected void setupDatabaseConfig(DatabaseConfig config)
+    {
+        config.setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new HsqldbSetDifferenceDialect());
+    }
+
     @Override
     public void closeConnection() throws Exception
     {
@@ -23,6 +23,7 @@ package org.dbunit;
 
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.ext.mysql.MySqlDataTypeFactory;
+import org.dbunit.ext.mysql.MySqlSetDifferenceDialect;
 
 /**
  * @author John Hurst (adapted from Manuel Laflamme: OracleEnvironment)
@@ -40,6 +41,8 @@ public class MySqlEnvironment extends DatabaseEnvironment
     protected void setupDatabaseConfig(DatabaseConfig config)
     {
         config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new MySqlDataTypeFactory());
+        config.setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new MySqlSetDifferenceDialect());
     }
 
     /**
@@ -23,6 +23,7 @@ package org.dbunit;
 
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.ext.postgresql.PostgresqlDataTypeFactory;
+import org.dbunit.ext.postgresql.PostgresqlSetDifferenceDialect;
 
 /**
  * @author John Hurst (adapted from Manuel Laflamme: OracleEnvironment)
@@ -39,6 +40,8 @@ public class PostgresqlEnvironment extends DatabaseEnvironment
     protected void setupDatabaseConfig(DatabaseConfig config)
     {
         config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new PostgresqlDataTypeFactory());
+        config.setProperty(DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT,
+                new PostgresqlSetDifferenceDialect());
     }
 
     public String convertString(String str)
@@ -280,6 +280,15 @@ public class DbUnitTaskIT extends BuildFileTest
                 export.getFormat().equalsIgnoreCase("csv"));
     }
 
+    public void testExportBinary() {
+        String targetName = "test-export-format-binary";
+        Export export = (Export)getFirstStepFromTarget(targetName);
+        assertTrue("Should have been a binary format, "
+                + "but was: " + export.getFormat(),
+                export.getFormat().equalsIgnoreCase("binary"));
+        executeTarget(targetName);
+    }
+
     public void testExportDtd()
     {
         String targetName = "test-export-format-dtd";
@@ -23,28 +23,43 @@ package org.dbunit.assertion;
 
 import java.io.StringReader;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 import junit.framework.ComparisonFailure;
 import junit.framework.TestCase;
 
 import org.dbunit.DatabaseEnvironment;
+import org.dbunit.DatabaseProfile;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.IDatabaseTester;
+import org.dbunit.JdbcDatabaseTester;
+import org.dbunit.assertion.comparer.value.IsActualEqualToExpectedValueComparer;
+import org.dbunit.assertion.comparer.value.ValueComparer;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.ForwardOnlyResultSetTableFactory;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.Column;
+import org.dbunit.dataset.Columns;
 import org.dbunit.dataset.CompositeDataSet;
 import org.dbunit.dataset.CompositeTable;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.DataSetUtils;
 import org.dbunit.dataset.DefaultDataSet;
 import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
 import org.dbunit.dataset.FilteredDataSet;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.StreamingDataSet;
 import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.dbunit.dataset.xml.FlatXmlProducer;
 import org.dbunit.dataset.xml.XmlDataSet;
 import org.dbunit.operation.DatabaseOperation;
 import org.dbunit.testutil.TestUtils;
+import org.xml.sax.InputSource;
 
 /**
  * @author Manuel Laflamme
@@ -532,6 +547,522 @@ public class DbUnitAssertIT extends TestCase
 
     
     
+    private DefaultTable createKeyedTable(DataType idType, String[] primaryKeys,
+            Object[][] rows) throws Exception
+    {
+        Column[] columns = new Column[] {
+                new Column("ID", idType),
+                new Column("NAME", DataType.VARCHAR),
+        };
+        Column[] keys = primaryKeys == null ? new Column[0]
+                : Columns.getColumns(primaryKeys, columns);
+        DefaultTable table = new DefaultTable(
+                new DefaultTableMetaData("TEST_TABLE", columns, keys));
+        for (int i = 0; i < rows.length; i++)
+        {
+            table.addRow(rows[i]);
+        }
+        return table;
+    }
+
+    public void testAssertTablesByKeyEqualsUnsorted() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}, {"2", "two"}, {"3", "three"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, new String[] {"ID"}, new Object[][] {
+                {new Integer(3), "three"}, {new Integer(1), "one"}, {new Integer(2), "two"}});
+
+        assertion.assertEqualsByKey(expected, actual);
+        assertion.assertEqualsByKey(expected, actual, new String[] {"id"});
+    }
+
+    public void testAssertTablesByKeyDecimalKeys() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1.0", "one"}, {"0", "zero"}});
+        ITable actual = createKeyedTable(DataType.NUMERIC, null, new Object[][] {
+                {new BigDecimal("0.00"), "zero"}, {new BigDecimal("1.000"), "one"}});
+
+        assertion.assertEqualsByKey(expected, actual, new String[] {"ID"});
+    }
+
+    public void testAssertTablesByKeyWithoutKeys() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}});
+        ITable actual = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}});
+        try
+        {
+            assertion.assertEqualsByKey(expected, actual);
+            fail("Should not be able to compare without key columns");
+        }
+        catch (DatabaseUnitException expectedException)
+        {
+        }
+    }
+
+    public void testAssertTablesByKeyDifferences() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}, {"2", "two"}, {"3", "three"}, {"3", "three"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(4), "four"}, {new Integer(3), "three"},
+                {new Integer(1), "uno"}, {new Integer(3), "three"}, {new Integer(3), "three"}});
+
+        DiffCollectingFailureHandler fh = new DiffCollectingFailureHandler();
+        assertion.assertEqualsByKey(expected, actual, new String[] {"ID"}, fh);
+
+        List diffs = fh.getDiffList();
+        assertEquals(4, diffs.size());
+
+        Difference diff = (Difference) diffs.get(0);
+        assertEquals(Difference.Kind.VALUE, diff.getKind());
+        assertEquals(0, diff.getRowIndex());
+        assertEquals("NAME", diff.getColumnName());
+        assertEquals("one", diff.getExpectedValue());
+        assertEquals("uno", diff.getActualValue());
+        // the actual table of a value difference is aligned with the expected rows
+        assertEquals(new Integer(1), diff.getActualTable().getValue(0, "ID"));
+
+        diff = (Difference) diffs.get(1);
+        assertEquals(Difference.Kind.MISSING_ROW, diff.getKind());
+        assertEquals(1, diff.getRowIndex());
+        assertEquals("(ID=2)", diff.getExpectedValue());
+
+        diff = (Difference) diffs.get(2);
+        assertEquals(Difference.Kind.UNEXPECTED_ROW, diff.getKind());
+        assertEquals(0, diff.getRowIndex());
+        assertEquals("(ID=4)", diff.getActualValue());
+
+        // the third row with the duplicate key 3 has no expected counterpart
+        diff = (Difference) diffs.get(3);
+        assertEquals(Difference.Kind.UNEXPECTED_ROW, diff.getKind());
+        assertEquals(4, diff.getRowIndex());
+        assertEquals("(ID=3)", diff.getActualValue());
+    }
+
+    public void testAssertTablesByKeyMissingRowMessage() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}, {"2", "two"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(3), "two"}});
+
+        try
+        {
+            assertion.assertEqualsByKey(expected, actual, new String[] {"ID"});
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expectedFailure)
+        {
+            assertEquals("(ID=2)", expectedFailure.getExpected());
+            assertEquals("null", expectedFailure.getActual());
+            assertTrue(expectedFailure.getMessage(), expectedFailure.getMessage().startsWith(
+                    "missing row (table=TEST_TABLE, row=1, key=(ID=2))"));
+        }
+    }
+
+    public void testAssertTablesByMergeEquals() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}, {"2", "two"}, {"10", "ten"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, new String[] {"ID"}, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(2), "two"}, {new Integer(10), "ten"}});
+
+        assertion.assertEqualsByMerge(expected, actual, null);
+        assertion.assertEqualsByMerge(expected, actual, new String[] {"id"});
+    }
+
+    public void testAssertTablesByMergeDifferences() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"1", "one"}, {"2", "two"}, {"3", "three"}, {"5", "five"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(3), "three"},
+                {new Integer(4), "four"}, {new Integer(5), "cinq"}});
+
+        DiffCollectingFailureHandler fh = new DiffCollectingFailureHandler();
+        assertion.assertEqualsByMerge(expected, actual, new String[] {"ID"}, fh);
+
+        List diffs = fh.getDiffList();
+        assertEquals(3, diffs.size());
+
+        Difference diff = (Difference) diffs.get(0);
+        assertEquals(Difference.Kind.MISSING_ROW, diff.getKind());
+        assertEquals(1, diff.getRowIndex());
+        assertEquals("(ID=2)", diff.getExpectedValue());
+
+        diff = (Difference) diffs.get(1);
+        assertEquals(Difference.Kind.UNEXPECTED_ROW, diff.getKind());
+        assertEquals(2, diff.getRowIndex());
+        assertEquals("(ID=4)", diff.getActualValue());
+
+        diff = (Difference) diffs.get(2);
+        assertEquals(Difference.Kind.VALUE, diff.getKind());
+        assertEquals(3, diff.getRowIndex());
+        assertEquals("NAME", diff.getColumnName());
+        assertEquals("five", diff.getExpectedValue());
+        assertEquals("cinq", diff.getActualValue());
+    }
+
+    public void testAssertTablesByMergeFailFast() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.INTEGER, new String[] {"ID"}, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(2), "two"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, new String[] {"ID"}, new Object[][] {
+                {new Integer(1), "one"}});
+        try
+        {
+            assertion.assertEqualsByMerge(expected, actual, null);
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expectedFailure)
+        {
+            assertEquals("missing row (table=TEST_TABLE, row=1, key=(ID=2))"
+                    + " expected:<[(ID=2)]> but was:<[null]>", expectedFailure.getMessage());
+        }
+    }
+
+    public void testAssertTablesByMergeUnordered() throws Exception
+    {
+        ITable expected = createKeyedTable(DataType.UNKNOWN, null, new Object[][] {
+                {"2", "two"}, {"1", "one"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, new String[] {"ID"}, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(2), "two"}});
+        try
+        {
+            assertion.assertEqualsByMerge(expected, actual, null,
+                    new DiffCollectingFailureHandler());
+            fail("Should not be able to merge unordered tables");
+        }
+        catch (DatabaseUnitException expectedException)
+        {
+            assertTrue(expectedException.getMessage(),
+                    expectedException.getMessage().indexOf("is not ordered") >= 0);
+        }
+    }
+
+    public void testAssertDataSetsByMergeStreamed() throws Exception
+    {
+        DatabaseEnvironment env = DatabaseEnvironment.getInstance();
+        IDatabaseConnection connection = env.getConnection();
+        DatabaseOperation.CLEAN_INSERT.execute(connection, env.getInitDataSet());
+
+        String xml = "<dataset>"
+                + "<PK_TABLE PK0='0' PK1='0' PK2='0' NORMAL0='row 0' NORMAL1='0 wor'/>"
+                + "<PK_TABLE PK0='1' PK1='1' PK2='1' NORMAL0='row 1' NORMAL1='1 wor'/>"
+                + "<PK_TABLE PK0='2' PK1='2' PK2='2' NORMAL0='row 2' NORMAL1='2 wor'/>"
+                + "<ONLY_PK_TABLE PK0='0'/>"
+                + "</dataset>";
+
+        DatabaseConfig config = connection.getConfig();
+        Object factory = config.getProperty(DatabaseConfig.PROPERTY_RESULTSET_TABLE_FACTORY);
+        config.setProperty(DatabaseConfig.PROPERTY_RESULTSET_TABLE_FACTORY,
+                new ForwardOnlyResultSetTableFactory());
+        try
+        {
+            IDataSet expected = new StreamingDataSet(
+                    new FlatXmlProducer(new InputSource(new StringReader(xml))));
+            assertion.assertEqualsByMerge(expected, connection.createDataSet());
+
+            expected = new StreamingDataSet(new FlatXmlProducer(new InputSource(
+                    new StringReader(xml.replaceAll("row 1", "changed")))));
+            try
+            {
+                assertion.assertEqualsByMerge(expected, connection.createDataSet());
+                throw new IllegalStateException("Should throw an AssertionFailedError");
+            }
+            catch (ComparisonFailure expectedFailure)
+            {
+                assertEquals("value (table=PK_TABLE, row=1, col=NORMAL0)"
+                        + " expected:<[changed]> but was:<[row 1]>", expectedFailure.getMessage());
+            }
+        }
+        finally
+        {
+            config.setProperty(DatabaseConfig.PROPERTY_RESULTSET_TABLE_FACTORY, factory);
+        }
+    }
+
+    private IDataSet createDataSet(int tableCount, int differentTable,
+            int shorterTable) throws Exception
+    {
+        DefaultDataSet dataSet = new DefaultDataSet();
+        for (int i = 0; i < tableCount; i++)
+        {
+            DefaultTable table = new DefaultTable("TABLE_" + i, new Column[] {
+                    new Column("ID", DataType.UNKNOWN),
+                    new Column("NAME", DataType.UNKNOWN)});
+            int rowCount = i == shorterTable ? 2 : 3;
+            for (int j = 0; j < rowCount; j++)
+            {
+                String name = i == differentTable && j > 0 ? "changed" : "name " + j;
+                table.addRow(new Object[] {String.valueOf(j), name});
+            }
+            dataSet.addTable(table);
+        }
+        return dataSet;
+    }
+
+    private String toString(List diffs)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < diffs.size(); i++)
+        {
+            Difference diff = (Difference) diffs.get(i);
+            sb.append(diff.getExpectedTable().getTableMetaData().getTableName());
+            sb.append(":").append(diff.getRowIndex());
+            sb.append(":").append(diff.getColumnName()).append(" ");
+        }
+        return sb.toString();
+    }
+
+    public void testAssertWithValueComparerSubclassOfEqualityComparer() throws Exception
+    {
+        IDataSet expected = createDataSet(1, -1, -1);
+        IDataSet actual = createDataSet(1, 0, -1);
+        ValueComparer ignoringNames = new IsActualEqualToExpectedValueComparer() {
+            protected boolean isExpected(ITable expectedTable, ITable actualTable,
+                    int rowNum, String columnName, DataType dataType,
+                    Object expectedValue, Object actualValue) throws DatabaseUnitException
+            {
+                return columnName.equals("NAME") || super.isExpected(expectedTable,
+                        actualTable, rowNum, columnName, dataType, expectedValue, actualValue);
+            }
+        };
+
+        // the overridden comparison must not be replaced by the inlined one
+        assertion.assertWithValueComparer(expected.getTable("TABLE_0"),
+                actual.getTable("TABLE_0"), null, ignoringNames, null);
+    }
+
+    public void testAssertWithSkipCompareOverridden() throws Exception
+    {
+        DbUnitAssert skippingAssertion = new DbUnitAssert() {
+            protected boolean skipCompare(String columnName, Object expectedValue,
+                    Object actualValue)
+            {
+                return columnName.equals("NAME");
+            }
+        };
+        skippingAssertion.assertEquals(createDataSet(2, -1, -1), createDataSet(2, 1, -1));
+    }
+
+    public void testAssertWithCellComparisonOverridden() throws Exception
+    {
+        final int[] cellCount = new int[1];
+        DbUnitAssert countingAssertion = new DbUnitAssert() {
+            protected void compareData(ITable expectedTable, ITable actualTable,
+                    ComparisonColumn[] comparisonCols, FailureHandler failureHandler,
+                    ValueComparer defaultValueComparer,
+                    Map<String, ValueComparer> columnValueComparers,
+                    int rowNum, int columnNum) throws DatabaseUnitException
+            {
+                cellCount[0]++;
+            }
+
+            protected boolean isCellComparisonInlined()
+            {
+                return false;
+            }
+        };
+        ITable expected = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(2), "two"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(2), "deux"}, {new Integer(1), "un"}});
+
+        // the overridden hook decides, so the differing names are accepted
+        countingAssertion.assertEquals(expected, actual);
+        assertEquals(4, cellCount[0]);
+        countingAssertion.assertEqualsByKey(expected, actual, new String[] {"ID"});
+        assertEquals(8, cellCount[0]);
+        ITable sortedActual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(1), "un"}, {new Integer(2), "deux"}});
+        countingAssertion.assertEqualsByMerge(expected, sortedActual, new String[] {"ID"});
+        assertEquals(12, cellCount[0]);
+    }
+
+    public void testAssertWithResolvedCellComparisonOverridden() throws Exception
+    {
+        final int[] cellCount = new int[1];
+        DbUnitAssert countingAssertion = new DbUnitAssert() {
+            protected void compareData(ITable expectedTable, ITable actualTable,
+                    ComparisonColumn[] comparisonCols, FailureHandler failureHandler,
+                    ValueComparer defaultValueComparer,
+                    Map<String, ValueComparer> columnValueComparers,
+                    int rowNum, int columnNum, int expectedColumnIndex,
+                    int actualColumnIndex) throws DatabaseUnitException
+            {
+                TestCase.assertEquals(comparisonCols[columnNum].getColumnName(),
+                        actualTable.getTableMetaData().getColumns()[actualColumnIndex]
+                                .getColumnName());
+                cellCount[0]++;
+            }
+
+            protected boolean isCellComparisonInlined()
+            {
+                return false;
+            }
+        };
+        ITable expected = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(1), "one"}, {new Integer(2), "two"}});
+        ITable actual = createKeyedTable(DataType.INTEGER, null, new Object[][] {
+                {new Integer(2), "deux"}, {new Integer(1), "un"}});
+
+        countingAssertion.assertEquals(expected, actual);
+        assertEquals(4, cellCount[0]);
+        countingAssertion.assertEqualsByKey(expected, actual, new String[] {"ID"});
+        assertEquals(8, cellCount[0]);
+    }
+
+    public void testAssertDataSetsInParallelSameDifferencesAsSequential() throws Exception
+    {
+        IDataSet expected = createDataSet(8, -1, -1);
+        DefaultDataSet actual = new DefaultDataSet();
+        for (int i = 0; i < 8; i++)
+        {
+            actual.addTable(createDataSet(8, i % 3 == 0 ? i : -1, -1).getTable("TABLE_" + i));
+        }
+
+        DiffCollectingFailureHandler sequential = new DiffCollectingFailureHandler();
+        assertion.assertEquals(expected, actual, sequential);
+
+        DbUnitAssert parallelAssertion = new DbUnitAssert();
+        parallelAssertion.setParallelTableComparison(3, null);
+        DiffCollectingFailureHandler parallel = new DiffCollectingFailureHandler();
+        parallelAssertion.assertEquals(expected, actual, parallel);
+
+        assertEquals(6, sequential.getDiffList().size());
+        assertEquals(toString(sequential.getDiffList()), toString(parallel.getDiffList()));
+    }
+
+    public void testAssertDataSetsInParallelFailFast() throws Exception
+    {
+        DbUnitAssert parallelAssertion = new DbUnitAssert();
+        parallelAssertion.setParallelTableComparison(4, null);
+        try
+        {
+            parallelAssertion.assertEquals(createDataSet(6, -1, -1), createDataSet(6, 4, -1));
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expected)
+        {
+            String expectedMsg = "value (table=TABLE_4, row=1, col=NAME) expected:<[name 1]> but was:<[changed]>";
+            assertTrue(expected.getMessage(), expected.getMessage().endsWith(expectedMsg));
+        }
+    }
+
+    public void testAssertDataSetsInParallelFailFastStopsAtFirstDifference() throws Exception
+    {
+        IDataSet changed = createDataSet(6, 0, -1);
+        final ITable changedTable = changed.getTable("TABLE_0");
+        final int[] lastRowRead = {-1};
+        DefaultDataSet actual = new DefaultDataSet();
+        actual.addTable(new ITable()
+        {
+            public ITableMetaData getTableMetaData()
+            {
+                return changedTable.getTableMetaData();
+            }
+
+            public int getRowCount()
+            {
+                return changedTable.getRowCount();
+            }
+
+            public Object getValue(int row, String column) throws DataSetException
+            {
+                lastRowRead[0] = Math.max(lastRowRead[0], row);
+                return changedTable.getValue(row, column);
+            }
+        });
+        for (int i = 1; i < 6; i++)
+        {
+            actual.addTable(changed.getTable("TABLE_" + i));
+        }
+
+        DbUnitAssert parallelAssertion = new DbUnitAssert();
+        parallelAssertion.setParallelTableComparison(2, null);
+        try
+        {
+            parallelAssertion.assertEquals(createDataSet(6, -1, -1), actual);
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expected)
+        {
+            String expectedMsg = "value (table=TABLE_0, row=1, col=NAME) expected:<[name 1]> but was:<[changed]>";
+            assertTrue(expected.getMessage(), expected.getMessage().endsWith(expectedMsg));
+        }
+        // the comparison of the table stopped at its first difference
+        assertEquals(1, lastRowRead[0]);
+    }
+
+    public void testAssertDataSetsInParallelRowCountFailure() throws Exception
+    {
+        DefaultDataSet actual = new DefaultDataSet();
+        for (int i = 0; i < 6; i++)
+        {
+            int differentTable = i == 1 || i == 5 ? i : -1;
+            actual.addTable(createDataSet(6, differentTable, 3).getTable("TABLE_" + i));
+        }
+
+        DbUnitAssert parallelAssertion = new DbUnitAssert();
+        parallelAssertion.setParallelTableComparison(6, null);
+        DiffCollectingFailureHandler fh = new DiffCollectingFailureHandler();
+        try
+        {
+            parallelAssertion.assertEquals(createDataSet(6, -1, -1), actual, fh);
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (DbComparisonFailure expected)
+        {
+            assertEquals("row count (table=TABLE_3) expected:<3> but was:<2>", expected.getMessage());
+        }
+        // only the differences of the tables before the failed one are reported
+        assertEquals("TABLE_1:1:NAME TABLE_1:2:NAME ", toString(fh.getDiffList()));
+    }
+
+    public void testAssertDataSetsInParallelWithConnectionSource() throws Exception
+    {
+        DatabaseEnvironment env = DatabaseEnvironment.getInstance();
+        IDatabaseConnection connection = env.getConnection();
+        IDataSet expected = env.getInitDataSet();
+        DatabaseOperation.CLEAN_INSERT.execute(connection, expected);
+
+        DatabaseProfile profile = env.getProfile();
+        IDatabaseTester connectionSource = new JdbcDatabaseTester(
+                profile.getDriverClass(), profile.getConnectionUrl(),
+                profile.getUser(), profile.getPassword(), profile.getSchema());
+        DbUnitAssert parallelAssertion = new DbUnitAssert();
+        parallelAssertion.setParallelTableComparison(3, connectionSource);
+
+        String[] tableNames = expected.getTableNames();
+        IDataSet actual = new FilteredDataSet(tableNames, connection.createDataSet());
+        parallelAssertion.assertEquals(expected, actual);
+
+        DefaultDataSet modified = new DefaultDataSet();
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            ITable table = expected.getTable(tableNames[i]);
+            if (tableNames[i].equals("TEST_TABLE"))
+            {
+                table = new ModifyingTable(table, "COLUMN2");
+            }
+            modified.addTable(table);
+        }
+        try
+        {
+            parallelAssertion.assertEquals(modified, actual);
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expectedFailure)
+        {
+            assertTrue(expectedFailure.getMessage(), expectedFailure.getMessage().indexOf(
+                    "value (table=TEST_TABLE, row=0, col=COLUMN2)") >= 0);
+        }
+    }
+
     public void testGetComparisonDataType_ExpectedTypeUnknown()
     {
     	Column expectedColumn = new Column("COL1", DataType.UNKNOWN);
@@ -0,0 +1,161 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.assertion;
+
+import java.io.StringReader;
+import java.util.List;
+
+import junit.framework.ComparisonFailure;
+
+import org.dbunit.AbstractDatabaseIT;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.dbunit.operation.DatabaseOperation;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests the assertions computing the differences on the database server.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DbUnitAssertInDatabaseIT extends AbstractDatabaseIT
+{
+    private final DbUnitAssert assertion = new DbUnitAssert();
+
+    public DbUnitAssertInDatabaseIT(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        DatabaseOperation.CLEAN_INSERT.execute(_connection,
+                getEnvironment().getInitDataSet());
+    }
+
+    public void testAssertEqualsInDatabase() throws Exception
+    {
+        String xml = "<dataset>"
+                + "<PK_TABLE PK0='2' PK1='2' PK2='2' NORMAL0='row 2' NORMAL1='2 wor'/>"
+                + "<PK_TABLE PK0='0' PK1='0' PK2='0' NORMAL0='row 0' NORMAL1='0 wor'/>"
+                + "<PK_TABLE PK0='1' PK1='1' PK2='1' NORMAL0='row 1' NORMAL1='1 wor'/>"
+                + "</dataset>";
+
+        assertion.assertEqualsInDatabase(getTable(xml, "PK_TABLE"), _connection);
+    }
+
+    public void testAssertEqualsInDatabaseDifferences() throws Exception
+    {
+        // only the compared columns need to be given
+        String xml = "<dataset>"
+                + "<PK_TABLE PK0='0' PK1='0' PK2='0' NORMAL0='row 0'/>"
+                + "<PK_TABLE PK0='1' PK1='1' PK2='1' NORMAL0='changed'/>"
+                + "<PK_TABLE PK0='3' PK1='3' PK2='3' NORMAL0='row 3'/>"
+                + "</dataset>";
+
+        DiffCollectingFailureHandler fh = new DiffCollectingFailureHandler();
+        assertion.assertEqualsInDatabase(getTable(xml, "PK_TABLE"),
+                _connection, fh);
+
+        List diffs = fh.getDiffList();
+        assertEquals(3, diffs.size());
+
+        Difference diff = (Difference) diffs.get(0);
+        assertEquals(Difference.Kind.VALUE, diff.getKind());
+        assertEquals(convertString("NORMAL0"), diff.getColumnName());
+        assertEquals("changed", diff.getExpectedValue());
+        assertEquals("row 1", diff.getActualValue());
+
+        diff = (Difference) diffs.get(1);
+        assertEquals(Difference.Kind.MISSING_ROW, diff.getKind());
+        assertEquals(convertString("(PK0=3, PK1=3, PK2=3)"), diff.getExpectedValue());
+
+        diff = (Difference) diffs.get(2);
+        assertEquals(Difference.Kind.UNEXPECTED_ROW, diff.getKind());
+        assertEquals(convertString("(PK0=2, PK1=2, PK2=2)"), diff.getActualValue());
+
+        // the database table is left untouched
+        assertEquals(3, _connection.getRowCount("PK_TABLE"));
+    }
+
+    public void testAssertEqualsInDatabaseWithoutPrimaryKey() throws Exception
+    {
+        // the rows are matched by all compared columns, so a duplicated row is
+        // reported as often as it is missing
+        ITable table = getEnvironment().getInitDataSet().getTable("TEST_TABLE");
+        DefaultTable expected = new DefaultTable("TEST_TABLE",
+                new Column[] {new Column("COLUMN0", DataType.UNKNOWN)});
+        expected.addRow(new Object[] {table.getValue(0, "COLUMN0")});
+        expected.addRow(new Object[] {table.getValue(0, "COLUMN0")});
+        for (int i = 2; i < table.getRowCount(); i++)
+        {
+            expected.addRow(new Object[] {table.getValue(i, "COLUMN0")});
+        }
+
+        DiffCollectingFailureHandler fh = new DiffCollectingFailureHandler();
+        assertion.assertEqualsInDatabase(expected, _connection, fh);
+
+        List diffs = fh.getDiffList();
+        assertEquals(2, diffs.size());
+
+        Difference diff = (Difference) diffs.get(0);
+        assertEquals(Difference.Kind.MISSING_ROW, diff.getKind());
+        assertEquals(convertString("(COLUMN0=") + "row 0 col 0)",
+                diff.getExpectedValue());
+
+        diff = (Difference) diffs.get(1);
+        assertEquals(Difference.Kind.UNEXPECTED_ROW, diff.getKind());
+        assertEquals(convertString("(COLUMN0=") + "row 1 col 0)",
+                diff.getActualValue());
+    }
+
+    public void testAssertEqualsInDatabaseFailFast() throws Exception
+    {
+        DefaultTable expected = new DefaultTable("ONLY_PK_TABLE",
+                new Column[] {new Column("PK0", DataType.UNKNOWN)});
+        expected.addRow(new Object[] {"1"});
+        try
+        {
+            assertion.assertEqualsInDatabase(expected, _connection);
+            throw new IllegalStateException("Should throw an AssertionFailedError");
+        }
+        catch (ComparisonFailure expectedFailure)
+        {
+            String message = expectedFailure.getMessage();
+            assertTrue(message, message.startsWith("missing row"));
+        }
+    }
+
+    private ITable getTable(String xml, String tableName) throws Exception
+    {
+        IDataSet dataSet = new FlatXmlDataSetBuilder().build(
+                new InputSource(new StringReader(xml)));
+        return dataSet.getTable(tableName);
+    }
+}
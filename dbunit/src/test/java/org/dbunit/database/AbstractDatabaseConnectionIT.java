@@ -28,6 +28,9 @@ import java.sql.SQLException;
 import org.dbunit.AbstractDatabaseIT;
 import org.dbunit.DatabaseProfile;
 import org.dbunit.IDatabaseTester;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.filter.DefaultColumnFilter;
 
 /**
  * @author Manuel Laflamme
@@ -63,6 +66,27 @@ public abstract class AbstractDatabaseConnectionIT extends AbstractDatabaseIT
         assertEquals("PK_TABLE", 1, _connection.getRowCount("PK_TABLE", "where PK0 = 0"));
     }
 
+    public final void testCreateTableWithColumnFilter() throws Exception
+    {
+        DefaultColumnFilter filter = new DefaultColumnFilter();
+        filter.includeColumn(convertString("COLUMN1"));
+        filter.includeColumn(convertString("COLUMN2"));
+
+        ITable fullTable = _connection.createTable("TEST_TABLE");
+        ITable table = _connection.createTable("TEST_TABLE", filter);
+
+        Column[] columns = table.getTableMetaData().getColumns();
+        assertEquals("column count", 2, columns.length);
+        assertEquals("column name", convertString("COLUMN1"), columns[0].getColumnName());
+        assertEquals("column name", convertString("COLUMN2"), columns[1].getColumnName());
+        assertEquals("row count", fullTable.getRowCount(), table.getRowCount());
+        for (int i = 0; i < table.getRowCount(); i++)
+        {
+            assertEquals(fullTable.getValue(i, columns[0].getColumnName()), table.getValue(i, 0));
+            assertEquals(fullTable.getValue(i, columns[1].getColumnName()), table.getValue(i, 1));
+        }
+    }
+
     public final void testGetRowCount_NonexistingSchema() throws Exception
     {
     	DatabaseProfile profile = super.getEnvironment().getProfile();
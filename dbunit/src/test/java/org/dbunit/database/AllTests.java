@@ -35,11 +35,15 @@ public class AllTests extends TestSuite
         TestSuite suite = new TestSuite();
         suite.addTest(org.dbunit.database.statement.AllTests.suite());
         suite.addTest(new TestSuite(CachedResultSetTableIT.class));
+        suite.addTest(new TestSuite(ColumnarResultSetTableIT.class));
         suite.addTest(new TestSuite(DatabaseConfigTest.class));
         suite.addTest(new TestSuite(DatabaseConnectionIT.class));
         suite.addTest(new TestSuite(DatabaseDataSetIT.class));
+        suite.addTest(new TestSuite(DatabaseDataSet_BulkMetadataTest.class));
         suite.addTest(new TestSuite(DatabaseSequenceFilterTest.class));
         suite.addTest(new TestSuite(DatabaseTableIteratorTest.class));
+        suite.addTest(new TestSuite(DefaultMetadataCacheTest.class));
+        suite.addTest(new TestSuite(TableDependencyGraphTest.class));
         suite.addTest(new TestSuite(DatabaseTableMetaDataIT.class));
         suite.addTest(new TestSuite(ForwardOnlyResultSetTableIT.class));
         suite.addTest(new TestSuite(QueryDataSetIT.class));
@@ -47,6 +51,9 @@ public class AllTests extends TestSuite
         suite.addTest(new TestSuite(JdbcDatabaseTesterConnectionIT.class));
         suite.addTest(new TestSuite(DefaultDatabaseTesterConnectionIT.class));
         suite.addTest(new TestSuite(ResultSetTableMetaDataIT.class));
+        suite.addTest(new TestSuite(SpillingResultSetTableIT.class));
+        suite.addTest(new TestSuite(SpillingResultSetTableTest.class));
+        suite.addTest(new TestSuite(SetDifferenceDialectTest.class));
 
         return suite;
     }
@@ -27,6 +27,7 @@ import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.DefaultTableMetaData;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.NoSuchTableException;
 import org.dbunit.dataset.datatype.DataType;
@@ -165,6 +166,44 @@ public class DatabaseDataSetIT extends AbstractDataSetTest
         assertEquals("select statement", expected, sql);
     }
 
+    public void testGetSelectStatementWithProjectedColumns() throws Exception
+    {
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.UNKNOWN),
+            new Column("c3", DataType.UNKNOWN),
+        };
+        Column[] primaryKeys = new Column[]{
+            new Column("c1", DataType.UNKNOWN),
+        };
+        String expected = "select c1, c3 from schema.table order by c1";
+
+        String sql = DatabaseDataSet.getSelectStatement("schema", "table", columns, primaryKeys, null);
+        assertEquals("select statement", expected, sql);
+    }
+
+    public void testGetTableWithColumnFilter() throws Exception
+    {
+        String tableName = convertString("TEST_TABLE");
+        DefaultColumnFilter filter = new DefaultColumnFilter();
+        filter.excludeColumn(convertString("COLUMN1"));
+        filter.excludeColumn(convertString("COLUMN3"));
+
+        DatabaseDataSet dataSet = new DatabaseDataSet(_connection, false);
+        ITable fullTable = dataSet.getTable(tableName);
+        ITable table = dataSet.getTable(tableName, filter);
+
+        Column[] columns = table.getTableMetaData().getColumns();
+        assertEquals("column count", 2, columns.length);
+        assertEquals("column name", convertString("COLUMN0"), columns[0].getColumnName());
+        assertEquals("column name", convertString("COLUMN2"), columns[1].getColumnName());
+        assertEquals("row count", fullTable.getRowCount(), table.getRowCount());
+        for (int i = 0; i < table.getRowCount(); i++)
+        {
+            assertEquals(fullTable.getValue(i, columns[0].getColumnName()), table.getValue(i, 0));
+            assertEquals(fullTable.getValue(i, columns[1].getColumnName()), table.getValue(i, 1));
+        }
+    }
+
     public void testGetQualifiedTableNames() throws Exception
     {
         String[] expectedNames = getExpectedNames();
@@ -0,0 +1,350 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.H2Environment;
+import org.dbunit.HypersonicEnvironment;
+import org.dbunit.dataset.Columns;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoSuchTableException;
+import org.dbunit.ext.h2.H2MetadataHandler;
+import org.dbunit.ext.hsqldb.HsqldbMetadataHandler;
+import org.dbunit.testutil.TestUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the schema wide metadata loading of {@link DatabaseDataSet}.
+ * 
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DatabaseDataSet_BulkMetadataTest extends TestCase
+{
+    private Connection _jdbcConnection;
+
+    private CountingMetadataHandler _metadataHandler =
+            new CountingMetadataHandler(new HsqldbMetadataHandler());
+
+    public DatabaseDataSet_BulkMetadataTest(final String s)
+    {
+        super(s);
+    }
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = HypersonicEnvironment.createJdbcConnection("tempdb");
+        DdlExecutor.executeDdlFile(
+                TestUtils.getFile("sql/hypersonic_fk.sql"), _jdbcConnection);
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        HypersonicEnvironment.shutdown(_jdbcConnection);
+        _jdbcConnection.close();
+
+        HypersonicEnvironment.deleteFiles("tempdb");
+    }
+
+    private IDatabaseConnection createConnection(final Connection jdbcConnection,
+            final boolean bulkMetadataLoading) throws Exception
+    {
+        final IDatabaseConnection connection =
+                new DatabaseConnection(jdbcConnection);
+        final DatabaseConfig config = connection.getConfig();
+        config.setProperty(DatabaseConfig.PROPERTY_METADATA_HANDLER,
+                _metadataHandler);
+        config.setProperty(DatabaseConfig.FEATURE_BULK_METADATA_LOADING,
+                Boolean.valueOf(bulkMetadataLoading));
+        return connection;
+    }
+
+    public void testGetTableMetaData() throws Exception
+    {
+        final IDataSet expectedDataSet =
+                createConnection(_jdbcConnection, false).createDataSet();
+        final IDataSet actualDataSet =
+                createConnection(_jdbcConnection, true).createDataSet();
+
+        final String[] tableNames = actualDataSet.getTableNames();
+        assertEquals(8, tableNames.length);
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            assertMetaData(expectedDataSet.getTableMetaData(tableNames[i]),
+                    actualDataSet.getTableMetaData(tableNames[i]));
+        }
+    }
+
+    public void testGetTableMetaDataLoadsSchemaOnce() throws Exception
+    {
+        final IDataSet dataSet =
+                createConnection(_jdbcConnection, true).createDataSet();
+
+        final String[] tableNames = dataSet.getTableNames();
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            final ITableMetaData metaData =
+                    dataSet.getTableMetaData(tableNames[i]);
+            metaData.getColumns();
+            metaData.getPrimaryKeys();
+        }
+        assertEquals("schema columns lookups", 1,
+                _metadataHandler._schemaColumnsCount);
+        assertEquals("schema primary keys lookups", 1,
+                _metadataHandler._schemaPrimaryKeysCount);
+        assertEquals("table columns lookups", 0, _metadataHandler._columnsCount);
+        assertEquals("table primary keys lookups", 0,
+                _metadataHandler._primaryKeysCount);
+        assertEquals("table exists lookups", 0,
+                _metadataHandler._tableExistsCount);
+
+        final ITableMetaData metaData = dataSet.getTableMetaData("a");
+        assertEquals("A", metaData.getTableName());
+        assertEquals(Arrays.asList(new String[] {"PKA"}),
+                Arrays.asList(Columns.getColumnNames(metaData.getPrimaryKeys())));
+    }
+
+    public void testGetTableMetaDataDisabled() throws Exception
+    {
+        final IDataSet dataSet =
+                createConnection(_jdbcConnection, false).createDataSet();
+
+        dataSet.getTableMetaData("A").getPrimaryKeys();
+        assertEquals(0, _metadataHandler._schemaColumnsCount);
+        assertEquals(1, _metadataHandler._columnsCount);
+        assertEquals(1, _metadataHandler._primaryKeysCount);
+    }
+
+    public void testGetTableLevelsLoadsSchemaImportedKeysOnce() throws Exception
+    {
+        final IDatabaseConnection connection =
+                createConnection(_jdbcConnection, true);
+        final String[] tableNames = connection.createDataSet().getTableNames();
+        final int tableExistsCount = _metadataHandler._tableExistsCount;
+
+        final String[][] levels =
+                DatabaseSequenceFilter.getTableLevels(connection, tableNames);
+        assertEquals("level count", 4, levels.length);
+        assertEquals("level 0", Arrays.asList(new String[] {"D", "G", "H"}),
+                Arrays.asList(levels[0]));
+        assertEquals("level 1", Arrays.asList(new String[] {"A", "F"}),
+                Arrays.asList(levels[1]));
+        assertEquals("level 2", Arrays.asList(new String[] {"C", "E"}),
+                Arrays.asList(levels[2]));
+        assertEquals("level 3", Arrays.asList(new String[] {"B"}),
+                Arrays.asList(levels[3]));
+        assertEquals("schema imported keys lookups", 1,
+                _metadataHandler._schemaImportedKeysCount);
+        assertEquals("table exists lookups", tableExistsCount,
+                _metadataHandler._tableExistsCount);
+    }
+
+    public void testGetTableLevelsUnknownTable() throws Exception
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            final IDatabaseConnection connection =
+                    createConnection(_jdbcConnection, i == 0);
+            try
+            {
+                DatabaseSequenceFilter.getTableLevels(connection,
+                        new String[] {"A", "UNKNOWN_TABLE"});
+                fail("Should not be here!");
+            } catch (final NoSuchTableException expected)
+            {
+            }
+        }
+    }
+
+    /**
+     * Note that this test uses the H2 database to have tables with equal names
+     * in two schemas.
+     */
+    public void testSortTableNamesQualifiedTableNames() throws Exception
+    {
+        final Connection jdbcConnection =
+                H2Environment.createJdbcConnection("bulkimportedkeys");
+        try
+        {
+            DdlExecutor.executeDdlFile(
+                    TestUtils.getFile("sql/h2_multischema_fk_test.sql"),
+                    jdbcConnection);
+
+            _metadataHandler =
+                    new CountingMetadataHandler(new H2MetadataHandler());
+            final IDatabaseConnection connection =
+                    createConnection(jdbcConnection, true);
+            connection.getConfig().setProperty(
+                    DatabaseConfig.FEATURE_QUALIFIED_TABLE_NAMES, Boolean.TRUE);
+
+            final String[] sortedTableNames = DatabaseSequenceFilter
+                    .sortTableNames(connection, new String[] {"B.BAR", "A.FOO"});
+            assertEquals(Arrays.asList(new String[] {"A.FOO", "B.BAR"}),
+                    Arrays.asList(sortedTableNames));
+            assertEquals("schema imported keys lookups", 2,
+                    _metadataHandler._schemaImportedKeysCount);
+        } finally
+        {
+            jdbcConnection.close();
+        }
+    }
+
+    /**
+     * Note that this test uses the H2 database to have tables with equal names
+     * in two schemas.
+     */
+    public void testGetTableMetaDataQualifiedTableNames() throws Exception
+    {
+        final Connection jdbcConnection =
+                H2Environment.createJdbcConnection("bulkmetadata");
+        try
+        {
+            DdlExecutor.executeDdlFile(
+                    TestUtils.getFile("sql/h2_multischema_fk_test.sql"),
+                    jdbcConnection);
+
+            _metadataHandler =
+                    new CountingMetadataHandler(new H2MetadataHandler());
+            final IDatabaseConnection expectedConnection =
+                    createConnection(jdbcConnection, false);
+            expectedConnection.getConfig().setProperty(
+                    DatabaseConfig.FEATURE_QUALIFIED_TABLE_NAMES, Boolean.TRUE);
+            final IDatabaseConnection actualConnection =
+                    createConnection(jdbcConnection, true);
+            actualConnection.getConfig().setProperty(
+                    DatabaseConfig.FEATURE_QUALIFIED_TABLE_NAMES, Boolean.TRUE);
+
+            final IDataSet expectedDataSet = expectedConnection.createDataSet();
+            final IDataSet actualDataSet = actualConnection.createDataSet();
+            final String[] tableNames = actualDataSet.getTableNames();
+            assertEquals(Arrays.asList(new String[] {"A.FOO", "B.BAR"}),
+                    Arrays.asList(tableNames));
+            for (int i = 0; i < tableNames.length; i++)
+            {
+                assertMetaData(expectedDataSet.getTableMetaData(tableNames[i]),
+                        actualDataSet.getTableMetaData(tableNames[i]));
+            }
+        } finally
+        {
+            jdbcConnection.close();
+        }
+    }
+
+    private void assertMetaData(final ITableMetaData expected,
+            final ITableMetaData actual) throws Exception
+    {
+        assertEquals("table name", expected.getTableName(),
+                actual.getTableName());
+        assertEquals("columns of " + expected.getTableName(),
+                Arrays.asList(expected.getColumns()),
+                Arrays.asList(actual.getColumns()));
+        assertEquals("primary keys of " + expected.getTableName(),
+                Arrays.asList(expected.getPrimaryKeys()),
+                Arrays.asList(actual.getPrimaryKeys()));
+    }
+
+    private static class CountingMetadataHandler extends DefaultMetadataHandler
+            implements IBulkMetadataHandler
+    {
+        private final IBulkMetadataHandler _bulkMetadataHandler;
+        private int _columnsCount;
+        private int _primaryKeysCount;
+        private int _tableExistsCount;
+        private int _schemaColumnsCount;
+        private int _schemaPrimaryKeysCount;
+        private int _schemaImportedKeysCount;
+
+        public CountingMetadataHandler(
+                final IBulkMetadataHandler bulkMetadataHandler)
+        {
+            _bulkMetadataHandler = bulkMetadataHandler;
+        }
+
+        @Override
+        public ResultSet getColumns(final DatabaseMetaData databaseMetaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _columnsCount++;
+            return super.getColumns(databaseMetaData, schemaName, tableName);
+        }
+
+        @Override
+        public ResultSet getPrimaryKeys(final DatabaseMetaData metaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _primaryKeysCount++;
+            return super.getPrimaryKeys(metaData, schemaName, tableName);
+        }
+
+        @Override
+        public boolean tableExists(final DatabaseMetaData metaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _tableExistsCount++;
+            return super.tableExists(metaData, schemaName, tableName);
+        }
+
+        @Override
+        public ResultSet getSchemaColumns(
+                final DatabaseMetaData databaseMetaData, final String schemaName)
+                throws SQLException
+        {
+            _schemaColumnsCount++;
+            return _bulkMetadataHandler.getSchemaColumns(databaseMetaData, schemaName);
+        }
+
+        @Override
+        public ResultSet getSchemaPrimaryKeys(
+                final DatabaseMetaData databaseMetaData, final String schemaName)
+                throws SQLException
+        {
+            _schemaPrimaryKeysCount++;
+            return _bulkMetadataHandler.getSchemaPrimaryKeys(databaseMetaData, schemaName);
+        }
+
+        @Override
+        public ResultSet getSchemaImportedKeys(
+                final DatabaseMetaData databaseMetaData, final String schemaName)
+                throws SQLException
+        {
+            _schemaImportedKeysCount++;
+            return _bulkMetadataHandler.getSchemaImportedKeys(databaseMetaData, schemaName);
+        }
+    }
+}
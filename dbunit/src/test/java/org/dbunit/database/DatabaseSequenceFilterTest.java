@@ -91,6 +91,26 @@ public class DatabaseSequenceFilterTest extends TestCase
                 Arrays.asList(actualFiltered));
     }
 
+    public void testGetTableLevels() throws Exception
+    {
+        DdlExecutor.executeDdlFile(
+                TestUtils.getFile("sql/hypersonic_fk.sql"), _jdbcConnection);
+        final IDatabaseConnection connection =
+                new DatabaseConnection(_jdbcConnection);
+
+        final String[][] levels = DatabaseSequenceFilter.getTableLevels(
+                connection, connection.createDataSet().getTableNames());
+        assertEquals("level count", 4, levels.length);
+        assertEquals("level 0", Arrays.asList(new String[] {"D", "G", "H"}),
+                Arrays.asList(levels[0]));
+        assertEquals("level 1", Arrays.asList(new String[] {"A", "F"}),
+                Arrays.asList(levels[1]));
+        assertEquals("level 2", Arrays.asList(new String[] {"C", "E"}),
+                Arrays.asList(levels[2]));
+        assertEquals("level 3", Arrays.asList(new String[] {"B"}),
+                Arrays.asList(levels[3]));
+    }
+
     public void testGetTableNamesCyclic() throws Exception
     {
         final String[] expectedNoFilter = {"A", "B", "C", "D", "E",};
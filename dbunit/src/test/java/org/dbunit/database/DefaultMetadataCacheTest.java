@@ -0,0 +1,295 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.HypersonicEnvironment;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.testutil.TestUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DefaultMetadataCacheTest extends TestCase
+{
+    private static final String SCOPE = "scope";
+
+    private Connection _jdbcConnection;
+
+    private final CountingMetadataHandler _metadataHandler =
+            new CountingMetadataHandler();
+
+    public DefaultMetadataCacheTest(final String s)
+    {
+        super(s);
+    }
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = HypersonicEnvironment.createJdbcConnection("tempdb");
+        DdlExecutor.executeDdlFile(
+                TestUtils.getFile("sql/hypersonic_fk.sql"), _jdbcConnection);
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        HypersonicEnvironment.shutdown(_jdbcConnection);
+        _jdbcConnection.close();
+
+        HypersonicEnvironment.deleteFiles("tempdb");
+    }
+
+    private IDatabaseConnection createConnection(final IMetadataCache cache)
+            throws Exception
+    {
+        final IDatabaseConnection connection =
+                new DatabaseConnection(_jdbcConnection);
+        connection.getConfig().setProperty(
+                DatabaseConfig.PROPERTY_METADATA_HANDLER, _metadataHandler);
+        connection.getConfig().setProperty(
+                DatabaseConfig.PROPERTY_METADATA_CACHE, cache);
+        return connection;
+    }
+
+    private File createCacheFile() throws Exception
+    {
+        final File file = File.createTempFile("metadatacache", ".ser");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    public void testValidate() throws Exception
+    {
+        final DefaultMetadataCache cache = new DefaultMetadataCache();
+        assertFalse(cache.isValidated(SCOPE));
+
+        cache.validate(SCOPE, "1");
+        cache.put(SCOPE, "key", "value");
+        assertTrue(cache.isValidated(SCOPE));
+
+        cache.validate(SCOPE, "1");
+        assertEquals("value", cache.get(SCOPE, "key"));
+        assertNull(cache.get("otherScope", "key"));
+
+        cache.validate(SCOPE, "2");
+        assertNull(cache.get(SCOPE, "key"));
+    }
+
+    public void testSaveAndLoad() throws Exception
+    {
+        final File file = createCacheFile();
+        final DefaultMetadataCache cache = new DefaultMetadataCache(file);
+        cache.validate(SCOPE, "1");
+        cache.put(SCOPE, "key", new String[] {"A", "B"});
+        cache.save();
+
+        final DefaultMetadataCache loadedCache = new DefaultMetadataCache(file);
+        assertFalse("validated after load", loadedCache.isValidated(SCOPE));
+        loadedCache.validate(SCOPE, "1");
+        assertEquals(Arrays.asList(new String[] {"A", "B"}),
+                Arrays.asList((String[])loadedCache.get(SCOPE, "key")));
+
+        final DefaultMetadataCache changedCache = new DefaultMetadataCache(file);
+        changedCache.validate(SCOPE, "2");
+        assertNull(changedCache.get(SCOPE, "key"));
+    }
+
+    public void testSaveWithoutFile() throws Exception
+    {
+        try
+        {
+            new DefaultMetadataCache().save();
+            fail("Should not be here!");
+        } catch (final IllegalStateException expected)
+        {
+        }
+    }
+
+    public void testLoadUnreadableFile() throws Exception
+    {
+        final File file = createCacheFile();
+        final FileWriter writer = new FileWriter(file);
+        writer.write("no serialized cache");
+        writer.close();
+
+        final DefaultMetadataCache cache = new DefaultMetadataCache(file);
+        cache.validate(SCOPE, "1");
+        assertNull(cache.get(SCOPE, "key"));
+    }
+
+    public void testTableMetaDataSharedByConnections() throws Exception
+    {
+        final IMetadataCache cache = new DefaultMetadataCache();
+        final IDataSet expectedDataSet = createConnection(cache).createDataSet();
+        final String[] tableNames = expectedDataSet.getTableNames();
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            expectedDataSet.getTableMetaData(tableNames[i]);
+        }
+
+        _metadataHandler.reset();
+        final IDataSet actualDataSet = createConnection(cache).createDataSet();
+        assertEquals(Arrays.asList(tableNames),
+                Arrays.asList(actualDataSet.getTableNames()));
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            assertMetaData(expectedDataSet.getTableMetaData(tableNames[i]),
+                    actualDataSet.getTableMetaData(tableNames[i]));
+        }
+        assertEquals("tables lookups", 0, _metadataHandler._tablesCount);
+        assertEquals("columns lookups", 0, _metadataHandler._columnsCount);
+        assertEquals("primary keys lookups", 0,
+                _metadataHandler._primaryKeysCount);
+        assertEquals("table exists lookups", 0,
+                _metadataHandler._tableExistsCount);
+    }
+
+    public void testTableDependenciesSharedByConnections() throws Exception
+    {
+        final IMetadataCache cache = new DefaultMetadataCache();
+        final IDatabaseConnection connection = createConnection(cache);
+        final String[] tableNames = connection.createDataSet().getTableNames();
+        final String[] expected =
+                DatabaseSequenceFilter.sortTableNames(connection, tableNames);
+
+        _metadataHandler.reset();
+        final String[] actual = DatabaseSequenceFilter.sortTableNames(
+                createConnection(cache), tableNames);
+        assertEquals(Arrays.asList(expected), Arrays.asList(actual));
+        assertEquals("table exists lookups", 0,
+                _metadataHandler._tableExistsCount);
+    }
+
+    public void testPersistedCacheInvalidatedBySchemaChange() throws Exception
+    {
+        final File file = createCacheFile();
+        final DefaultMetadataCache cache = new DefaultMetadataCache(file);
+        final IDataSet dataSet = createConnection(cache).createDataSet();
+        dataSet.getTableMetaData("A");
+        cache.save();
+
+        // Unchanged schema: the metadata comes from the file
+        _metadataHandler.reset();
+        IDataSet loadedDataSet =
+                createConnection(new DefaultMetadataCache(file)).createDataSet();
+        assertMetaData(dataSet.getTableMetaData("A"),
+                loadedDataSet.getTableMetaData("A"));
+        assertEquals("fingerprint lookup", 1, _metadataHandler._tablesCount);
+        assertEquals("columns lookups", 0, _metadataHandler._columnsCount);
+
+        // Changed schema: the cached entries are discarded
+        final Statement statement = _jdbcConnection.createStatement();
+        statement.execute("CREATE TABLE I (PKI NUMERIC, PRIMARY KEY (PKI))");
+        statement.close();
+        _metadataHandler.reset();
+        loadedDataSet =
+                createConnection(new DefaultMetadataCache(file)).createDataSet();
+        assertEquals(9, loadedDataSet.getTableNames().length);
+        loadedDataSet.getTableMetaData("A").getColumns();
+        assertEquals("columns lookups", 1, _metadataHandler._columnsCount);
+    }
+
+    private void assertMetaData(final ITableMetaData expected,
+            final ITableMetaData actual) throws Exception
+    {
+        assertEquals("table name", expected.getTableName(),
+                actual.getTableName());
+        assertEquals("columns of " + expected.getTableName(),
+                Arrays.asList(expected.getColumns()),
+                Arrays.asList(actual.getColumns()));
+        assertEquals("primary keys of " + expected.getTableName(),
+                Arrays.asList(expected.getPrimaryKeys()),
+                Arrays.asList(actual.getPrimaryKeys()));
+    }
+
+    private static class CountingMetadataHandler extends DefaultMetadataHandler
+    {
+        private int _tablesCount;
+        private int _columnsCount;
+        private int _primaryKeysCount;
+        private int _tableExistsCount;
+
+        void reset()
+        {
+            _tablesCount = 0;
+            _columnsCount = 0;
+            _primaryKeysCount = 0;
+            _tableExistsCount = 0;
+        }
+
+        @Override
+        public ResultSet getTables(final DatabaseMetaData metaData,
+                final String schemaName, final String[] tableType)
+                throws SQLException
+        {
+            _tablesCount++;
+            return super.getTables(metaData, schemaName, tableType);
+        }
+
+        @Override
+        public ResultSet getColumns(final DatabaseMetaData databaseMetaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _columnsCount++;
+            return super.getColumns(databaseMetaData, schemaName, tableName);
+        }
+
+        @Override
+        public ResultSet getPrimaryKeys(final DatabaseMetaData metaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _primaryKeysCount++;
+            return super.getPrimaryKeys(metaData, schemaName, tableName);
+        }
+
+        @Override
+        public boolean tableExists(final DatabaseMetaData metaData,
+                final String schemaName, final String tableName)
+                throws SQLException
+        {
+            _tableExistsCount++;
+            return super.tableExists(metaData, schemaName, tableName);
+        }
+    }
+}
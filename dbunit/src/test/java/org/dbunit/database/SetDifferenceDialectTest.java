@@ -0,0 +1,98 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class SetDifferenceDialectTest extends TestCase
+{
+    private static final String[] COLUMNS = {"ID", "NAME"};
+
+    private final SetDifferenceDialect dialect = new SetDifferenceDialect();
+
+    public SetDifferenceDialectTest(String s)
+    {
+        super(s);
+    }
+
+    public void testGetScratchTableNameIsUnique() throws Exception
+    {
+        String first = dialect.getScratchTableName();
+        String second = dialect.getScratchTableName();
+
+        assertTrue("prefix", first.startsWith("DBUNIT_EXPECTED_"));
+        assertTrue("length", first.length() <= 30);
+        assertFalse("unique", first.equals(second));
+    }
+
+    public void testGetCreateScratchTableSql() throws Exception
+    {
+        String expected = "create table X as (select ID, NAME from S.T)"
+                + " with no data";
+
+        String sql = dialect.getCreateScratchTableSql("X", "S.T", COLUMNS);
+        assertEquals("create statement", expected, sql);
+    }
+
+    public void testGetDropScratchTableSql() throws Exception
+    {
+        assertEquals("drop statement", "drop table X",
+                dialect.getDropScratchTableSql("X"));
+    }
+
+    public void testGetInsertSql() throws Exception
+    {
+        String expected = "insert into X (ID, NAME) values (?, ?)";
+
+        String sql = dialect.getInsertSql("X", COLUMNS);
+        assertEquals("insert statement", expected, sql);
+    }
+
+    public void testGetDifferenceSql() throws Exception
+    {
+        String expected = "select ID, NAME,"
+                + " sum(DBUNIT_EXPECTED) as DBUNIT_EXPECTED_COUNT,"
+                + " sum(DBUNIT_ACTUAL) as DBUNIT_ACTUAL_COUNT"
+                + " from (select ID, NAME, 1 as DBUNIT_EXPECTED,"
+                + " 0 as DBUNIT_ACTUAL from X"
+                + " union all select ID, NAME, 0, 1 from S.T) DBUNIT_ROWS"
+                + " group by ID, NAME"
+                + " having sum(DBUNIT_EXPECTED) <> sum(DBUNIT_ACTUAL)"
+                + " order by ID";
+
+        String sql = dialect.getDifferenceSql("X", "S.T", COLUMNS,
+                new String[] {"ID"});
+        assertEquals("difference query", expected, sql);
+    }
+
+    public void testGetDifferenceSqlWithoutOrder() throws Exception
+    {
+        String sql = dialect.getDifferenceSql("X", "S.T", COLUMNS,
+                new String[0]);
+        assertTrue("no order by", sql.endsWith(
+                " having sum(DBUNIT_EXPECTED) <> sum(DBUNIT_ACTUAL)"));
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.dbunit.dataset.AbstractTableTest;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class SpillingResultSetTableTest extends AbstractTableTest
+{
+    private File _directory;
+
+    public SpillingResultSetTableTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _directory = File.createTempFile("spillingResultSetTableTest", "");
+        _directory.delete();
+        _directory.mkdir();
+    }
+
+    protected void tearDown() throws Exception
+    {
+        File[] files = _directory.listFiles();
+        for (int i = 0; i < files.length; i++)
+        {
+            files[i].delete();
+        }
+        _directory.delete();
+        super.tearDown();
+    }
+
+    protected ITable createTable() throws Exception
+    {
+        ResultTable table = new ResultTable(createColumns(4));
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            Object[] rowValues = new Object[COLUMN_COUNT];
+            for (int j = 0; j < rowValues.length; j++)
+            {
+                rowValues[j] = "row " + i + " col " + j;
+            }
+            table.addRow(rowValues);
+        }
+        // The first page stays in heap, the others are spilled
+        return new SpillingResultSetTable(table, 400, 4, _directory);
+    }
+
+    private Column[] createColumns(int count)
+    {
+        Column[] columns = new Column[count];
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i] = new Column("COLUMN" + i, DataType.UNKNOWN);
+        }
+        return columns;
+    }
+
+    private Object[] createRow(int i)
+    {
+        Timestamp timestamp = new Timestamp(1234567890123L + i);
+        timestamp.setNanos(123456789);
+        return new Object[] {
+                null,
+                "row " + i + " \u00e9",
+                new Integer(i),
+                new Long(-i),
+                new Short((short) i),
+                new Byte((byte) i),
+                new Double(i / 3.0),
+                new Float(i / 7.0f),
+                new BigDecimal("-12345.67890").add(new BigDecimal(i)),
+                BigInteger.valueOf(i).shiftLeft(80),
+                Boolean.valueOf(i % 2 == 0),
+                timestamp,
+                new java.sql.Date(86400000L * i),
+                new Time(1000L * i),
+                new Date(5000L * i),
+                new byte[] {(byte) i, 2, 3},
+                ITable.NO_VALUE,
+                Arrays.asList(new String[] {"serialized", String.valueOf(i)}),
+        };
+    }
+
+    private void assertRowEquals(Object[] expected, Object[] actual)
+    {
+        for (int i = 0; i < expected.length; i++)
+        {
+            if (expected[i] instanceof byte[])
+            {
+                assertTrue("column " + i, Arrays.equals((byte[]) expected[i], (byte[]) actual[i]));
+            }
+            else if (expected[i] == ITable.NO_VALUE)
+            {
+                assertSame("column " + i, expected[i], actual[i]);
+            }
+            else
+            {
+                assertEquals("column " + i, expected[i], actual[i]);
+                if (expected[i] != null)
+                {
+                    assertEquals("column " + i, expected[i].getClass(), actual[i].getClass());
+                }
+            }
+        }
+    }
+
+    public void testGetMissingValue() throws Exception
+    {
+        // Covered by testSpilledValues
+    }
+
+    public void testSpilledValues() throws Exception
+    {
+        int columnCount = createRow(0).length;
+        ResultTable source = new ResultTable(createColumns(columnCount));
+        for (int i = 0; i < 50; i++)
+        {
+            source.addRow(createRow(i));
+        }
+
+        SpillingResultSetTable table = new SpillingResultSetTable(source, 0, 8, _directory);
+        assertTrue("source closed", source._closed);
+        assertTrue(table.isSpilled());
+        assertEquals(1, _directory.listFiles().length);
+        assertEquals(50, table.getRowCount());
+
+        // Random access through the page cache
+        for (int i = 49; i >= 0; i -= 7)
+        {
+            Object[] actual = new Object[columnCount];
+            for (int j = 0; j < columnCount; j++)
+            {
+                actual[j] = table.getValue(i, j);
+            }
+            assertRowEquals(createRow(i), actual);
+        }
+
+        ITableCursor cursor = table.cursor();
+        for (int i = 0; i < 50; i++)
+        {
+            assertTrue(cursor.next());
+            Object[] actual = new Object[columnCount];
+            for (int j = 0; j < columnCount; j++)
+            {
+                actual[j] = cursor.get(j);
+            }
+            assertRowEquals(createRow(i), actual);
+        }
+        assertFalse(cursor.next());
+
+        table.close();
+        assertEquals(0, _directory.listFiles().length);
+        try
+        {
+            table.getValue(10, 0);
+            fail("Should not be here!");
+        }
+        catch (DataSetException expected)
+        {
+        }
+    }
+
+    public void testWithinBudget() throws Exception
+    {
+        SpillingResultSetTable spilled = (SpillingResultSetTable) createTable();
+        ResultTable source = new ResultTable(spilled);
+        spilled.close();
+        SpillingResultSetTable table = new SpillingResultSetTable(source, 1024 * 1024, 4, _directory);
+
+        assertFalse(table.isSpilled());
+        assertEquals(0, _directory.listFiles().length);
+        assertEquals(ROW_COUNT, table.getRowCount());
+        assertEquals("row 5 col 3", table.getValue(5, "COLUMN3"));
+        table.close();
+    }
+
+    public void testNotSerializableValue() throws Exception
+    {
+        ResultTable source = new ResultTable(createColumns(1));
+        source.addRow(new Object[] {new Object()});
+
+        try
+        {
+            new SpillingResultSetTable(source, 0, 8, _directory);
+            fail("Should not be here!");
+        }
+        catch (DataSetException expected)
+        {
+        }
+        assertTrue("source closed", source._closed);
+        assertEquals(0, _directory.listFiles().length);
+    }
+
+    public void testInvalidParameters() throws Exception
+    {
+        try
+        {
+            new SpillingResultSetTable(new ResultTable(createColumns(1)), 0, 0, null);
+            fail("Should not be here!");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+    }
+
+    /**
+     * In-memory table standing in for a result set
+     */
+    private static class ResultTable extends DefaultTable implements IResultSetTable
+    {
+        private boolean _closed;
+
+        ResultTable(Column[] columns)
+        {
+            super("TEST_TABLE", columns);
+        }
+
+        ResultTable(ITable table) throws DataSetException
+        {
+            this(table.getTableMetaData().getColumns());
+            addTableRows(table);
+        }
+
+        public void close()
+        {
+            _closed = true;
+        }
+    }
+}
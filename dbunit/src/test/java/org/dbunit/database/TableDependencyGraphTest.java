@@ -0,0 +1,178 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.database;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class TableDependencyGraphTest extends TestCase
+{
+    private static final String[] TABLE_NAMES =
+            {"A", "B", "C", "D", "E", "F", "G", "H"};
+
+    public TableDependencyGraphTest(final String s)
+    {
+        super(s);
+    }
+
+    /**
+     * Same dependencies as in hypersonic_fk.sql
+     */
+    private TableDependencyGraph createFkGraph() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(TABLE_NAMES, false);
+        graph.addDependency("A", "D");
+        graph.addDependency("B", "C");
+        graph.addDependency("B", "E");
+        graph.addDependency("B", "H");
+        graph.addDependency("C", "A");
+        graph.addDependency("C", "F");
+        graph.addDependency("E", "A");
+        graph.addDependency("E", "G");
+        graph.addDependency("F", "D");
+        return graph;
+    }
+
+    public void testSort() throws Exception
+    {
+        final String[] expected = {"D", "A", "F", "C", "G", "E", "H", "B"};
+        assertEquals(Arrays.asList(expected),
+                Arrays.asList(createFkGraph().sort()));
+    }
+
+    public void testSortWithoutDependencies() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(TABLE_NAMES, false);
+        assertEquals(Arrays.asList(TABLE_NAMES), Arrays.asList(graph.sort()));
+    }
+
+    public void testGetLevels() throws Exception
+    {
+        final String[][] levels = createFkGraph().getLevels();
+        assertEquals("level count", 4, levels.length);
+        assertEquals(Arrays.asList(new String[] {"D", "G", "H"}),
+                Arrays.asList(levels[0]));
+        assertEquals(Arrays.asList(new String[] {"A", "F"}),
+                Arrays.asList(levels[1]));
+        assertEquals(Arrays.asList(new String[] {"C", "E"}),
+                Arrays.asList(levels[2]));
+        assertEquals(Arrays.asList(new String[] {"B"}),
+                Arrays.asList(levels[3]));
+    }
+
+    public void testAddDependencyIgnoresSelfAndUnknownTables() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(new String[] {"B", "A"}, false);
+        graph.addDependency("B", "B");
+        graph.addDependency("B", "OTHER");
+        graph.addDependency("b", "a");
+        assertEquals(Arrays.asList(new String[] {"A", "B"}),
+                Arrays.asList(graph.sort()));
+        assertEquals(0, graph.getCycles().size());
+    }
+
+    public void testAddDependencyCaseSensitive() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(new String[] {"B", "A"}, true);
+        graph.addDependency("B", "a");
+        assertEquals(Arrays.asList(new String[] {"B", "A"}),
+                Arrays.asList(graph.sort()));
+    }
+
+    public void testGetCycles() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(TABLE_NAMES, false);
+        // A -> B -> C -> A and D <-> E, F depends on the first cycle
+        graph.addDependency("B", "A");
+        graph.addDependency("C", "B");
+        graph.addDependency("A", "C");
+        graph.addDependency("D", "E");
+        graph.addDependency("E", "D");
+        graph.addDependency("F", "C");
+
+        final List cycles = graph.getCycles();
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.contains(
+                new HashSet(Arrays.asList(new String[] {"A", "B", "C"}))));
+        assertTrue(cycles.contains(
+                new HashSet(Arrays.asList(new String[] {"D", "E"}))));
+    }
+
+    public void testSortCyclic() throws Exception
+    {
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(TABLE_NAMES, false);
+        graph.addDependency("B", "A");
+        graph.addDependency("A", "B");
+        graph.addDependency("C", "A");
+        try
+        {
+            graph.sort();
+            fail("Should not be here!");
+        } catch (final CyclicTablesDependencyException expected)
+        {
+            assertEquals("Table: A ([A, B])", expected.getMessage());
+        }
+        try
+        {
+            graph.getLevels();
+            fail("Should not be here!");
+        } catch (final CyclicTablesDependencyException expected)
+        {
+            assertEquals("Table: A ([A, B])", expected.getMessage());
+        }
+    }
+
+    public void testGetCyclesLongChain() throws Exception
+    {
+        // Deep enough to overflow the thread stack with a recursive search
+        final String[] tableNames = new String[100000];
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            tableNames[i] = "T" + i;
+        }
+        final TableDependencyGraph graph =
+                new TableDependencyGraph(tableNames, false);
+        for (int i = 1; i < tableNames.length; i++)
+        {
+            graph.addDependency(tableNames[i - 1], tableNames[i]);
+        }
+        graph.addDependency(tableNames[tableNames.length - 1], tableNames[0]);
+
+        final List cycles = graph.getCycles();
+        assertEquals(1, cycles.size());
+        assertEquals(tableNames.length, ((Set)cycles.get(0)).size());
+    }
+}
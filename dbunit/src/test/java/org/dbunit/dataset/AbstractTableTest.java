@@ -114,6 +114,38 @@ public abstract class AbstractTableTest extends TestCase
         }
     }
 
+    public void testGetValueByColumnIndex() throws Exception
+    {
+        ITable table = createTable();
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            for (int j = 0; j < COLUMN_COUNT; j++)
+            {
+                String expected = "row " + i + " col " + j;
+                Object value = table.getValue(i, j);
+                assertEquals("value", expected, value);
+            }
+        }
+    }
+
+    public void testCursor() throws Exception
+    {
+        ITableCursor cursor = createTable().cursor();
+        assertEquals("row before first", -1, cursor.getRow());
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            assertTrue("next row " + i, cursor.next());
+            assertEquals("row", i, cursor.getRow());
+            for (int j = 0; j < COLUMN_COUNT; j++)
+            {
+                String expected = "row " + i + " col " + j;
+                assertEquals("value", expected, cursor.get(j));
+            }
+        }
+        assertFalse("end of table", cursor.next());
+        assertFalse("end of table remains", cursor.next());
+    }
+
     public abstract void testGetMissingValue() throws Exception;
 
     public void testGetValueRowBounds() throws Exception
@@ -150,6 +182,24 @@ public abstract class AbstractTableTest extends TestCase
         }
     }
     
+    public void testGetValueAndNoSuchColumnIndex() throws Exception
+    {
+        int[] columns = new int[]{-1, COLUMN_COUNT, COLUMN_COUNT + 1};
+        ITable table = createTable();
+
+        for (int i = 0; i < columns.length; i++)
+        {
+            try
+            {
+                table.getValue(0, columns[i]);
+                fail("Should throw a NoSuchColumnException!");
+            }
+            catch (NoSuchColumnException e)
+            {
+            }
+        }
+    }
+    
     /**
      * This method is used so sub-classes can disable the tests according to 
      * some characteristics of the environment
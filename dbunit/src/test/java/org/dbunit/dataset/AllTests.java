@@ -33,6 +33,7 @@ public class AllTests extends TestSuite
     public static Test suite()
     {
         TestSuite suite = new TestSuite();
+        suite.addTest(org.dbunit.dataset.binary.AllTests.suite());
         suite.addTest(org.dbunit.dataset.common.handlers.AllTests.suite());
         suite.addTest(org.dbunit.dataset.datatype.AllTests.suite());
         suite.addTest(org.dbunit.dataset.excel.AllTests.suite());
@@ -44,6 +45,7 @@ public class AllTests extends TestSuite
         suite.addTest(new TestSuite(CaseInsensitiveDataSetTest.class));
         suite.addTest(new TestSuite(CaseInsensitiveTableTest.class));
         suite.addTest(new TestSuite(ColumnTest.class));
+        suite.addTest(new TestSuite(ColumnarTableTest.class));
         suite.addTest(new TestSuite(ColumnsTest.class));
         suite.addTest(new TestSuite(CompositeDataSetTest.class));
         suite.addTest(new TestSuite(CompositeTableTest.class));
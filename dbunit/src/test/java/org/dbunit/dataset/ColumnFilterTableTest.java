@@ -0,0 +1,75 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.filter.DefaultColumnFilter;
+
+/**
+ * @author gommma (gommma AT users.sourceforge.net)
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ColumnFilterTableTest extends AbstractTableTest
+{
+    public ColumnFilterTableTest(String s)
+    {
+        super(s);
+    }
+
+    /**
+     * Wraps a table having an additional leading column which is filtered out,
+     * so that the column positions of the filtered table differ from the ones
+     * of the original table.
+     */
+    protected ITable createTable() throws Exception
+    {
+        Column[] columns = new Column[COLUMN_COUNT + 1];
+        columns[0] = new Column("EXCLUDED", DataType.UNKNOWN);
+        for (int j = 0; j < COLUMN_COUNT; j++)
+        {
+            columns[j + 1] = new Column("COLUMN" + j, DataType.UNKNOWN);
+        }
+
+        DefaultTable table = new DefaultTable("myTable", columns);
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            Object[] rowValues = new Object[columns.length];
+            rowValues[0] = "excluded " + i;
+            for (int j = 0; j < COLUMN_COUNT; j++)
+            {
+                rowValues[j + 1] = "row " + i + " col " + j;
+            }
+            table.addRow(rowValues);
+        }
+
+        DefaultColumnFilter columnFilter = new DefaultColumnFilter();
+        columnFilter.excludeColumn("EXCLUDED");
+        return new ColumnFilterTable(table, columnFilter);
+    }
+
+    public void testGetMissingValue() throws Exception
+    {
+        // Do not test this!
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.DataSetProducerAdapter;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ColumnarTableTest extends DefaultTableTest
+{
+    public ColumnarTableTest(String s)
+    {
+        super(s);
+    }
+
+    protected ITable createTable(int columnCount, int rowCount, int startRow)
+            throws Exception
+    {
+        return new ColumnarTable(super.createTable(columnCount, rowCount, startRow));
+    }
+
+    private ColumnarTable createTypedTable() throws Exception
+    {
+        Column[] columns = new Column[] {
+                new Column("INT_COL", DataType.INTEGER),
+                new Column("LONG_COL", DataType.BIGINT_AUX_LONG),
+                new Column("DOUBLE_COL", DataType.DOUBLE),
+                new Column("DECIMAL_COL", DataType.NUMERIC),
+                new Column("TIMESTAMP_COL", DataType.TIMESTAMP),
+                new Column("DATE_COL", DataType.DATE),
+                new Column("TIME_COL", DataType.TIME),
+                new Column("STRING_COL", DataType.VARCHAR),
+                new Column("BOOLEAN_COL", DataType.BOOLEAN),
+        };
+        return new ColumnarTable(new DefaultTableMetaData("TYPED", columns));
+    }
+
+    private Object[] createTypedRow(int i)
+    {
+        Timestamp timestamp = new Timestamp(1234567890123L + i);
+        timestamp.setNanos(123456789);
+        return new Object[] {
+                new Integer(i - 5),
+                new Long(Long.MAX_VALUE - i),
+                new Double(i / 3.0),
+                new BigDecimal("-12345.6789").add(new BigDecimal(i)),
+                timestamp,
+                new java.sql.Date(86400000L * i),
+                new Time(1000L * i),
+                "value " + (i % 3),
+                Boolean.valueOf(i % 2 == 0),
+        };
+    }
+
+    private void assertRow(Object[] expected, ITable table, int row) throws Exception
+    {
+        for (int i = 0; i < expected.length; i++)
+        {
+            Object actual = table.getValue(row, i);
+            assertEquals("column " + i, expected[i], actual);
+            if (expected[i] != null)
+            {
+                assertEquals("column " + i, expected[i].getClass(), actual.getClass());
+            }
+        }
+    }
+
+    public void testTypedValuesRoundTrip() throws Exception
+    {
+        ColumnarTable table = createTypedTable();
+        for (int i = 0; i < 100; i++)
+        {
+            table.addRow(createTypedRow(i));
+        }
+        table.addRow();
+
+        assertEquals(101, table.getRowCount());
+        for (int i = 0; i < 100; i++)
+        {
+            assertRow(createTypedRow(i), table, i);
+        }
+        assertRow(new Object[9], table, 100);
+
+        ITableCursor cursor = table.cursor();
+        assertTrue(cursor.next());
+        assertEquals(new Integer(-5), cursor.get(0));
+        assertEquals(createTypedRow(0)[4], cursor.get(4));
+    }
+
+    public void testValuesNotMatchingTheDataType() throws Exception
+    {
+        ColumnarTable table = createTypedTable();
+        table.addRow(createTypedRow(0));
+        Object[] row = createTypedRow(1);
+        row[0] = "not an integer";
+        row[1] = ITable.NO_VALUE;
+        row[3] = new BigDecimal(new BigInteger("123456789012345678901234567890"), 5);
+        row[4] = new java.util.Date(5);
+        row[7] = new Integer(7);
+        table.addRow(row);
+        table.addRow(createTypedRow(2));
+
+        assertRow(createTypedRow(0), table, 0);
+        assertRow(row, table, 1);
+        assertRow(createTypedRow(2), table, 2);
+    }
+
+    public void testSetValue() throws Exception
+    {
+        ColumnarTable table = createTypedTable();
+        table.addRow(createTypedRow(0));
+        table.addRow(createTypedRow(1));
+
+        assertEquals(new Integer(-5), table.setValue(0, "INT_COL", null));
+        assertEquals(null, table.setValue(0, "INT_COL", new Integer(42)));
+        assertEquals(new Integer(42), table.setValue(0, "INT_COL", "42"));
+        assertEquals("42", table.getValue(0, "INT_COL"));
+        assertEquals(new Integer(-4), table.getValue(1, "INT_COL"));
+        assertEquals("value 1", table.setValue(1, "STRING_COL", "other"));
+        assertEquals("other", table.getValue(1, "STRING_COL"));
+        assertEquals("value 0", table.getValue(0, "STRING_COL"));
+    }
+
+    public void testManyDistinctStrings() throws Exception
+    {
+        ColumnarTable table = new ColumnarTable(createTableMetaData(1));
+        for (int i = 0; i < 10000; i++)
+        {
+            table.addRow(new Object[] {i % 2 == 0 ? "value " + i : null});
+        }
+        table.trimToSize();
+
+        assertEquals(10000, table.getRowCount());
+        for (int i = 0; i < 10000; i++)
+        {
+            assertEquals(i % 2 == 0 ? "value " + i : null, table.getValue(i, 0));
+        }
+    }
+
+    public void testCachedDataSet() throws Exception
+    {
+        DefaultTable table1 = new DefaultTable(createTypedTable().getTableMetaData());
+        table1.addRow(createTypedRow(0));
+        DefaultTable table2 = new DefaultTable(createTableMetaData(2));
+        table2.addRow(new Object[] {"a", "b"});
+        IDataSet dataSet = new DefaultDataSet(new ITable[] {table1, table2});
+
+        CachedDataSet cachedDataSet = new CachedDataSet(dataSet, true);
+        assertTrue(cachedDataSet.getTable("TYPED") instanceof ColumnarTable);
+
+        cachedDataSet = new CachedDataSet(new DataSetProducerAdapter(dataSet), false, true);
+        assertTrue(cachedDataSet.getTable("TYPED") instanceof ColumnarTable);
+        assertRow(createTypedRow(0), cachedDataSet.getTable("TYPED"), 0);
+        assertEquals("b", cachedDataSet.getTable("myTable").getValue(0, "COLUMN1"));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DefaultTableCursorTest extends TestCase
+{
+    private static final int ROW_COUNT = 3;
+
+    public DefaultTableCursorTest(String s)
+    {
+        super(s);
+    }
+
+    private ITable createTable() throws Exception
+    {
+        DefaultTable table = new DefaultTable(
+                new MockTableMetaData("TABLE", new String[] {"C1", "C2"}));
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            table.addRow(new Object[] {"row " + i + " col 0",
+                    "row " + i + " col 1"});
+        }
+        return table;
+    }
+
+    public void testNext() throws Exception
+    {
+        ITableCursor cursor = new DefaultTableCursor(createTable());
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            assertTrue("next", cursor.next());
+            assertEquals("row", i, cursor.getRow());
+            assertEquals("value", "row " + i + " col 1", cursor.get(1));
+        }
+        assertFalse("end of table", cursor.next());
+    }
+
+    public void testNextReverse() throws Exception
+    {
+        ITableCursor cursor = new DefaultTableCursor(createTable(), true);
+        for (int i = ROW_COUNT - 1; i >= 0; i--)
+        {
+            assertTrue("next", cursor.next());
+            assertEquals("row", i, cursor.getRow());
+            assertEquals("value", "row " + i + " col 0", cursor.get(0));
+        }
+        assertFalse("end of table", cursor.next());
+    }
+
+    public void testNextWithoutRowCount() throws Exception
+    {
+        ITableCursor cursor =
+                new DefaultTableCursor(new ForwardOnlyTable(createTable()));
+        int rowCount = 0;
+        while (cursor.next())
+        {
+            assertEquals("value", "row " + rowCount + " col 0", cursor.get(0));
+            rowCount++;
+        }
+        assertEquals("row count", ROW_COUNT, rowCount);
+    }
+
+    public void testNextOnEmptyTable() throws Exception
+    {
+        ITable table = new DefaultTable(
+                new MockTableMetaData("TABLE", new String[] {"C1"}));
+        assertFalse("forward", new DefaultTableCursor(table).next());
+        assertFalse("reverse", new DefaultTableCursor(table, true).next());
+        assertFalse("forward-only",
+                new DefaultTableCursor(new ForwardOnlyTable(table)).next());
+    }
+
+    public void testGetBeforeFirstRow() throws Exception
+    {
+        ITableCursor cursor = new DefaultTableCursor(createTable());
+        try
+        {
+            cursor.get(0);
+            fail("Should throw a RowOutOfBoundsException!");
+        }
+        catch (RowOutOfBoundsException e)
+        {
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.xml.XmlDataSet;
+import org.dbunit.testutil.TestUtils;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryDataSetTest extends TestCase
+{
+    private static final int ROW_COUNT = 10;
+
+    public BinaryDataSetTest(String s)
+    {
+        super(s);
+    }
+
+    private static byte[] write(IDataSet dataSet, int blockSize,
+            boolean compressed) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDataSetWriter writer = new BinaryDataSetWriter(out);
+        writer.setBlockSize(blockSize);
+        writer.setCompressed(compressed);
+        writer.write(dataSet);
+        return out.toByteArray();
+    }
+
+    private static IDataSet createTypedDataSet() throws Exception
+    {
+        Column[] columns = new Column[] {
+            new Column("ID", DataType.INTEGER, "INT", Column.NO_NULLS, null,
+                    "primary key", Column.AutoIncrement.YES),
+            new Column("BIG", DataType.BIGINT),
+            new Column("RATIO", DataType.DOUBLE, Column.NULLABLE),
+            new Column("REAL_VALUE", DataType.REAL),
+            new Column("AMOUNT", DataType.DECIMAL),
+            new Column("HUGE", DataType.NUMERIC),
+            new Column("FLAG", DataType.BOOLEAN),
+            new Column("CREATED", DataType.TIMESTAMP),
+            new Column("DAY", DataType.DATE),
+            new Column("HOUR", DataType.TIME),
+            new Column("UPDATED", DataType.UNKNOWN),
+            new Column("DATA", DataType.BINARY),
+            new Column("NAME", DataType.VARCHAR),
+            new Column("ANY_VALUE", DataType.UNKNOWN),
+        };
+        DefaultTable table = new DefaultTable(new DefaultTableMetaData(
+                "TYPED_TABLE", columns, new String[] {"ID"}));
+        for (int i = 0; i < ROW_COUNT; i++)
+        {
+            Timestamp created = new Timestamp(1000000000000L + i);
+            created.setNanos(123456789);
+            Object any;
+            switch (i % 4)
+            {
+            case 0:
+                any = "text " + i;
+                break;
+            case 1:
+                any = Integer.valueOf(-i);
+                break;
+            case 2:
+                any = ITable.NO_VALUE;
+                break;
+            default:
+                any = null;
+            }
+            table.addRow(new Object[] {
+                Integer.valueOf(i - 5),
+                Long.valueOf(Long.MIN_VALUE + i),
+                i % 3 == 0 ? null : Double.valueOf(i / 3.0),
+                Float.valueOf(i * 1.5f),
+                new BigDecimal("-12345678901234567890.0" + i),
+                BigInteger.valueOf(i).shiftLeft(100),
+                Boolean.valueOf(i % 2 == 0),
+                created,
+                new java.sql.Date(86400000L * i),
+                new Time(3600000L * i),
+                new Date(-1000L * i),
+                new byte[] {(byte) i, (byte) 0xFF, 0},
+                "name ä中 " + i,
+                any,
+            });
+        }
+        return new DefaultDataSet(table);
+    }
+
+    private static void assertTypedDataSet(IDataSet expectedDataSet,
+            IDataSet actualDataSet) throws Exception
+    {
+        ITable expected = expectedDataSet.getTable("TYPED_TABLE");
+        ITable actual = actualDataSet.getTable("TYPED_TABLE");
+        ITableMetaData metaData = actual.getTableMetaData();
+        Column[] expectedColumns = expected.getTableMetaData().getColumns();
+        Column[] columns = metaData.getColumns();
+        assertEquals(expectedColumns.length, columns.length);
+        for (int i = 0; i < columns.length; i++)
+        {
+            assertEquals(expectedColumns[i].getColumnName(),
+                    columns[i].getColumnName());
+            assertSame(expectedColumns[i].getColumnName(),
+                    expectedColumns[i].getDataType(), columns[i].getDataType());
+            assertSame(expectedColumns[i].getNullable(), columns[i].getNullable());
+        }
+        assertEquals("INT", columns[0].getSqlTypeName());
+        assertEquals("primary key", columns[0].getRemarks());
+        assertSame(Column.AutoIncrement.YES, columns[0].getAutoIncrement());
+        assertEquals(1, metaData.getPrimaryKeys().length);
+        assertEquals("ID", metaData.getPrimaryKeys()[0].getColumnName());
+
+        assertEquals(ROW_COUNT, actual.getRowCount());
+        for (int row = 0; row < ROW_COUNT; row++)
+        {
+            for (int column = 0; column < columns.length; column++)
+            {
+                String columnName = columns[column].getColumnName();
+                Object expectedValue = expected.getValue(row, columnName);
+                Object actualValue = actual.getValue(row, columnName);
+                if (expectedValue instanceof byte[])
+                {
+                    assertTrue(columnName, Arrays.equals(
+                            (byte[]) expectedValue, (byte[]) actualValue));
+                }
+                else
+                {
+                    assertEquals(row + " " + columnName, expectedValue,
+                            actualValue);
+                    if (expectedValue != null)
+                    {
+                        assertSame(columnName, expectedValue.getClass(),
+                                actualValue.getClass());
+                    }
+                }
+            }
+        }
+    }
+
+    public void testWriteTypedValues() throws Exception
+    {
+        IDataSet expected = createTypedDataSet();
+        byte[] bytes = write(expected, 3, false);
+        assertTypedDataSet(expected,
+                new BinaryDataSet(new ByteArrayInputStream(bytes)));
+    }
+
+    public void testWriteTypedValuesCompressed() throws Exception
+    {
+        IDataSet expected = createTypedDataSet();
+        byte[] bytes = write(expected, 4, true);
+        assertTypedDataSet(expected,
+                new BinaryDataSet(new ByteArrayInputStream(bytes)));
+    }
+
+    public void testCompressedIsSmaller() throws Exception
+    {
+        DefaultTable table = new DefaultTable("TEST_TABLE", new Column[] {
+            new Column("TEXT", DataType.VARCHAR)
+        });
+        for (int i = 0; i < 1000; i++)
+        {
+            table.addRow(new Object[] {"the same value over and over again"});
+        }
+        IDataSet dataSet = new DefaultDataSet(table);
+
+        byte[] plain = write(dataSet, 500, false);
+        byte[] compressed = write(dataSet, 500, true);
+        assertTrue(compressed.length * 10 < plain.length);
+
+        ITable actual = new BinaryDataSet(new ByteArrayInputStream(compressed))
+                .getTable("TEST_TABLE");
+        Assertion.assertEquals(table, actual);
+    }
+
+    public void testWriteFile() throws Exception
+    {
+        IDataSet expectedDataSet = new XmlDataSet(new FileReader(
+                TestUtils.getFile("xml/dataSetTest.xml")));
+        File tempFile = File.createTempFile("dataSetTest", ".dbub");
+        try
+        {
+            OutputStream out = new FileOutputStream(tempFile);
+            try
+            {
+                BinaryDataSet.write(expectedDataSet, out);
+            }
+            finally
+            {
+                out.close();
+            }
+
+            IDataSet actualDataSet = new BinaryDataSet(tempFile);
+            String[] tableNames = expectedDataSet.getTableNames();
+            assertEquals(Arrays.asList(tableNames),
+                    Arrays.asList(actualDataSet.getTableNames()));
+            for (int i = 0; i < tableNames.length; i++)
+            {
+                Assertion.assertEquals(expectedDataSet.getTable(tableNames[i]),
+                        actualDataSet.getTable(tableNames[i]));
+            }
+        }
+        finally
+        {
+            tempFile.delete();
+        }
+    }
+
+    public void testNotBinaryDataSet() throws Exception
+    {
+        try
+        {
+            new BinaryDataSet(new ByteArrayInputStream(
+                    "<dataset/>".getBytes("UTF-8")));
+            fail("Should not be able to read an XML document");
+        }
+        catch (DataSetException expected)
+        {
+            assertEquals("Not a binary dataset", expected.getMessage());
+        }
+    }
+
+    public void testTruncated() throws Exception
+    {
+        byte[] bytes = write(createTypedDataSet(), 3, false);
+        for (int length = 5; length < bytes.length; length += 7)
+        {
+            try
+            {
+                new BinaryDataSet(new ByteArrayInputStream(bytes, 0, length));
+                fail("Should not be able to read " + length + " of "
+                        + bytes.length + " bytes");
+            }
+            catch (DataSetException expected)
+            {
+            }
+        }
+    }
+}
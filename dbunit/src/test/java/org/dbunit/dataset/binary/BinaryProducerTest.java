@@ -0,0 +1,57 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.stream.AbstractProducerTest;
+import org.dbunit.dataset.stream.IDataSetProducer;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.dbunit.testutil.TestUtils;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryProducerTest extends AbstractProducerTest
+{
+    private static final File DATASET_FILE =
+            TestUtils.getFile("xml/flatXmlProducerTest.xml");
+
+    public BinaryProducerTest(String s)
+    {
+        super(s);
+    }
+
+    protected IDataSetProducer createProducer() throws Exception
+    {
+        IDataSet dataSet = new FlatXmlDataSetBuilder().build(DATASET_FILE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDataSetWriter writer = new BinaryDataSetWriter(out);
+        writer.setBlockSize(2);
+        writer.write(dataSet);
+        return new BinaryProducer(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
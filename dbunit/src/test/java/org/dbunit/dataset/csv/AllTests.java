@@ -44,6 +44,8 @@ public class AllTests extends TestSuite
         suite.addTest(new TestSuite(CsvDataSetTest.class));
         suite.addTest(new TestSuite(CsvURLDataSetTest.class));
         suite.addTest(new TestSuite(CsvURLProducerTest.class));
+        suite.addTest(new TestSuite(CsvScannerTest.class));
+        suite.addTest(new TestSuite(CsvPullProducerTest.class));
         
         return suite;
     }
@@ -58,6 +58,19 @@ public class CsvDataSetTest extends TestCase {
     	
     }
 
+    public void testParallelProducer() throws Exception {
+        IDataSet expected = new CsvDataSet(DATASET_DIR);
+        IDataSet actual = new CsvDataSet(DATASET_DIR, false, 2, 2);
+        assertEquals("table count", expected.getTableNames().length, actual.getTableNames().length);
+        for (int i = 0; i < expected.getTableNames().length; i++) {
+            assertEquals("table name", expected.getTableNames()[i], actual.getTableNames()[i]);
+        }
+        Assertion.assertEquals(expected, actual);
+
+        actual = new CsvDataSet(DATASET_DIR, true, 4, 1);
+        Assertion.assertEquals(expected, actual);
+    }
+
 	public void testWrite() throws Exception {
 		
 		IDataSet expectedDataSet = new CsvDataSet(DATASET_DIR);
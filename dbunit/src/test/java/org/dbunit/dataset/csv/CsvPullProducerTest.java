@@ -0,0 +1,97 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.dataset.csv;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.stream.StreamingDataSet;
+import org.dbunit.testutil.TestUtils;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class CsvPullProducerTest extends TestCase
+{
+    private static final File DATASET_DIR = TestUtils.getFile("csv/orders");
+
+    public CsvPullProducerTest(String s)
+    {
+        super(s);
+    }
+
+    public void testProduce() throws Exception
+    {
+        IDataSet expected = new CsvDataSet(DATASET_DIR);
+        IDataSet actual = new CachedDataSet(new CsvPullProducer(DATASET_DIR));
+        Assertion.assertEquals(expected, actual);
+    }
+
+    public void testStreamingDataSet() throws Exception
+    {
+        ITableIterator iterator = new StreamingDataSet(
+                new CsvPullProducer(DATASET_DIR.toURL(), CsvDataSet.TABLE_ORDERING_FILE)).iterator();
+
+        assertTrue(iterator.next());
+        ITable orders = iterator.getTable();
+        assertEquals("orders", orders.getTableMetaData().getTableName());
+        assertEquals("The second \nOrder", orders.getValue(1, "DESCRIPTION"));
+        assertNull(orders.getValue(4, "DESCRIPTION"));
+
+        assertTrue(iterator.next());
+        assertEquals("orders_row", iterator.getTableMetaData().getTableName());
+        assertFalse(iterator.next());
+    }
+
+    public void testMissingTableFile() throws Exception
+    {
+        CsvPullProducer producer = new CsvPullProducer(
+                TestUtils.getFile("csv").toURL(), "missing-tables.txt");
+        try
+        {
+            producer.nextTable();
+            fail("Should not be able to read the table list");
+        }
+        catch (DataSetException expected)
+        {
+        }
+    }
+
+    public void testClose() throws Exception
+    {
+        CsvPullProducer producer = new CsvPullProducer(DATASET_DIR);
+        assertNotNull(producer.nextTable());
+        assertNotNull(producer.nextRow());
+        producer.close();
+        assertNull(producer.nextRow());
+        assertNull(producer.nextTable());
+    }
+}
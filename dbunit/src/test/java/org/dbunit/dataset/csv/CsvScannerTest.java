@@ -0,0 +1,229 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.dataset.csv;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.testutil.TestUtils;
+import org.dbunit.util.FileHelper;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class CsvScannerTest extends TestCase
+{
+    public CsvScannerTest(String s)
+    {
+        super(s);
+    }
+
+    public void testUnquotedFields() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader(" Hello , world \na b ,c"), "test");
+        assertRecord(new Object[] {"Hello ", "world "}, scanner.nextRecord());
+        assertRecord(new Object[] {"a b ", "c"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testEmptyFields() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader("a,,\n,\n\"\",x"), "test");
+        assertRecord(new Object[] {"a", "", ""}, scanner.nextRecord());
+        assertRecord(new Object[] {"", ""}, scanner.nextRecord());
+        assertRecord(new Object[] {"", "x"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testQuotedFields() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader(
+                "\" Hello, \",world\n\"a\"\"b\",c\n\"a\" , b\nx\"y\"z,w"), "test");
+        assertRecord(new Object[] {" Hello, ", "world"}, scanner.nextRecord());
+        assertRecord(new Object[] {"a\"b", "c"}, scanner.nextRecord());
+        assertRecord(new Object[] {"a", "b"}, scanner.nextRecord());
+        assertRecord(new Object[] {"x\"y\"z", "w"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testBackslashEscapes() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader(
+                "\\\"m,\\\\\n\"a\\\"b\",c\\d"), "test");
+        assertRecord(new Object[] {"\"m", "\\"}, scanner.nextRecord());
+        assertRecord(new Object[] {"a\"b", "c\\d"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testQuotedFieldSpanningLines() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader(
+                "\"AA\r\nAAA\",\"BB\nBBB\"\r\nlast,row\r\n"), "test");
+        assertRecord(new Object[] {"AA\r\nAAA", "BB\nBBB"}, scanner.nextRecord());
+        assertEquals(4, scanner.getLineNumber());
+        assertRecord(new Object[] {"last", "row"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testEmptyLinesSkipped() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader("\n\na,b\r\n\r\nc,d\n\n"), "test");
+        assertRecord(new Object[] {"a", "b"}, scanner.nextRecord());
+        assertRecord(new Object[] {"c", "d"}, scanner.nextRecord());
+        assertNull(scanner.nextRecord());
+    }
+
+    public void testNullValue() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader("null,\"null\", null,nullx"), "test");
+        assertRecord(new Object[] {null, null, null, "nullx"}, scanner.nextRecord());
+    }
+
+    public void testFieldLargerThanBuffer() throws Exception
+    {
+        StringBuffer value = new StringBuffer();
+        for (int i = 0; i < 20000; i++)
+        {
+            value.append((char) ('a' + i % 26));
+        }
+        CsvScanner scanner = new CsvScanner(new StringReader(
+                "\"" + value + "\"," + value), "test");
+        assertRecord(new Object[] {value.toString(), value.toString()}, scanner.nextRecord());
+    }
+
+    public void testUnterminatedQuote() throws Exception
+    {
+        CsvScanner scanner = new CsvScanner(new StringReader("a,b\n\"c,d"), "test");
+        scanner.nextRecord();
+        try
+        {
+            scanner.nextRecord();
+            fail("should have thrown a CsvParserException");
+        }
+        catch (CsvParserException expected)
+        {
+            assertTrue(expected.getMessage().indexOf("line 2") >= 0);
+        }
+    }
+
+    public void testWithNewLinesFile() throws Exception
+    {
+        CachedDataSet dataSet = new CachedDataSet();
+        dataSet.startDataSet();
+        produce(TestUtils.getFile("csv/with-newlines.csv"), "with-newlines", dataSet);
+        dataSet.endDataSet();
+
+        ITable table = dataSet.getTable("with-newlines");
+        assertEquals(1, table.getRowCount());
+        assertEquals("AA\nAAA", table.getValue(0, "COL A"));
+        assertEquals("BB\nBBB", table.getValue(0, "COL B"));
+    }
+
+    public void testEmptyFile() throws Exception
+    {
+        failProducing(TestUtils.getFile("csv/empty-file.csv"));
+    }
+
+    public void testDifferentNumberOfColumns() throws Exception
+    {
+        failProducing(TestUtils.getFile("csv/different-column-numbers-last.csv"));
+        failProducing(TestUtils.getFile("csv/different-column-numbers-first.csv"));
+    }
+
+    public void testSameResultAsPipeline() throws Exception
+    {
+        File dir = TestUtils.getFile("csv/orders");
+        IDataSet expected = new CsvDataSet(dir);
+        IDataSet actual = new CsvDataSet(dir, true);
+        Assertion.assertEquals(expected, actual);
+        assertNull(actual.getTable("orders").getValue(4, "description"));
+
+        actual = new CsvURLDataSet(dir.toURL(), true);
+        Assertion.assertEquals(expected, actual);
+    }
+
+    public void testWriterOutputRoundTrip() throws Exception
+    {
+        IDataSet expected = new CsvDataSet(TestUtils.getFile("csv/orders"));
+        File tempDir = new File("target/csv/scanner-roundtrip");
+        try
+        {
+            CsvDataSetWriter.write(expected, tempDir);
+            Assertion.assertEquals(expected, new CsvDataSet(tempDir, true));
+        }
+        finally
+        {
+            FileHelper.deleteDirectory(tempDir, true);
+        }
+    }
+
+    private void produce(File file, String tableName, CachedDataSet consumer)
+            throws IOException, DataSetException
+    {
+        Reader reader = new FileReader(file);
+        try
+        {
+            new CsvScanner(reader, file.getPath()).produce(tableName, consumer);
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    private void failProducing(File file) throws Exception
+    {
+        CachedDataSet dataSet = new CachedDataSet();
+        dataSet.startDataSet();
+        try
+        {
+            produce(file, "test", dataSet);
+            fail("should have thrown a CsvParserException");
+        }
+        catch (CsvParserException expected)
+        {
+            assertTrue(true);
+        }
+    }
+
+    private void assertRecord(Object[] expected, Object[] actual)
+    {
+        assertNotNull("record expected", actual);
+        assertEquals("field count", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals("field " + i, expected[i], actual[i]);
+        }
+    }
+}
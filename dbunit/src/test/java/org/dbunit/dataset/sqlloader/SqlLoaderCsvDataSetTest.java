@@ -24,6 +24,7 @@ import java.io.File;
 
 import junit.framework.TestCase;
 
+import org.dbunit.Assertion;
 import org.dbunit.dataset.DataSetException;
 import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ITable;
@@ -68,4 +69,17 @@ public class SqlLoaderCsvDataSetTest extends TestCase {
         assertEquals("AMERICAN_SAMOA", val);
     }
 
+    /**
+     * Test parsing the control files concurrently.
+     * 
+     * @throws Exception
+     */
+    public void testParallelProducer() throws Exception {
+
+        IDataSet parallelDataSet = new SqlLoaderControlDataSet(TestUtils.getFile("sqlloader"),
+                TestUtils.getFile("sqlloader/tables.lst"), 2, 2);
+
+        Assertion.assertEquals(getDataSet(), parallelDataSet);
+    }
+
 }
@@ -35,7 +35,10 @@ public class AllTests extends TestSuite
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(BufferedConsumerTest.class));
         suite.addTest(new TestSuite(StreamingDataSetTest.class));
+        suite.addTest(new TestSuite(StreamingIteratorTest.class));
         suite.addTest(new TestSuite(StreamingTableTest.class));
+        suite.addTest(new TestSuite(ParallelProducerTest.class));
+        suite.addTest(new TestSuite(PullStreamingDataSetTest.class));
         return suite;
     }
 }
@@ -0,0 +1,246 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.dbunit.dataset.CachedDataSet;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ParallelProducerTest extends TestCase
+{
+    private static final Column[] COLUMNS = new Column[] {
+        new Column("ID", DataType.UNKNOWN)
+    };
+
+    private final AtomicInteger _running = new AtomicInteger();
+    private final AtomicInteger _started = new AtomicInteger();
+    private final AtomicInteger _maxRunning = new AtomicInteger();
+
+    public ParallelProducerTest(String s)
+    {
+        super(s);
+    }
+
+    public void testTablesKeepProducerOrder() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        // The first tables take longest so they complete last
+        for (int i = 0; i < 6; i++)
+        {
+            producers.add(new TableProducer("TABLE" + i, 3, (6 - i) * 20));
+        }
+
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        for (int i = 0; i < 6; i++)
+        {
+            consumer.addExpectedStartTable("TABLE" + i, COLUMNS);
+            for (int j = 0; j < 3; j++)
+            {
+                consumer.addExpectedRow("TABLE" + i, new Object[] {String.valueOf(j)});
+            }
+            consumer.addExpectedEndTable("TABLE" + i);
+        }
+        consumer.addExpectedEndDataSet();
+
+        ParallelProducer producer = new ParallelProducer(producers, 3, 6);
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+        assertTrue("tables produced concurrently", _maxRunning.get() > 1);
+        assertTrue("thread count respected", _maxRunning.get() <= 3);
+    }
+
+    public void testBufferBudget() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        for (int i = 0; i < 8; i++)
+        {
+            producers.add(new TableProducer("TABLE" + i, 1, 5));
+        }
+
+        final List<Integer> startedWhenConsumed = new ArrayList<Integer>();
+        ParallelProducer producer = new ParallelProducer(producers, 4, 2);
+        producer.setConsumer(new DefaultConsumer()
+        {
+            public void startTable(ITableMetaData metaData)
+            {
+                startedWhenConsumed.add(new Integer(_started.get()));
+            }
+        });
+        producer.produce();
+
+        assertEquals(8, startedWhenConsumed.size());
+        for (int i = 0; i < startedWhenConsumed.size(); i++)
+        {
+            int started = ((Integer) startedWhenConsumed.get(i)).intValue();
+            assertTrue("too many tables started ahead of table " + i + ": " + started,
+                    started <= i + 2);
+        }
+        assertTrue("budget limits concurrency", _maxRunning.get() <= 2);
+    }
+
+    public void testStreamingDataSet() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        producers.add(new TableProducer("A", 2, 30));
+        producers.add(new TableProducer("B", 4, 0));
+
+        ITableIterator iterator = new StreamingDataSet(
+                new ParallelProducer(producers, 2, 2)).iterator();
+        assertTrue(iterator.next());
+        assertEquals("A", iterator.getTableMetaData().getTableName());
+        assertTrue(iterator.next());
+        ITable table = iterator.getTable();
+        assertEquals("B", table.getTableMetaData().getTableName());
+        assertEquals("3", table.getValue(3, "ID"));
+        assertFalse(iterator.next());
+    }
+
+    public void testCachedDataSet() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        producers.add(new TableProducer("A", 2, 10));
+        producers.add(new TableProducer("B", 1, 0));
+
+        CachedDataSet dataSet = new CachedDataSet(new ParallelProducer(producers, 2, 2));
+        String[] tableNames = dataSet.getTableNames();
+        assertEquals(2, tableNames.length);
+        assertEquals("A", tableNames[0]);
+        assertEquals("B", tableNames[1]);
+        assertEquals(2, dataSet.getTable("A").getRowCount());
+    }
+
+    public void testProducerFailure() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        producers.add(new TableProducer("A", 1, 0));
+        producers.add(new TableProducer("FAIL", 1, 0));
+        producers.add(new TableProducer("C", 1, 0));
+
+        ParallelProducer producer = new ParallelProducer(producers, 2, 3);
+        CachedDataSet consumer = new CachedDataSet();
+        producer.setConsumer(consumer);
+        try
+        {
+            producer.produce();
+            fail("Should not be able to produce the failing table");
+        }
+        catch (DataSetException expected)
+        {
+            assertEquals("Failed to produce FAIL", expected.getMessage());
+        }
+    }
+
+    public void testInvalidArguments() throws Exception
+    {
+        List<IDataSetProducer> producers = new ArrayList<IDataSetProducer>();
+        try
+        {
+            new ParallelProducer(producers, 0, 1);
+            fail("Should not accept a thread count of 0");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+        try
+        {
+            new ParallelProducer(producers, 1, 0);
+            fail("Should not accept a buffer budget of 0");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+    }
+
+    /**
+     * Produces a single table after a delay and tracks the concurrency.
+     */
+    private class TableProducer implements IDataSetProducer
+    {
+        private final String _tableName;
+        private final int _rowCount;
+        private final long _delay;
+        private IDataSetConsumer _consumer;
+
+        public TableProducer(String tableName, int rowCount, long delay)
+        {
+            _tableName = tableName;
+            _rowCount = rowCount;
+            _delay = delay;
+        }
+
+        public void setConsumer(IDataSetConsumer consumer)
+        {
+            _consumer = consumer;
+        }
+
+        public void produce() throws DataSetException
+        {
+            _started.incrementAndGet();
+            int running = _running.incrementAndGet();
+            synchronized (_maxRunning)
+            {
+                _maxRunning.set(Math.max(_maxRunning.get(), running));
+            }
+            try
+            {
+                Thread.sleep(_delay);
+                if (_tableName.equals("FAIL"))
+                {
+                    throw new DataSetException("Failed to produce " + _tableName);
+                }
+                _consumer.startDataSet();
+                _consumer.startTable(new DefaultTableMetaData(_tableName, COLUMNS));
+                for (int i = 0; i < _rowCount; i++)
+                {
+                    _consumer.row(new Object[] {String.valueOf(i)});
+                }
+                _consumer.endTable();
+                _consumer.endDataSet();
+            }
+            catch (InterruptedException e)
+            {
+                throw new DataSetException(e);
+            }
+            finally
+            {
+                _running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import java.io.FileReader;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ForwardOnlyDataSetTest;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.xml.FlatXmlDataSetTest;
+import org.dbunit.dataset.xml.FlatXmlPullProducer;
+import org.xml.sax.InputSource;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class PullStreamingDataSetTest extends ForwardOnlyDataSetTest
+{
+    public PullStreamingDataSetTest(String s)
+    {
+        super(s);
+    }
+
+    protected IDataSet createDataSet() throws Exception
+    {
+        IDataSetProducer source = new FlatXmlPullProducer(
+                new InputSource(new FileReader(FlatXmlDataSetTest.DATASET_FILE)));
+        return new StreamingDataSet(source);
+    }
+
+    protected IDataSet createDuplicateDataSet() throws Exception
+    {
+        return new StreamingDataSet(
+                new DataSetProducerAdapter(super.createDuplicateDataSet()));
+    }
+
+    public void testReadOnCallingThread() throws Exception
+    {
+        ThreadCheckingProducer source = new ThreadCheckingProducer(3, 2);
+        ITableIterator iterator = new StreamingDataSet(source).iterator();
+
+        assertTrue(iterator.next());
+        ITableCursor cursor = iterator.getTable().cursor();
+        assertTrue(cursor.next());
+        assertEquals("TABLE0 row 0", cursor.get(0));
+
+        // The remaining rows of the first table are skipped
+        assertTrue(iterator.next());
+        ITable table = iterator.getTable();
+        assertEquals("TABLE1", table.getTableMetaData().getTableName());
+        assertEquals("TABLE1 row 1", table.getValue(1, "ID"));
+        assertFalse(cursor.next());
+
+        assertTrue(iterator.next());
+        assertFalse(iterator.next());
+        assertTrue("producer closed", source._closed);
+    }
+
+    public void testClosedOnException() throws Exception
+    {
+        ThreadCheckingProducer source = new ThreadCheckingProducer(3, 2);
+        source._failingTable = 1;
+        ITableIterator iterator = new StreamingDataSet(source).iterator();
+        assertTrue(iterator.next());
+        try
+        {
+            iterator.next();
+            fail("Should not be able to read the failing table");
+        }
+        catch (DataSetException expected)
+        {
+            assertEquals("TABLE1 failed", expected.getMessage());
+        }
+        assertTrue("producer closed", source._closed);
+    }
+
+    /**
+     * Pull producer failing when called on another thread than the creating one.
+     */
+    private static class ThreadCheckingProducer extends AbstractPullProducer
+    {
+        private final Thread _thread = Thread.currentThread();
+        private final int _tableCount;
+        private final int _rowCount;
+        private int _table = -1;
+        private int _row;
+        private int _failingTable = -1;
+        private boolean _closed;
+
+        public ThreadCheckingProducer(int tableCount, int rowCount)
+        {
+            _tableCount = tableCount;
+            _rowCount = rowCount;
+        }
+
+        private void checkThread()
+        {
+            assertSame("calling thread", _thread, Thread.currentThread());
+        }
+
+        public ITableMetaData nextTable() throws DataSetException
+        {
+            checkThread();
+            if (++_table >= _tableCount)
+            {
+                return null;
+            }
+            if (_table == _failingTable)
+            {
+                throw new DataSetException("TABLE" + _table + " failed");
+            }
+            _row = 0;
+            return new DefaultTableMetaData("TABLE" + _table,
+                    new Column[] {new Column("ID", DataType.UNKNOWN)});
+        }
+
+        public Object[] nextRow() throws DataSetException
+        {
+            checkThread();
+            if (_row >= _rowCount)
+            {
+                return null;
+            }
+            return new Object[] {"TABLE" + _table + " row " + _row++};
+        }
+
+        public void close() throws DataSetException
+        {
+            checkThread();
+            _closed = true;
+        }
+    }
+}
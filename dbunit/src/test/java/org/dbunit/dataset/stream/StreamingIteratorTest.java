@@ -0,0 +1,214 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.stream;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITableCursor;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.datatype.DataType;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class StreamingIteratorTest extends TestCase
+{
+    private final AtomicInteger _executed = new AtomicInteger();
+    private final CountDownLatch _finished = new CountDownLatch(1);
+
+    private final Executor _executor = new Executor()
+    {
+        public void execute(final Runnable command)
+        {
+            _executed.incrementAndGet();
+            Thread thread = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        command.run();
+                    }
+                    finally
+                    {
+                        _finished.countDown();
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    };
+
+    public StreamingIteratorTest(String s)
+    {
+        super(s);
+    }
+
+    private MockDataSetProducer createProducer(int tableCount, int rowCount)
+    {
+        MockDataSetProducer producer = new MockDataSetProducer();
+        producer.setupTableCount(tableCount);
+        producer.setupColumnCount(2);
+        producer.setupRowCount(rowCount);
+        return producer;
+    }
+
+    private void assertRows(ITableIterator iterator, int tableCount,
+            int rowCount) throws Exception
+    {
+        for (int i = 0; i < tableCount; i++)
+        {
+            assertTrue("table " + i, iterator.next());
+            assertEquals("TABLE" + i,
+                    iterator.getTableMetaData().getTableName());
+            ITableCursor cursor = iterator.getTable().cursor();
+            for (int j = 0; j < rowCount; j++)
+            {
+                assertTrue("row " + j, cursor.next());
+                assertEquals(j + ",1", cursor.get(1));
+            }
+            assertFalse(cursor.next());
+        }
+        assertFalse(iterator.next());
+        assertFalse(iterator.next());
+    }
+
+    public void testChunksDoNotSpanTables() throws Exception
+    {
+        ITableIterator iterator = new StreamingIterator(
+                createProducer(3, 7), _executor, 3);
+        assertRows(iterator, 3, 7);
+        assertEquals(1, _executed.get());
+        assertTrue(_finished.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testRowCountMultipleOfChunkSize() throws Exception
+    {
+        ITableIterator iterator = new StreamingIterator(
+                createProducer(2, 8), _executor, 4);
+        assertRows(iterator, 2, 8);
+    }
+
+    public void testSingleRowChunks() throws Exception
+    {
+        ITableIterator iterator = new StreamingIterator(
+                createProducer(2, 5), _executor, 1);
+        assertRows(iterator, 2, 5);
+    }
+
+    public void testSkipUnreadRows() throws Exception
+    {
+        ITableIterator iterator = new StreamingIterator(
+                createProducer(3, 1000), _executor, 16);
+        assertTrue(iterator.next());
+        assertTrue(iterator.next());
+        assertTrue(iterator.next());
+        assertEquals("TABLE2", iterator.getTableMetaData().getTableName());
+        assertEquals("999,0", iterator.getTable().getValue(999, "COLUMN0"));
+        assertFalse(iterator.next());
+    }
+
+    public void testStreamingDataSetUsesExecutor() throws Exception
+    {
+        StreamingDataSet dataSet = new StreamingDataSet(createProducer(2, 3),
+                _executor, 2);
+        assertRows(dataSet.iterator(), 2, 3);
+        assertEquals(1, _executed.get());
+    }
+
+    public void testCloseStopsProducer() throws Exception
+    {
+        StreamingIterator iterator = new StreamingIterator(
+                createProducer(1, Integer.MAX_VALUE), _executor, 8);
+        assertTrue(iterator.next());
+        ITableCursor cursor = iterator.getTable().cursor();
+        assertTrue(cursor.next());
+        assertTrue(cursor.next());
+
+        iterator.close();
+        assertTrue("producer not stopped",
+                _finished.await(5, TimeUnit.SECONDS));
+        assertFalse(cursor.next());
+        assertFalse(iterator.next());
+    }
+
+    public void testProducerFailureAfterRows() throws Exception
+    {
+        final RuntimeException failure = new IllegalStateException("failure");
+        IDataSetProducer producer = new IDataSetProducer()
+        {
+            private IDataSetConsumer _consumer;
+
+            public void setConsumer(IDataSetConsumer consumer)
+            {
+                _consumer = consumer;
+            }
+
+            public void produce() throws DataSetException
+            {
+                _consumer.startDataSet();
+                _consumer.startTable(new DefaultTableMetaData("TEST",
+                        new Column[] {new Column("ID", DataType.UNKNOWN)}));
+                _consumer.row(new Object[] {"1"});
+                throw failure;
+            }
+        };
+
+        ITableIterator iterator = new StreamingIterator(producer, _executor,
+                StreamingIterator.DEFAULT_CHUNK_SIZE);
+        assertTrue(iterator.next());
+        ITableCursor cursor = iterator.getTable().cursor();
+        try
+        {
+            cursor.next();
+            fail("Should not be able to read past the failure");
+        }
+        catch (DataSetException expected)
+        {
+            assertSame(failure, expected.getCause());
+        }
+        assertFalse(iterator.next());
+    }
+
+    public void testInvalidChunkSize() throws Exception
+    {
+        try
+        {
+            new StreamingIterator(createProducer(1, 1), _executor, 0);
+            fail("Should not be able to use a chunk size of 0");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+        assertEquals(0, _executed.get());
+    }
+}
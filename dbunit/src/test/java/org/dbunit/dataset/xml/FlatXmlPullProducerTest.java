@@ -0,0 +1,198 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.StringReader;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.AbstractProducerTest;
+import org.dbunit.dataset.stream.IDataSetProducer;
+import org.dbunit.dataset.stream.MockDataSetConsumer;
+import org.dbunit.testutil.TestUtils;
+import org.xml.sax.InputSource;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class FlatXmlPullProducerTest extends AbstractProducerTest
+{
+    private static final File DATASET_FILE =
+            TestUtils.getFile("xml/flatXmlProducerTest.xml");
+    private static final File DTD_FILE =
+            TestUtils.getFile("dtd/flatDtdProducerTest.dtd");
+
+    public FlatXmlPullProducerTest(String s)
+    {
+        super(s);
+    }
+
+    protected IDataSetProducer createProducer() throws Exception
+    {
+        String uri = DATASET_FILE.getAbsoluteFile().toURL().toString();
+        InputSource source = new InputSource(uri);
+
+        return new FlatXmlPullProducer(source,
+                new FlatDtdDataSet(new FileReader(DTD_FILE)));
+    }
+
+    private FlatXmlPullProducer createProducer(String content)
+    {
+        return new FlatXmlPullProducer(new InputSource(new StringReader(content)));
+    }
+
+    public void testProduceEmptyDataSet() throws Exception
+    {
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?><dataset/>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testProduceNoDtd() throws Exception
+    {
+        String tableName = "EMPTY_TABLE";
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedEmptyTable(tableName, new Column[0]);
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?>" +
+                "<!DOCTYPE dataset SYSTEM \"uri:/dummy.dtd\">" +
+                "<dataset>" +
+                    "<EMPTY_TABLE/>" +
+                "</dataset>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testProduceMetaDataSet() throws Exception
+    {
+        String tableName = "EMPTY_TABLE";
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        Column[] expectedColumns = createExpectedColumns(Column.NULLABLE);
+        consumer.addExpectedEmptyTable(tableName, expectedColumns);
+        consumer.addExpectedEndDataSet();
+
+        DefaultDataSet metaDataSet = new DefaultDataSet();
+        metaDataSet.addTable(new DefaultTable(tableName, expectedColumns));
+        IDataSetProducer producer = new FlatXmlPullProducer(new InputSource(
+                new StringReader("<dataset><EMPTY_TABLE/></dataset>")), metaDataSet);
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testExtraColumnIgnored() throws Exception
+    {
+        String tableName = "TEST_TABLE";
+        Column[] expectedColumns = new Column[] {
+            new Column("c1", DataType.UNKNOWN),
+            new Column("c2", DataType.UNKNOWN),
+        };
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedStartTable(tableName, expectedColumns);
+        consumer.addExpectedRow(tableName, new Object[] {"a", "b"});
+        consumer.addExpectedRow(tableName, new Object[] {null, "d"});
+        consumer.addExpectedEndTable(tableName);
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<dataset>" +
+                    "<TEST_TABLE c1='a' c2='b'/>" +
+                    "<TEST_TABLE c2='d' c3='e'></TEST_TABLE>" +
+                "</dataset>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testTableAppearingTwice() throws Exception
+    {
+        Column[] columns = new Column[] {new Column("c1", DataType.UNKNOWN)};
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedStartTable("A", columns);
+        consumer.addExpectedRow("A", new Object[] {"1"});
+        consumer.addExpectedEndTable("A");
+        consumer.addExpectedStartTable("B", columns);
+        consumer.addExpectedRow("B", new Object[] {"2"});
+        consumer.addExpectedEndTable("B");
+        consumer.addExpectedStartTable("A", columns);
+        consumer.addExpectedRow("A", new Object[] {"3"});
+        consumer.addExpectedEndTable("A");
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<dataset><A c1='1'/><B c1='2'/><a c1='3'/></dataset>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testSkipRemainingRows() throws Exception
+    {
+        FlatXmlPullProducer producer = createProducer(
+                "<dataset><A c1='1'/><A c1='2'/><A c1='3'/><B c1='4'/></dataset>");
+        assertEquals("A", producer.nextTable().getTableName());
+        assertEquals("1", producer.nextRow()[0]);
+
+        ITableMetaData metaData = producer.nextTable();
+        assertEquals("B", metaData.getTableName());
+        assertEquals("4", producer.nextRow()[0]);
+        assertNull(producer.nextRow());
+        assertNull(producer.nextTable());
+        producer.close();
+        assertNull(producer.nextTable());
+    }
+
+    public void testProduceNotWellFormedXml() throws Exception
+    {
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?><dataset><A c1='1'>");
+        try
+        {
+            producer.produce();
+            fail("Should not be here!");
+        }
+        catch (DataSetException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 1"));
+        }
+    }
+}
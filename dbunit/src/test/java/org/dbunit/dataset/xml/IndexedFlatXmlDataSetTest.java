@@ -0,0 +1,309 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.AbstractDataSetTest;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.NoSuchTableException;
+import org.dbunit.testutil.TestUtils;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class IndexedFlatXmlDataSetTest extends AbstractDataSetTest
+{
+    private static final File FLAT_XML_TABLE =
+            TestUtils.getFile("xml/flatXmlTableTest.xml");
+
+    private File _tempFile;
+
+    public IndexedFlatXmlDataSetTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _tempFile = File.createTempFile("indexedFlatXmlDataSetTest", ".xml");
+    }
+
+    protected void tearDown() throws Exception
+    {
+        IndexedFlatXmlDataSet.getDefaultIndexFile(_tempFile).delete();
+        _tempFile.delete();
+        super.tearDown();
+    }
+
+    protected IDataSet createDataSet() throws Exception
+    {
+        return createDataSet(FlatXmlDataSetTest.DATASET_FILE);
+    }
+
+    protected IDataSet createDuplicateDataSet() throws Exception
+    {
+        return createDataSet(FlatXmlDataSetTest.DUPLICATE_DATASET_FILE);
+    }
+
+    protected IDataSet createMultipleCaseDuplicateDataSet() throws Exception
+    {
+        return createDataSet(FlatXmlDataSetTest.DUPLICATE_DATASET_MULTIPLE_CASE_FILE);
+    }
+
+    private IndexedFlatXmlDataSet createDataSet(File file) throws Exception
+    {
+        return new IndexedFlatXmlDataSet(file, null, false, false,
+                IndexedFlatXmlDataSet.DEFAULT_MAX_CACHED_TABLES);
+    }
+
+    private void writeTempFile(String content, String encoding) throws IOException
+    {
+        OutputStream out = new FileOutputStream(_tempFile);
+        try
+        {
+            out.write(content.getBytes(encoding));
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Overridden from parent because FlatXml has different behaviour than other datasets.
+     * It allows the occurrence of the same table multiple times in arbitrary locations.
+     * @see org.dbunit.dataset.AbstractDataSetTest#testCreateDuplicateDataSet()
+     */
+    //@Override
+    public void testCreateDuplicateDataSet() throws Exception
+    {
+        IDataSet dataSet = createDuplicateDataSet();
+        ITable[] tables = dataSet.getTables();
+        assertEquals(2, tables.length);
+        assertEquals("DUPLICATE_TABLE", tables[0].getTableMetaData().getTableName());
+        assertEquals(3, tables[0].getRowCount());
+        assertEquals("EMPTY_TABLE", tables[1].getTableMetaData().getTableName());
+        assertEquals(0, tables[1].getRowCount());
+    }
+
+    /**
+     * Overridden from parent because FlatXml has different behaviour than other datasets.
+     * It allows the occurrence of the same table multiple times in arbitrary locations.
+     * @see org.dbunit.dataset.AbstractDataSetTest#testCreateMultipleCaseDuplicateDataSet()
+     */
+    //@Override
+    public void testCreateMultipleCaseDuplicateDataSet() throws Exception
+    {
+        IDataSet dataSet = createMultipleCaseDuplicateDataSet();
+        ITable[] tables = dataSet.getTables();
+        assertEquals(2, tables.length);
+        assertEquals("DUPLICATE_TABLE", tables[0].getTableMetaData().getTableName());
+        assertEquals(3, tables[0].getRowCount());
+        assertEquals("EMPTY_TABLE", tables[1].getTableMetaData().getTableName());
+        assertEquals(0, tables[1].getRowCount());
+    }
+
+    public void testCreateMultipleCaseDuplicateDataSet_CaseSensitive() throws Exception
+    {
+        IDataSet dataSet = new IndexedFlatXmlDataSet(
+                FlatXmlDataSetTest.DUPLICATE_DATASET_MULTIPLE_CASE_FILE, null,
+                false, true, IndexedFlatXmlDataSet.DEFAULT_MAX_CACHED_TABLES);
+
+        ITable[] tables = dataSet.getTables();
+        assertEquals(3, tables.length);
+        assertEquals("DUPLICATE_TABLE", tables[0].getTableMetaData().getTableName());
+        assertEquals("EMPTY_TABLE", tables[1].getTableMetaData().getTableName());
+        assertEquals("duplicate_TABLE", tables[2].getTableMetaData().getTableName());
+    }
+
+    public void testSameContentAsFlatXmlDataSet() throws Exception
+    {
+        File[] files = new File[] {
+                FlatXmlDataSetTest.DATASET_FILE,
+                FlatXmlDataSetTest.DUPLICATE_DATASET_FILE,
+                FLAT_XML_TABLE };
+        for (int i = 0; i < files.length; i++)
+        {
+            IDataSet expected = new FlatXmlDataSetBuilder().build(files[i]);
+            IDataSet actual = createDataSet(files[i]);
+            assertEquals(Arrays.asList(expected.getTableNames()),
+                    Arrays.asList(actual.getTableNames()));
+            Assertion.assertEquals(expected, actual);
+        }
+    }
+
+    public void testMetaDataFromIndex() throws Exception
+    {
+        IndexedFlatXmlDataSet dataSet = createDataSet(FlatXmlDataSetTest.DATASET_FILE);
+
+        ITableMetaData metaData = dataSet.getTableMetaData("PK_TABLE");
+        assertEquals("PK_TABLE", metaData.getTableName());
+        Column[] columns = metaData.getColumns();
+        assertEquals(5, columns.length);
+        assertEquals("PK0", columns[0].getColumnName());
+        assertEquals("NORMAL1", columns[4].getColumnName());
+        assertEquals(6, dataSet.getRowCount("TEST_TABLE"));
+        assertEquals(0, dataSet.getRowCount("EMPTY_TABLE"));
+        assertEquals(0, dataSet.getTableMetaData("EMPTY_TABLE").getColumns().length);
+        assertEquals("No table must have been parsed", 0, dataSet.getCachedTableCount());
+
+        try
+        {
+            dataSet.getRowCount("UNKNOWN_TABLE");
+            fail("Should not be here!");
+        }
+        catch (NoSuchTableException expected)
+        {
+        }
+    }
+
+    public void testMetaDataFromDtd() throws Exception
+    {
+        IndexedFlatXmlDataSet dataSet = createDataSet(FLAT_XML_TABLE);
+
+        assertEquals(3, dataSet.getTableMetaData("MISSING_VALUES").getColumns().length);
+        assertEquals(3, dataSet.getTable("MISSING_VALUES").getTableMetaData().getColumns().length);
+    }
+
+    public void testColumnSensing() throws Exception
+    {
+        writeTempFile("<dataset>"
+                + "<MISSING_VALUES_SENSING COLUMN0='row 0 col 0' COLUMN3='row 0 col 3'/>"
+                + "<MISSING_VALUES         COLUMN0='row 1 col 0' COLUMN2='row 1 col 2'/>"
+                + "<MISSING_VALUES_SENSING column0='row 1 col 0' COLUMN1='row 1 col 1'/>"
+                + "</dataset>", "UTF-8");
+
+        IndexedFlatXmlDataSet dataSet = new IndexedFlatXmlDataSet(_tempFile,
+                null, true, false, IndexedFlatXmlDataSet.DEFAULT_MAX_CACHED_TABLES);
+
+        Column[] columns = dataSet.getTableMetaData("MISSING_VALUES_SENSING").getColumns();
+        assertEquals(3, columns.length);
+        assertEquals("COLUMN0", columns[0].getColumnName());
+        assertEquals("COLUMN3", columns[1].getColumnName());
+        assertEquals("COLUMN1", columns[2].getColumnName());
+        assertEquals(2, dataSet.getRowCount("MISSING_VALUES_SENSING"));
+
+        ITable table = dataSet.getTable("MISSING_VALUES_SENSING");
+        assertEquals(3, table.getTableMetaData().getColumns().length);
+        assertEquals(2, table.getRowCount());
+        assertEquals("row 1 col 0", table.getValue(1, "COLUMN0"));
+        assertEquals("row 1 col 1", table.getValue(1, "COLUMN1"));
+        assertEquals(null, table.getValue(1, "COLUMN3"));
+    }
+
+    public void testMarkupInsideDocument() throws Exception
+    {
+        writeTempFile("<?xml version='1.0' encoding='ISO-8859-1'?>\n"
+                + "<!-- <NOT_A_TABLE A='1'/> -->\n"
+                + "<dataset>\n"
+                + "  <T1 A=\"a > b\" B='it&apos;s &lt;x/&gt;' C=\"\u00e9t\u00e9\"/>\n"
+                + "  <!-- <T2 A='1'/> -->\n"
+                + "  <?pi <T3/> ?>\n"
+                + "  <T1 A='2'></T1>\n"
+                + "  <T2\n\tA = '3' />\n"
+                + "</dataset>\n", "ISO-8859-1");
+
+        IndexedFlatXmlDataSet dataSet = new IndexedFlatXmlDataSet(_tempFile,
+                null, false, false, IndexedFlatXmlDataSet.DEFAULT_MAX_CACHED_TABLES);
+
+        assertEquals(Arrays.asList(new String[] {"T1", "T2"}),
+                Arrays.asList(dataSet.getTableNames()));
+        assertEquals(2, dataSet.getRowCount("T1"));
+        ITable table = dataSet.getTable("T1");
+        assertEquals("a > b", table.getValue(0, "A"));
+        assertEquals("it's <x/>", table.getValue(0, "B"));
+        assertEquals("\u00e9t\u00e9", table.getValue(0, "C"));
+        assertEquals("2", table.getValue(1, "A"));
+        assertEquals("3", dataSet.getTable("T2").getValue(0, "A"));
+    }
+
+    public void testCachedTablesAreBounded() throws Exception
+    {
+        IndexedFlatXmlDataSet dataSet = new IndexedFlatXmlDataSet(
+                FlatXmlDataSetTest.DATASET_FILE, null, false, false, 2);
+
+        ITable table = dataSet.getTable("TEST_TABLE");
+        assertSame(table, dataSet.getTable("TEST_TABLE"));
+        dataSet.getTables();
+        assertEquals(2, dataSet.getCachedTableCount());
+    }
+
+    public void testIndexFileIsReusedAndRefreshed() throws Exception
+    {
+        writeTempFile("<dataset><T1 A='1'/><T1 A='2'/></dataset>", "UTF-8");
+        File indexFile = IndexedFlatXmlDataSet.getDefaultIndexFile(_tempFile);
+        assertFalse(indexFile.exists());
+
+        IndexedFlatXmlDataSet dataSet = new IndexedFlatXmlDataSet(_tempFile);
+        assertEquals(indexFile, dataSet.getIndexFile());
+        assertTrue(indexFile.exists());
+        long indexLength = indexFile.length();
+
+        dataSet = new IndexedFlatXmlDataSet(_tempFile);
+        assertEquals(indexLength, indexFile.length());
+        assertEquals(2, dataSet.getRowCount("T1"));
+        assertEquals("2", dataSet.getTable("T1").getValue(1, "A"));
+
+        // Same length but different content
+        writeTempFile("<dataset><T1 A='1'/><T2 A='2'/></dataset>", "UTF-8");
+        dataSet = new IndexedFlatXmlDataSet(_tempFile);
+        assertEquals(Arrays.asList(new String[] {"T1", "T2"}),
+                Arrays.asList(dataSet.getTableNames()));
+        assertEquals(1, dataSet.getRowCount("T1"));
+        assertEquals("2", dataSet.getTable("T2").getValue(0, "A"));
+    }
+
+    public void testEmptyDataSet() throws Exception
+    {
+        writeTempFile("<dataset/>", "UTF-8");
+
+        IDataSet dataSet = new IndexedFlatXmlDataSet(_tempFile);
+        assertEquals(0, dataSet.getTableNames().length);
+        assertFalse(dataSet.iterator().next());
+    }
+
+    public void testUnsupportedEncoding() throws Exception
+    {
+        writeTempFile("<dataset><T1 A='1'/></dataset>", "UTF-16");
+
+        try
+        {
+            new IndexedFlatXmlDataSet(_tempFile);
+            fail("Should not be here!");
+        }
+        catch (DataSetException expected)
+        {
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.dataset.xml;
+
+import java.io.File;
+import java.io.StringReader;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.stream.AbstractProducerTest;
+import org.dbunit.dataset.stream.IDataSetProducer;
+import org.dbunit.dataset.stream.MockDataSetConsumer;
+import org.dbunit.testutil.TestUtils;
+import org.xml.sax.InputSource;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class XmlPullProducerTest extends AbstractProducerTest
+{
+    private static final File DATASET_FILE =
+            TestUtils.getFile("xml/xmlProducerTest.xml");
+
+    public XmlPullProducerTest(String s)
+    {
+        super(s);
+    }
+
+    protected IDataSetProducer createProducer() throws Exception
+    {
+        String uri = DATASET_FILE.getAbsoluteFile().toURL().toString();
+        return new XmlPullProducer(new InputSource(uri));
+    }
+
+    protected Column[] createExpectedColumns(Column.Nullable nullable) throws Exception
+    {
+        return super.createExpectedColumns(Column.NULLABLE_UNKNOWN);
+    }
+
+    private IDataSetProducer createProducer(String content)
+    {
+        return new XmlPullProducer(new InputSource(new StringReader(content)));
+    }
+
+    public void testProduceEmptyDataSet() throws Exception
+    {
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?><dataset/>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testProduceSpecialValues() throws Exception
+    {
+        String tableName = "TEST_TABLE";
+        Column[] expectedColumns = new Column[]{
+            new Column("c1", DataType.UNKNOWN),
+            new Column("c2", DataType.UNKNOWN),
+            new Column("c3", DataType.UNKNOWN),
+            new Column("c4", DataType.UNKNOWN),
+        };
+
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedStartTable(tableName, expectedColumns);
+        consumer.addExpectedRow(tableName, new Object[] {null, "", "value", ITable.NO_VALUE});
+        consumer.addExpectedRow(tableName, new Object[] {ITable.NO_VALUE, "a&b", ITable.NO_VALUE, ITable.NO_VALUE});
+        consumer.addExpectedEndTable(tableName);
+        consumer.addExpectedEmptyTable("EMPTY_TABLE", new Column[0]);
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?>" +
+                "<dataset>" +
+                "   <table name='TEST_TABLE'>" +
+                "       <column>c1</column>" +
+                "       <column>c2</column>" +
+                "       <column>c3</column>" +
+                "       <column>c4</column>" +
+                "       <row>" +
+                "           <null/>" +
+                "           <value></value>" +
+                "           <value>value</value>" +
+                "       </row>" +
+                "       <row><none/><value>a&amp;b</value></row>" +
+                "   </table>" +
+                "   <table name='EMPTY_TABLE'/>" +
+                "</dataset>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testProduceMissingColumn() throws Exception
+    {
+        String tableName = "TEST_TABLE";
+        Column[] expectedColumns = new Column[]{
+            new Column("c1", DataType.UNKNOWN),
+        };
+
+        MockDataSetConsumer consumer = new MockDataSetConsumer();
+        consumer.addExpectedStartDataSet();
+        consumer.addExpectedStartTable(tableName, expectedColumns);
+        consumer.addExpectedRow(tableName, new Object[] {"value", "extra"});
+        consumer.addExpectedEndTable(tableName);
+        consumer.addExpectedEndDataSet();
+
+        IDataSetProducer producer = createProducer(
+                "<dataset><table name='TEST_TABLE'><column>c1</column>" +
+                "<row><value>value</value><value>extra</value></row>" +
+                "</table></dataset>");
+        producer.setConsumer(consumer);
+        producer.produce();
+        consumer.verify();
+    }
+
+    public void testProduceNotWellFormedXml() throws Exception
+    {
+        IDataSetProducer producer = createProducer(
+                "<?xml version=\"1.0\"?><dataset><table name='A'>");
+        try
+        {
+            producer.produce();
+            fail("Should not be here!");
+        }
+        catch (DataSetException e)
+        {
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class AllTests extends TestSuite
     {
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(Db2DataTypeFactoryTest.class));
+        suite.addTest(new TestSuite(Db2SetDifferenceDialectTest.class));
         return suite;
     }
 }
@@ -0,0 +1,55 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.db2;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class Db2SetDifferenceDialectTest extends TestCase
+{
+    private final Db2SetDifferenceDialect dialect = new Db2SetDifferenceDialect();
+
+    public Db2SetDifferenceDialectTest(String s)
+    {
+        super(s);
+    }
+
+    public void testGetScratchTableName() throws Exception
+    {
+        String name = dialect.getScratchTableName();
+        assertTrue(name, name.startsWith("SESSION.DBUNIT_EXPECTED_"));
+    }
+
+    public void testGetCreateScratchTableSql() throws Exception
+    {
+        String expected = "declare global temporary table SESSION.X"
+                + " as (select ID, NAME from S.T) with no data"
+                + " on commit preserve rows not logged";
+
+        String sql = dialect.getCreateScratchTableSql("SESSION.X", "S.T",
+                new String[] {"ID", "NAME"});
+        assertEquals("create statement", expected, sql);
+    }
+}
@@ -32,6 +32,9 @@ public class AllTests extends TestSuite
     {
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(H2DataTypeFactoryTest.class));
+        suite.addTest(new TestSuite(H2MergeOperationTest.class));
+        suite.addTest(new TestSuite(H2MetadataHandlerTest.class));
+        suite.addTest(new TestSuite(H2SetDifferenceDialectTest.class));
         return suite;
     }
 }
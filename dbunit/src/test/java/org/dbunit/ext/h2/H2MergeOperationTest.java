@@ -0,0 +1,120 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import java.sql.Connection;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.H2Environment;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.operation.DatabaseOperation;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class H2MergeOperationTest extends TestCase
+{
+    private Connection _jdbcConnection;
+    private IDatabaseConnection _connection;
+
+    public H2MergeOperationTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = H2Environment.createJdbcConnection("mergeTest");
+        DdlExecutor.executeSql(_jdbcConnection, "CREATE TABLE MERGE_TABLE "
+                + "(ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(32), AMOUNT INTEGER)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "INSERT INTO MERGE_TABLE VALUES (1, 'one', 10)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "INSERT INTO MERGE_TABLE VALUES (2, 'two', 20)");
+        _connection = new H2Connection(_jdbcConnection, null);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        // The in-memory database is dropped with its last connection
+        _jdbcConnection.close();
+    }
+
+    public void testExecute() throws Exception
+    {
+        H2MergeOperation.REFRESH.execute(_connection, createDataSet());
+
+        assertRefreshed();
+    }
+
+    public void testExecuteAsConfiguredRefreshOperation() throws Exception
+    {
+        _connection.getConfig().setProperty(
+                DatabaseConfig.PROPERTY_REFRESH_OPERATION,
+                H2MergeOperation.REFRESH);
+
+        DatabaseOperation.REFRESH.execute(_connection, createDataSet());
+
+        assertRefreshed();
+    }
+
+    private IDataSet createDataSet() throws Exception
+    {
+        Column[] columns = new Column[]{
+            new Column("ID", DataType.INTEGER),
+            new Column("NAME", DataType.VARCHAR),
+            new Column("AMOUNT", DataType.INTEGER),
+        };
+        DefaultTable table = new DefaultTable("MERGE_TABLE", columns);
+        table.addRow(new Object[]{"2", "deux", "22"});
+        table.addRow(new Object[]{"3", "three", ITable.NO_VALUE});
+        return new DefaultDataSet(table);
+    }
+
+    private void assertRefreshed() throws Exception
+    {
+        ITable table = _connection.createQueryTable("MERGE_TABLE",
+                "SELECT * FROM MERGE_TABLE ORDER BY ID");
+        assertEquals("row count", 3, table.getRowCount());
+
+        assertEquals("one", table.getValue(0, "NAME"));
+        assertEquals(new Integer(10), table.getValue(0, "AMOUNT"));
+        assertEquals("deux", table.getValue(1, "NAME"));
+        assertEquals(new Integer(22), table.getValue(1, "AMOUNT"));
+        assertEquals("three", table.getValue(2, "NAME"));
+        assertNull(table.getValue(2, "AMOUNT"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.H2Environment;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class H2MetadataHandlerTest extends TestCase
+{
+    private Connection _jdbcConnection;
+
+    public H2MetadataHandlerTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = H2Environment.createJdbcConnection("metadataHandlerTest");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "CREATE TABLE PARENT (ID INTEGER NOT NULL PRIMARY KEY)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "CREATE TABLE CHILD (ID INTEGER NOT NULL PRIMARY KEY, PARENT_ID INTEGER)");
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        // The in-memory database is dropped with its last connection
+        _jdbcConnection.close();
+    }
+
+    public void testGetSchemaFingerprint() throws Exception
+    {
+        H2MetadataHandler metadataHandler = new H2MetadataHandler();
+        DatabaseMetaData metaData = _jdbcConnection.getMetaData();
+        String fingerprint = metadataHandler.getSchemaFingerprint(metaData, null);
+        assertEquals(fingerprint,
+                metadataHandler.getSchemaFingerprint(metaData, "PUBLIC"));
+
+        // Data changes keep the fingerprint
+        DdlExecutor.executeSql(_jdbcConnection, "INSERT INTO PARENT VALUES (1)");
+        assertEquals(fingerprint,
+                metadataHandler.getSchemaFingerprint(metaData, null));
+
+        DdlExecutor.executeSql(_jdbcConnection,
+                "ALTER TABLE CHILD ADD COLUMN NAME VARCHAR(32)");
+        String alteredFingerprint =
+                metadataHandler.getSchemaFingerprint(metaData, null);
+        assertFalse(fingerprint.equals(alteredFingerprint));
+
+        DdlExecutor.executeSql(_jdbcConnection, "ALTER TABLE CHILD ADD"
+                + " FOREIGN KEY (PARENT_ID) REFERENCES PARENT (ID)");
+        assertFalse(alteredFingerprint.equals(
+                metadataHandler.getSchemaFingerprint(metaData, null)));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.h2;
+
+import java.sql.Connection;
+import java.util.List;
+
+import org.dbunit.Assertion;
+import org.dbunit.DdlExecutor;
+import org.dbunit.H2Environment;
+import org.dbunit.assertion.DiffCollectingFailureHandler;
+import org.dbunit.assertion.Difference;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.datatype.DataType;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class H2SetDifferenceDialectTest extends TestCase
+{
+    private Connection _jdbcConnection;
+    private IDatabaseConnection _connection;
+
+    public H2SetDifferenceDialectTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = H2Environment.createJdbcConnection("setDifferenceTest");
+        DdlExecutor.executeSql(_jdbcConnection, "CREATE TABLE DIFF_TABLE "
+                + "(ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(32), AMOUNT INTEGER)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "INSERT INTO DIFF_TABLE VALUES (1, 'one', 10)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "INSERT INTO DIFF_TABLE VALUES (2, 'two', 20)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "INSERT INTO DIFF_TABLE VALUES (3, 'three', 30)");
+        _connection = new H2Connection(_jdbcConnection, null);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        // The in-memory database is dropped with its last connection
+        _jdbcConnection.close();
+    }
+
+    public void testConnectionUsesDialect() throws Exception
+    {
+        Object dialect = _connection.getConfig().getProperty(
+                DatabaseConfig.PROPERTY_SET_DIFFERENCE_DIALECT);
+        assertTrue("dialect", dialect instanceof H2SetDifferenceDialect);
+    }
+
+    public void testGetCreateScratchTableSql() throws Exception
+    {
+        String expected = "create local temporary table X as select ID, NAME"
+                + " from S.T where 1=0";
+
+        String sql = new H2SetDifferenceDialect().getCreateScratchTableSql(
+                "X", "S.T", new String[] {"ID", "NAME"});
+        assertEquals("create statement", expected, sql);
+    }
+
+    public void testAssertEqualsInDatabase() throws Exception
+    {
+        DefaultTable expected = createTable();
+        expected.addRow(new Object[] {"3", "three", "30"});
+        expected.addRow(new Object[] {"1", "one", "10"});
+        expected.addRow(new Object[] {"2", "two", "20"});
+
+        Assertion.assertEqualsInDatabase(expected, _connection);
+    }
+
+    public void testAssertEqualsInDatabaseReportsDifferences() throws Exception
+    {
+        DefaultTable expected = createTable();
+        expected.addRow(new Object[] {"1", "one", "10"});
+        expected.addRow(new Object[] {"2", "two", "21"});
+        expected.addRow(new Object[] {"4", "four", "40"});
+
+        DiffCollectingFailureHandler handler = new DiffCollectingFailureHandler();
+        Assertion.getEqualsInstance().assertEqualsInDatabase(expected,
+                _connection, handler);
+
+        List diffs = handler.getDiffList();
+        assertEquals("difference count", 3, diffs.size());
+        Difference value = (Difference) diffs.get(0);
+        assertEquals("value kind", Difference.Kind.VALUE, value.getKind());
+        assertEquals("column", "AMOUNT", value.getColumnName());
+        assertEquals("expected value", "21", String.valueOf(value.getExpectedValue()));
+        assertEquals("actual value", "20", String.valueOf(value.getActualValue()));
+        assertEquals("missing kind", Difference.Kind.MISSING_ROW,
+                ((Difference) diffs.get(1)).getKind());
+        assertEquals("unexpected kind", Difference.Kind.UNEXPECTED_ROW,
+                ((Difference) diffs.get(2)).getKind());
+
+        // the scratch table is dropped again
+        assertFalse("scratch table", _jdbcConnection.getMetaData().getTables(
+                null, null, "DBUNIT_EXPECTED_%", null).next());
+    }
+
+    private DefaultTable createTable()
+    {
+        return new DefaultTable("DIFF_TABLE", new Column[] {
+                new Column("ID", DataType.UNKNOWN),
+                new Column("NAME", DataType.UNKNOWN),
+                new Column("AMOUNT", DataType.UNKNOWN)});
+    }
+}
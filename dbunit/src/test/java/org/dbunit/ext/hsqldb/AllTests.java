@@ -32,6 +32,9 @@ public class AllTests extends TestSuite
     {
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(HsqldbDataTypeFactoryTest.class));
+        suite.addTest(new TestSuite(HsqldbMergeOperationTest.class));
+        suite.addTest(new TestSuite(HsqldbMetadataHandlerTest.class));
+        suite.addTest(new TestSuite(HsqldbSetDifferenceDialectTest.class));
         return suite;
     }
 }
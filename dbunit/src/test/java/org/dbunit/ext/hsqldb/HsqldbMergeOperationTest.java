@@ -0,0 +1,136 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.hsqldb;
+
+import org.dbunit.database.MockDatabaseConnection;
+import org.dbunit.database.statement.MockBatchStatement;
+import org.dbunit.database.statement.MockStatementFactory;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.NoPrimaryKeyException;
+import org.dbunit.dataset.datatype.DataType;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class HsqldbMergeOperationTest extends TestCase
+{
+    public HsqldbMergeOperationTest(String s)
+    {
+        super(s);
+    }
+
+    public void testExecute() throws Exception
+    {
+        String[] expected = {
+            "merge into schema.table as t using (values (1, 'a', 'b')) as v (c1, c2, c3) on t.c1 = v.c1"
+                    + " when matched then update set t.c2 = v.c2, t.c3 = v.c3"
+                    + " when not matched then insert (c1, c2, c3) values (v.c1, v.c2, v.c3)",
+            "merge into schema.table as t using (values (2, 'c')) as v (c1, c3) on t.c1 = v.c1"
+                    + " when matched then update set t.c3 = v.c3, t.c2 = null"
+                    + " when not matched then insert (c1, c3) values (v.c1, v.c3)",
+        };
+
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.NUMERIC),
+            new Column("c2", DataType.VARCHAR),
+            new Column("c3", DataType.VARCHAR),
+        };
+        DefaultTable table = new DefaultTable(new DefaultTableMetaData(
+                "table", columns, new Column[]{columns[0]}));
+        table.addRow(new Object[]{"1", "a", "b"});
+        table.addRow(new Object[]{"2", ITable.NO_VALUE, "c"});
+
+        testExecute(new DefaultDataSet(table), expected, 2);
+    }
+
+    public void testExecuteOnlyPrimaryKeys() throws Exception
+    {
+        String[] expected = {
+            "merge into schema.table as t using (values (1)) as v (c1) on t.c1 = v.c1"
+                    + " when not matched then insert (c1) values (v.c1)",
+        };
+
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.NUMERIC),
+        };
+        DefaultTable table = new DefaultTable(new DefaultTableMetaData(
+                "table", columns, columns));
+        table.addRow(new Object[]{"1"});
+
+        testExecute(new DefaultDataSet(table), expected, 1);
+    }
+
+    public void testExecuteAndNoPrimaryKeys() throws Exception
+    {
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.NUMERIC),
+        };
+        DefaultTable table = new DefaultTable("table", columns);
+        table.addRow(new Object[]{"1"});
+
+        try
+        {
+            testExecute(new DefaultDataSet(table), new String[0], 0);
+            fail("Should not be here!");
+        }
+        catch (NoPrimaryKeyException e)
+        {
+
+        }
+    }
+
+    private void testExecute(IDataSet dataSet, String[] expected,
+            int statementCount) throws Exception
+    {
+        // setup mock objects
+        MockBatchStatement statement = new MockBatchStatement();
+        statement.addExpectedBatchStrings(expected);
+        statement.setExpectedExecuteBatchCalls(statementCount);
+        statement.setExpectedClearBatchCalls(statementCount);
+        statement.setExpectedCloseCalls(statementCount);
+
+        MockStatementFactory factory = new MockStatementFactory();
+        factory.setExpectedCreatePreparedStatementCalls(statementCount);
+        factory.setupStatement(statement);
+
+        MockDatabaseConnection connection = new MockDatabaseConnection();
+        connection.setupDataSet(dataSet);
+        connection.setupSchema("schema");
+        connection.setupStatementFactory(factory);
+        connection.setExpectedCloseCalls(0);
+
+        // execute operation
+        HsqldbMergeOperation.REFRESH.execute(connection, dataSet);
+
+        statement.verify();
+        factory.verify();
+        connection.verify();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.hsqldb;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.HypersonicEnvironment;
+import org.dbunit.util.SQLHelper;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class HsqldbMetadataHandlerTest extends TestCase
+{
+    private Connection _jdbcConnection;
+
+    public HsqldbMetadataHandlerTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = HypersonicEnvironment.createJdbcConnection("tempdb");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "CREATE TABLE PARENT (ID INTEGER NOT NULL PRIMARY KEY)");
+        DdlExecutor.executeSql(_jdbcConnection,
+                "CREATE TABLE CHILD (ID INTEGER NOT NULL PRIMARY KEY, PARENT_ID INTEGER)");
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        HypersonicEnvironment.shutdown(_jdbcConnection);
+        _jdbcConnection.close();
+
+        HypersonicEnvironment.deleteFiles("tempdb");
+    }
+
+    public void testGetSchemaFingerprint() throws Exception
+    {
+        HsqldbMetadataHandler metadataHandler = new HsqldbMetadataHandler();
+        DatabaseMetaData metaData = _jdbcConnection.getMetaData();
+        String fingerprint = metadataHandler.getSchemaFingerprint(metaData, "PUBLIC");
+
+        // Data changes keep the fingerprint
+        DdlExecutor.executeSql(_jdbcConnection, "INSERT INTO PARENT VALUES (1)");
+        assertEquals(fingerprint,
+                metadataHandler.getSchemaFingerprint(metaData, "PUBLIC"));
+
+        DdlExecutor.executeSql(_jdbcConnection,
+                "ALTER TABLE CHILD ADD COLUMN NAME VARCHAR(32)");
+        String alteredFingerprint =
+                metadataHandler.getSchemaFingerprint(metaData, "PUBLIC");
+        assertFalse(fingerprint.equals(alteredFingerprint));
+
+        DdlExecutor.executeSql(_jdbcConnection, "ALTER TABLE CHILD ADD"
+                + " FOREIGN KEY (PARENT_ID) REFERENCES PARENT (ID)");
+        assertFalse(alteredFingerprint.equals(
+                metadataHandler.getSchemaFingerprint(metaData, "PUBLIC")));
+    }
+
+    public void testGetBulkSchemaKeys() throws Exception
+    {
+        DdlExecutor.executeSql(_jdbcConnection, "ALTER TABLE CHILD ADD"
+                + " FOREIGN KEY (PARENT_ID) REFERENCES PARENT (ID)");
+        HsqldbMetadataHandler metadataHandler = new HsqldbMetadataHandler();
+        DatabaseMetaData metaData = _jdbcConnection.getMetaData();
+
+        ResultSet resultSet = metadataHandler.getSchemaPrimaryKeys(metaData, "PUBLIC");
+        try
+        {
+            assertTrue(resultSet.next());
+            assertEquals("CHILD", resultSet.getString(3));
+            assertEquals("ID", resultSet.getString(4));
+            assertTrue(resultSet.next());
+            assertEquals("PARENT", resultSet.getString(3));
+            assertFalse(resultSet.next());
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, resultSet.getStatement());
+        }
+
+        resultSet = metadataHandler.getSchemaImportedKeys(metaData, null);
+        try
+        {
+            assertTrue(resultSet.next());
+            assertEquals("PARENT", resultSet.getString(3));
+            assertEquals("CHILD", resultSet.getString(7));
+            assertEquals("PARENT_ID", resultSet.getString(8));
+            assertFalse(resultSet.next());
+        }
+        finally
+        {
+            SQLHelper.close(resultSet, resultSet.getStatement());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.ext.hsqldb;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class HsqldbSetDifferenceDialectTest extends TestCase
+{
+    private final HsqldbSetDifferenceDialect dialect = new HsqldbSetDifferenceDialect();
+
+    public HsqldbSetDifferenceDialectTest(String s)
+    {
+        super(s);
+    }
+
+    public void testGetCreateScratchTableSql() throws Exception
+    {
+        String expected = "select ID, NAME into temp X from S.T where 1=0";
+
+        String sql = dialect.getCreateScratchTableSql("X", "S.T",
+                new String[] {"ID", "NAME"});
+        assertEquals("create statement", expected, sql);
+    }
+}
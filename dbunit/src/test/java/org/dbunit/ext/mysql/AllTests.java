@@ -34,6 +34,8 @@ public class AllTests extends TestSuite
     {
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(MySqlDataTypeFactoryTest.class));
+        suite.addTest(new TestSuite(MySqlUpsertOperationTest.class));
+        suite.addTest(new TestSuite(MySqlSetDifferenceDialectTest.class));
         return suite;
     }
 }
@@ -34,6 +34,8 @@ public class AllTests extends TestSuite
     {
         TestSuite suite = new TestSuite();
         suite.addTest(new TestSuite(PostgresqlDataTypeFactoryTest.class));
+        suite.addTest(new TestSuite(PostgresqlUpsertOperationTest.class));
+        suite.addTest(new TestSuite(PostgresqlSetDifferenceDialectTest.class));
         suite.addTest(new TestSuite(SQLHelperDomainPostgreSQLIT.class));
         return suite;
     }
@@ -36,11 +36,14 @@ public class AllTests extends TestSuite
         TestSuite suite = new TestSuite();
 
         suite.addTest(new TestSuite(AbstractBatchOperationIT.class));
+        suite.addTest(new TestSuite(BatchedRefreshOperationTest.class));
+        suite.addTest(new TestSuite(BatchStatementCacheTest.class));
         suite.addTest(new TestSuite(CloseConnectionOperationIT.class));
         suite.addTest(new TestSuite(CompositeOperationIT.class));
         suite.addTest(new TestSuite(DeleteAllOperationIT.class));
         suite.addTest(new TestSuite(DeleteOperationIT.class));
         suite.addTest(new TestSuite(InsertOperationIT.class));
+        suite.addTest(new TestSuite(ParallelOperationTest.class));
         suite.addTest(new TestSuite(RefreshOperationIT.class));
         suite.addTest(new TestSuite(TransactionOperationIT.class));
         suite.addTest(new TestSuite(TruncateTableOperationIT.class));
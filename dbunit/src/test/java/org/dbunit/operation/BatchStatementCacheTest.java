@@ -0,0 +1,113 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.dbunit.database.statement.MockBatchStatement;
+import org.dbunit.database.statement.MockStatementFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BatchStatementCacheTest extends TestCase
+{
+    public BatchStatementCacheTest(String s)
+    {
+        super(s);
+    }
+
+    public void testGetEntriesInFirstUseOrder() throws Exception
+    {
+        BatchStatementCache cache = new BatchStatementCache(3);
+        BatchStatementCache.Entry first = createEntry(0);
+        BatchStatementCache.Entry second = createEntry(1);
+        BatchStatementCache.Entry third = createEntry(2);
+
+        assertNull("evicted", cache.put(first));
+        assertNull("evicted", cache.put(second));
+        assertNull("evicted", cache.put(third));
+        assertSame("get", first, cache.get(first.getIgnoreMapping()));
+        assertTrue("full", cache.isFull());
+
+        assertEquals("entries", Arrays.asList(first, second, third),
+                new ArrayList<BatchStatementCache.Entry>(cache.getEntries()));
+    }
+
+    public void testPutEvictsLeastRecentlyUsed() throws Exception
+    {
+        BatchStatementCache cache = new BatchStatementCache(2);
+        BatchStatementCache.Entry first = createEntry(0);
+        BatchStatementCache.Entry second = createEntry(1);
+        BatchStatementCache.Entry third = createEntry(2);
+
+        cache.put(first);
+        cache.put(second);
+        cache.get(first.getIgnoreMapping());
+
+        assertSame("evicted", second, cache.put(third));
+        assertNull("get", cache.get(second.getIgnoreMapping()));
+
+        List<BatchStatementCache.Entry> expected = Arrays.asList(first, third);
+        assertEquals("entries", expected,
+                new ArrayList<BatchStatementCache.Entry>(cache.getEntries()));
+    }
+
+    public void testCloseAll() throws Exception
+    {
+        MockBatchStatement statement = new MockBatchStatement();
+        statement.setExpectedCloseCalls(2);
+
+        BatchStatementCache cache = new BatchStatementCache(2);
+        cache.put(createEntry(0, statement));
+        cache.put(createEntry(1, statement));
+        cache.closeAll();
+
+        statement.verify();
+        assertEquals("entries", 0, cache.getEntries().size());
+        assertFalse("full", cache.isFull());
+    }
+
+    private BatchStatementCache.Entry createEntry(int ignoredColumn)
+            throws Exception
+    {
+        return createEntry(ignoredColumn, new MockBatchStatement());
+    }
+
+    private BatchStatementCache.Entry createEntry(int ignoredColumn,
+            MockBatchStatement statement) throws Exception
+    {
+        MockStatementFactory factory = new MockStatementFactory();
+        factory.setupStatement(statement);
+
+        BitSet ignoreMapping = new BitSet();
+        ignoreMapping.set(ignoredColumn);
+        return new BatchStatementCache.Entry(ignoreMapping, null, new int[0],
+                factory.createPreparedBatchStatement("select ?", null), 1);
+    }
+}
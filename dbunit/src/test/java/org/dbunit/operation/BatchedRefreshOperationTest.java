@@ -0,0 +1,129 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.dbunit.HypersonicEnvironment;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.datatype.DataType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the batched REFRESH on keys which the database compares differently
+ * than Java.
+ *
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BatchedRefreshOperationTest extends TestCase
+{
+    private static final String DATABASE_NAME = "batchedrefreshdb";
+
+    private Connection _jdbcConnection;
+    private IDatabaseConnection _connection;
+
+    public BatchedRefreshOperationTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = HypersonicEnvironment.createJdbcConnection(DATABASE_NAME);
+        Statement statement = _jdbcConnection.createStatement();
+        try
+        {
+            statement.execute("CREATE TABLE IGNORECASE_TABLE"
+                    + " (PK VARCHAR_IGNORECASE(10) NOT NULL PRIMARY KEY,"
+                    + " VAL VARCHAR(10))");
+            statement.execute("INSERT INTO IGNORECASE_TABLE VALUES ('abc', 'old')");
+            statement.execute("CREATE TABLE IGNORECASE_PK_TABLE"
+                    + " (PK VARCHAR_IGNORECASE(10) NOT NULL PRIMARY KEY)");
+            statement.execute("INSERT INTO IGNORECASE_PK_TABLE VALUES ('abc')");
+        }
+        finally
+        {
+            statement.close();
+        }
+
+        _connection = new DatabaseConnection(_jdbcConnection);
+        _connection.getConfig().setFeature(
+                DatabaseConfig.FEATURE_BATCHED_REFRESH, true);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        HypersonicEnvironment.shutdown(_jdbcConnection);
+        _jdbcConnection.close();
+
+        HypersonicEnvironment.deleteFiles(DATABASE_NAME);
+    }
+
+    public void testExecuteWithCaseInsensitiveKeys() throws Exception
+    {
+        Column[] columns = new Column[] {
+                new Column("PK", DataType.VARCHAR),
+                new Column("VAL", DataType.VARCHAR)};
+        DefaultTable table = new DefaultTable(new DefaultTableMetaData(
+                "IGNORECASE_TABLE", columns, new Column[] {columns[0]}));
+        table.addRow(new Object[] {"ABC", "new"});
+        table.addRow(new Object[] {"xyz", "inserted"});
+
+        DatabaseOperation.REFRESH.execute(_connection, new DefaultDataSet(table));
+
+        ITable actual = _connection.createQueryTable("IGNORECASE_TABLE",
+                "select PK, VAL from IGNORECASE_TABLE order by PK");
+        assertEquals("row count", 2, actual.getRowCount());
+        assertEquals("abc", actual.getValue(0, "PK"));
+        assertEquals("new", actual.getValue(0, "VAL"));
+        assertEquals("xyz", actual.getValue(1, "PK"));
+        assertEquals("inserted", actual.getValue(1, "VAL"));
+    }
+
+    public void testExecuteWithCaseInsensitiveKeysOnly() throws Exception
+    {
+        Column[] columns = new Column[] {new Column("PK", DataType.VARCHAR)};
+        DefaultTable table = new DefaultTable(new DefaultTableMetaData(
+                "IGNORECASE_PK_TABLE", columns, columns));
+        table.addRow(new Object[] {"ABC"});
+        table.addRow(new Object[] {"xyz"});
+
+        DatabaseOperation.REFRESH.execute(_connection, new DefaultDataSet(table));
+
+        assertEquals("row count", 2,
+                _connection.getRowCount("IGNORECASE_PK_TABLE"));
+    }
+}
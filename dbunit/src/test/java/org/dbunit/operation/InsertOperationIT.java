@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
 import java.sql.SQLException;
+import java.util.BitSet;
 
 import org.dbunit.AbstractDatabaseIT;
 import org.dbunit.Assertion;
@@ -45,6 +46,8 @@ import org.dbunit.dataset.LowerCaseDataSet;
 import org.dbunit.dataset.NoSuchColumnException;
 import org.dbunit.dataset.SortedTable;
 import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.DefaultDataTypeFactory;
+import org.dbunit.dataset.datatype.IStatementParameterLimit;
 import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
 import org.dbunit.dataset.xml.XmlDataSet;
 import org.dbunit.testutil.TestUtils;
@@ -338,6 +341,216 @@ public class InsertOperationIT extends AbstractDatabaseIT
         connection.verify();
     }
 
+    public void testExecuteIgnoreNoneWithStatementCache() throws Exception
+    {
+        String schemaName = "schema";
+        String tableName = "table";
+        String[] expected = {
+            "insert into schema.table (c1, c2, c3) values ('toto', 1234, 'false')",
+            "insert into schema.table (c2, c3) values (123.45, 'true')",
+            "insert into schema.table (c1, c2, c3) values ('qwerty1', 1, 'true')",
+            "insert into schema.table (c1, c2, c3) values ('qwerty2', 2, 'false')",
+            "insert into schema.table (c3) values ('false')",
+        };
+
+        // setup table
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.VARCHAR),
+            new Column("c2", DataType.NUMERIC),
+            new Column("c3", DataType.BOOLEAN),
+        };
+        DefaultTable table = new DefaultTable(tableName, columns);
+        table.addRow(new Object[]{"toto", "1234", Boolean.FALSE});
+        table.addRow(new Object[]{ITable.NO_VALUE, new Double("123.45"), "true"});
+        table.addRow(new Object[]{"qwerty1", "1", Boolean.TRUE});
+        table.addRow(new Object[]{"qwerty2", "2", Boolean.FALSE});
+        table.addRow(new Object[]{ITable.NO_VALUE, ITable.NO_VALUE, Boolean.FALSE});
+        IDataSet dataSet = new DefaultDataSet(table);
+
+        // setup mock objects
+        MockBatchStatement statement = new MockBatchStatement();
+        statement.addExpectedBatchStrings(expected);
+        statement.setExpectedExecuteBatchCalls(3);
+        statement.setExpectedClearBatchCalls(3);
+        statement.setExpectedCloseCalls(3);
+
+        MockStatementFactory factory = new MockStatementFactory();
+        factory.setExpectedCreatePreparedStatementCalls(3);
+        factory.setupStatement(statement);
+
+        MockDatabaseConnection connection = new MockDatabaseConnection();
+        connection.setupDataSet(dataSet);
+        connection.setupSchema(schemaName);
+        connection.setupStatementFactory(factory);
+        connection.getConfig().setProperty(
+                DatabaseConfig.PROPERTY_STATEMENT_CACHE_SIZE, new Integer(4));
+        connection.setExpectedCloseCalls(0);
+
+        // execute operation
+        new InsertOperation().execute(connection, dataSet);
+
+        statement.verify();
+        factory.verify();
+        connection.verify();
+    }
+
+    public void testExecuteWithOverriddenIgnoreMapping() throws Exception
+    {
+        String schemaName = "schema";
+        String tableName = "table";
+        String[] expected = {
+            "insert into schema.table (c1, c3) values ('toto', 'false')",
+            "insert into schema.table (c1, c3) values ('qwerty', 'true')",
+        };
+
+        // setup table
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.VARCHAR),
+            new Column("c2", DataType.NUMERIC),
+            new Column("c3", DataType.BOOLEAN),
+        };
+        DefaultTable table = new DefaultTable(tableName, columns);
+        table.addRow(new Object[]{"toto", "1234", Boolean.FALSE});
+        table.addRow(new Object[]{"qwerty", "5678", Boolean.TRUE});
+        IDataSet dataSet = new DefaultDataSet(table);
+
+        // setup mock objects
+        MockBatchStatement statement = new MockBatchStatement();
+        statement.addExpectedBatchStrings(expected);
+        statement.setExpectedExecuteBatchCalls(1);
+        statement.setExpectedClearBatchCalls(1);
+        statement.setExpectedCloseCalls(1);
+
+        MockStatementFactory factory = new MockStatementFactory();
+        factory.setExpectedCreatePreparedStatementCalls(1);
+        factory.setupStatement(statement);
+
+        MockDatabaseConnection connection = new MockDatabaseConnection();
+        connection.setupDataSet(dataSet);
+        connection.setupSchema(schemaName);
+        connection.setupStatementFactory(factory);
+        connection.setExpectedCloseCalls(0);
+
+        // execute operation, always ignoring the second column
+        new InsertOperation()
+        {
+            protected BitSet getIgnoreMapping(ITable table, int row)
+            {
+                BitSet ignoreMapping = new BitSet();
+                ignoreMapping.set(1);
+                return ignoreMapping;
+            }
+
+            protected boolean equalsIgnoreMapping(BitSet ignoreMapping,
+                    ITable table, int row)
+            {
+                return true;
+            }
+        }.execute(connection, dataSet);
+
+        statement.verify();
+        factory.verify();
+        connection.verify();
+    }
+
+    public void testExecuteWithMultiRowValues() throws Exception
+    {
+        String schemaName = "schema";
+        String tableName = "table";
+        String[] expected = {
+            "insert into schema.table (c1, c2) values ('a', 1), ('b', 2)",
+            "insert into schema.table (c1, c2) values ('c', 3), ('d', 4)",
+            "insert into schema.table (c1, c2) values ('e', 5)",
+        };
+
+        // setup table
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.VARCHAR),
+            new Column("c2", DataType.NUMERIC),
+        };
+        DefaultTable table = new DefaultTable(tableName, columns);
+        table.addRow(new Object[]{"a", "1"});
+        table.addRow(new Object[]{"b", "2"});
+        table.addRow(new Object[]{"c", "3"});
+        table.addRow(new Object[]{"d", "4"});
+        table.addRow(new Object[]{"e", "5"});
+        IDataSet dataSet = new DefaultDataSet(table);
+
+        // setup mock objects
+        MockBatchStatement statement = new MockBatchStatement();
+        statement.addExpectedBatchStrings(expected);
+        statement.setExpectedExecuteBatchCalls(2);
+        statement.setExpectedClearBatchCalls(2);
+        statement.setExpectedCloseCalls(2);
+
+        MockStatementFactory factory = new MockStatementFactory();
+        factory.setExpectedCreatePreparedStatementCalls(2);
+        factory.setupStatement(statement);
+
+        MockDatabaseConnection connection = new MockDatabaseConnection();
+        connection.setupDataSet(dataSet);
+        connection.setupSchema(schemaName);
+        connection.setupStatementFactory(factory);
+        connection.getConfig().setProperty(
+                DatabaseConfig.PROPERTY_INSERT_ROWS_PER_STATEMENT, new Integer(2));
+        connection.setExpectedCloseCalls(0);
+
+        // execute operation
+        new InsertOperation().execute(connection, dataSet);
+
+        statement.verify();
+        factory.verify();
+        connection.verify();
+    }
+
+    public void testGetRowsPerStatementWithParameterLimit() throws Exception
+    {
+        Column[] columns = new Column[]{
+            new Column("c1", DataType.VARCHAR),
+            new Column("c2", DataType.NUMERIC),
+            new Column("c3", DataType.BOOLEAN),
+        };
+        DefaultTableMetaData metaData = new DefaultTableMetaData("table", columns);
+        BitSet ignoreMapping = new BitSet();
+
+        MockDatabaseConnection connection = new MockDatabaseConnection();
+        DatabaseConfig config = connection.getConfig();
+        config.setProperty(
+                DatabaseConfig.PROPERTY_INSERT_ROWS_PER_STATEMENT, new Integer(10));
+        config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY,
+                new LimitedDataTypeFactory(7));
+
+        InsertOperation operation = new InsertOperation();
+        assertEquals(2, operation.getRowsPerStatement(metaData, ignoreMapping, connection));
+
+        ignoreMapping.set(0);
+        assertEquals(3, operation.getRowsPerStatement(metaData, ignoreMapping, connection));
+
+        config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY,
+                new LimitedDataTypeFactory(1));
+        assertEquals(1, operation.getRowsPerStatement(metaData, ignoreMapping, connection));
+
+        config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY,
+                new DefaultDataTypeFactory());
+        assertEquals(10, operation.getRowsPerStatement(metaData, ignoreMapping, connection));
+    }
+
+    private static class LimitedDataTypeFactory extends DefaultDataTypeFactory
+            implements IStatementParameterLimit
+    {
+        private final int _maxStatementParameters;
+
+        public LimitedDataTypeFactory(int maxStatementParameters)
+        {
+            _maxStatementParameters = maxStatementParameters;
+        }
+
+        public int getMaxStatementParameters()
+        {
+            return _maxStatementParameters;
+        }
+    }
+
 //    public void testExecuteNullAsNone() throws Exception
 //    {
 //        String schemaName = "schema";
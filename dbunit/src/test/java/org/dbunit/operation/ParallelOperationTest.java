@@ -0,0 +1,165 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package org.dbunit.operation;
+
+import java.sql.Connection;
+
+import org.dbunit.DdlExecutor;
+import org.dbunit.HypersonicEnvironment;
+import org.dbunit.IDatabaseTester;
+import org.dbunit.JdbcDatabaseTester;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.testutil.TestUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class ParallelOperationTest extends TestCase
+{
+    private static final String DATABASE_NAME = "paralleldb";
+
+    private Connection _jdbcConnection;
+    private IDatabaseConnection _connection;
+    private IDatabaseTester _connectionSource;
+
+    public ParallelOperationTest(String s)
+    {
+        super(s);
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        _jdbcConnection = HypersonicEnvironment.createJdbcConnection(DATABASE_NAME);
+        DdlExecutor.executeDdlFile(
+                TestUtils.getFile("sql/hypersonic_fk.sql"), _jdbcConnection);
+        _connection = new DatabaseConnection(_jdbcConnection);
+        _connectionSource = new JdbcDatabaseTester("org.hsqldb.jdbcDriver",
+                "jdbc:hsqldb:" + DATABASE_NAME, "sa", "");
+    }
+
+    protected void tearDown() throws Exception
+    {
+        super.tearDown();
+
+        HypersonicEnvironment.shutdown(_jdbcConnection);
+        _jdbcConnection.close();
+
+        HypersonicEnvironment.deleteFiles(DATABASE_NAME);
+    }
+
+    public void testCleanInsert() throws Exception
+    {
+        IDataSet dataSet = createDataSet();
+
+        ParallelOperation.cleanInsert(_connectionSource, 3).execute(
+                _connection, dataSet);
+        assertRowCounts(1);
+
+        // Deletes children before their parents
+        ParallelOperation.cleanInsert(_connectionSource, 3).execute(
+                _connection, dataSet);
+        assertRowCounts(1);
+    }
+
+    public void testInsertTransactional() throws Exception
+    {
+        DatabaseOperation operation = new ParallelOperation(
+                DatabaseOperation.INSERT, _connectionSource, 2, false, true);
+
+        operation.execute(_connection, createDataSet());
+        assertRowCounts(1);
+    }
+
+    public void testInsertAndMissingParent() throws Exception
+    {
+        DefaultTable table = new DefaultTable("A", new Column[] {
+                new Column("PKA", DataType.NUMERIC),
+                new Column("FKD", DataType.NUMERIC)});
+        table.addRow(new Object[] {"1", "99"});
+
+        DatabaseOperation operation = new ParallelOperation(
+                DatabaseOperation.INSERT, _connectionSource, 2);
+        try
+        {
+            operation.execute(_connection, new DefaultDataSet(table));
+            fail("Should not be here!");
+        }
+        catch (Exception e)
+        {
+            // The foreign key violation of the table is reported
+        }
+        assertEquals(0, _connection.getRowCount("A"));
+    }
+
+    private IDataSet createDataSet() throws Exception
+    {
+        DefaultDataSet dataSet = new DefaultDataSet();
+        dataSet.addTable(createTable("A", new String[] {"PKA", "FKD"}));
+        dataSet.addTable(createTable("B", new String[] {"PKB", "FKC", "FKE", "FKH"}));
+        dataSet.addTable(createTable("C", new String[] {"PKC", "FKA", "FKF"}));
+        dataSet.addTable(createTable("D", new String[] {"PKD"}));
+        dataSet.addTable(createTable("E", new String[] {"PKE", "FKA", "FKG"}));
+        dataSet.addTable(createTable("F", new String[] {"PKF", "FKD"}));
+        dataSet.addTable(createTable("G", new String[] {"PKG"}));
+        dataSet.addTable(createTable("H", new String[] {"PKH"}));
+        return dataSet;
+    }
+
+    /**
+     * Creates a table with a single row referencing the row of each parent.
+     */
+    private DefaultTable createTable(String tableName, String[] columnNames)
+            throws Exception
+    {
+        Column[] columns = new Column[columnNames.length];
+        Object[] values = new Object[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++)
+        {
+            columns[i] = new Column(columnNames[i], DataType.NUMERIC);
+            values[i] = "1";
+        }
+        DefaultTable table = new DefaultTable(tableName, columns);
+        table.addRow(values);
+        return table;
+    }
+
+    private void assertRowCounts(int expected) throws Exception
+    {
+        String[] tableNames = {"A", "B", "C", "D", "E", "F", "G", "H"};
+        for (int i = 0; i < tableNames.length; i++)
+        {
+            assertEquals(tableNames[i], expected,
+                    _connection.getRowCount(tableNames[i]));
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.io.Reader;
 
 import org.dbunit.AbstractDatabaseIT;
 import org.dbunit.Assertion;
+import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.MockDatabaseConnection;
 import org.dbunit.database.statement.MockBatchStatement;
 import org.dbunit.database.statement.MockStatementFactory;
@@ -79,6 +80,54 @@ public class RefreshOperationIT extends AbstractDatabaseIT
         testExecute(new ForwardOnlyDataSet(dataSet));
     }
 
+    public void testExecuteBatched() throws Exception
+    {
+        Reader reader = TestUtils.getFileReader("xml/refreshOperationTest.xml");
+        IDataSet dataSet = new FlatXmlDataSetBuilder().build(reader);
+
+        setUpBatchedRefresh();
+        testExecute(dataSet);
+    }
+
+    public void testExecuteBatchedForwardOnly() throws Exception
+    {
+        Reader reader = TestUtils.getFileReader("xml/refreshOperationTest.xml");
+        IDataSet dataSet = new FlatXmlDataSetBuilder().build(reader);
+
+        setUpBatchedRefresh();
+        testExecute(new ForwardOnlyDataSet(dataSet));
+    }
+
+    public void testExecuteBatchedAndNoPrimaryKeys() throws Exception
+    {
+        String tableName = "TEST_TABLE";
+
+        Reader reader = TestUtils.getFileReader("xml/refreshOperationNoPKTest.xml");
+        IDataSet dataSet = new FlatXmlDataSetBuilder().build(reader);
+
+        setUpBatchedRefresh();
+        try
+        {
+            DatabaseOperation.REFRESH.execute(_connection, dataSet);
+            fail("Should not be here!");
+        }
+        catch (NoPrimaryKeyException e)
+        {
+
+        }
+
+        // verify table after
+        assertEquals("row count after", 6, _connection.getRowCount(tableName));
+    }
+
+    private void setUpBatchedRefresh()
+    {
+        DatabaseConfig config = _connection.getConfig();
+        config.setFeature(DatabaseConfig.FEATURE_BATCHED_REFRESH, true);
+        // Small chunks to refresh the tables with several key queries
+        config.setProperty(DatabaseConfig.PROPERTY_BATCH_SIZE, new Integer(2));
+    }
+
     private void testExecute(IDataSet dataSet) throws Exception
     {
         String[] tableNames = {"PK_TABLE", "ONLY_PK_TABLE"};
@@ -0,0 +1,76 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.util.fileloader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import junit.framework.TestCase;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.binary.BinaryDataSet;
+import org.dbunit.dataset.xml.XmlDataSet;
+import org.dbunit.testutil.TestUtils;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class BinaryDataFileLoaderTest extends TestCase {
+    private File tempFile;
+    private IDataSet expected;
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp() throws Exception {
+        expected = new XmlDataSet(new FileInputStream(
+                TestUtils.getFile("xml/xmlTableTest.xml")));
+        tempFile = File.createTempFile("xmlTableTest", ".dbub");
+        OutputStream out = new FileOutputStream(tempFile);
+        try {
+            BinaryDataSet.write(expected, out, true);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void tearDown() throws Exception {
+        tempFile.delete();
+    }
+
+    /**
+     * Test can load the binary file.
+     */
+    public void testLoadDataSet() throws Exception {
+        IDataSet ds = new BinaryDataFileLoader().loadDataSet(
+                tempFile.toURI().toURL());
+        Assertion.assertEquals(expected, ds);
+    }
+}
@@ -51,4 +51,13 @@ public class CsvDataFileLoaderTest extends TestCase {
         assertTrue("No tables found in dataset.", ds.getTableNames().length > 0);
         // DataSet loading tests verify data accuracy
     }
+
+    /**
+     * Test can load the specified file with the single-pass CSV scanner.
+     */
+    public void testLoadWithScanner() throws DataSetException {
+        String filename = "/csv/orders/orders_row.csv";
+        IDataSet ds = new CsvDataFileLoader(true).load(filename);
+        assertTrue("No tables found in dataset.", ds.getTableNames().length > 0);
+    }
 }
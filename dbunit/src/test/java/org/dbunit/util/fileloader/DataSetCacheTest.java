@@ -0,0 +1,206 @@
+/*
+ *
+ * The DbUnit Database Testing Framework
+ * Copyright (C)2002-2008, DbUnit.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+package org.dbunit.util.fileloader;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.dbunit.Assertion;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+
+/**
+ * @author Last changed by: $Author$
+ * @version $Revision$ $Date$
+ * @since 2.7.1
+ */
+public class DataSetCacheTest extends TestCase {
+    private static final String DATASET_FILE = "/xml/flatXmlDataSetTest.xml";
+    private static final String TEMP_FILE_NAME = "dataSetCacheTest.xml";
+
+    private File tempFile;
+    private File tempDirectory;
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp() throws Exception {
+        File classpathDir = new File(getClass().getResource(DATASET_FILE)
+                .toURI()).getParentFile();
+        tempFile = new File(classpathDir, TEMP_FILE_NAME);
+        tempDirectory = File.createTempFile("dataSetCache", "");
+        tempDirectory.delete();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void tearDown() throws Exception {
+        tempFile.delete();
+        File[] files = tempDirectory.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            files[i].delete();
+        }
+        tempDirectory.delete();
+    }
+
+    private void writeTempFile(String value, long lastModified)
+            throws IOException {
+        Writer writer = new FileWriter(tempFile);
+        try {
+            writer.write("<dataset><TEST_TABLE COLUMN0=\"" + value
+                    + "\"/></dataset>");
+        } finally {
+            writer.close();
+        }
+        tempFile.setLastModified(lastModified);
+    }
+
+    public void testLoadIsCached() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        FlatXmlDataFileLoader loader = new FlatXmlDataFileLoader();
+        loader.setDataSetCache(cache);
+
+        IDataSet first = loader.load(DATASET_FILE);
+        IDataSet second = loader.load(DATASET_FILE);
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getEstimatedBytes() > 0);
+
+        Assertion.assertEquals(new FlatXmlDataFileLoader().load(DATASET_FILE),
+                first);
+    }
+
+    public void testCacheSharedByLoaders() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        FlatXmlDataFileLoader loader1 = new FlatXmlDataFileLoader();
+        loader1.setDataSetCache(cache);
+        FlatXmlDataFileLoader loader2 = new FlatXmlDataFileLoader();
+        loader2.setDataSetCache(cache);
+
+        assertSame(loader1.load(DATASET_FILE), loader2.load(DATASET_FILE));
+    }
+
+    public void testReplacementsArePartOfKey() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        Map ro = new HashMap();
+        ro.put("row 0 col 0", "replaced");
+        FlatXmlDataFileLoader replacing = new FlatXmlDataFileLoader(ro);
+        replacing.setDataSetCache(cache);
+        FlatXmlDataFileLoader loader = new FlatXmlDataFileLoader();
+        loader.setDataSetCache(cache);
+
+        assertEquals("replaced", replacing.load(DATASET_FILE)
+                .getTable("TEST_TABLE").getValue(0, "COLUMN0"));
+        assertEquals("row 0 col 0", loader.load(DATASET_FILE)
+                .getTable("TEST_TABLE").getValue(0, "COLUMN0"));
+
+        Map rs = new HashMap();
+        rs.put("col 0", "substring");
+        loader.addReplacementSubstrings(rs);
+        assertEquals("row 0 substring", loader.load(DATASET_FILE)
+                .getTable("TEST_TABLE").getValue(0, "COLUMN0"));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    public void testLoaderSettingsArePartOfKey() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        FlatXmlDataFileLoader loader = new FlatXmlDataFileLoader();
+        loader.setDataSetCache(cache);
+        FlatXmlDataSetBuilder builder = new FlatXmlDataSetBuilder();
+        builder.setColumnSensing(true);
+        FlatXmlDataFileLoader sensingLoader = new FlatXmlDataFileLoader(builder);
+        sensingLoader.setDataSetCache(cache);
+
+        assertNotSame(loader.load(DATASET_FILE),
+                sensingLoader.load(DATASET_FILE));
+        assertEquals(2, cache.size());
+    }
+
+    public void testModifiedFileIsReloaded() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        FlatXmlDataFileLoader loader = new FlatXmlDataFileLoader();
+        loader.setDataSetCache(cache);
+
+        writeTempFile("first", 1000000000000L);
+        assertEquals("first", loader.load("/xml/" + TEMP_FILE_NAME)
+                .getTable("TEST_TABLE").getValue(0, "COLUMN0"));
+
+        writeTempFile("second", 1000000002000L);
+        assertEquals("second", loader.load("/xml/" + TEMP_FILE_NAME)
+                .getTable("TEST_TABLE").getValue(0, "COLUMN0"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        FlatXmlDataFileLoader loader = new FlatXmlDataFileLoader();
+        writeTempFile("value", 1000000000000L);
+        long smallSize = DataSetCache.estimateSize(
+                loader.load("/xml/" + TEMP_FILE_NAME));
+
+        DataSetCache cache = new DataSetCache(smallSize * 2);
+        loader.setDataSetCache(cache);
+        IDataSet small = loader.load("/xml/" + TEMP_FILE_NAME);
+        loader.load(DATASET_FILE);
+        assertEquals("too large dataset must not be cached", 1, cache.size());
+        assertSame(small, loader.load("/xml/" + TEMP_FILE_NAME));
+        assertTrue(cache.getEstimatedBytes() <= smallSize * 2);
+    }
+
+    public void testBinaryFormIsReused() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        loader.setDataSetCache(new DataSetCache(DataSetCache.DEFAULT_MAX_BYTES,
+                tempDirectory));
+        IDataSet expected = loader.load(DATASET_FILE);
+        assertEquals(1, loader.loadCount);
+        assertEquals(1, tempDirectory.listFiles().length);
+
+        // A new cache, as in a later run, reads the binary form
+        loader.setDataSetCache(new DataSetCache(DataSetCache.DEFAULT_MAX_BYTES,
+                tempDirectory));
+        IDataSet actual = loader.load(DATASET_FILE);
+        assertEquals(1, loader.loadCount);
+        assertNotSame(expected, actual);
+        Assertion.assertEquals(expected, actual);
+    }
+
+    private static class CountingLoader extends FlatXmlDataFileLoader {
+        private int loadCount;
+
+        public IDataSet loadDataSet(URL url) throws DataSetException,
+                IOException {
+            loadCount++;
+            return super.loadDataSet(url);
+        }
+    }
+}